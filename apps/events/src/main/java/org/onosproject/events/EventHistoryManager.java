@@ -19,19 +19,27 @@ import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onlab.util.Tools.minPriority;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Deque;
+import java.util.Dictionary;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.util.Tools;
 import org.onlab.util.UnmodifiableDeque;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterEvent;
 import org.onosproject.cluster.ClusterEventListener;
 import org.onosproject.cluster.ClusterService;
@@ -54,6 +62,7 @@ import org.onosproject.net.link.LinkService;
 import org.onosproject.net.topology.TopologyEvent;
 import org.onosproject.net.topology.TopologyListener;
 import org.onosproject.net.topology.TopologyService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,6 +97,9 @@ public class EventHistoryManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterService clusterService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
     @Property(name = "excludeStatsEvent", boolValue = true,
               label = "Exclude stats related events")
     private boolean excludeStatsEvent = true;
@@ -96,6 +108,18 @@ public class EventHistoryManager
               label = "Number of event history to store")
     private int sizeLimit = 10_000;
 
+    @Property(name = "persistHistory", boolValue = false,
+              label = "Persist event history to memory-mapped files")
+    private boolean persistHistory = false;
+
+    @Property(name = "persistSizeLimit", intValue = 256,
+              label = "Size of persisted event history to keep in MB")
+    private int persistSizeLimit = 256;
+
+    // size of a persisted event history segment file
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final long MB = 1024 * 1024;
+
     private ApplicationId appId;
 
     private ListenerTracker listeners;
@@ -104,6 +128,9 @@ public class EventHistoryManager
     // (Tail-end is the most recent event)
     private final Deque<Event<?, ?>> history = new ConcurrentLinkedDeque<>();
 
+    // persisted history, null if not persisted
+    private volatile EventLog eventLog;
+
     private ScheduledExecutorService pruner;
 
     // pruneEventHistoryTask() execution interval in seconds
@@ -111,10 +138,13 @@ public class EventHistoryManager
 
 
     @Activate
-    protected void activate() {
+    protected void activate(ComponentContext context) {
         appId = coreService.registerApplication("org.onosproject.events");
         log.debug("Registered as {}", appId);
 
+        cfgService.registerProperties(getClass());
+        modified(context);
+
         pruner = newSingleThreadScheduledExecutor(
                   minPriority(groupedThreads("onos/events", "history-pruner", log)));
 
@@ -134,22 +164,82 @@ public class EventHistoryManager
 
     @Deactivate
     protected void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
         listeners.removeListeners();
 
         pruner.shutdownNow();
         history.clear();
+        closeEventLog();
 
         log.info("Stopped");
     }
 
+    @Modified
+    protected void modified(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : null;
+        if (properties == null) {
+            return;
+        }
+        excludeStatsEvent = Tools.isPropertyEnabled(properties, "excludeStatsEvent",
+                                                    excludeStatsEvent);
+        sizeLimit = Tools.getIntegerProperty(properties, "sizeLimit", sizeLimit);
+
+        boolean newPersistHistory = Tools.isPropertyEnabled(properties, "persistHistory",
+                                                            persistHistory);
+        int newPersistSizeLimit = Tools.getIntegerProperty(properties, "persistSizeLimit",
+                                                           persistSizeLimit);
+        persistHistory = newPersistHistory;
+        persistSizeLimit = newPersistSizeLimit;
+        EventLog current = eventLog;
+        if (!persistHistory) {
+            closeEventLog();
+        } else if (current != null) {
+            // reconfigured in place, as the listeners may be appending to it
+            current.setSizeLimit(persistSizeLimit * MB);
+        } else {
+            eventLog = openEventLog();
+        }
+        log.info("Settings: excludeStatsEvent={}, sizeLimit={}, persistHistory={}, persistSizeLimit={}MB",
+                 excludeStatsEvent, sizeLimit, persistHistory, persistSizeLimit);
+    }
+
+    private EventLog openEventLog() {
+        File directory = new File(System.getProperty("karaf.data", "data"), "events");
+        try {
+            return new EventLog(directory, SEGMENT_SIZE, persistSizeLimit * MB);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Unable to persist event history in {}", directory, e);
+            return null;
+        }
+    }
+
+    // stops persisting the history; the appends in progress complete first
+    private void closeEventLog() {
+        EventLog current = eventLog;
+        eventLog = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
     @Override
     public Deque<Event<?, ?>> history() {
         return UnmodifiableDeque.unmodifiableDeque(history);
     }
 
+    @Override
+    public Stream<EventRecord> persistedHistory(Set<String> kinds, long from, long to) {
+        EventLog current = eventLog;
+        return current != null ? current.records(kinds, from, to) : Stream.empty();
+    }
+
     @Override
     public void clear() {
         history.clear();
+        EventLog current = eventLog;
+        if (current != null) {
+            current.clear();
+        }
     }
 
     // This method assumes only 1 call is in flight at the same time.
@@ -165,6 +255,15 @@ public class EventHistoryManager
 
     private void addEvent(Event<?, ?> event) {
         history.offer(event);
+
+        EventLog current = eventLog;
+        if (current != null) {
+            try {
+                current.append(EventRecord.of(event));
+            } catch (IOException e) {
+                log.warn("Unable to persist event {}", event, e);
+            }
+        }
     }
 
     class InternalMastershipListener
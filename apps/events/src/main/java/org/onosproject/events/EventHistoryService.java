@@ -16,6 +16,8 @@
 package org.onosproject.events;
 
 import java.util.Deque;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.onosproject.event.Event;
 
@@ -35,7 +37,22 @@ public interface EventHistoryService {
     Deque<Event<?, ?>> history();
 
     /**
-     * Clears all stored history.
+     * Returns the persisted history of the given kinds of ONOS events which
+     * occurred within the given time range. The history is only persisted
+     * while enabled by configuration, and read lazily as the returned stream
+     * is consumed.
+     *
+     * @param kinds kinds of events, as given by {@link EventRecord#kindOf};
+     *              all kinds if empty
+     * @param from  start of the time range in milliseconds, inclusive
+     * @param to    end of the time range in milliseconds, inclusive
+     * @return ONOS event records (First element is the oldest event stored);
+     *         empty if the history is not persisted
+     */
+    Stream<EventRecord> persistedHistory(Set<String> kinds, long from, long to);
+
+    /**
+     * Clears all stored history, persisted history included.
      */
     void clear();
 }
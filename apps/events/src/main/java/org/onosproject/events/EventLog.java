@@ -0,0 +1,400 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.events;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of event records, held in memory-mapped segment files.
+ * <p>
+ * Records are appended to the last segment until it is full, at which point
+ * a new segment is started. Once the log holds more segments than its size
+ * limit allows, the oldest segment is deleted. Each segment keeps the time
+ * range and the kinds of the events it holds, so that queries skip the
+ * segments which cannot hold any matching event. Queries decode the records
+ * straight from the mapped segments, one at a time as they are consumed.
+ * </p>
+ * <p>
+ * Each record is encoded as its length, the time of the event, then its kind,
+ * type, subject and description as length-prefixed UTF-8 strings.
+ * </p>
+ */
+final class EventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLog.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("events-(\\d+)\\.log");
+
+    // longest strings kept, in characters, so that they encode within 64KB
+    private static final int MAX_STRING_LENGTH = 4096;
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final int segmentSize;
+    private int maxSegments;
+    private boolean closed;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    /**
+     * Opens the event log held in the given directory, creating it if need
+     * be. The records held by existing segments are kept.
+     *
+     * @param directory   directory holding the segments
+     * @param segmentSize size of a segment in bytes
+     * @param sizeLimit   size of all the segments in bytes past which the
+     *                    oldest segments are deleted
+     * @throws IOException if the segments cannot be created or read
+     */
+    EventLog(File directory, int segmentSize, long sizeLimit) throws IOException {
+        checkArgument(segmentSize >= MIN_SEGMENT_SIZE, "Segment size too small");
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments(sizeLimit);
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        File[] files = directory.listFiles((dir, name) -> SEGMENT_NAME.matcher(name).matches());
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(EventLog::sequenceOf));
+            for (File file : files) {
+                segments.add(Segment.open(file, sequenceOf(file), segmentSize));
+            }
+        }
+        log.debug("Opened event log in {} with {} segments", directory, segments.size());
+        retain();
+    }
+
+    private int maxSegments(long sizeLimit) {
+        return (int) Math.max(2, sizeLimit / segmentSize);
+    }
+
+    private static long sequenceOf(File file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Appends the given record to the log. Records appended once the log is
+     * closed are ignored.
+     *
+     * @param record event record
+     * @throws IOException if a new segment cannot be created
+     */
+    synchronized void append(EventRecord record) throws IOException {
+        if (closed) {
+            return;
+        }
+        byte[] encoded = encode(record);
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || !last.append(record, encoded)) {
+            long sequence = last == null ? 0 : last.sequence + 1;
+            File file = new File(directory, String.format("events-%020d.log", sequence));
+            last = Segment.open(file, sequence, segmentSize);
+            segments.add(last);
+            retain();
+            if (!last.append(record, encoded)) {
+                log.warn("Dropping event record too large for a segment: {}", record);
+            }
+        }
+    }
+
+    // deletes the oldest segments past the size limit
+    private void retain() {
+        while (segments.size() > maxSegments) {
+            segments.remove(0).delete();
+        }
+    }
+
+    /**
+     * Changes the size limit of the log, deleting the oldest segments past
+     * the new limit.
+     *
+     * @param sizeLimit size of all the segments in bytes past which the
+     *                  oldest segments are deleted
+     */
+    synchronized void setSizeLimit(long sizeLimit) {
+        maxSegments = maxSegments(sizeLimit);
+        retain();
+    }
+
+    /**
+     * Closes the log, once the appends in progress are complete, and flushes
+     * its segments to their files. The records of a closed log can still be
+     * queried.
+     */
+    synchronized void close() {
+        closed = true;
+        segments.forEach(Segment::force);
+    }
+
+    /**
+     * Deletes all the records of the log.
+     */
+    synchronized void clear() {
+        List<Segment> deleted = new ArrayList<>(segments);
+        segments.clear();
+        deleted.forEach(Segment::delete);
+    }
+
+    /**
+     * Returns the number of segments of the log.
+     *
+     * @return number of segments
+     */
+    int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns the records of the given kinds of events which occurred within
+     * the given time range, oldest segment first. The records are read from
+     * the segments as the stream is consumed; records appended meanwhile may
+     * or may not be part of the stream.
+     *
+     * @param kinds kinds of event; all kinds if empty
+     * @param from  start of the time range in milliseconds, inclusive
+     * @param to    end of the time range in milliseconds, inclusive
+     * @return stream of event records
+     */
+    Stream<EventRecord> records(Set<String> kinds, long from, long to) {
+        return segments.stream()
+                .filter(segment -> segment.mayHold(kinds, from, to))
+                .flatMap(segment -> segment.records(kinds, from, to));
+    }
+
+    private static byte[] encode(EventRecord record) {
+        byte[][] strings = {
+                bytes(record.kind()),
+                bytes(record.type()),
+                bytes(record.subject()),
+                bytes(record.description())
+        };
+        int length = Long.BYTES;
+        for (byte[] string : strings) {
+            length += Short.BYTES + string.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_BYTES + length);
+        buffer.putInt(length);
+        buffer.putLong(record.time());
+        for (byte[] string : strings) {
+            buffer.putShort((short) string.length);
+            buffer.put(string);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] bytes(String string) {
+        String value = string == null ? "" : string;
+        if (value.length() > MAX_STRING_LENGTH) {
+            value = value.substring(0, MAX_STRING_LENGTH);
+        }
+        return value.getBytes(UTF_8);
+    }
+
+    // reads the string at the given absolute position of a buffer
+    private static String string(ByteBuffer buffer, int position) {
+        int length = buffer.getShort(position) & 0xffff;
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(position + Short.BYTES);
+        source.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    // returns the position following the string at the given position
+    private static int skip(ByteBuffer buffer, int position) {
+        return position + Short.BYTES + (buffer.getShort(position) & 0xffff);
+    }
+
+    /**
+     * Segment of the log, mapped in memory.
+     */
+    private static final class Segment {
+
+        private final File file;
+        private final long sequence;
+        private final MappedByteBuffer buffer;
+
+        // end of the records written so far, published to the readers
+        private volatile int limit;
+        private volatile long minTime = Long.MAX_VALUE;
+        private volatile long maxTime = Long.MIN_VALUE;
+        private final Set<String> kinds = ConcurrentHashMap.newKeySet();
+
+        private Segment(File file, long sequence, MappedByteBuffer buffer) {
+            this.file = file;
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+
+        static Segment open(File file, long sequence, int size) throws IOException {
+            MappedByteBuffer buffer;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                                     Math.max(size, channel.size()));
+            }
+            Segment segment = new Segment(file, sequence, buffer);
+            segment.recover();
+            return segment;
+        }
+
+        // rebuilds the indexes from the records held by the segment; a zero
+        // length or a record overflowing the segment marks the end of the
+        // records, as left by an interrupted write
+        private void recover() {
+            int position = 0;
+            while (position + LENGTH_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                int next = position + LENGTH_BYTES + length;
+                if (length < Long.BYTES || next > buffer.capacity() || next < 0) {
+                    break;
+                }
+                int kindPosition = position + LENGTH_BYTES + Long.BYTES;
+                index(buffer.getLong(position + LENGTH_BYTES), string(buffer, kindPosition));
+                position = next;
+            }
+            limit = position;
+        }
+
+        private void index(long time, String kind) {
+            kinds.add(kind);
+            if (time < minTime) {
+                minTime = time;
+            }
+            if (time > maxTime) {
+                maxTime = time;
+            }
+        }
+
+        // appends an encoded record; returns false if the segment is full
+        boolean append(EventRecord record, byte[] encoded) {
+            int position = limit;
+            if (position + encoded.length > buffer.capacity()) {
+                return false;
+            }
+            // the length is written last, so that a record is never
+            // recovered from a partial write
+            ByteBuffer target = buffer.duplicate();
+            target.position(position + LENGTH_BYTES);
+            target.put(encoded, LENGTH_BYTES, encoded.length - LENGTH_BYTES);
+            target.putInt(position, encoded.length - LENGTH_BYTES);
+            index(record.time(), record.kind());
+            limit = position + encoded.length;
+            return true;
+        }
+
+        boolean mayHold(Set<String> queried, long from, long to) {
+            return limit > 0 && minTime <= to && maxTime >= from
+                    && (queried.isEmpty() || queried.stream().anyMatch(kinds::contains));
+        }
+
+        Stream<EventRecord> records(Set<String> queried, long from, long to) {
+            return StreamSupport.stream(new RecordSpliterator(buffer.duplicate(), limit,
+                                                              queried, from, to), false);
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void delete() {
+            if (!file.delete()) {
+                log.warn("Unable to delete event log segment {}", file);
+            }
+        }
+    }
+
+    /**
+     * Decodes the matching records of a segment one at a time, reading only
+     * the time and kind of the records which do not match.
+     */
+    private static final class RecordSpliterator
+            extends Spliterators.AbstractSpliterator<EventRecord> {
+
+        private final ByteBuffer buffer;
+        private final int limit;
+        private final Set<String> kinds;
+        private final long from;
+        private final long to;
+        private int position;
+
+        RecordSpliterator(ByteBuffer buffer, int limit, Set<String> kinds, long from, long to) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+            this.buffer = buffer;
+            this.limit = limit;
+            this.kinds = kinds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super EventRecord> action) {
+            while (position < limit) {
+                int length = buffer.getInt(position);
+                int start = position + LENGTH_BYTES;
+                position = start + length;
+
+                long time = buffer.getLong(start);
+                if (time < from || time > to) {
+                    continue;
+                }
+                int field = start + Long.BYTES;
+                String kind = string(buffer, field);
+                if (!kinds.isEmpty() && !kinds.contains(kind)) {
+                    continue;
+                }
+                field = skip(buffer, field);
+                String type = string(buffer, field);
+                field = skip(buffer, field);
+                String subject = string(buffer, field);
+                field = skip(buffer, field);
+                action.accept(new EventRecord(time, kind, type, subject, string(buffer, field)));
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.events;
+
+import java.util.Objects;
+
+import org.onosproject.event.Event;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Persisted record of an ONOS Event, holding its textual representation.
+ */
+@Beta
+public final class EventRecord {
+
+    private final long time;
+    private final String kind;
+    private final String type;
+    private final String subject;
+    private final String description;
+
+    /**
+     * Creates an event record.
+     *
+     * @param time        time the event occurred, in milliseconds
+     * @param kind        kind of event, that is the simple name of its class
+     * @param type        type of event
+     * @param subject     subject of the event
+     * @param description description of the event
+     */
+    public EventRecord(long time, String kind, String type,
+                       String subject, String description) {
+        this.time = time;
+        this.kind = kind;
+        this.type = type;
+        this.subject = subject;
+        this.description = description;
+    }
+
+    /**
+     * Creates the record of the given event.
+     *
+     * @param event ONOS event
+     * @return event record
+     */
+    public static EventRecord of(Event<?, ?> event) {
+        return new EventRecord(event.time(),
+                               kindOf(event.getClass()),
+                               String.valueOf(event.type()),
+                               String.valueOf(event.subject()),
+                               event.toString());
+    }
+
+    /**
+     * Returns the kind of the events of the given class.
+     *
+     * @param eventClass event class
+     * @return kind of event
+     */
+    public static String kindOf(Class<?> eventClass) {
+        return eventClass.getSimpleName();
+    }
+
+    /**
+     * Returns the time the event occurred.
+     *
+     * @return time in milliseconds
+     */
+    public long time() {
+        return time;
+    }
+
+    /**
+     * Returns the kind of event, that is the simple name of its class.
+     *
+     * @return kind of event
+     */
+    public String kind() {
+        return kind;
+    }
+
+    /**
+     * Returns the type of event.
+     *
+     * @return type of event
+     */
+    public String type() {
+        return type;
+    }
+
+    /**
+     * Returns the subject of the event.
+     *
+     * @return subject of the event
+     */
+    public String subject() {
+        return subject;
+    }
+
+    /**
+     * Returns the description of the event.
+     *
+     * @return description of the event
+     */
+    public String description() {
+        return description;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(time, kind, type, subject, description);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof EventRecord) {
+            EventRecord that = (EventRecord) obj;
+            return time == that.time
+                    && Objects.equals(kind, that.kind)
+                    && Objects.equals(type, that.type)
+                    && Objects.equals(subject, that.subject)
+                    && Objects.equals(description, that.description);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("time", time)
+                .add("kind", kind)
+                .add("type", type)
+                .add("subject", subject)
+                .toString();
+    }
+}
@@ -18,6 +18,8 @@ package org.onosproject.events;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
@@ -42,6 +44,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import static java.util.stream.Collectors.toList;
 
@@ -94,10 +97,26 @@ public class EventsCommand
             valueToShowInHelp = "-1 [no limit]")
     private long maxSize = -1;
 
+    @Option(name = "--persisted", aliases = "-p",
+            description = "Print persisted event history",
+            required = false)
+    private boolean persisted = false;
+
+    @Option(name = "--since", aliases = "-s",
+            description = "Only print persisted events of the last given minutes",
+            required = false,
+            valueToShowInHelp = "-1 [no limit]")
+    private long sinceMinutes = -1;
+
     @Override
     protected void execute() {
         EventHistoryService eventHistoryService = get(EventHistoryService.class);
 
+        if (persisted) {
+            printPersisted(eventHistoryService);
+            return;
+        }
+
         Stream<Event<?, ?>> events = eventHistoryService.history().stream();
 
         boolean dumpAll = all || !(mastership || device || link || topology || host);
@@ -140,6 +159,63 @@ public class EventsCommand
 
     }
 
+    private void printPersisted(EventHistoryService eventHistoryService) {
+        boolean dumpAll = all || !(mastership || device || link || topology || host || cluster);
+
+        ImmutableSet.Builder<String> kinds = ImmutableSet.builder();
+        if (!dumpAll) {
+            if (mastership) {
+                kinds.add(EventRecord.kindOf(MastershipEvent.class));
+            }
+            if (device) {
+                kinds.add(EventRecord.kindOf(DeviceEvent.class));
+            }
+            if (link) {
+                kinds.add(EventRecord.kindOf(LinkEvent.class));
+            }
+            if (topology) {
+                kinds.add(EventRecord.kindOf(TopologyEvent.class));
+            }
+            if (host) {
+                kinds.add(EventRecord.kindOf(HostEvent.class));
+            }
+            if (cluster) {
+                kinds.add(EventRecord.kindOf(ClusterEvent.class));
+            }
+        }
+        Set<String> kindSet = kinds.build();
+
+        long from = sinceMinutes > 0
+                ? System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(sinceMinutes)
+                : Long.MIN_VALUE;
+        Stream<EventRecord> records =
+                eventHistoryService.persistedHistory(kindSet, from, Long.MAX_VALUE);
+
+        if (maxSize > 0) {
+            records = records.limit(maxSize);
+        }
+
+        if (outputJson()) {
+            printJson(records.map(this::json).collect(toArrayNode()));
+        } else {
+            records.forEach(record -> print("%s %s\t%s [%s]",
+                                            new LocalDateTime(record.time()),
+                                            record.type(),
+                                            record.subject(),
+                                            record.description()));
+        }
+    }
+
+    private ObjectNode json(EventRecord record) {
+        ObjectNode result = mapper().createObjectNode();
+
+        result.put("time", record.time())
+              .put("type", record.type())
+              .put("event", record.description());
+
+        return result;
+    }
+
     private Collector<JsonNode, ArrayNode, ArrayNode> toArrayNode() {
         return Collector.of(() -> mapper().createArrayNode(),
                             ArrayNode::add,
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.events;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests of the memory-mapped event log.
+ */
+public class EventLogTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        directory = new File(tmpFolder.getRoot(), "events");
+    }
+
+    private static EventRecord record(long time, String kind) {
+        return new EventRecord(time, kind, "TYPE_" + time, "subject" + time, "event " + time);
+    }
+
+    @Test
+    public void appendAndQuery() throws Exception {
+        EventLog log = new EventLog(directory, SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+        for (long time = 1; time <= 10; time++) {
+            log.append(record(time, time % 2 == 0 ? "DeviceEvent" : "LinkEvent"));
+        }
+
+        List<EventRecord> all = log.records(ImmutableSet.of(), Long.MIN_VALUE, Long.MAX_VALUE)
+                .collect(toList());
+        assertEquals(10, all.size());
+        assertEquals(record(1, "LinkEvent"), all.get(0));
+        assertEquals(record(10, "DeviceEvent"), all.get(9));
+
+        assertEquals(5, log.records(ImmutableSet.of("DeviceEvent"), Long.MIN_VALUE, Long.MAX_VALUE)
+                .count());
+        assertEquals(0, log.records(ImmutableSet.of("HostEvent"), Long.MIN_VALUE, Long.MAX_VALUE)
+                .count());
+        assertEquals(ImmutableSet.of(4L, 6L),
+                     log.records(ImmutableSet.of("DeviceEvent"), 3, 7)
+                             .map(EventRecord::time).collect(toSet()));
+    }
+
+    @Test
+    public void reopen() throws Exception {
+        EventLog log = new EventLog(directory, SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+        log.append(record(1, "DeviceEvent"));
+        log.append(record(2, "LinkEvent"));
+
+        EventLog reopened = new EventLog(directory, SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+        reopened.append(record(3, "HostEvent"));
+        List<EventRecord> all = reopened.records(ImmutableSet.of(), Long.MIN_VALUE, Long.MAX_VALUE)
+                .collect(toList());
+        assertEquals(3, all.size());
+        assertEquals(record(2, "LinkEvent"), all.get(1));
+        assertEquals(record(3, "HostEvent"), all.get(2));
+    }
+
+    @Test
+    public void retention() throws Exception {
+        EventLog log = new EventLog(directory, SEGMENT_SIZE, 2 * SEGMENT_SIZE);
+        String description = Strings.repeat("x", 1000);
+        for (long time = 0; time < 1000; time++) {
+            log.append(new EventRecord(time, "DeviceEvent", "TYPE", "subject", description));
+        }
+
+        assertEquals(2, log.segmentCount());
+        assertEquals(2, directory.list().length);
+        List<EventRecord> kept = log.records(ImmutableSet.of(), Long.MIN_VALUE, Long.MAX_VALUE)
+                .collect(toList());
+        assertTrue(kept.size() < 1000);
+        assertEquals(999, kept.get(kept.size() - 1).time());
+
+        log.clear();
+        assertEquals(0, log.records(ImmutableSet.of(), Long.MIN_VALUE, Long.MAX_VALUE).count());
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void shrink() throws Exception {
+        EventLog log = new EventLog(directory, SEGMENT_SIZE, 4 * SEGMENT_SIZE);
+        String description = Strings.repeat("x", 1000);
+        for (long time = 0; time < 200; time++) {
+            log.append(new EventRecord(time, "DeviceEvent", "TYPE", "subject", description));
+        }
+        assertEquals(4, log.segmentCount());
+
+        log.setSizeLimit(2 * SEGMENT_SIZE);
+        assertEquals(2, log.segmentCount());
+        assertEquals(2, directory.list().length);
+    }
+
+    @Test
+    public void close() throws Exception {
+        EventLog log = new EventLog(directory, SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+        log.append(record(1, "DeviceEvent"));
+        log.close();
+        log.append(record(2, "DeviceEvent"));
+        assertEquals(1, log.records(ImmutableSet.of(), Long.MIN_VALUE, Long.MAX_VALUE).count());
+
+        EventLog reopened = new EventLog(directory, SEGMENT_SIZE, 10 * SEGMENT_SIZE);
+        reopened.append(record(3, "HostEvent"));
+        assertEquals(ImmutableSet.of(1L, 3L),
+                     reopened.records(ImmutableSet.of(), Long.MIN_VALUE, Long.MAX_VALUE)
+                             .map(EventRecord::time).collect(toSet()));
+    }
+}
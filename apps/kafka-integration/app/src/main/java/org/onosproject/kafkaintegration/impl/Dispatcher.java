@@ -14,10 +14,18 @@
  */
 package org.onosproject.kafkaintegration.impl;
 
+import static org.onlab.util.Tools.groupedThreads;
+
+import java.util.List;
+import java.util.Set;
+
 import org.onosproject.event.AbstractListenerManager;
+import org.onosproject.event.Event;
 import org.onosproject.kafkaintegration.api.ExportableEventListener;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
+import org.onosproject.kafkaintegration.converter.ConversionFactory;
+import org.onosproject.kafkaintegration.impl.ExportPipeline.OverflowPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +40,9 @@ public final class Dispatcher
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    // pipeline of the events to export, null if not started
+    private volatile ExportPipeline<ExportedEvent> pipeline;
+
     // Exists to defeat instantiation
     private Dispatcher() {
     }
@@ -59,4 +70,119 @@ public final class Dispatcher
         log.debug("Dispatching ONOS Event {}", eventType);
         post(new OnosEvent(eventType, message));
     }
+
+    /**
+     * Exports the ONOS Event to all listeners. The event is buffered, then
+     * converted to its Protocol buffer message and published off the thread
+     * of the caller, once its batch is flushed. The event is converted and
+     * published at once if the export pipeline is not started.
+     *
+     * @param eventType the ONOS event type
+     * @param event ONOS event
+     */
+    public void export(Type eventType, Event<?, ?> event) {
+        ExportPipeline<ExportedEvent> current = pipeline;
+        if (current != null) {
+            current.offer(new ExportedEvent(eventType, event));
+        } else {
+            publish(eventType, convert(eventType, event));
+        }
+    }
+
+    private GeneratedMessage convert(Type eventType, Event<?, ?> event) {
+        return ConversionFactory.getInstance().getConverter(eventType)
+                .convertToProtoMessage(event);
+    }
+
+    // The listeners receive one Protocol buffer message per ONOS event, so
+    // a batch only groups the hand-off to the exporter thread: its events
+    // are still converted and published one by one.
+    private void publishBatch(List<ExportedEvent> batch) {
+        for (ExportedEvent exported : batch) {
+            publish(exported.type, convert(exported.type, exported.event));
+        }
+    }
+
+    /**
+     * Starts buffering the exported events in a bounded pipeline, replacing
+     * the current pipeline if any.
+     *
+     * @param capacity            number of events the buffer holds
+     * @param batchSize           largest number of events published at once
+     * @param flushIntervalMillis longest time in milliseconds an event waits
+     *                            for its batch to fill up
+     * @param policy              policy applied to the events exported while
+     *                            the buffer is full
+     * @param sampleRate          rate of the events kept by the sample policy
+     */
+    synchronized void startExport(int capacity, int batchSize, long flushIntervalMillis,
+                                  OverflowPolicy policy, int sampleRate) {
+        ExportPipeline<ExportedEvent> newPipeline =
+                new ExportPipeline<>(capacity, batchSize, flushIntervalMillis,
+                                     policy, sampleRate, this::publishBatch,
+                                     exported -> exported.type);
+        newPipeline.start(groupedThreads("onos/kafka", "exporter", log));
+        ExportPipeline<ExportedEvent> oldPipeline = pipeline;
+        pipeline = newPipeline;
+        if (oldPipeline != null) {
+            oldPipeline.stop();
+        }
+    }
+
+    /**
+     * Stops buffering the exported events, once the pending ones are
+     * published.
+     */
+    synchronized void stopExport() {
+        ExportPipeline<ExportedEvent> oldPipeline = pipeline;
+        pipeline = null;
+        if (oldPipeline != null) {
+            oldPipeline.stop();
+        }
+    }
+
+    /**
+     * Returns the number of exported events of the given types which are not
+     * published yet.
+     *
+     * @param eventTypes ONOS event types
+     * @return number of pending events
+     */
+    long lag(Set<Type> eventTypes) {
+        ExportPipeline<ExportedEvent> current = pipeline;
+        return current != null ? eventTypes.stream().mapToLong(current::pending).sum() : 0;
+    }
+
+    /**
+     * Returns the number of exported events dropped so far by the current
+     * pipeline.
+     *
+     * @return number of dropped events
+     */
+    long droppedCount() {
+        ExportPipeline<ExportedEvent> current = pipeline;
+        return current != null ? current.droppedCount() : 0;
+    }
+
+    /**
+     * Returns the number of exported events published so far by the current
+     * pipeline.
+     *
+     * @return number of published events
+     */
+    long exportedCount() {
+        ExportPipeline<ExportedEvent> current = pipeline;
+        return current != null ? current.exportedCount() : 0;
+    }
+
+    // ONOS event waiting for its conversion
+    private static final class ExportedEvent {
+        private final Type type;
+        private final Event<?, ?> event;
+
+        private ExportedEvent(Type type, Event<?, ?> event) {
+            this.type = type;
+            this.event = event;
+        }
+    }
 }
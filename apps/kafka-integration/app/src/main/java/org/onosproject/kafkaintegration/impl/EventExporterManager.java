@@ -23,16 +23,25 @@ import org.onosproject.kafkaintegration.api.dto.DefaultEventSubscriber;
 import org.onosproject.kafkaintegration.api.dto.EventSubscriber;
 
 import java.util.ArrayList;
+import java.util.Dictionary;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.kafkaintegration.api.EventExporterService;
@@ -41,6 +50,7 @@ import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
 import org.onosproject.kafkaintegration.errors.InvalidApplicationException;
 import org.onosproject.kafkaintegration.errors.InvalidGroupIdException;
+import org.onosproject.kafkaintegration.impl.ExportPipeline.OverflowPolicy;
 import org.onosproject.kafkaintegration.listener.ListenerFactory;
 import org.onosproject.kafkaintegration.listener.OnosEventListener;
 import org.onosproject.net.device.DeviceService;
@@ -48,9 +58,15 @@ import org.onosproject.net.link.LinkService;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
 /**
  * Implementation of Event Exporter Service.
  *
@@ -70,6 +86,40 @@ public class EventExporterManager implements EventExporterService {
 
     private static final String SUBSCRIBED_APPS = "event-subscriptions";
 
+    private static final String METRICS_COMPONENT = "KafkaIntegration";
+    private static final String METRICS_FEATURE = "export";
+    private static final String EXPORTED_EVENTS = "exportedEvents";
+    private static final String DROPPED_EVENTS = "droppedEvents";
+    private static final String LAG_PREFIX = "lag-";
+
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final int DEFAULT_FLUSH_INTERVAL = 100;
+    private static final String DEFAULT_OVERFLOW_POLICY = "DROP_OLDEST";
+    private static final int DEFAULT_SAMPLE_RATE = 10;
+
+    @Property(name = "exportBufferSize", intValue = DEFAULT_BUFFER_SIZE,
+            label = "Number of events buffered for export")
+    private int exportBufferSize = DEFAULT_BUFFER_SIZE;
+
+    @Property(name = "exportBatchSize", intValue = DEFAULT_BATCH_SIZE,
+            label = "Largest number of events exported at once")
+    private int exportBatchSize = DEFAULT_BATCH_SIZE;
+
+    @Property(name = "exportFlushInterval", intValue = DEFAULT_FLUSH_INTERVAL,
+            label = "Longest time in ms an event waits for its batch to fill up")
+    private int exportFlushInterval = DEFAULT_FLUSH_INTERVAL;
+
+    @Property(name = "exportOverflowPolicy", value = DEFAULT_OVERFLOW_POLICY,
+            label = "Policy applied to events exported while the buffer is full: "
+                    + "DROP_OLDEST, BLOCK or SAMPLE; BLOCK holds the event "
+                    + "dispatch thread for up to 500 ms before dropping")
+    private String exportOverflowPolicy = DEFAULT_OVERFLOW_POLICY;
+
+    @Property(name = "exportSampleRate", intValue = DEFAULT_SAMPLE_RATE,
+            label = "One out of this many events is kept by the SAMPLE policy")
+    private int exportSampleRate = DEFAULT_SAMPLE_RATE;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
@@ -82,13 +132,34 @@ public class EventExporterManager implements EventExporterService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ApplicationId appId;
 
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
+    // subscriber groups whose lag gauge is registered
+    private final Set<EventSubscriberGroupId> lagGauges = Sets.newConcurrentHashSet();
+
+    // event types subscribed to by each subscriber group, sampled by the
+    // lag gauges
+    private final Map<EventSubscriberGroupId, Set<Type>> subscribedTypes =
+            Maps.newConcurrentMap();
+
     @Activate
-    protected void activate() {
+    protected void activate(ComponentContext context) {
         appId = coreService
                 .registerApplication("org.onosproject.kafkaintegration");
 
+        cfgService.registerProperties(getClass());
+        modified(context);
+        registerMetrics();
+
         registeredApps = storageService
                 .<ApplicationId, EventSubscriberGroupId>consistentMapBuilder()
                 .withName(REGISTERED_APPS)
@@ -114,9 +185,116 @@ public class EventExporterManager implements EventExporterService {
 
     @Deactivate
     protected void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
+        unregisterMetrics();
+        Dispatcher.getInstance().stopExport();
         log.info("Stopped");
     }
 
+    @Modified
+    protected void modified(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : null;
+        if (properties != null) {
+            exportBufferSize = Tools.getIntegerProperty(properties, "exportBufferSize",
+                                                        exportBufferSize);
+            exportBatchSize = Tools.getIntegerProperty(properties, "exportBatchSize",
+                                                       exportBatchSize);
+            exportFlushInterval = Tools.getIntegerProperty(properties, "exportFlushInterval",
+                                                           exportFlushInterval);
+            exportSampleRate = Tools.getIntegerProperty(properties, "exportSampleRate",
+                                                        exportSampleRate);
+            String policy = Tools.get(properties, "exportOverflowPolicy");
+            if (policy != null) {
+                exportOverflowPolicy = policy.trim().toUpperCase();
+            }
+        }
+
+        OverflowPolicy policy;
+        try {
+            policy = OverflowPolicy.valueOf(exportOverflowPolicy);
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown overflow policy {}, using {}",
+                     exportOverflowPolicy, DEFAULT_OVERFLOW_POLICY);
+            policy = OverflowPolicy.valueOf(DEFAULT_OVERFLOW_POLICY);
+        }
+        try {
+            Dispatcher.getInstance().startExport(exportBufferSize, exportBatchSize,
+                                                 exportFlushInterval, policy,
+                                                 exportSampleRate);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid export settings: {}", e.getMessage());
+            return;
+        }
+        log.info("Settings: exportBufferSize={}, exportBatchSize={}, exportFlushInterval={}, "
+                         + "exportOverflowPolicy={}, exportSampleRate={}",
+                 exportBufferSize, exportBatchSize, exportFlushInterval,
+                 policy, exportSampleRate);
+    }
+
+    private void registerMetrics() {
+        if (metricsService == null) {
+            return;
+        }
+        metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(METRICS_FEATURE);
+        metricsService.registerMetric(metricsComponent, metricsFeature, EXPORTED_EVENTS,
+                                      (Gauge<Long>) () -> Dispatcher.getInstance().exportedCount());
+        metricsService.registerMetric(metricsComponent, metricsFeature, DROPPED_EVENTS,
+                                      (Gauge<Long>) () -> Dispatcher.getInstance().droppedCount());
+    }
+
+    private void unregisterMetrics() {
+        if (metricsService != null && metricsComponent != null) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, EXPORTED_EVENTS);
+            metricsService.removeMetric(metricsComponent, metricsFeature, DROPPED_EVENTS);
+            lagGauges.forEach(groupId -> metricsService.removeMetric(
+                    metricsComponent, metricsFeature, LAG_PREFIX + groupId.getId()));
+        }
+        lagGauges.clear();
+        subscribedTypes.clear();
+    }
+
+    /**
+     * Registers the gauge of the number of events subscribed to by the
+     * subscriber group which are not exported yet.
+     *
+     * @param groupId subscriber group identifier
+     */
+    private void registerLagGauge(EventSubscriberGroupId groupId) {
+        if (metricsService == null || metricsComponent == null || !lagGauges.add(groupId)) {
+            return;
+        }
+        metricsService.registerMetric(metricsComponent, metricsFeature,
+                                      LAG_PREFIX + groupId.getId(),
+                                      (Gauge<Long>) () -> Dispatcher.getInstance()
+                                              .lag(subscribedTypes.getOrDefault(groupId,
+                                                                                ImmutableSet.of())));
+    }
+
+    private void unregisterLagGauge(EventSubscriberGroupId groupId) {
+        if (metricsService != null && metricsComponent != null && lagGauges.remove(groupId)) {
+            metricsService.removeMetric(metricsComponent, metricsFeature,
+                                        LAG_PREFIX + groupId.getId());
+        }
+    }
+
+    private void addSubscribedType(EventSubscriberGroupId groupId, Type eventType) {
+        subscribedTypes.compute(groupId, (id, types) -> types == null ?
+                ImmutableSet.of(eventType) :
+                ImmutableSet.<Type>builder().addAll(types).add(eventType).build());
+        registerLagGauge(groupId);
+    }
+
+    private void removeSubscribedType(EventSubscriberGroupId groupId, Type eventType) {
+        Set<Type> remaining = subscribedTypes.computeIfPresent(groupId, (id, types) -> {
+            Set<Type> others = Sets.difference(types, ImmutableSet.of(eventType)).immutableCopy();
+            return others.isEmpty() ? null : others;
+        });
+        if (remaining == null) {
+            unregisterLagGauge(groupId);
+        }
+    }
+
     @Override
     public EventSubscriberGroupId registerListener(String appName) {
 
@@ -133,7 +311,11 @@ public class EventExporterManager implements EventExporterService {
     public void unregisterListener(String appName) {
         ApplicationId externalAppId =
                 checkNotNull(coreService.getAppId(appName));
-        registeredApps.remove(externalAppId);
+        EventSubscriberGroupId groupId = registeredApps.remove(externalAppId);
+        if (groupId != null) {
+            subscribedTypes.remove(groupId);
+            unregisterLagGauge(groupId);
+        }
     }
 
     @Override
@@ -168,6 +350,7 @@ public class EventExporterManager implements EventExporterService {
         }
         subscriptionList.add(subscriber);
         subscriptions.put(subscriber.eventType(), subscriptionList);
+        addSubscribedType(subscriber.subscriberGroupId(), subscriber.eventType());
 
         log.info("Subscription for {} event by {} successfull",
                  subscriber.eventType(), subscriber.appName());
@@ -303,6 +486,10 @@ public class EventExporterManager implements EventExporterService {
         // update internal state.
         subscribers.remove(subscriber);
         subscriptions.put(subscriber.eventType(), subscribers);
+        if (subscribers.stream().noneMatch(other -> subscriber.subscriberGroupId()
+                .equals(other.subscriberGroupId()))) {
+            removeSubscribedType(subscriber.subscriberGroupId(), subscriber.eventType());
+        }
 
         log.info("Unsubscribed {} for {} events", subscriber.appName(),
                  subscriber.eventType());
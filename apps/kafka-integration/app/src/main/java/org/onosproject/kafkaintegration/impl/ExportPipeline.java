@@ -0,0 +1,357 @@
+/**
+ * Copyright 2016-present Open Networking Laboratory
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded buffer of items to export, flushed in batches to a sink.
+ * <p>
+ * Items are held in a ring buffer until either a full batch is pending or
+ * the flush interval has elapsed since the oldest pending item was noticed,
+ * at which point a single thread hands the batch to the sink. The overflow
+ * policy decides what happens to the items offered while the buffer is full.
+ * The pending items are counted per class, as given by a classifier, so that
+ * the backlog of a class is known without walking the buffer.
+ * </p>
+ *
+ * @param <E> type of items
+ */
+final class ExportPipeline<E> {
+
+    /**
+     * Longest time in milliseconds the {@link OverflowPolicy#BLOCK} policy
+     * waits for room in the buffer.
+     */
+    static final long BLOCK_TIMEOUT_MILLIS = 500;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Policies applied to the items offered to a full buffer.
+     */
+    enum OverflowPolicy {
+        /**
+         * The oldest pending item is dropped in favour of the new one.
+         */
+        DROP_OLDEST,
+
+        /**
+         * The producer waits for room in the buffer, for at most
+         * {@link #BLOCK_TIMEOUT_MILLIS}, after which the item is dropped.
+         * As the producers are the event listeners, this parks the event
+         * dispatch thread while the sink is slow.
+         */
+        BLOCK,
+
+        /**
+         * One out of every sample rate items replaces the oldest pending
+         * item; the others are dropped.
+         */
+        SAMPLE
+    }
+
+    /**
+     * Receiver of the batches of items.
+     *
+     * @param <E> type of items
+     */
+    interface BatchSink<E> {
+
+        /**
+         * Sends a batch of items.
+         *
+         * @param batch items, oldest first
+         */
+        void send(List<E> batch);
+    }
+
+    private final Object[] ring;
+    private int head;
+    private int size;
+    private long overflows;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy policy;
+    private final int sampleRate;
+    private final BatchSink<E> sink;
+    private final Function<? super E, ?> classifier;
+
+    // number of pending items per class, updated under the lock
+    private final Map<Object, Long> pendingCounts = new ConcurrentHashMap<>();
+
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong exported = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean running;
+    private ExecutorService flusher;
+
+    /**
+     * Creates an export pipeline.
+     *
+     * @param capacity            number of items the buffer holds
+     * @param batchSize           largest number of items sent at once
+     * @param flushIntervalMillis longest time in milliseconds an item waits
+     *                            for its batch to fill up
+     * @param policy              overflow policy
+     * @param sampleRate          rate of the items kept by the
+     *                            {@link OverflowPolicy#SAMPLE} policy
+     * @param sink                receiver of the batches
+     * @param classifier          function giving the class of an item
+     */
+    ExportPipeline(int capacity, int batchSize, long flushIntervalMillis,
+                   OverflowPolicy policy, int sampleRate, BatchSink<E> sink,
+                   Function<? super E, ?> classifier) {
+        checkArgument(capacity > 0, "Capacity must be positive");
+        checkArgument(batchSize > 0, "Batch size must be positive");
+        checkArgument(sampleRate > 0, "Sample rate must be positive");
+        this.ring = new Object[capacity];
+        this.batchSize = Math.min(batchSize, capacity);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.policy = checkNotNull(policy);
+        this.sampleRate = sampleRate;
+        this.sink = checkNotNull(sink);
+        this.classifier = checkNotNull(classifier);
+    }
+
+    /**
+     * Starts flushing the buffer on a thread of the given factory.
+     *
+     * @param threadFactory thread factory
+     */
+    void start(ThreadFactory threadFactory) {
+        running = true;
+        flusher = Executors.newSingleThreadExecutor(threadFactory);
+        flusher.execute(this::flushLoop);
+    }
+
+    /**
+     * Stops the pipeline, once the pending items are flushed. Items offered
+     * afterwards are dropped.
+     */
+    void stop() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Offers an item for export.
+     *
+     * @param item item
+     * @return true if the item was buffered, false if dropped
+     */
+    boolean offer(E item) {
+        checkNotNull(item);
+        offered.incrementAndGet();
+        lock.lock();
+        try {
+            if (!running) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (size == ring.length && !makeRoom()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            ring[(head + size) % ring.length] = item;
+            size++;
+            count(item, 1);
+            if (size == 1 || size == batchSize) {
+                notEmpty.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // makes room for an item offered to the full buffer, as per the policy;
+    // returns false if the item is to be dropped instead
+    private boolean makeRoom() {
+        switch (policy) {
+            case BLOCK:
+                long remaining = TimeUnit.MILLISECONDS.toNanos(BLOCK_TIMEOUT_MILLIS);
+                try {
+                    while (size == ring.length && running && remaining > 0) {
+                        remaining = notFull.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                return size < ring.length;
+            case SAMPLE:
+                if (overflows++ % sampleRate != 0) {
+                    return false;
+                }
+                dropOldest();
+                return true;
+            case DROP_OLDEST:
+            default:
+                dropOldest();
+                return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dropOldest() {
+        count((E) ring[head], -1);
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        dropped.incrementAndGet();
+    }
+
+    private void flushLoop() {
+        List<E> batch;
+        while ((batch = nextBatch()) != null) {
+            try {
+                sink.send(batch);
+                exported.addAndGet(batch.size());
+                batches.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.warn("Unable to export a batch of {} items", batch.size(), e);
+                dropped.addAndGet(batch.size());
+            }
+        }
+    }
+
+    // waits for a full batch or for the flush interval to elapse; returns
+    // null once stopped with no more pending items
+    @SuppressWarnings("unchecked")
+    private List<E> nextBatch() {
+        lock.lock();
+        try {
+            while (size == 0 && running) {
+                notEmpty.await();
+            }
+            long remaining = flushIntervalNanos;
+            while (size < batchSize && running && remaining > 0) {
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            if (size == 0) {
+                return null;
+            }
+            int count = Math.min(size, batchSize);
+            List<E> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                E item = (E) ring[head];
+                batch.add(item);
+                count(item, -1);
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+            }
+            size -= count;
+            notFull.signalAll();
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // adjusts the pending count of the class of the item; called under the lock
+    private void count(E item, long delta) {
+        pendingCounts.merge(classifier.apply(item), delta,
+                            (count, d) -> count + d != 0 ? count + d : null);
+    }
+
+    /**
+     * Returns the number of pending items of the given class.
+     *
+     * @param itemClass class of items, as given by the classifier
+     * @return number of pending items
+     */
+    long pending(Object itemClass) {
+        return pendingCounts.getOrDefault(itemClass, 0L);
+    }
+
+    /**
+     * Returns the number of items offered so far.
+     *
+     * @return number of items
+     */
+    long offeredCount() {
+        return offered.get();
+    }
+
+    /**
+     * Returns the number of items dropped so far, because of overflows or of
+     * failures of the sink.
+     *
+     * @return number of items
+     */
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of items exported so far.
+     *
+     * @return number of items
+     */
+    long exportedCount() {
+        return exported.get();
+    }
+
+    /**
+     * Returns the number of batches exported so far.
+     *
+     * @return number of batches
+     */
+    long batchCount() {
+        return batches.get();
+    }
+}
@@ -19,14 +19,10 @@ import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.DEVICE;
 import org.onosproject.event.ListenerService;
 import org.onosproject.kafkaintegration.impl.Dispatcher;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
-import org.onosproject.kafkaintegration.converter.ConversionFactory;
-import org.onosproject.kafkaintegration.converter.EventConverter;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 
-import com.google.protobuf.GeneratedMessage;
-
 /**
  * Listens for ONOS Device events.
  *
@@ -70,14 +66,9 @@ final class DeviceEventsListener implements OnosEventListener {
         @Override
         public void event(DeviceEvent arg0) {
 
-            // Convert the event to GPB format
-            ConversionFactory conversionFactory =
-                    ConversionFactory.getInstance();
-            EventConverter converter = conversionFactory.getConverter(DEVICE);
-            GeneratedMessage message = converter.convertToProtoMessage(arg0);
-
-            // Call Dispatcher and publish event
-            Dispatcher.getInstance().publish(DEVICE, message);
+            // Call Dispatcher, which converts the event to GPB format and
+            // publishes it
+            Dispatcher.getInstance().export(DEVICE, arg0);
         }
     }
 
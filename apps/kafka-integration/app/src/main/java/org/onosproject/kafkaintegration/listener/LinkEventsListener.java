@@ -19,14 +19,10 @@ import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.LINK;
 import org.onosproject.event.ListenerService;
 import org.onosproject.kafkaintegration.impl.Dispatcher;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
-import org.onosproject.kafkaintegration.converter.ConversionFactory;
-import org.onosproject.kafkaintegration.converter.EventConverter;
 import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.link.LinkListener;
 import org.onosproject.net.link.LinkService;
 
-import com.google.protobuf.GeneratedMessage;
-
 /**
  * Listens for ONOS Link Events.
  *
@@ -70,14 +66,9 @@ final class LinkEventsListener implements OnosEventListener {
         @Override
         public void event(LinkEvent arg0) {
 
-            // Convert the event to GPB format
-            ConversionFactory conversionFactory =
-                    ConversionFactory.getInstance();
-            EventConverter converter = conversionFactory.getConverter(LINK);
-            GeneratedMessage message = converter.convertToProtoMessage(arg0);
-
-            // Call Dispatcher and publish event
-            Dispatcher.getInstance().publish(LINK, message);
+            // Call Dispatcher, which converts the event to GPB format and
+            // publishes it
+            Dispatcher.getInstance().export(LINK, arg0);
         }
     }
 
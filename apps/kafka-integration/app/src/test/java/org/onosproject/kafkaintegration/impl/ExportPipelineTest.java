@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.onosproject.kafkaintegration.impl.ExportPipeline.BatchSink;
+import org.onosproject.kafkaintegration.impl.ExportPipeline.OverflowPolicy;
+
+/**
+ * Tests of the export pipeline, against an in-process stand-in broker.
+ */
+public class ExportPipelineTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final StandInBroker broker = new StandInBroker();
+    private ExportPipeline<Integer> pipeline;
+
+    @After
+    public void tearDown() {
+        broker.release.countDown();
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    private void start(int capacity, int batchSize, long flushIntervalMillis,
+                       OverflowPolicy policy, int sampleRate) {
+        pipeline = new ExportPipeline<>(capacity, batchSize, flushIntervalMillis,
+                                        policy, sampleRate, broker, item -> item % 2);
+        pipeline.start(Executors.defaultThreadFactory());
+    }
+
+    // offers a first item, then waits for the broker to hold on to it, so
+    // that the following items stay pending
+    private void holdBroker() throws InterruptedException {
+        broker.release = new CountDownLatch(1);
+        assertTrue(pipeline.offer(0));
+        assertTrue(broker.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private void offer(int... items) {
+        for (int item : items) {
+            pipeline.offer(item);
+        }
+    }
+
+    private List<Integer> receive(int count) throws InterruptedException {
+        List<Integer> received = new ArrayList<>();
+        while (received.size() < count) {
+            List<Integer> batch = broker.batches.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull("Missing batch", batch);
+            received.addAll(batch);
+        }
+        return received;
+    }
+
+    @Test
+    public void batchesBySize() throws Exception {
+        start(100, 10, TimeUnit.MINUTES.toMillis(1), OverflowPolicy.DROP_OLDEST, 1);
+        for (int i = 0; i < 30; i++) {
+            pipeline.offer(i);
+        }
+        for (int i = 0; i < 3; i++) {
+            List<Integer> batch = broker.batches.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull("Missing batch", batch);
+            assertEquals(10, batch.size());
+            assertEquals(i * 10, (int) batch.get(0));
+        }
+        pipeline.stop();
+        assertEquals(30, pipeline.exportedCount());
+        assertEquals(3, pipeline.batchCount());
+    }
+
+    @Test
+    public void flushesByTime() throws Exception {
+        start(100, 10, 50, OverflowPolicy.DROP_OLDEST, 1);
+        offer(1, 2, 3);
+        assertEquals(Arrays.asList(1, 2, 3), receive(3));
+    }
+
+    @Test
+    public void dropOldest() throws Exception {
+        start(4, 1, 0, OverflowPolicy.DROP_OLDEST, 1);
+        holdBroker();
+        offer(1, 2, 3, 4, 5, 6);
+        assertEquals(2, pipeline.pending(0));
+        assertEquals(2, pipeline.pending(1));
+
+        broker.release.countDown();
+        assertEquals(Arrays.asList(0, 3, 4, 5, 6), receive(5));
+        assertEquals(2, pipeline.droppedCount());
+        assertEquals(0, pipeline.pending(0));
+        assertEquals(0, pipeline.pending(1));
+    }
+
+    @Test
+    public void sample() throws Exception {
+        start(4, 1, 0, OverflowPolicy.SAMPLE, 2);
+        holdBroker();
+        offer(1, 2, 3, 4, 5, 6, 7);
+
+        broker.release.countDown();
+        assertEquals(Arrays.asList(0, 3, 4, 5, 7), receive(5));
+        assertEquals(3, pipeline.droppedCount());
+    }
+
+    @Test
+    public void block() throws Exception {
+        start(2, 1, 0, OverflowPolicy.BLOCK, 1);
+        holdBroker();
+        offer(1, 2);
+
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> pipeline.offer(3));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+
+        broker.release.countDown();
+        assertTrue(blocked.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 1, 2, 3), receive(4));
+        assertEquals(0, pipeline.droppedCount());
+    }
+
+    @Test
+    public void blockTimesOut() throws Exception {
+        start(2, 1, 0, OverflowPolicy.BLOCK, 1);
+        holdBroker();
+        offer(1, 2);
+
+        long start = System.nanoTime();
+        assertFalse("item should be dropped once the wait times out", pipeline.offer(3));
+        assertTrue(System.nanoTime() - start
+                           >= TimeUnit.MILLISECONDS.toNanos(ExportPipeline.BLOCK_TIMEOUT_MILLIS));
+        assertEquals(1, pipeline.droppedCount());
+
+        broker.release.countDown();
+        assertEquals(Arrays.asList(0, 1, 2), receive(3));
+    }
+
+    /**
+     * Broker receiving the batches in process, which can be held so that the
+     * exported items stay pending.
+     */
+    private static final class StandInBroker implements BatchSink<Integer> {
+        private final BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        @Override
+        public void send(List<Integer> batch) {
+            batches.add(batch);
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
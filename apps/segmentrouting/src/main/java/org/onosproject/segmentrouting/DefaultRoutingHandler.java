@@ -31,14 +31,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -55,6 +60,9 @@ public class DefaultRoutingHandler {
     private RoutingRulePopulator rulePopulator;
     private HashMap<DeviceId, EcmpShortestPathGraph> currentEcmpSpgMap;
     private HashMap<DeviceId, EcmpShortestPathGraph> updatedEcmpSpgMap;
+    // roots whose last rule population failed or was aborted, so that their
+    // current ECMP graph may be stale
+    private final Set<DeviceId> pendingRoots = new HashSet<>();
     private DeviceConfiguration config;
     private final Lock statusLock = new ReentrantLock();
     private volatile Status populationStatus;
@@ -106,21 +114,28 @@ public class DefaultRoutingHandler {
             log.info("Starting to populate segment-routing rules");
             log.debug("populateAllRoutingRules: populationStatus is STARTED");
 
+            List<DeviceId> roots = new ArrayList<>();
             for (Device sw : srManager.deviceService.getDevices()) {
                 if (!srManager.mastershipService.isLocalMaster(sw.id())) {
                     log.debug("populateAllRoutingRules: skipping device {}...we are not master",
                               sw.id());
                     continue;
                 }
+                roots.add(sw.id());
+            }
+            Map<DeviceId, EcmpShortestPathGraph> ecmpSpgs = computeEcmpSpgs(roots);
+            pendingRoots.addAll(roots);
 
-                EcmpShortestPathGraph ecmpSpg = new EcmpShortestPathGraph(sw.id(), srManager);
-                if (!populateEcmpRoutingRules(sw.id(), ecmpSpg, ImmutableSet.of())) {
+            for (DeviceId root : roots) {
+                EcmpShortestPathGraph ecmpSpg = ecmpSpgs.get(root);
+                if (!populateEcmpRoutingRules(root, ecmpSpg, ImmutableSet.of())) {
                     log.debug("populateAllRoutingRules: populationStatus is ABORTED");
                     populationStatus = Status.ABORTED;
                     log.debug("Abort routing rule population");
                     return false;
                 }
-                currentEcmpSpgMap.put(sw.id(), ecmpSpg);
+                currentEcmpSpgMap.put(root, ecmpSpg);
+                pendingRoots.remove(root);
 
                 // TODO: Set adjacency routing rule for all switches
             }
@@ -135,6 +150,43 @@ public class DefaultRoutingHandler {
         }
     }
 
+    /**
+     * Computes the ECMP shortest path graphs rooted at the given devices. The
+     * graphs are independent of each other and computed in parallel.
+     *
+     * @param roots root devices
+     * @return ECMP shortest path graph of each root device
+     */
+    private Map<DeviceId, EcmpShortestPathGraph> computeEcmpSpgs(Collection<DeviceId> roots) {
+        return roots.parallelStream()
+                .collect(Collectors.toMap(Function.identity(),
+                                          root -> new EcmpShortestPathGraph(root, srManager)));
+    }
+
+    /**
+     * Returns whether the ECMP shortest path graph of a root device may be
+     * changed by the link failure or link add. A failed link changes only the
+     * graphs it is part of; an added link changes only the graphs in which it
+     * leads to its destination device through a path no longer than the
+     * shortest ones.
+     *
+     * @param ecmpSpg current ECMP shortest path graph of the root device
+     * @param linkFail link failed, null for link added
+     * @param linkAdd link added, null for link failed
+     * @return true if the graph needs to be computed again
+     */
+    static boolean isAffected(EcmpShortestPathGraph ecmpSpg, Link linkFail, Link linkAdd) {
+        if (linkFail != null) {
+            return ecmpSpg.containsLink(linkFail.src().deviceId(), linkFail.dst().deviceId());
+        }
+        if (linkAdd != null) {
+            Integer srcDistance = ecmpSpg.getDistance(linkAdd.src().deviceId());
+            Integer dstDistance = ecmpSpg.getDistance(linkAdd.dst().deviceId());
+            return srcDistance != null && (dstDistance == null || srcDistance + 1 <= dstDistance);
+        }
+        return true;
+    }
+
     /**
      * Populates the routing rules according to the route changes due to the link
      * failure or link add. It computes the routes changed due to the link changes and
@@ -144,6 +196,20 @@ public class DefaultRoutingHandler {
      * @return true if it succeeds to populate all rules, false otherwise
      */
     public boolean populateRoutingRulesForLinkStatusChange(Link linkFail) {
+        return populateRoutingRulesForLinkStatusChange(linkFail, null);
+    }
+
+    /**
+     * Populates the routing rules according to the route changes due to the link
+     * failure or link add. Only the ECMP shortest path graphs which the link
+     * change may alter are computed again. The routes changed in these graphs
+     * are then computed and the rules repopulated only for the routes.
+     *
+     * @param linkFail link failed, null for link added
+     * @param linkAdd link added, null for link failed or unknown
+     * @return true if it succeeds to populate all rules, false otherwise
+     */
+    public boolean populateRoutingRulesForLinkStatusChange(Link linkFail, Link linkAdd) {
 
         statusLock.lock();
         try {
@@ -153,16 +219,28 @@ public class DefaultRoutingHandler {
                 return true;
             }
 
-            // Take the snapshots of the links
+            // Take the snapshots of the links, keeping the current graphs
+            // the link change leaves unchanged. The graphs of the roots whose
+            // last population did not complete are always computed again.
+            Set<DeviceId> retriedRoots = ImmutableSet.copyOf(pendingRoots);
             updatedEcmpSpgMap = new HashMap<>();
+            Set<DeviceId> affectedRoots = new HashSet<>();
             for (Device sw : srManager.deviceService.getDevices()) {
                 if (!srManager.mastershipService.isLocalMaster(sw.id())) {
                     continue;
                 }
-                EcmpShortestPathGraph ecmpSpgUpdated =
-                        new EcmpShortestPathGraph(sw.id(), srManager);
-                updatedEcmpSpgMap.put(sw.id(), ecmpSpgUpdated);
+                EcmpShortestPathGraph ecmpSpg = currentEcmpSpgMap.get(sw.id());
+                if (ecmpSpg == null || retriedRoots.contains(sw.id())
+                        || isAffected(ecmpSpg, linkFail, linkAdd)) {
+                    affectedRoots.add(sw.id());
+                } else {
+                    updatedEcmpSpgMap.put(sw.id(), ecmpSpg);
+                }
             }
+            log.debug("Computing ECMP graphs of {} out of {} devices",
+                      affectedRoots.size(), affectedRoots.size() + updatedEcmpSpgMap.size());
+            updatedEcmpSpgMap.putAll(computeEcmpSpgs(affectedRoots));
+            pendingRoots.addAll(affectedRoots);
 
             log.info("Starts rule population from link change");
 
@@ -177,6 +255,15 @@ public class DefaultRoutingHandler {
             } else {
                 // Compare existing ECMP SPG only with the link removed
                 routeChanges = computeDamagedRoutes(linkFail);
+                // and repopulate in full the routes to the roots left behind
+                // by an earlier population, which the link may not be part of
+                if (routeChanges != null) {
+                    for (DeviceId root : retriedRoots) {
+                        ArrayList<DeviceId> route = new ArrayList<>();
+                        route.add(root);
+                        routeChanges.add(route);
+                    }
+                }
             }
 
             // null routeChanges indicates that full re-routing is required
@@ -188,12 +275,14 @@ public class DefaultRoutingHandler {
                 log.info("No route changes for the link status change");
                 log.debug("populateRoutingRulesForLinkStatusChange: populationStatus is SUCCEEDED");
                 populationStatus = Status.SUCCEEDED;
+                pendingRoots.clear();
                 return true;
             }
 
             if (repopulateRoutingRulesForRoutes(routeChanges)) {
                 log.debug("populateRoutingRulesForLinkStatusChange: populationStatus is SUCCEEDED");
                 populationStatus = Status.SUCCEEDED;
+                pendingRoots.clear();
                 log.info("Complete to repopulate the rules. # of rules populated : {}",
                         rulePopulator.getCounter());
                 return true;
@@ -216,11 +305,15 @@ public class DefaultRoutingHandler {
             // When only the source device is defined, reinstall routes to all other devices
             if (link.size() == 1) {
                 log.trace("repopulateRoutingRulesForRoutes: running ECMP graph for device {}", link.get(0));
-                EcmpShortestPathGraph ecmpSpg = new EcmpShortestPathGraph(link.get(0), srManager);
+                EcmpShortestPathGraph ecmpSpg = updatedEcmpSpgMap.get(link.get(0));
+                if (ecmpSpg == null) {
+                    ecmpSpg = new EcmpShortestPathGraph(link.get(0), srManager);
+                }
                 if (populateEcmpRoutingRules(link.get(0), ecmpSpg, ImmutableSet.of())) {
                     log.debug("Populating flow rules from all to dest:{} is successful",
                               link.get(0));
                     currentEcmpSpgMap.put(link.get(0), ecmpSpg);
+                    pendingRoots.remove(link.get(0));
                 } else {
                     log.warn("Failed to populate the flow rules from all to dest:{}", link.get(0));
                     return false;
@@ -278,6 +371,7 @@ public class DefaultRoutingHandler {
             //would not see any changes in the ECMP graphs)
             currentEcmpSpgMap.put(impactedDevice,
                                   updatedEcmpSpgMap.get(impactedDevice));
+            pendingRoots.remove(impactedDevice);
         }
         return true;
     }
@@ -309,6 +403,10 @@ public class DefaultRoutingHandler {
                         + " rerouting and opting for full-reroute", sw.id());
                 return null;
             }
+            if (!ecmpSpg.containsLink(linkFail.src().deviceId(), linkFail.dst().deviceId())) {
+                // none of the routes to this device went through the link
+                continue;
+            }
             HashMap<Integer, HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>>> switchVia =
                     ecmpSpg.getAllLearnedSwitchesAndVia();
             for (Integer itrIdx : switchVia.keySet()) {
@@ -374,6 +472,10 @@ public class DefaultRoutingHandler {
                 continue;
             }
             EcmpShortestPathGraph newEcmpSpg = updatedEcmpSpgMap.get(sw.id());
+            if (newEcmpSpg == ecmpSpg) {
+                // graph left unchanged by the link change
+                continue;
+            }
             //currentEcmpSpgMap.put(sw.id(), newEcmpSpg);
             HashMap<Integer, HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>>> switchVia =
                     ecmpSpg.getAllLearnedSwitchesAndVia();
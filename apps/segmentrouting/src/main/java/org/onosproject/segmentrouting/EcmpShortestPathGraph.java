@@ -258,6 +258,42 @@ public class EcmpShortestPathGraph {
         return rootDevice;
     }
 
+    /**
+     * Return the distance in hops of a given Device from the root Device.
+     *
+     * @param device the Device
+     * @return the distance, or null if the Device is not reachable from the
+     *         root Device
+     */
+    public Integer getDistance(DeviceId device) {
+        return deviceSearched.get(device);
+    }
+
+    /**
+     * Return whether a link between two given Devices, in either direction,
+     * is on any of the computed ECMP paths.
+     *
+     * @param one one end of the link
+     * @param other other end of the link
+     * @return true if the link is on a computed path
+     */
+    public boolean containsLink(DeviceId one, DeviceId other) {
+        return hasUpstreamLink(one, other) || hasUpstreamLink(other, one);
+    }
+
+    private boolean hasUpstreamLink(DeviceId src, DeviceId dst) {
+        ArrayList<Link> upstreamLinkArray = upstreamLinks.get(dst);
+        if (upstreamLinkArray == null) {
+            return false;
+        }
+        for (Link link : upstreamLinkArray) {
+            if (link.src().deviceId().equals(src)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Return the computed ECMP paths from the root Device to a given Device in
      * the network.
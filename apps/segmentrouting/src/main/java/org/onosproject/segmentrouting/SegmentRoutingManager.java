@@ -761,7 +761,7 @@ public class SegmentRoutingManager implements SegmentRoutingService {
         }
 
         log.trace("Starting optimized route population process");
-        defaultRoutingHandler.populateRoutingRulesForLinkStatusChange(null);
+        defaultRoutingHandler.populateRoutingRulesForLinkStatusChange(null, link);
         //log.trace("processLinkAdded: re-starting route population process");
         //defaultRoutingHandler.startPopulationProcess();
 
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.segmentrouting;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.ChassisId;
+import org.onlab.packet.Ip4Address;
+import org.onosproject.TestApplicationId;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.MastershipRole;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.config.NetworkConfigRegistryAdapter;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.link.LinkServiceAdapter;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.segmentrouting.config.DeviceConfiguration;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the selection of the ECMP graphs affected by a link change.
+ */
+public class DefaultRoutingHandlerTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+
+    private static final DeviceId A = DeviceId.deviceId("of:000000000000000a");
+    private static final DeviceId B = DeviceId.deviceId("of:000000000000000b");
+    private static final DeviceId C = DeviceId.deviceId("of:000000000000000c");
+    private static final DeviceId D = DeviceId.deviceId("of:000000000000000d");
+    private static final DeviceId E = DeviceId.deviceId("of:000000000000000e");
+
+    private final SegmentRoutingManager srManager = new SegmentRoutingManager();
+    private final Multimap<DeviceId, Link> egressLinks = HashMultimap.create();
+    private TestRoutingRulePopulator populator;
+
+    @Before
+    public void setUp() {
+        // ring of five switches: A - B - C - D - E - A
+        connect(A, B);
+        connect(B, C);
+        connect(C, D);
+        connect(D, E);
+        connect(E, A);
+        srManager.linkService = new TestLinkService();
+        srManager.deviceService = new TestDeviceService();
+        srManager.mastershipService = new TestMastershipService();
+        srManager.deviceConfiguration = new TestDeviceConfiguration();
+        populator = new TestRoutingRulePopulator(srManager);
+        srManager.routingRulePopulator = populator;
+    }
+
+    @Test
+    public void containsLink() {
+        EcmpShortestPathGraph graphA = new EcmpShortestPathGraph(A, srManager);
+        assertEquals(Integer.valueOf(0), graphA.getDistance(A));
+        assertEquals(Integer.valueOf(1), graphA.getDistance(B));
+        assertEquals(Integer.valueOf(2), graphA.getDistance(C));
+        assertEquals(Integer.valueOf(2), graphA.getDistance(D));
+
+        assertTrue(graphA.containsLink(A, B));
+        assertTrue("link should be found in either direction", graphA.containsLink(C, B));
+        // C and D are both two hops away from A, so that their link is not used
+        assertFalse(graphA.containsLink(C, D));
+        assertFalse(graphA.containsLink(D, C));
+    }
+
+    @Test
+    public void linkDown() {
+        Link failed = link(C, D);
+        assertFalse("root not using the link should not be affected",
+                    DefaultRoutingHandler.isAffected(new EcmpShortestPathGraph(A, srManager), failed, null));
+        assertTrue("root using the link should be affected",
+                   DefaultRoutingHandler.isAffected(new EcmpShortestPathGraph(B, srManager), failed, null));
+        assertTrue("root using the reverse link should be affected",
+                   DefaultRoutingHandler.isAffected(new EcmpShortestPathGraph(E, srManager), failed, null));
+    }
+
+    @Test
+    public void linkUp() {
+        Link added = link(A, C);
+        assertTrue("root getting shorter paths should be affected",
+                   DefaultRoutingHandler.isAffected(new EcmpShortestPathGraph(A, srManager), null, added));
+        assertFalse("root getting no shorter path should not be affected",
+                    DefaultRoutingHandler.isAffected(new EcmpShortestPathGraph(B, srManager), null, added));
+    }
+
+    @Test
+    public void retryAbortedPopulation() {
+        DefaultRoutingHandler handler = new DefaultRoutingHandler(srManager);
+        assertTrue(handler.populateAllRoutingRules());
+
+        // the population for the link failure is aborted, leaving the graph
+        // of D as it was before the failure
+        disconnect(C, D);
+        populator.succeed = false;
+        assertFalse(handler.populateRoutingRulesForLinkStatusChange(link(C, D)));
+
+        // the link added next is not part of the stale graph of D, whose
+        // routes are repopulated nonetheless
+        populator.succeed = true;
+        populator.destinations.clear();
+        assertTrue(handler.populateRoutingRulesForLinkStatusChange(null, link(A, B)));
+        assertTrue("routes to D should be repopulated", populator.destinations.contains(D));
+    }
+
+    private void connect(DeviceId one, DeviceId two) {
+        egressLinks.put(one, link(one, two));
+        egressLinks.put(two, link(two, one));
+    }
+
+    private void disconnect(DeviceId one, DeviceId two) {
+        egressLinks.remove(one, link(one, two));
+        egressLinks.remove(two, link(two, one));
+    }
+
+    // each switch reaches another one through the port numbered after it
+    private static Link link(DeviceId src, DeviceId dst) {
+        return DefaultLink.builder()
+                .providerId(PID)
+                .src(new ConnectPoint(src, port(dst)))
+                .dst(new ConnectPoint(dst, port(src)))
+                .type(Link.Type.DIRECT)
+                .build();
+    }
+
+    private static PortNumber port(DeviceId peer) {
+        String id = peer.toString();
+        return PortNumber.portNumber(Long.parseLong(id.substring(id.length() - 1), 16));
+    }
+
+    /**
+     * Rule populator recording the destinations of the MPLS rules, which
+     * fails them all when told to, as when the groups are missing.
+     */
+    private static final class TestRoutingRulePopulator extends RoutingRulePopulator {
+        private final Set<DeviceId> destinations = new HashSet<>();
+        private boolean succeed = true;
+
+        private TestRoutingRulePopulator(SegmentRoutingManager srManager) {
+            super(srManager);
+        }
+
+        @Override
+        public boolean populateMplsRule(DeviceId targetSwId, DeviceId destSwId,
+                                        Set<DeviceId> nextHops) {
+            destinations.add(destSwId);
+            return succeed;
+        }
+    }
+
+    /**
+     * Configuration of transit routers, all with the same router IP.
+     */
+    private static final class TestDeviceConfiguration extends DeviceConfiguration {
+        private TestDeviceConfiguration() {
+            super(new TestApplicationId("sr"), new NetworkConfigRegistryAdapter());
+        }
+
+        @Override
+        public boolean isEdgeDevice(DeviceId deviceId) {
+            return false;
+        }
+
+        @Override
+        public Ip4Address getRouterIp(DeviceId deviceId) {
+            return Ip4Address.valueOf("10.0.0.1");
+        }
+    }
+
+    private static final class TestDeviceService extends DeviceServiceAdapter {
+        @Override
+        public Iterable<Device> getDevices() {
+            return Stream.of(A, B, C, D, E)
+                    .map(id -> new DefaultDevice(PID, id, Device.Type.SWITCH, "", "", "", "",
+                                                 new ChassisId()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static final class TestMastershipService extends MastershipServiceAdapter {
+        @Override
+        public MastershipRole getLocalRole(DeviceId deviceId) {
+            return MastershipRole.MASTER;
+        }
+    }
+
+    private final class TestLinkService extends LinkServiceAdapter {
+        @Override
+        public Set<Link> getDeviceEgressLinks(DeviceId deviceId) {
+            return ImmutableSet.copyOf(egressLinks.get(deviceId));
+        }
+    }
+}
@@ -15,10 +15,14 @@
  */
 package org.onosproject.net.flow;
 
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Iterables;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.event.ListenerService;
 import org.onosproject.net.DeviceId;
 
+import java.util.function.Predicate;
+
 /**
  * Service for injecting flow rules into the environment and for obtaining
  * information about flow rules already in the environment. This implements
@@ -51,6 +55,21 @@ public interface FlowRuleService
      */
     Iterable<FlowEntry> getFlowEntries(DeviceId deviceId);
 
+    /**
+     * Returns the flow entries applied on the specified device which pass the
+     * given filter. Where possible, the filter is applied where the entries
+     * are held, so that entries which do not pass it are never copied.
+     *
+     * @param deviceId device identifier
+     * @param filter   flow entry filter
+     * @return flow entries passing the filter
+     */
+    @Beta
+    default Iterable<FlowEntry> getFlowEntries(DeviceId deviceId,
+                                               Predicate<? super FlowEntry> filter) {
+        return Iterables.filter(getFlowEntries(deviceId), filter::test);
+    }
+
     /**
      * Applies the specified flow rules onto their respective devices. These
      * flow rules will be retained by the system and re-applied anytime the
@@ -16,7 +16,9 @@
 package org.onosproject.net.flow;
 
 import java.util.List;
+import java.util.function.Predicate;
 
+import com.google.common.collect.Iterables;
 import org.onosproject.net.DeviceId;
 import org.onosproject.store.Store;
 
@@ -48,6 +50,19 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     Iterable<FlowEntry> getFlowEntries(DeviceId deviceId);
 
+    /**
+     * Returns the flow entries associated with a device which pass the given
+     * filter.
+     *
+     * @param deviceId the device ID
+     * @param filter   flow entry filter
+     * @return the flow entries passing the filter
+     */
+    default Iterable<FlowEntry> getFlowEntries(DeviceId deviceId,
+                                               Predicate<? super FlowEntry> filter) {
+        return Iterables.filter(getFlowEntries(deviceId), filter::test);
+    }
+
     /**
      * // TODO: Better description of method behavior.
      * Stores a new flow rule without generating events.
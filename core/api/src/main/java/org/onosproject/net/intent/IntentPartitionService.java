@@ -43,6 +43,13 @@ public interface IntentPartitionService
      */
     NodeId getLeader(Key intentKey);
 
+    /**
+     * Returns the number of partitions the intent keys are spread across.
+     *
+     * @return number of partitions
+     */
+    int getPartitionCount();
+
     // TODO add API for rebalancing partitions
 
 }
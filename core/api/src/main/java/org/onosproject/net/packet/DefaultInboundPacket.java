@@ -15,12 +15,14 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.base.Suppliers;
 import org.onosproject.net.ConnectPoint;
 import org.onlab.packet.Ethernet;
 
 import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 
@@ -30,7 +32,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 public final class DefaultInboundPacket implements InboundPacket {
 
     private final ConnectPoint receivedFrom;
-    private final Ethernet parsed;
+    private final Supplier<Ethernet> parsed;
     private final ByteBuffer unparsed;
     private final Optional<Long> cookie;
 
@@ -57,7 +59,26 @@ public final class DefaultInboundPacket implements InboundPacket {
     public DefaultInboundPacket(ConnectPoint receivedFrom, Ethernet parsed,
             ByteBuffer unparsed, Optional<Long> cookie) {
         this.receivedFrom = receivedFrom;
-        this.parsed = parsed;
+        this.parsed = () -> parsed;
+        this.unparsed = unparsed;
+        this.cookie = cookie;
+    }
+
+    /**
+     * Creates an immutable inbound packet with cookie, parsed only when its
+     * parsed form is first requested. Processors which only need a few
+     * header fields can then use its {@link #view() view} and spare the
+     * parsing of the whole packet.
+     *
+     * @param receivedFrom connection point where received
+     * @param parser       supplier of the parsed ethernet frame, called once at most
+     * @param unparsed     unparsed raw bytes
+     * @param cookie       cookie
+     */
+    public DefaultInboundPacket(ConnectPoint receivedFrom, Supplier<Ethernet> parser,
+                                ByteBuffer unparsed, Optional<Long> cookie) {
+        this.receivedFrom = receivedFrom;
+        this.parsed = Suppliers.memoize(parser::get)::get;
         this.unparsed = unparsed;
         this.cookie = cookie;
     }
@@ -69,7 +90,7 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public Ethernet parsed() {
-        return parsed;
+        return parsed.get();
     }
 
     @Override
@@ -85,7 +106,7 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public int hashCode() {
-        return Objects.hash(receivedFrom, parsed, unparsed);
+        return Objects.hash(receivedFrom, parsed(), unparsed);
     }
 
     @Override
@@ -96,7 +117,7 @@ public final class DefaultInboundPacket implements InboundPacket {
         if (obj instanceof InboundPacket) {
             final DefaultInboundPacket other = (DefaultInboundPacket) obj;
             return Objects.equals(this.receivedFrom, other.receivedFrom) &&
-                    Objects.equals(this.parsed, other.parsed) &&
+                    Objects.equals(this.parsed(), other.parsed()) &&
                     Objects.equals(this.unparsed, other.unparsed);
         }
         return false;
@@ -106,7 +127,7 @@ public final class DefaultInboundPacket implements InboundPacket {
     public String toString() {
         return toStringHelper(this)
                 .add("receivedFrom", receivedFrom)
-                .add("parsed", parsed)
+                .add("parsed", parsed())
                 .toString();
     }
 }
@@ -16,7 +16,9 @@
 package org.onosproject.net.packet;
 
 import org.onosproject.net.ConnectPoint;
+import org.onlab.packet.DeserializationException;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 
 import java.nio.ByteBuffer;
 import java.util.Optional;
@@ -48,6 +50,26 @@ public interface InboundPacket {
      */
     ByteBuffer unparsed();
 
+    /**
+     * Returns a view of the packet which decodes the header fields of the
+     * raw packet data as they are accessed. Processors looking at a few
+     * header fields only can use it in place of the parsed form.
+     *
+     * @return Ethernet frame view; null if there is no packet data or it is
+     * too short to hold an Ethernet frame
+     */
+    default EthernetView view() {
+        ByteBuffer unparsed = unparsed();
+        if (unparsed == null) {
+            return null;
+        }
+        try {
+            return EthernetView.of(unparsed);
+        } catch (DeserializationException e) {
+            return null;
+        }
+    }
+
     /**
      * Returns the cookie in the packet in message.
      *
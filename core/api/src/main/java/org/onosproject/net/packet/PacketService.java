@@ -43,7 +43,27 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * given only those packets which match the specified interest selector.
+     * The selector may constrain the ingress port, the Ethernet type, the IP
+     * protocol and the TCP or UDP source and destination ports of packets.
+     * <p>
+     * By default, the interest is disregarded and the processor is given all
+     * packets.
+     * </p>
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param interest  selector of the packets the processor is interested in
+     * @throws java.lang.IllegalArgumentException if the interest selector
+     *                                            contains unsupported criteria
+     */
+    @Beta
+    default void addProcessor(PacketProcessor processor, int priority,
+                              TrafficSelector interest) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
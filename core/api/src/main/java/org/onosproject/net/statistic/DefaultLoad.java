@@ -82,6 +82,15 @@ public class DefaultLoad implements Load {
         pollInterval = newPollInterval;
     }
 
+    /**
+     * Returns the poll interval in seconds.
+     *
+     * @return poll interval duration in seconds
+     */
+    public static long getPollInterval() {
+        return pollInterval;
+    }
+
     @Override
     public long rate() {
         return (current - previous) / interval;
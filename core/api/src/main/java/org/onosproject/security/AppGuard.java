@@ -23,6 +23,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 /**
  * Aids SM-ONOS to perform API-level permission checking.
  */
@@ -46,14 +47,32 @@ public final class AppGuard {
         if (context == null) {
             sm.checkPermission(new AppPermission((permission)));
         } else {
-            int contextHash = context.hashCode() ^ permission.hashCode();
-            PermissionCheckCache.getInstance().checkCache(contextHash, new AppPermission(permission));
+            PermissionCheckCache.getInstance().checkCache(context, permission);
         }
     }
 
+    /**
+     * Discards the outcome of all the permission checks made so far. To be
+     * called whenever the permissions granted to a bundle change.
+     */
+    public static void invalidatePermissionCache() {
+        PermissionCheckCache.getInstance().invalidate();
+    }
+
+    /**
+     * Caches the permissions granted to each access control context, that is
+     * to each set of protection domains found on the stack of the callers, as
+     * a bitset indexed by permission type. Once a permission was granted to a
+     * context, checking it again only costs the lookup of the context and the
+     * test of a bit, in place of the evaluation of the policy of every domain
+     * by the security manager. Denied permissions are not cached, so that the
+     * security manager keeps reporting every violation.
+     */
     private static final class PermissionCheckCache {
 
-        private static final Cache<Integer, Boolean> CACHE = CacheBuilder.newBuilder()
+        private static final int WORDS = (AppPermission.Type.values().length + 63) / 64;
+
+        private static final Cache<AccessControlContext, AtomicLongArray> CACHE = CacheBuilder.newBuilder()
                 .maximumSize(1000)
                 .expireAfterAccess(10, TimeUnit.MINUTES)
                 .build();
@@ -69,15 +88,28 @@ public final class AppGuard {
             return SingletonHelper.INSTANCE;
         }
 
-        public static void checkCache(int key, AppPermission perm) {
+        public static void checkCache(AccessControlContext context, AppPermission.Type type) {
+            int word = type.ordinal() / 64;
+            long bit = 1L << type.ordinal();
+            AtomicLongArray granted;
             try {
-                CACHE.get(key, () -> {
-                    System.getSecurityManager().checkPermission(perm);
-                    return true;
-                });
+                granted = CACHE.get(context, () -> new AtomicLongArray(WORDS));
             } catch (ExecutionException e) {
-                System.getSecurityManager().checkPermission(perm);
+                System.getSecurityManager().checkPermission(new AppPermission(type));
+                return;
+            }
+            if ((granted.get(word) & bit) != 0) {
+                return;
             }
+            System.getSecurityManager().checkPermission(new AppPermission(type));
+            long bits;
+            do {
+                bits = granted.get(word);
+            } while (!granted.compareAndSet(word, bits, bits | bit));
+        }
+
+        public static void invalidate() {
+            CACHE.invalidateAll();
         }
     }
 }
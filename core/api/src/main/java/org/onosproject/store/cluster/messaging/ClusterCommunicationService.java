@@ -23,6 +23,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.onosproject.cluster.NodeId;
+import org.onosproject.store.service.Serializer;
 
 /**
  * Service for assisting communications between controller cluster nodes.
@@ -79,6 +80,24 @@ public interface ClusterCommunicationService {
                         Function<M, byte[]> encoder,
                         NodeId toNodeId);
 
+    /**
+     * Sends a message to the specified controller node, serializing it
+     * straight into the outbound buffer of the transport.
+     *
+     * @param message message to send
+     * @param subject message subject
+     * @param serializer serializer for the message
+     * @param toNodeId destination node identifier
+     * @param <M> message type
+     * @return future that is completed when the message is sent
+     */
+    default <M> CompletableFuture<Void> unicast(M message,
+                                                MessageSubject subject,
+                                                Serializer serializer,
+                                                NodeId toNodeId) {
+        return unicast(message, subject, serializer::encode, toNodeId);
+    }
+
     /**
      * Multicasts a message to a set of controller nodes.
      *
@@ -157,6 +176,24 @@ public interface ClusterCommunicationService {
                            Consumer<M> handler,
                            Executor executor);
 
+    /**
+     * Adds a new subscriber for the specified message subject, which
+     * deserializes incoming messages straight from the inbound buffer of the
+     * transport.
+     *
+     * @param subject message subject
+     * @param serializer serializer for resurrecting incoming message
+     * @param handler handler for handling message
+     * @param executor executor to run this handler on
+     * @param <M> incoming message type
+     */
+    default <M> void addSubscriber(MessageSubject subject,
+                                   Serializer serializer,
+                                   Consumer<M> handler,
+                                   Executor executor) {
+        addSubscriber(subject, serializer::<M>decode, handler, executor);
+    }
+
     /**
      * Removes a subscriber for the specified message subject.
      *
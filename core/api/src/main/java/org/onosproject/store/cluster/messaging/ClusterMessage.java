@@ -15,6 +15,10 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
@@ -31,6 +35,9 @@ import com.google.common.base.MoreObjects;
  */
 public class ClusterMessage {
 
+    // payload length of a message whose payload runs to the end of its bytes
+    private static final int STREAMED_PAYLOAD_LENGTH = -1;
+
     private final NodeId sender;
     private final MessageSubject subject;
     private final byte[] payload;
@@ -145,7 +152,8 @@ public class ClusterMessage {
         buffer.get(senderBytes);
         byte[] subjectBytes = new byte[buffer.getInt()];
         buffer.get(subjectBytes);
-        byte[] payloadBytes = new byte[buffer.getInt()];
+        int payloadLength = buffer.getInt();
+        byte[] payloadBytes = new byte[payloadLength == STREAMED_PAYLOAD_LENGTH ? buffer.remaining() : payloadLength];
         buffer.get(payloadBytes);
 
         return new ClusterMessage(new NodeId(new String(senderBytes, Charsets.UTF_8)),
@@ -153,6 +161,46 @@ public class ClusterMessage {
                 payloadBytes);
     }
 
+    /**
+     * Writes the header of a message whose payload is then written straight
+     * to the stream, up to the end of the message.
+     * @param sender message sender
+     * @param subject message subject
+     * @param stream stream to write to
+     */
+    public static void writeHeader(NodeId sender, MessageSubject subject, OutputStream stream) {
+        byte[] senderBytes = sender.toString().getBytes(Charsets.UTF_8);
+        byte[] subjectBytes = subject.value().getBytes(Charsets.UTF_8);
+        DataOutputStream out = new DataOutputStream(stream);
+        try {
+            out.writeInt(senderBytes.length);
+            out.write(senderBytes);
+            out.writeInt(subjectBytes.length);
+            out.write(subjectBytes);
+            out.writeInt(STREAMED_PAYLOAD_LENGTH);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the payload of an encoded message without copying it.
+     * @param bytes encoded message
+     * @return buffer positioned at the start of the payload
+     */
+    public static ByteBuffer payloadOf(ByteBuffer bytes) {
+        ByteBuffer buffer = bytes.slice();
+        int senderLength = buffer.getInt();
+        buffer.position(buffer.position() + senderLength);
+        int subjectLength = buffer.getInt();
+        buffer.position(buffer.position() + subjectLength);
+        int payloadLength = buffer.getInt();
+        if (payloadLength != STREAMED_PAYLOAD_LENGTH) {
+            buffer.limit(buffer.position() + payloadLength);
+        }
+        return buffer;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(sender, subject, payload);
@@ -15,10 +15,14 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Interface for low level messaging primitives.
@@ -35,6 +39,21 @@ public interface MessagingService {
      */
     CompletableFuture<Void> sendAsync(Endpoint ep, String type, byte[] payload);
 
+    /**
+     * Sends a message asynchronously to the specified communication end point.
+     * The payload is written by the given writer straight into the outbound
+     * buffer of the transport, when the transport supports it.
+     * @param ep end point to send the message to.
+     * @param type type of message.
+     * @param payloadWriter writer of the message payload.
+     * @return future that is completed when the message is sent
+     */
+    default CompletableFuture<Void> sendAsync(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        payloadWriter.accept(payload);
+        return sendAsync(ep, type, payload.toByteArray());
+    }
+
     /**
      * Sends a message asynchronously and expects a response.
      * @param ep end point to send the message to.
@@ -77,6 +96,19 @@ public interface MessagingService {
      */
     void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler);
 
+    /**
+     * Registers a new message handler for message type, which reads the
+     * payload from a buffer instead of a copy of it. The buffer is only valid
+     * until the handler returns.
+     * @param type message type.
+     * @param handler message handler
+     * @param executor executor to use for running message handler logic.
+     */
+    default void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        registerHandler(type, (BiConsumer<Endpoint, byte[]>) (ep, payload) ->
+                handler.accept(ep, ByteBuffer.wrap(payload)), executor);
+    }
+
     /**
      * Unregister current handler, if one exists for message type.
      * @param type message type
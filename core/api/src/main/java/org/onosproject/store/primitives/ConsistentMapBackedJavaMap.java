@@ -16,6 +16,7 @@
 package org.onosproject.store.primitives;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -106,9 +107,7 @@ public final class ConsistentMapBackedJavaMap<K, V> implements Map<K, V> {
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
-        m.forEach((k, v) -> {
-            backingMap.put(k, v);
-        });
+        backingMap.putAll(new HashMap<>(m));
     }
 
     @Override
@@ -85,6 +85,21 @@ public class DefaultConsistentMap<K, V> extends Synchronous<AsyncConsistentMap<K
         return complete(asyncMap.get(key));
     }
 
+    @Override
+    public Map<K, Versioned<V>> getAll(Collection<K> keys) {
+        return complete(asyncMap.getAll(keys));
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        complete(asyncMap.putAll(entries));
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys) {
+        complete(asyncMap.removeAll(keys));
+    }
+
     @Override
     public Versioned<V> computeIfAbsent(K key,
             Function<? super K, ? extends V> mappingFunction) {
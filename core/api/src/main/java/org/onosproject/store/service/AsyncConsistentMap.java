@@ -17,6 +17,7 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -29,6 +30,7 @@ import java.util.function.Predicate;
 import org.onosproject.store.primitives.DefaultConsistentMap;
 import org.onosproject.store.primitives.TransactionId;
 
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 
 /**
@@ -202,6 +204,54 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive {
      */
     CompletableFuture<Versioned<V>> remove(K key);
 
+    /**
+     * Returns the values (and associated versions) to which the specified keys are mapped.
+     * Implementations may look up all the keys held by one partition in a single request.
+     *
+     * @param keys keys whose associated values are to be returned
+     * @return map of the keys that have a mapping to their value (and version)
+     */
+    default CompletableFuture<Map<K, Versioned<V>>> getAll(Collection<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newConcurrentMap();
+        return CompletableFuture.allOf(keys.stream()
+                                           .map(key -> get(key).thenAccept(value -> {
+                                               if (value != null) {
+                                                   values.put(key, value);
+                                               }
+                                           }))
+                                           .toArray(CompletableFuture[]::new))
+                                .thenApply(v -> values);
+    }
+
+    /**
+     * Associates each of the specified values with its key in this map, replacing any
+     * existing value. Implementations may apply all the updates landing on one partition
+     * as a single update of that partition.
+     *
+     * @param entries keys and the values to be associated with them
+     * @return future that will be completed when all the values are stored
+     */
+    default CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return CompletableFuture.allOf(entries.entrySet()
+                                              .stream()
+                                              .map(entry -> put(entry.getKey(), entry.getValue()))
+                                              .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Removes the mappings for the specified keys from this map if present.
+     * Implementations may apply all the removals landing on one partition
+     * as a single update of that partition.
+     *
+     * @param keys keys whose mappings are to be removed
+     * @return future that will be completed when all the mappings are removed
+     */
+    default CompletableFuture<Void> removeAll(Collection<K> keys) {
+        return CompletableFuture.allOf(keys.stream()
+                                           .map(this::remove)
+                                           .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Removes all of the mappings from this map (optional operation).
      * The map will be empty after this call returns.
@@ -25,6 +25,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 
 /**
@@ -76,6 +77,42 @@ public interface ConsistentMap<K, V> extends DistributedPrimitive {
      */
     Versioned<V> get(K key);
 
+    /**
+     * Returns the values (and associated versions) to which the specified keys are mapped.
+     *
+     * @param keys keys whose associated values are to be returned
+     * @return map of the keys that have a mapping to their value (and version)
+     */
+    default Map<K, Versioned<V>> getAll(Collection<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newHashMap();
+        keys.forEach(key -> {
+            Versioned<V> value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Associates each of the specified values with its key in this map, replacing any
+     * existing value.
+     *
+     * @param entries keys and the values to be associated with them
+     */
+    default void putAll(Map<K, V> entries) {
+        entries.forEach(this::put);
+    }
+
+    /**
+     * Removes the mappings for the specified keys from this map if present.
+     *
+     * @param keys keys whose mappings are to be removed
+     */
+    default void removeAll(Collection<K> keys) {
+        keys.forEach(this::remove);
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null),
      * attempts to compute its value using the given mapping function and enters it into
@@ -17,6 +17,11 @@ package org.onosproject.store.service;
 
 import org.onosproject.store.primitives.DistributedPrimitiveBuilder;
 
+import java.util.function.ToIntBiFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Builder for {@link ConsistentMap} instances.
  *
@@ -27,6 +32,8 @@ public abstract class ConsistentMapBuilder<K, V>
     extends DistributedPrimitiveBuilder<ConsistentMapBuilder<K, V>, ConsistentMap<K, V>> {
 
     private boolean purgeOnUninstall = false;
+    private long nearCacheMaxWeight = 0;
+    private ToIntBiFunction<? super K, ? super V> nearCacheWeigher;
 
     public ConsistentMapBuilder() {
         super(DistributedPrimitive.Type.CONSISTENT_MAP);
@@ -50,6 +57,63 @@ public abstract class ConsistentMapBuilder<K, V>
         return purgeOnUninstall;
     }
 
+    /**
+     * Enables a near-cache holding up to the given number of entries.
+     * Reads of cached entries are served locally; the cache is kept up to
+     * date from the map events and reflects local updates once they complete.
+     *
+     * @param maxEntries maximum number of cached entries
+     * @return this builder
+     */
+    public ConsistentMapBuilder<K, V> withNearCache(int maxEntries) {
+        return withNearCache(maxEntries, (key, value) -> 1);
+    }
+
+    /**
+     * Enables a near-cache bounded by the total weight of its entries, as
+     * given by the weigher, e.g. their approximate size in bytes.
+     * Reads of cached entries are served locally; the cache is kept up to
+     * date from the map events and reflects local updates once they complete.
+     *
+     * @param maxWeight maximum total weight of the cached entries
+     * @param weigher   function giving the weight of an entry
+     * @return this builder
+     */
+    public ConsistentMapBuilder<K, V> withNearCache(long maxWeight,
+                                                    ToIntBiFunction<? super K, ? super V> weigher) {
+        checkArgument(maxWeight > 0, "Near-cache weight must be positive");
+        nearCacheMaxWeight = maxWeight;
+        nearCacheWeigher = checkNotNull(weigher);
+        return this;
+    }
+
+    /**
+     * Returns if a near-cache is to be kept for the map.
+     *
+     * @return {@code true} if yes; {@code false} otherwise.
+     */
+    public boolean nearCacheEnabled() {
+        return nearCacheWeigher != null;
+    }
+
+    /**
+     * Returns the maximum total weight of the near-cache entries.
+     *
+     * @return maximum weight
+     */
+    public long nearCacheMaxWeight() {
+        return nearCacheMaxWeight;
+    }
+
+    /**
+     * Returns the function giving the weight of a near-cache entry.
+     *
+     * @return weigher
+     */
+    public ToIntBiFunction<? super K, ? super V> nearCacheWeigher() {
+        return nearCacheWeigher;
+    }
+
     /**
      * Builds an async consistent map based on the configuration options
      * supplied to this builder.
@@ -190,6 +190,20 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withPersistence();
 
+    /**
+     * Configure anti-entropy to exchange hashes of key ranges instead of a
+     * digest of every entry. Peers first compare the hash of the whole map
+     * and descend only into the key ranges whose hashes differ, so that the
+     * cost of an anti-entropy round between replicas that are in sync does
+     * not grow with the size of the map. Suited to large maps.
+     * <p>
+     * The default behavior is to advertise a digest of every entry.
+     * </p>
+     *
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withDigestAntiEntropy();
+
     /**
      * Builds an eventually consistent map based on the configuration options
      * supplied to this builder.
@@ -16,6 +16,10 @@
 
 package org.onosproject.store.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -43,6 +47,32 @@ public interface Serializer {
      */
     <T> T decode(byte[] bytes);
 
+    /**
+     * Serialize the specified object to a stream.
+     * @param object object to serialize.
+     * @param stream stream to write the serialized bytes to.
+     * @param <T> encoded type
+     */
+    default <T> void encode(T object, OutputStream stream) {
+        try {
+            stream.write(encode(object));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deserialize the remaining bytes of the specified buffer.
+     * @param buffer buffer to read from.
+     * @return deserialized object.
+     * @param <T> decoded type
+     */
+    default <T> T decode(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return decode(bytes);
+    }
+
     /**
      * Creates a new Serializer instance from a KryoNamespace.
      *
@@ -61,6 +91,16 @@ public interface Serializer {
             public <T> T decode(byte[] bytes) {
                 return kryo.deserialize(bytes);
             }
+
+            @Override
+            public <T> void encode(T object, OutputStream stream) {
+                kryo.serialize(object, stream);
+            }
+
+            @Override
+            public <T> T decode(ByteBuffer buffer) {
+                return kryo.deserialize(buffer);
+            }
         };
     }
 
@@ -97,6 +137,16 @@ public interface Serializer {
             public <T> T decode(byte[] bytes) {
                 return namespace.deserialize(bytes);
             }
+
+            @Override
+            public <T> void encode(T object, OutputStream stream) {
+                namespace.serialize(object, stream);
+            }
+
+            @Override
+            public <T> T decode(ByteBuffer buffer) {
+                return namespace.deserialize(buffer);
+            }
         };
     }
 
@@ -31,6 +31,11 @@ public class IntentPartitionServiceAdapter implements IntentPartitionService {
         return null;
     }
 
+    @Override
+    public int getPartitionCount() {
+        return 1;
+    }
+
     @Override
     public void addListener(IntentPartitionEventListener listener) {
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.security;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.Permission;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.onosproject.security.AppPermission.Type.FLOWRULE_READ;
+import static org.onosproject.security.AppPermission.Type.FLOWRULE_WRITE;
+
+/**
+ * Tests of the caching of the permission checks made by AppGuard.
+ */
+public class AppGuardTest {
+
+    private final CountingSecurityManager securityManager = new CountingSecurityManager();
+
+    @Before
+    public void setUp() {
+        AppGuard.invalidatePermissionCache();
+        System.setSecurityManager(securityManager);
+    }
+
+    @After
+    public void tearDown() {
+        System.setSecurityManager(null);
+        AppGuard.invalidatePermissionCache();
+    }
+
+    @Test
+    public void cachedCheck() {
+        AppGuard.checkPermission(FLOWRULE_READ);
+        assertEquals("permission should be checked", 1, securityManager.checks.get());
+
+        AppGuard.checkPermission(FLOWRULE_READ);
+        assertEquals("granted permission should be cached", 1, securityManager.checks.get());
+
+        AppGuard.checkPermission(FLOWRULE_WRITE);
+        assertEquals("other permission should be checked", 2, securityManager.checks.get());
+    }
+
+    @Test
+    public void invalidatedCheck() {
+        AppGuard.checkPermission(FLOWRULE_READ);
+        AppGuard.invalidatePermissionCache();
+
+        AppGuard.checkPermission(FLOWRULE_READ);
+        assertEquals("permission should be checked again", 2, securityManager.checks.get());
+    }
+
+    /**
+     * Security manager granting every permission, and counting the checks
+     * of application permissions.
+     */
+    private static final class CountingSecurityManager extends SecurityManager {
+        private final AtomicInteger checks = new AtomicInteger();
+
+        @Override
+        public void checkPermission(Permission perm) {
+            if (perm instanceof AppPermission) {
+                checks.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void checkPermission(Permission perm, Object context) {
+            checkPermission(perm);
+        }
+    }
+}
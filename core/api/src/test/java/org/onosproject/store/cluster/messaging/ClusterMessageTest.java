@@ -15,6 +15,9 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 import org.onosproject.cluster.NodeId;
 
@@ -79,4 +82,33 @@ public class ClusterMessageTest {
         ClusterMessage message = ClusterMessage.fromBytes(fromBytes);
         assertThat(message, is(message3));
     }
+
+    /**
+     * Tests messages whose payload is streamed after the header.
+     */
+    @Test
+    public void testStreamedPayload() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ClusterMessage.writeHeader(nodeId, subject2, stream);
+        stream.write(payload1);
+        byte[] bytes = stream.toByteArray();
+
+        assertThat(ClusterMessage.fromBytes(bytes), is(message3));
+
+        ByteBuffer payload = ClusterMessage.payloadOf(ByteBuffer.wrap(bytes));
+        byte[] payloadBytes = new byte[payload.remaining()];
+        payload.get(payloadBytes);
+        assertThat(payloadBytes, is(payload1));
+    }
+
+    /**
+     * Tests reading the payload of a message without copying it.
+     */
+    @Test
+    public void testPayloadOf() {
+        ByteBuffer payload = ClusterMessage.payloadOf(ByteBuffer.wrap(message2.getBytes()));
+        byte[] payloadBytes = new byte[payload.remaining()];
+        payload.get(payloadBytes);
+        assertThat(payloadBytes, is(payload2));
+    }
 }
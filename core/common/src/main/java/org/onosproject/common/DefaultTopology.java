@@ -18,6 +18,8 @@ package org.onosproject.common;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
@@ -53,9 +55,14 @@ import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -70,6 +77,11 @@ import static org.onosproject.net.Link.Type.INDIRECT;
 /**
  * Default implementation of the topology descriptor. This carries the backing
  * topology data.
+ * <p>
+ * When created from a previous topology, the strongly connected clusters and
+ * the cluster broadcast sets are carried over from it wherever the changes in
+ * the graph allow, instead of being recomputed for the entire graph.
+ * </p>
  */
 public class DefaultTopology extends AbstractModel implements Topology {
 
@@ -78,6 +90,10 @@ public class DefaultTopology extends AbstractModel implements Topology {
     private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA = new DijkstraGraphSearch<>();
     private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN = new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE = new SuurballeGraphSearch<>();
+    private static final LinkWeight NO_INDIRECT_LINKS = new NoIndirectLinksWeight();
+
+    // Maximum number of shortest-path trees retained per topology
+    private static final int SOURCE_TREE_CACHE_SIZE = 128;
 
     private static LinkWeight defaultLinkWeight = null;
     private static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch = null;
@@ -89,13 +105,18 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private final LinkWeight hopCountWeight;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<ClusterSets> clusterSets;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
 
+    // Shortest-path trees, by source device, computed using the default
+    // link weight
+    private final Cache<DeviceId, SourceTree> sourceTrees =
+            CacheBuilder.newBuilder().maximumSize(SOURCE_TREE_CACHE_SIZE).build();
+
     /**
      * Sets the default link-weight to be used when computing paths. If null is
      * specified, the builtin default link-weight measuring hop-counts will be
@@ -129,6 +150,22 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * reusing the clusters and broadcast sets of the previous topology where
+     * the changes between the two graphs permit.
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -138,13 +175,24 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                                               description.edges());
 
-        this.clusterResults = Suppliers.memoize(() -> searchForClusters());
+        this.hopCountWeight = new HopCountLinkWeight(graph.getVertexes().size());
+
+        GraphDelta delta = previous != null ? previous.delta(graph) : null;
+        if (delta != null) {
+            // Cluster membership is unchanged; only the cluster edge sets and
+            // the broadcast sets of the clusters touched by the delta are
+            // rebuilt.
+            List<Set<TopologyVertex>> vertexSets = delta.clusterVertexes;
+            this.clusterSets = Suppliers.memoize(() -> buildClusterSets(vertexSets));
+            this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets(delta));
+        } else {
+            this.clusterSets = Suppliers.memoize(() -> searchForClusters());
+            this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets(null));
+        }
         this.clusters = Suppliers.memoize(() -> buildTopologyClusters());
 
         this.clusterIndexes = Suppliers.memoize(() -> buildIndexes());
 
-        this.hopCountWeight = new HopCountLinkWeight(graph.getVertexes().size());
-        this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets());
         this.infrastructurePoints = Suppliers.memoize(() -> findInfrastructurePoints());
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
@@ -318,13 +366,48 @@ public class DefaultTopology extends AbstractModel implements Topology {
     /**
      * Returns the set of pre-computed shortest paths between source and
      * destination devices.
+     * <p>
+     * Unless a custom path search algorithm is in use, the paths are derived
+     * from a shortest-path tree rooted at the source device, which is
+     * retained by this topology and reused for further destinations.
+     * </p>
      *
      * @param src source device
      * @param dst destination device
      * @return set of shortest paths
      */
     public Set<Path> getPaths(DeviceId src, DeviceId dst) {
-        return getPaths(src, dst, linkWeight());
+        if (defaultGraphPathSearch != null) {
+            return getPaths(src, dst, linkWeight());
+        }
+
+        DefaultTopologyVertex srcV = new DefaultTopologyVertex(src);
+        DefaultTopologyVertex dstV = new DefaultTopologyVertex(dst);
+        Set<TopologyVertex> vertices = graph.getVertexes();
+        if (!vertices.contains(srcV) || !vertices.contains(dstV)) {
+            // src or dst not part of the current graph
+            return ImmutableSet.of();
+        }
+
+        Result<TopologyVertex, TopologyEdge> tree = sourceTree(srcV);
+        ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
+        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path :
+                DIJKSTRA.buildPaths(tree, dstV, ALL_PATHS)) {
+            builder.add(networkPath(path));
+        }
+        return builder.build();
+    }
+
+    // Returns the shortest-path tree rooted at the given vertex, computing it
+    // if it is not cached or was computed with a different default weight.
+    private Result<TopologyVertex, TopologyEdge> sourceTree(TopologyVertex srcV) {
+        LinkWeight weight = linkWeight();
+        SourceTree tree = sourceTrees.getIfPresent(srcV.deviceId());
+        if (tree == null || tree.weight != weight) {
+            tree = new SourceTree(weight, DIJKSTRA.searchTree(graph, srcV, weight, ALL_PATHS));
+            sourceTrees.put(srcV.deviceId(), tree);
+        }
+        return tree.result;
     }
 
     /**
@@ -485,22 +568,166 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeight());
+    private ClusterSets searchForClusters() {
+        SccResult<TopologyVertex, TopologyEdge> result = TARJAN.search(graph, NO_INDIRECT_LINKS);
+        return new ClusterSets(result.clusterVertexes(), result.clusterEdges());
+    }
+
+    // Builds the cluster edge sets for the given, already known, cluster
+    // vertex sets.
+    private ClusterSets buildClusterSets(List<Set<TopologyVertex>> vertexSets) {
+        List<Set<TopologyEdge>> edgeSets = new ArrayList<>(vertexSets.size());
+        for (Set<TopologyVertex> vertexes : vertexSets) {
+            Set<TopologyEdge> edges = new HashSet<>();
+            for (TopologyVertex vertex : vertexes) {
+                for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                    if (vertexes.contains(edge.dst())) {
+                        edges.add(edge);
+                    }
+                }
+            }
+            edgeSets.add(Collections.unmodifiableSet(edges));
+        }
+        return new ClusterSets(vertexSets, Collections.unmodifiableList(edgeSets));
+    }
+
+    // Determines whether the SCC clusters of this topology remain valid for
+    // the specified new graph and, if so, returns the delta describing which
+    // clusters were touched; returns null if the clusters must be recomputed.
+    private GraphDelta delta(TopologyGraph newGraph) {
+        // Any change in the set of devices requires a full recomputation.
+        if (!graph.getVertexes().equals(newGraph.getVertexes())) {
+            return null;
+        }
+
+        // Pair up the old and new versions of each link; link equality does
+        // not account for link state, so it is compared separately.
+        Map<Link, Link> oldLinks = new HashMap<>();
+        graph.getEdges().forEach(e -> oldLinks.put(e.link(), e.link()));
+
+        ImmutableMap<DeviceId, TopologyCluster> clusterIndex = clustersByDevice();
+        Set<Integer> touched = new HashSet<>();
+        Set<Integer> recheck = new HashSet<>();
+        for (TopologyEdge edge : newGraph.getEdges()) {
+            Link oldLink = oldLinks.remove(edge.link());
+            if (oldLink == null || oldLink.state() != edge.link().state()) {
+                if (!assess(oldLink, edge.link(), clusterIndex, touched, recheck)) {
+                    return null;
+                }
+            }
+        }
+        for (Link oldLink : oldLinks.values()) {
+            if (!assess(oldLink, null, clusterIndex, touched, recheck)) {
+                return null;
+            }
+        }
+
+        // Clusters that lost internal links must still be strongly connected.
+        List<Set<TopologyVertex>> vertexSets = clusterSets.get().vertexes;
+        for (int index : recheck) {
+            if (!isStronglyConnected(newGraph, vertexSets.get(index))) {
+                return null;
+            }
+        }
+
+        // Broadcast trees may detour through other clusters over indirect
+        // links; if they can, the previous trees cannot be reused selectively.
+        ImmutableSetMultimap<ClusterId, ConnectPoint> reusableSets =
+                hasDetours(graph, clusterIndex) || hasDetours(newGraph, clusterIndex) ?
+                        null : broadcastSets.get();
+        return new GraphDelta(vertexSets, reusableSets, touched);
+    }
+
+    // Assesses the effect of a link change on the SCC clusters, recording the
+    // touched clusters and the clusters which need to be re-verified; returns
+    // false if the change may merge clusters.
+    private static boolean assess(Link oldLink, Link newLink,
+                                  Map<DeviceId, TopologyCluster> clusterIndex,
+                                  Set<Integer> touched, Set<Integer> recheck) {
+        Link link = newLink != null ? newLink : oldLink;
+        TopologyCluster srcCluster = clusterIndex.get(link.src().deviceId());
+        TopologyCluster dstCluster = clusterIndex.get(link.dst().deviceId());
+        if (srcCluster == null || dstCluster == null) {
+            return false;
+        }
+        touched.add(srcCluster.id().index());
+        touched.add(dstCluster.id().index());
+
+        boolean wasTraversable = oldLink != null && isTraversable(oldLink);
+        boolean isTraversable = newLink != null && isTraversable(newLink);
+        boolean internal = srcCluster.equals(dstCluster);
+        if (isTraversable && !wasTraversable && !internal) {
+            return false;
+        }
+        if (wasTraversable && !isTraversable && internal) {
+            recheck.add(srcCluster.id().index());
+        }
+        return true;
+    }
+
+    // Indicates whether the given vertexes are still strongly connected via
+    // the traversable edges of the specified graph.
+    private static boolean isStronglyConnected(TopologyGraph graph,
+                                               Set<TopologyVertex> vertexes) {
+        TopologyVertex start = vertexes.iterator().next();
+        return reach(graph, start, vertexes, true) == vertexes.size() &&
+                reach(graph, start, vertexes, false) == vertexes.size();
+    }
+
+    // Counts the vertexes of the given set reachable from the start vertex,
+    // following traversable edges forward or backward.
+    private static int reach(TopologyGraph graph, TopologyVertex start,
+                             Set<TopologyVertex> vertexes, boolean forward) {
+        Set<TopologyVertex> seen = new HashSet<>();
+        Queue<TopologyVertex> queue = new ArrayDeque<>();
+        seen.add(start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            TopologyVertex vertex = queue.remove();
+            Set<TopologyEdge> edges = forward ?
+                    graph.getEdgesFrom(vertex) : graph.getEdgesTo(vertex);
+            for (TopologyEdge edge : edges) {
+                TopologyVertex next = forward ? edge.dst() : edge.src();
+                if (isTraversable(edge.link()) && vertexes.contains(next) && seen.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return seen.size();
+    }
+
+    // Indicates whether the graph has active indirect links between clusters,
+    // through which broadcast trees may leave and re-enter a cluster.
+    private static boolean hasDetours(TopologyGraph graph,
+                                      Map<DeviceId, TopologyCluster> clusterIndex) {
+        for (TopologyEdge edge : graph.getEdges()) {
+            Link link = edge.link();
+            if (link.type() == INDIRECT && link.state() != INACTIVE &&
+                    !clusterIndex.get(link.src().deviceId())
+                            .equals(clusterIndex.get(link.dst().deviceId()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Indicates whether the link may be traversed when searching for clusters.
+    private static boolean isTraversable(Link link) {
+        return link.state() != INACTIVE && link.type() != INDIRECT;
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder = ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        ClusterSets results = clusterSets.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
-        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes();
-        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges();
+        List<Set<TopologyVertex>> clusterVertexes = results.vertexes;
+        List<Set<TopologyEdge>> clusterEdges = results.edges;
 
         // Scan over the lists and create a cluster from the results.
-        for (int i = 0, n = results.clusterCount(); i < n; i++) {
+        for (int i = 0, n = clusterVertexes.size(); i < n; i++) {
             Set<TopologyVertex> vertexSet = clusterVertexes.get(i);
             Set<TopologyEdge> edgeSet = clusterEdges.get(i);
 
@@ -527,11 +754,17 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return minVertex;
     }
 
-    // Processes a map of broadcast sets for each cluster.
-    private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets() {
+    // Processes a map of broadcast sets for each cluster, carrying over the
+    // sets of the clusters untouched by the given delta, if any.
+    private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets(GraphDelta delta) {
         Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
         for (TopologyCluster cluster : clusters.get().values()) {
-            addClusterBroadcastSet(cluster, builder);
+            if (delta != null && delta.broadcastSets != null &&
+                    !delta.touched.contains(cluster.id().index())) {
+                builder.putAll(cluster.id(), delta.broadcastSets.get(cluster.id()));
+            } else {
+                addClusterBroadcastSet(cluster, builder);
+            }
         }
         return builder.build();
     }
@@ -541,7 +774,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
     // all other devices within the cluster.
     private void addClusterBroadcastSet(TopologyCluster cluster, Builder<ClusterId, ConnectPoint> builder) {
         // Use the graph root search results to build the broadcast set.
-        Result<TopologyVertex, TopologyEdge> result = DIJKSTRA.search(graph, cluster.root(), null, hopCountWeight, 1);
+        Result<TopologyVertex, TopologyEdge> result = DIJKSTRA.searchTree(graph, cluster.root(), hopCountWeight, 1);
         for (Map.Entry<TopologyVertex, Set<TopologyEdge>> entry : result.parents().entrySet()) {
             TopologyVertex vertex = entry.getKey();
 
@@ -589,13 +822,13 @@ public class DefaultTopology extends AbstractModel implements Topology {
             int i = cluster.id().index();
 
             // Scan through all the cluster vertexes.
-            for (TopologyVertex vertex : clusterResults.get().clusterVertexes().get(i)) {
+            for (TopologyVertex vertex : clusterSets.get().vertexes.get(i)) {
                 devicesBuilder.put(cluster, vertex.deviceId());
                 clusterBuilder.put(vertex.deviceId(), cluster);
             }
 
             // Scan through all the cluster edges.
-            for (TopologyEdge edge : clusterResults.get().clusterEdges().get(i)) {
+            for (TopologyEdge edge : clusterSets.get().edges.get(i)) {
                 linksBuilder.put(cluster, edge.link());
             }
         }
@@ -618,8 +851,47 @@ public class DefaultTopology extends AbstractModel implements Topology {
     private static class NoIndirectLinksWeight implements LinkWeight {
         @Override
         public double weight(TopologyEdge edge) {
-            return (edge.link().state() == INACTIVE)
-                    || (edge.link().type() == INDIRECT) ? -1 : 1;
+            return isTraversable(edge.link()) ? 1 : -1;
+        }
+    }
+
+    // Shortest-path search result for all destinations of a source, along
+    // with the link weight used to compute it.
+    private static final class SourceTree {
+        final LinkWeight weight;
+        final Result<TopologyVertex, TopologyEdge> result;
+
+        SourceTree(LinkWeight weight, Result<TopologyVertex, TopologyEdge> result) {
+            this.weight = weight;
+            this.result = result;
+        }
+    }
+
+    // Vertex and edge sets of the SCC clusters; the lists form pairs along
+    // the same index.
+    private static final class ClusterSets {
+        final List<Set<TopologyVertex>> vertexes;
+        final List<Set<TopologyEdge>> edges;
+
+        ClusterSets(List<Set<TopologyVertex>> vertexes, List<Set<TopologyEdge>> edges) {
+            this.vertexes = vertexes;
+            this.edges = edges;
+        }
+    }
+
+    // Clusters carried over from the previous topology, along with its
+    // broadcast sets and the indexes of the clusters touched by the changes.
+    private static final class GraphDelta {
+        final List<Set<TopologyVertex>> clusterVertexes;
+        final ImmutableSetMultimap<ClusterId, ConnectPoint> broadcastSets;
+        final Set<Integer> touched;
+
+        GraphDelta(List<Set<TopologyVertex>> clusterVertexes,
+                   ImmutableSetMultimap<ClusterId, ConnectPoint> broadcastSets,
+                   Set<Integer> touched) {
+            this.clusterVertexes = clusterVertexes;
+            this.broadcastSets = broadcastSets;
+            this.touched = touched;
         }
     }
 
@@ -129,6 +129,53 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    @Test
+    public void incrementalRelated() {
+        // Removing one direction of a redundant link keeps the clusters.
+        Set<Link> links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                             link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4));
+        assertSameAsFull(links);
+
+        // Removing all links of a device splits the cluster.
+        links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                   link("3", 2, "2", 2), link("2", 2, "3", 2));
+        assertSameAsFull(links);
+
+        // Adding a link to a lone device merges the clusters.
+        links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                   link("3", 2, "2", 2), link("2", 2, "3", 2),
+                   link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), link("4", 4, "3", 4),
+                   link("4", 5, "5", 5), link("5", 5, "4", 5));
+        assertSameAsFull(links);
+    }
+
+    // Verifies that a topology derived from the test topology matches one
+    // computed from scratch for the same links.
+    private void assertSameAsFull(Set<Link> links) {
+        long now = System.currentTimeMillis();
+        Set<Device> devices = of(device("1"), device("2"),
+                                 device("3"), device("4"),
+                                 device("5"));
+        GraphDescription graphDescription =
+                new DefaultGraphDescription(now, System.currentTimeMillis(), devices, links);
+
+        DefaultTopology full = new DefaultTopology(PID, graphDescription);
+        DefaultTopology incremental = new DefaultTopology(PID, graphDescription, null, dt);
+        assertEquals("incorrect cluster count", full.clusterCount(), incremental.clusterCount());
+        for (TopologyCluster cluster : full.getClusters()) {
+            TopologyCluster other = incremental.getCluster(cluster.root().deviceId());
+            assertEquals("incorrect cluster devices", full.getClusterDevices(cluster),
+                         incremental.getClusterDevices(other));
+            assertEquals("incorrect cluster links", full.getClusterLinks(cluster),
+                         incremental.getClusterLinks(other));
+            assertEquals("incorrect broadcast set", full.broadcastPoints(cluster.id()),
+                         incremental.broadcastPoints(other.id()));
+        }
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
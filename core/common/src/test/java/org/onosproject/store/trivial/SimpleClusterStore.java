@@ -137,6 +137,11 @@ public class SimpleClusterStore
         return instance.id();
     }
 
+    @Override
+    public int getPartitionCount() {
+        return 1;
+    }
+
     @Override
     public void addListener(IntentPartitionEventListener listener) {
         checkPermission(INTENT_EVENT);
@@ -18,8 +18,14 @@ package org.onosproject.event.impl;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
@@ -27,10 +33,15 @@ import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
 
+import java.util.Map;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -38,6 +49,8 @@ import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.EVENT_READ;
@@ -45,50 +58,61 @@ import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * Events are dispatched through a set of independent lanes, one per event
+ * class. Each lane has its own bounded queue, dispatch thread and watchdog
+ * state, so that events of one class are delivered in order while a slow
+ * sink for one class cannot hold back the delivery of events of another.
+ * </p>
  */
 @Component(immediate = true)
 @Service
 public class CoreEventDispatcher extends DefaultEventSinkRegistry
-        implements EventDeliveryService {
+        implements EventDeliveryService, MetricsHelper {
 
     private final Logger log = getLogger(getClass());
 
-    private boolean executionTimeLimit = false;
-
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
     private static final long WATCHDOG_MS = 250; // ms
 
-    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    // Maximum number of events that may be pending in a single lane.
+    private static final int DEFAULT_LANE_CAPACITY = 500_000;
 
-    private final ExecutorService executor =
-            newSingleThreadExecutor(groupedThreads("onos/event", "dispatch-%d", log));
+    private static final String METRICS_COMPONENT = "EventDispatcher";
+    private static final String QUEUE_DEPTH = "queueDepth";
+    private static final String PROCESS_TIME = "processTime";
 
     @SuppressWarnings("unchecked")
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
     };
 
-    private DispatchLoop dispatchLoop;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private final Map<Class<? extends Event>, DispatchLane> lanes =
+            new ConcurrentHashMap<>();
+
+    private volatile boolean active = false;
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
+    private int laneCapacity = DEFAULT_LANE_CAPACITY;
 
     // Means to detect long-running sinks
     private TimerTask watchdog;
-    private EventSink lastSink;
-    private final Stopwatch stopwatch = Stopwatch.createUnstarted();
-    private Future<?> dispatchFuture;
 
     @Override
     public void post(Event event) {
-        if (!events.add(event)) {
-            log.error("Unable to post event {}", event);
+        DispatchLane lane = lanes.computeIfAbsent(event.getClass(), this::createLane);
+        if (!lane.offer(event)) {
+            log.error("Unable to post event {}; lane {} is full",
+                      event, lane.name);
         }
     }
 
     @Activate
     public void activate() {
-        dispatchLoop = new DispatchLoop();
-        dispatchFuture = executor.submit(dispatchLoop);
-
+        active = true;
+        lanes.values().forEach(DispatchLane::start);
         if (maxProcessMillis != 0) {
             startWatchdog();
         }
@@ -98,12 +122,18 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     @Deactivate
     public void deactivate() {
-        dispatchLoop.stop();
+        active = false;
         stopWatchdog();
-        post(KILL_PILL);
+        lanes.values().forEach(DispatchLane::shutdown);
+        lanes.clear();
         log.info("Stopped");
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     private void startWatchdog() {
         log.info("Starting watchdog task");
         watchdog = new Watchdog();
@@ -138,29 +168,136 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
-    // Auxiliary event dispatching loop that feeds off the events queue.
+    /**
+     * Sets the maximum number of events that may be queued in any one lane.
+     * Applies only to lanes created after this call.
+     *
+     * @param capacity lane capacity; must be positive
+     */
+    void setLaneCapacity(int capacity) {
+        checkArgument(capacity > 0, "Lane capacity must be positive");
+        laneCapacity = capacity;
+    }
+
+    /**
+     * Returns the current number of pending events in each dispatch lane.
+     *
+     * @return map of lane event class to queue depth
+     */
+    Map<Class<? extends Event>, Integer> getLaneDepths() {
+        ImmutableMap.Builder<Class<? extends Event>, Integer> builder = ImmutableMap.builder();
+        lanes.forEach((eventClass, lane) -> builder.put(eventClass, lane.events.size()));
+        return builder.build();
+    }
+
+    // Creates and starts a new dispatch lane for the given event class.
+    private DispatchLane createLane(Class<? extends Event> eventClass) {
+        DispatchLane lane = new DispatchLane(eventClass, laneCapacity);
+        if (active) {
+            lane.start();
+        }
+        return lane;
+    }
+
+    // Ordered event delivery channel serving a single event class.
+    private final class DispatchLane {
+        private final String name;
+        private final BlockingQueue<Event> events;
+        private final ExecutorService executor;
+
+        // Means to detect long-running sinks in this lane
+        private final Stopwatch stopwatch = Stopwatch.createUnstarted();
+        private volatile EventSink lastSink;
+
+        private DispatchLoop dispatchLoop;
+        private Future<?> dispatchFuture;
+
+        private MetricsComponent metricsComponent;
+        private MetricsFeature metricsFeature;
+        private Timer processTimer;
+
+        private DispatchLane(Class<? extends Event> eventClass, int capacity) {
+            this.name = eventClass.getSimpleName().isEmpty() ?
+                    eventClass.getName() : eventClass.getSimpleName();
+            this.events = new LinkedBlockingQueue<>(capacity);
+            this.executor = newSingleThreadExecutor(
+                    groupedThreads("onos/event", "dispatch-" + name + "-%d", log));
+        }
+
+        private boolean offer(Event event) {
+            return events.offer(event);
+        }
+
+        private synchronized void start() {
+            registerMetrics();
+            dispatchLoop = new DispatchLoop(this);
+            dispatchFuture = executor.submit(dispatchLoop);
+        }
+
+        private synchronized void restart() {
+            dispatchLoop.stop();
+            dispatchLoop = new DispatchLoop(this);
+            dispatchFuture.cancel(true);
+            dispatchFuture = executor.submit(dispatchLoop);
+        }
+
+        private synchronized void shutdown() {
+            if (dispatchLoop != null) {
+                dispatchLoop.stop();
+            }
+            events.clear();
+            events.offer(KILL_PILL);
+            executor.shutdown();
+            unregisterMetrics();
+        }
+
+        private void registerMetrics() {
+            processTimer = createTimer(METRICS_COMPONENT, name, PROCESS_TIME);
+            if (metricsService != null) {
+                metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+                metricsFeature = metricsComponent.registerFeature(name);
+                metricsService.registerMetric(metricsComponent, metricsFeature,
+                                              QUEUE_DEPTH,
+                                              (Gauge<Integer>) events::size);
+            }
+        }
+
+        private void unregisterMetrics() {
+            if (metricsService != null && metricsComponent != null) {
+                metricsService.removeMetric(metricsComponent, metricsFeature, QUEUE_DEPTH);
+                metricsService.removeMetric(metricsComponent, metricsFeature, PROCESS_TIME);
+            }
+        }
+    }
+
+    // Auxiliary event dispatching loop that feeds off a lane's events queue.
     private class DispatchLoop implements Runnable {
+        private final DispatchLane lane;
         private volatile boolean stopped;
 
+        DispatchLoop(DispatchLane lane) {
+            this.lane = lane;
+        }
+
         @Override
         public void run() {
             stopped = false;
-            log.info("Dispatch loop initiated");
+            log.debug("Dispatch loop initiated for {}", lane.name);
             while (!stopped) {
                 try {
                     // Fetch the next event and if it is the kill-pill, bail
-                    Event event = events.take();
+                    Event event = lane.events.take();
                     if (event == KILL_PILL) {
                         break;
                     }
                     process(event);
                 } catch (InterruptedException e) {
-                    log.warn("Dispatch loop interrupted");
+                    log.warn("Dispatch loop for {} interrupted", lane.name);
                 } catch (Exception | Error e) {
                     log.warn("Error encountered while dispatching event:", e);
                 }
             }
-            log.info("Dispatch loop terminated");
+            log.debug("Dispatch loop for {} terminated", lane.name);
         }
 
         // Locate the sink for the event class and use it to process the event
@@ -168,10 +305,15 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         private void process(Event event) {
             EventSink sink = getSink(event.getClass());
             if (sink != null) {
-                lastSink = sink;
-                stopwatch.start();
-                sink.process(event);
-                stopwatch.reset();
+                lane.lastSink = sink;
+                Timer.Context timer = startTimer(lane.processTimer);
+                lane.stopwatch.start();
+                try {
+                    sink.process(event);
+                } finally {
+                    lane.stopwatch.reset();
+                    stopTimer(timer);
+                }
             } else {
                 log.warn("No sink registered for event class {}",
                          event.getClass().getName());
@@ -187,20 +329,23 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     private class Watchdog extends TimerTask {
         @Override
         public void run() {
-            long elapsedTimeMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+            lanes.values().forEach(this::check);
+        }
+
+        private void check(DispatchLane lane) {
+            long elapsedTimeMillis = lane.stopwatch.elapsed(TimeUnit.MILLISECONDS);
             if (elapsedTimeMillis > maxProcessMillis) {
-                stopwatch.reset();
-                log.warn("Event sink {} exceeded execution time limit: {} ms; spawning new dispatch loop",
-                          lastSink.getClass().getName(), elapsedTimeMillis);
+                lane.stopwatch.reset();
+                EventSink sink = lane.lastSink;
+                log.warn("Event sink {} exceeded execution time limit: {} ms; " +
+                                 "spawning new dispatch loop for {}",
+                         sink.getClass().getName(), elapsedTimeMillis, lane.name);
 
                 // Notify the sink that it has exceeded its time limit.
-                lastSink.onProcessLimit();
+                sink.onProcessLimit();
 
                 // Cancel the old dispatch loop and submit a new one.
-                dispatchLoop.stop();
-                dispatchLoop = new DispatchLoop();
-                dispatchFuture.cancel(true);
-                dispatchFuture = executor.submit(dispatchLoop);
+                lane.restart();
             }
         }
     }
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow.impl;
+
+import com.google.common.collect.Sets;
+import org.onosproject.net.flow.FlowRule;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Order independent digests of a set of flow rules, kept per bucket of
+ * rules. A bucket groups the rules of a table whose flow identifiers hash
+ * to the same value.
+ * <p>
+ * Two rules contribute the same digest only if they match exactly, that is
+ * if they are equal and have the same identifier and treatment. Two sets of
+ * rules whose digests agree for a bucket thus hold, save for a hash
+ * collision, the very same rules in that bucket.
+ * </p>
+ * <p>
+ * Digests built with {@link #add(FlowRule)} are meant to be folded once from
+ * a full set of rules. Digests kept up to date as rules come and go are
+ * built with {@link #update(FlowRule)} and {@link #remove(FlowRule)}
+ * instead, which track the contribution of each rule so that both can be
+ * applied repeatedly; these are safe for use by multiple threads.
+ * </p>
+ */
+final class FlowRuleDigests {
+
+    private static final int BUCKETS = 64;
+
+    // bucket to {sum of rule digests, number of rules}
+    private final Map<Long, long[]> digests = new HashMap<>();
+    // tracked rule to {bucket, rule digest}
+    private final Map<FlowRule, long[]> contributions = new HashMap<>();
+
+    /**
+     * Returns the bucket of the given flow rule.
+     *
+     * @param rule flow rule
+     * @return bucket
+     */
+    static long bucketOf(FlowRule rule) {
+        return ((long) rule.tableId() << 32) | (mix(rule.id().value()) & (BUCKETS - 1));
+    }
+
+    private static long digestOf(FlowRule rule) {
+        long h = rule.id().value();
+        h = 31 * h + rule.hashCode();
+        h = 31 * h + rule.priority();
+        h = 31 * h + Objects.hashCode(rule.treatment());
+        return mix(h);
+    }
+
+    // 64 bit finalizer of MurmurHash3
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Adds the given flow rule to the digests.
+     *
+     * @param rule flow rule
+     */
+    void add(FlowRule rule) {
+        add(bucketOf(rule), digestOf(rule));
+    }
+
+    private void add(long bucket, long ruleDigest) {
+        long[] digest = digests.computeIfAbsent(bucket, k -> new long[2]);
+        digest[0] += ruleDigest;
+        digest[1]++;
+    }
+
+    private void subtract(long bucket, long ruleDigest) {
+        long[] digest = digests.get(bucket);
+        if (digest != null) {
+            digest[0] -= ruleDigest;
+            if (--digest[1] == 0) {
+                digests.remove(bucket);
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces the given flow rule in the digests.
+     *
+     * @param rule flow rule
+     */
+    synchronized void update(FlowRule rule) {
+        long[] contribution = {bucketOf(rule), digestOf(rule)};
+        long[] previous = contributions.put(rule, contribution);
+        if (previous != null) {
+            subtract(previous[0], previous[1]);
+        }
+        add(contribution[0], contribution[1]);
+    }
+
+    /**
+     * Removes the given flow rule from the digests, if present.
+     *
+     * @param rule flow rule
+     */
+    synchronized void remove(FlowRule rule) {
+        long[] previous = contributions.remove(rule);
+        if (previous != null) {
+            subtract(previous[0], previous[1]);
+        }
+    }
+
+    /**
+     * Replaces the content of the given buckets with the given flow rules.
+     *
+     * @param buckets buckets to replace
+     * @param rules   flow rules now in those buckets
+     */
+    synchronized void reset(Set<Long> buckets, Iterable<? extends FlowRule> rules) {
+        contributions.values().removeIf(c -> buckets.contains(c[0]));
+        buckets.forEach(digests::remove);
+        rules.forEach(this::update);
+    }
+
+    /**
+     * Returns the buckets for which these digests and the given ones differ.
+     *
+     * @param other other digests
+     * @return mismatched buckets
+     */
+    synchronized Set<Long> mismatchedBuckets(FlowRuleDigests other) {
+        return mismatchedBuckets(other, Sets.union(digests.keySet(), other.digests.keySet()));
+    }
+
+    /**
+     * Returns the buckets of the given digests for which these digests
+     * differ. The buckets the given digests do not hold are left out, as when
+     * they are built from a partial set of rules.
+     *
+     * @param other other digests
+     * @return mismatched buckets among those of the other digests
+     */
+    synchronized Set<Long> mismatchedBucketsOf(FlowRuleDigests other) {
+        return mismatchedBuckets(other, other.digests.keySet());
+    }
+
+    private Set<Long> mismatchedBuckets(FlowRuleDigests other, Set<Long> buckets) {
+        Set<Long> mismatched = Sets.newHashSet();
+        buckets.forEach(bucket -> {
+            if (!Arrays.equals(digests.get(bucket), other.digests.get(bucket))) {
+                mismatched.add(bucket);
+            }
+        });
+        return mismatched;
+    }
+}
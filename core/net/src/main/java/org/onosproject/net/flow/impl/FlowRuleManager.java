@@ -15,7 +15,10 @@
  */
 package org.onosproject.net.flow.impl;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -29,6 +32,12 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.AbstractAccumulator;
+import org.onlab.util.Accumulator;
+import org.onlab.util.SharedExecutors;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.ApplicationId;
@@ -65,8 +74,11 @@ import org.onosproject.net.provider.AbstractProviderService;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -74,9 +86,13 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_ADD_REQUESTED;
@@ -116,6 +132,18 @@ public class FlowRuleManager
             label = "Frequency (in seconds) for polling flow statistics via fallback provider")
     private int fallbackFlowPollFrequency = DEFAULT_POLL_FREQUENCY;
 
+    private static final int DEFAULT_BATCH_WINDOW = 0;
+    @Property(name = "flowRuleBatchWindow", intValue = DEFAULT_BATCH_WINDOW,
+            label = "Time window (in ms) over which the flow rule operations for a device " +
+                    "are merged into one batch; 0 disables merging")
+    private int flowRuleBatchWindow = DEFAULT_BATCH_WINDOW;
+
+    // Maximum number of device batches merged in one window
+    private static final int MAX_BATCHES = 1000;
+
+    private static final String METRICS_COMPONENT = "FlowRuleManager";
+    private static final String RECONCILIATION = "reconciliation";
+
     private final FlowRuleStoreDelegate delegate = new InternalStoreDelegate();
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
@@ -129,9 +157,16 @@ public class FlowRuleManager
 
     private IdGenerator idGenerator;
 
-    private Map<Long, FlowOperationsProcessor> pendingFlowOperations
+    private Map<Long, List<DeviceBatch>> pendingFlowOperations
             = new ConcurrentHashMap<>();
 
+    // Digests of the stored rules of the devices whose flow tables have been
+    // reconciled, kept up to date from the flow rule events
+    private final Map<DeviceId, FlowRuleDigests> expectedDigests = new ConcurrentHashMap<>();
+
+    // Merges device batches when a batch window is configured; null otherwise
+    private Accumulator<DeviceBatch> batchAccumulator;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowRuleStore store;
 
@@ -147,6 +182,14 @@ public class FlowRuleManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService cfgService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private Timer auditTimer;
+    private Counter mismatchedBuckets;
+    private Counter missingRules;
+    private Counter extraneousRules;
+
     @Activate
     public void activate(ComponentContext context) {
         modified(context);
@@ -155,6 +198,7 @@ public class FlowRuleManager
         deviceService.addListener(deviceListener);
         cfgService.registerProperties(getClass());
         idGenerator = coreService.getIdGenerator(FLOW_OP_TOPIC);
+        registerMetrics();
         log.info("Started");
     }
 
@@ -166,9 +210,85 @@ public class FlowRuleManager
         operationsService.shutdownNow();
         store.unsetDelegate(delegate);
         eventDispatcher.removeSink(FlowRuleEvent.class);
+        expectedDigests.clear();
+        unregisterMetrics();
         log.info("Stopped");
     }
 
+    private void registerMetrics() {
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(RECONCILIATION);
+            auditTimer = metricsService.createTimer(component, feature, "auditTime");
+            mismatchedBuckets = metricsService.createCounter(component, feature, "mismatchedBuckets");
+            missingRules = metricsService.createCounter(component, feature, "missingRules");
+            extraneousRules = metricsService.createCounter(component, feature, "extraneousRules");
+        }
+    }
+
+    private void unregisterMetrics() {
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(RECONCILIATION);
+            metricsService.removeMetric(component, feature, "auditTime");
+            metricsService.removeMetric(component, feature, "mismatchedBuckets");
+            metricsService.removeMetric(component, feature, "missingRules");
+            metricsService.removeMetric(component, feature, "extraneousRules");
+        }
+    }
+
+    @Override
+    protected void post(FlowRuleEvent event) {
+        trackExpected(event);
+        super.post(event);
+    }
+
+    // Folds the given flow rule event into the digests of the stored rules
+    // of its device, if they are tracked.
+    private void trackExpected(FlowRuleEvent event) {
+        if (event == null) {
+            return;
+        }
+        FlowRuleDigests expected = expectedDigests.get(event.subject().deviceId());
+        if (expected == null) {
+            return;
+        }
+        switch (event.type()) {
+            case RULE_ADD_REQUESTED:
+            case RULE_ADDED:
+            case RULE_UPDATED:
+                expected.update(event.subject());
+                break;
+            case RULE_REMOVED:
+                expected.remove(event.subject());
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Returns the digests of the stored rules of the given device, seeding
+    // them from the store the first time around.
+    private FlowRuleDigests expectedDigests(DeviceId deviceId) {
+        FlowRuleDigests expected = expectedDigests.get(deviceId);
+        if (expected == null) {
+            FlowRuleDigests seeded = new FlowRuleDigests();
+            expected = expectedDigests.putIfAbsent(deviceId, seeded);
+            if (expected == null) {
+                // events from now on are tracked, so none is missed
+                store.getFlowEntries(deviceId).forEach(seeded::update);
+                expected = seeded;
+            }
+        }
+        return expected;
+    }
+
+    private void increment(Counter counter, long count) {
+        if (counter != null && count > 0) {
+            counter.inc(count);
+        }
+    }
+
     @Modified
     public void modified(ComponentContext context) {
         if (context != null) {
@@ -218,6 +338,21 @@ public class FlowRuleManager
         } catch (NumberFormatException e) {
             fallbackFlowPollFrequency = DEFAULT_POLL_FREQUENCY;
         }
+
+        s = get(properties, "flowRuleBatchWindow");
+        int newBatchWindow;
+        try {
+            newBatchWindow = isNullOrEmpty(s) ? flowRuleBatchWindow : Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            newBatchWindow = DEFAULT_BATCH_WINDOW;
+        }
+        if (newBatchWindow != flowRuleBatchWindow) {
+            // batches already accumulated are still flushed by the old accumulator
+            flowRuleBatchWindow = Math.max(newBatchWindow, 0);
+            batchAccumulator = flowRuleBatchWindow > 0 ?
+                    new FlowRuleBatchAccumulator(flowRuleBatchWindow) : null;
+            log.info("Configured. FlowRuleBatchWindow is {} ms", flowRuleBatchWindow);
+        }
     }
 
     @Override
@@ -232,6 +367,13 @@ public class FlowRuleManager
         return store.getFlowEntries(deviceId);
     }
 
+    @Override
+    public Iterable<FlowEntry> getFlowEntries(DeviceId deviceId,
+                                              Predicate<? super FlowEntry> filter) {
+        checkPermission(FLOWRULE_READ);
+        return store.getFlowEntries(deviceId, filter);
+    }
+
     @Override
     public void applyFlowRules(FlowRule... flowRules) {
         checkPermission(FLOWRULE_WRITE);
@@ -442,13 +584,55 @@ public class FlowRuleManager
             pushFlowMetricsInternal(deviceId, flowEntries, false);
         }
 
+        // Reconciles the flow rules reported by a device with the stored ones.
+        // Only the reported rules are hashed; they are checked against the
+        // digests of the stored rules, which the flow rule events keep up to
+        // date. Only the buckets of rules whose digests differ are compared
+        // rule by rule; in the others, the reported rules only refresh their
+        // stored counterparts. Reports without flow missing may hold only
+        // part of the rules, so only the buckets they hold are compared, and
+        // their rules are looked up one by one rather than by walking the
+        // stored rules; the digests are only resynced from full reports.
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
+            final Timer.Context timer = startTimer(auditTimer);
+            FlowRuleDigests expected = expectedDigests(deviceId);
+            FlowRuleDigests reported = new FlowRuleDigests();
+            flowEntries.forEach(reported::add);
+
+            Set<Long> mismatched = useMissingFlow ? expected.mismatchedBuckets(reported)
+                    : expected.mismatchedBucketsOf(reported);
+            increment(mismatchedBuckets, mismatched.size());
+
             Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
-            store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
+            if (!mismatched.isEmpty() && !useMissingFlow) {
+                for (FlowEntry rule : flowEntries) {
+                    if (mismatched.contains(FlowRuleDigests.bucketOf(rule))) {
+                        FlowEntry storedRule = store.getFlowEntry(rule);
+                        if (storedRule != null) {
+                            storedRules.put(storedRule, storedRule);
+                        }
+                    }
+                }
+            } else if (!mismatched.isEmpty()) {
+                for (FlowEntry f : store.getFlowEntries(deviceId)) {
+                    if (mismatched.contains(FlowRuleDigests.bucketOf(f))) {
+                        storedRules.put(f, f);
+                    }
+                }
+                // resync the digests of those buckets, in case they drifted
+                // from the store
+                expected.reset(mismatched, storedRules.keySet());
+            }
 
+            long extraneous = 0;
             for (FlowEntry rule : flowEntries) {
                 try {
+                    if (mismatched.isEmpty() || !mismatched.contains(FlowRuleDigests.bucketOf(rule))) {
+                        // the bucket matches; we both have the rule
+                        flowAdded(rule);
+                        continue;
+                    }
                     FlowEntry storedRule = storedRules.remove(rule);
                     if (storedRule != null) {
                         if (storedRule.exactMatch(rule)) {
@@ -459,20 +643,24 @@ public class FlowRuleManager
                             // switch's rule and install our rule
                             extraneousFlow(rule);
                             flowMissing(storedRule);
+                            extraneous++;
                         }
                     } else {
                         // the device has a rule the store does not have
                         if (!allowExtraneousRules) {
                             extraneousFlow(rule);
+                            extraneous++;
                         }
                     }
                 } catch (Exception e) {
                     log.debug("Can't process added or extra rule {}", e.getMessage());
                 }
             }
+            increment(extraneousRules, extraneous);
 
             // DO NOT reinstall
             if (useMissingFlow) {
+                increment(missingRules, storedRules.size());
                 for (FlowEntry rule : storedRules.keySet()) {
                     try {
                         // there are rules in the store that aren't on the switch
@@ -483,6 +671,7 @@ public class FlowRuleManager
                     }
                 }
             }
+            stopTimer(timer);
         }
 
         @Override
@@ -547,14 +736,10 @@ public class FlowRuleManager
 
             case BATCH_OPERATION_COMPLETED:
 
-                FlowOperationsProcessor fops = pendingFlowOperations.remove(
+                List<DeviceBatch> batches = pendingFlowOperations.remove(
                         event.subject().batchId());
-                if (event.result().isSuccess()) {
-                    if (fops != null) {
-                        fops.satisfy(event.deviceId());
-                    }
-                } else {
-                    fops.fail(event.deviceId(), event.result().failedItems());
+                if (batches != null) {
+                    batches.forEach(b -> b.complete(event.result(), batches.size() > 1));
                 }
 
                 break;
@@ -618,12 +803,14 @@ public class FlowRuleManager
             }
 
 
+            Accumulator<DeviceBatch> accumulator = batchAccumulator;
             for (DeviceId deviceId : perDeviceBatches.keySet()) {
-                long id = idGenerator.getNewId();
-                final FlowRuleBatchOperation b = new FlowRuleBatchOperation(perDeviceBatches.get(deviceId),
-                                               deviceId, id);
-                pendingFlowOperations.put(id, this);
-                deviceInstallers.execute(() -> store.storeBatch(b));
+                DeviceBatch batch = new DeviceBatch(this, deviceId, perDeviceBatches.get(deviceId));
+                if (accumulator != null) {
+                    accumulator.add(batch);
+                } else {
+                    storeBatch(deviceId, ImmutableList.of(batch));
+                }
             }
         }
 
@@ -654,6 +841,92 @@ public class FlowRuleManager
 
     }
 
+    /**
+     * Submits the given batches for a device to the store as a single batch
+     * operation. When several batches are merged, only the last operation on
+     * each flow rule is kept; the operations it supersedes share its outcome.
+     *
+     * @param deviceId device identifier
+     * @param batches  batches for the device, in submission order
+     */
+    private void storeBatch(DeviceId deviceId, List<DeviceBatch> batches) {
+        List<FlowRuleBatchEntry> entries;
+        if (batches.size() == 1) {
+            entries = batches.get(0).entries;
+        } else {
+            Map<FlowRule, FlowRuleBatchEntry> merged = new LinkedHashMap<>();
+            batches.forEach(b -> b.entries.forEach(entry -> {
+                merged.remove(entry.target());
+                merged.put(entry.target(), entry);
+            }));
+            entries = new ArrayList<>(merged.values());
+        }
+
+        long id = idGenerator.getNewId();
+        final FlowRuleBatchOperation b = new FlowRuleBatchOperation(entries, deviceId, id);
+        pendingFlowOperations.put(id, batches);
+        deviceInstallers.execute(() -> store.storeBatch(b));
+    }
+
+    /**
+     * Share of a stage of flow rule operations for a single device.
+     */
+    private static final class DeviceBatch {
+        private final FlowOperationsProcessor processor;
+        private final DeviceId deviceId;
+        private final List<FlowRuleBatchEntry> entries;
+
+        private DeviceBatch(FlowOperationsProcessor processor, DeviceId deviceId,
+                            Collection<FlowRuleBatchEntry> entries) {
+            this.processor = processor;
+            this.deviceId = deviceId;
+            this.entries = ImmutableList.copyOf(entries);
+        }
+
+        /**
+         * Reports the outcome of the batch operation this batch was part of.
+         *
+         * @param result batch operation outcome
+         * @param merged whether the batch operation merged several batches
+         */
+        private void complete(CompletedBatchOperation result, boolean merged) {
+            if (result.isSuccess()) {
+                processor.satisfy(deviceId);
+                return;
+            }
+            Set<FlowRule> failures = result.failedItems();
+            if (merged) {
+                failures = entries.stream()
+                        .map(FlowRuleBatchEntry::target)
+                        .filter(result.failedItems()::contains)
+                        .collect(Collectors.toSet());
+                if (failures.isEmpty()) {
+                    processor.satisfy(deviceId);
+                    return;
+                }
+            }
+            processor.fail(deviceId, failures);
+        }
+    }
+
+    /**
+     * Accumulates device batches over a time window and submits those for
+     * the same device as one batch operation.
+     */
+    private final class FlowRuleBatchAccumulator extends AbstractAccumulator<DeviceBatch> {
+
+        private FlowRuleBatchAccumulator(int windowMillis) {
+            super(SharedExecutors.getTimer(), MAX_BATCHES, windowMillis, windowMillis);
+        }
+
+        @Override
+        public void processItems(List<DeviceBatch> items) {
+            Map<DeviceId, List<DeviceBatch>> batchesByDevice = items.stream()
+                    .collect(Collectors.groupingBy(b -> b.deviceId, LinkedHashMap::new, Collectors.toList()));
+            batchesByDevice.forEach(FlowRuleManager.this::storeBatch);
+        }
+    }
+
     @Override
     public Iterable<TableStatisticsEntry> getFlowTableStatistics(DeviceId deviceId) {
         checkPermission(FLOWRULE_READ);
@@ -668,6 +941,7 @@ public class FlowRuleManager
                 case DEVICE_AVAILABILITY_CHANGED:
                     DeviceId deviceId = event.subject().id();
                     if (!deviceService.isAvailable(deviceId)) {
+                        expectedDigests.remove(deviceId);
                         if (purgeOnDisconnection) {
                             store.purgeFlowRule(deviceId);
                         }
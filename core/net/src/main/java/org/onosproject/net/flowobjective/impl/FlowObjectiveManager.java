@@ -15,6 +15,8 @@
  */
 package org.onosproject.net.flowobjective.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
@@ -23,6 +25,9 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.osgi.DefaultServiceDirectory;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.util.ItemNotFoundException;
@@ -60,16 +65,29 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.FLOWRULE_WRITE;
 
 /**
  * Provides implementation of the flow objective programming service.
+ * <p>
+ * Objectives are handed to the device drivers through one serial lane per
+ * device, run on a shared pool of threads. Objectives for a device are thus
+ * passed to its driver in the order they were submitted, while a slow device
+ * only holds back its own objectives. Each lane has a bounded backlog; when
+ * it is full, submitters are held back for a while and the objective is
+ * failed if room does not free up. Forwarding objectives released by the
+ * store are never held back, as that would stall the store's thread.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -78,6 +96,17 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     public static final int INSTALL_RETRY_ATTEMPTS = 5;
     public static final long INSTALL_RETRY_INTERVAL = 1000; // ms
 
+    // Maximum number of objectives pending in a single device lane
+    private static final int LANE_BACKLOG = 10_000;
+    // Maximum time a submitter is held back while a device lane is full
+    private static final long LANE_BACKPRESSURE_MS = 1000;
+    // Maximum number of objectives handed to a driver in one lane run
+    private static final int LANE_BATCH = 100;
+
+    private static final String METRICS_COMPONENT = "FlowObjectiveManager";
+    private static final String BACKLOG = "backlog";
+    private static final String INSTALL_LATENCY = "installLatency";
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -110,6 +139,9 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DefaultDriverProviderService defaultDriverService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private final FlowObjectiveStoreDelegate delegate = new InternalStoreDelegate();
 
     private final Map<DeviceId, DriverHandler> driverHandlers = Maps.newConcurrentMap();
@@ -127,11 +159,13 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     // for debugging purposes
     private Map<Integer, DeviceId> nextToDevice = Maps.newConcurrentMap();
 
-    private ExecutorService executorService;
+    private final Map<DeviceId, DeviceLane> lanes = Maps.newConcurrentMap();
+
+    private ScheduledExecutorService executorService;
 
     @Activate
     protected void activate() {
-        executorService = newFixedThreadPool(4, groupedThreads("onos/objective-installer", "%d", log));
+        executorService = newScheduledThreadPool(4, groupedThreads("onos/objective-installer", "%d", log));
         flowObjectiveStore.setDelegate(delegate);
         mastershipService.addListener(mastershipListener);
         deviceService.addListener(deviceListener);
@@ -145,39 +179,134 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         mastershipService.removeListener(mastershipListener);
         deviceService.removeListener(deviceListener);
         executorService.shutdown();
+        lanes.values().forEach(DeviceLane::unregisterMetrics);
+        lanes.clear();
         pipeliners.clear();
         driverHandlers.clear();
         nextToDevice.clear();
         log.info("Stopped");
     }
 
+    // Returns the lane of the given device, creating it if needed.
+    private DeviceLane lane(DeviceId deviceId) {
+        return lanes.computeIfAbsent(checkNotNull(deviceId), DeviceLane::new);
+    }
+
+    // Drops the lane of a removed device.
+    private void removeLane(DeviceId deviceId) {
+        DeviceLane lane = lanes.remove(deviceId);
+        if (lane != null) {
+            lane.unregisterMetrics();
+        }
+    }
+
     /**
-     * Task that passes the flow objective down to the driver. The task will
-     * make a few attempts to find the appropriate driver, then eventually give
-     * up and report an error if no suitable driver could be found.
+     * Serial lane passing the flow objectives of a device down to its driver.
+     * Each run of the lane drains a batch of the pending objectives and hands
+     * them to the driver in order. While the driver of the device is not
+     * bound yet, the run is rescheduled a few times, then eventually the lane
+     * gives up and reports an error for the batch.
      */
-    private class ObjectiveInstaller implements Runnable {
+    private final class DeviceLane implements Runnable {
         private final DeviceId deviceId;
-        private final Objective objective;
+        private final BlockingQueue<PendingObjective> backlog = new LinkedBlockingQueue<>(LANE_BACKLOG);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Number of runs which found no pipeliner for the device; only
+        // touched by the single active run of the lane
+        private int attempts;
 
-        private final int numAttempts;
+        private MetricsComponent metricsComponent;
+        private MetricsFeature metricsFeature;
+        private Timer installTimer;
 
-        public ObjectiveInstaller(DeviceId deviceId, Objective objective) {
-            this(deviceId, objective, 1);
+        private DeviceLane(DeviceId deviceId) {
+            this.deviceId = deviceId;
+            registerMetrics();
         }
 
-        public ObjectiveInstaller(DeviceId deviceId, Objective objective, int attemps) {
-            this.deviceId = checkNotNull(deviceId);
-            this.objective = checkNotNull(objective);
-            this.numAttempts = checkNotNull(attemps);
+        private void registerMetrics() {
+            if (metricsService != null) {
+                metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+                metricsFeature = metricsComponent.registerFeature(deviceId.toString());
+                installTimer = metricsService.createTimer(metricsComponent, metricsFeature, INSTALL_LATENCY);
+                metricsService.registerMetric(metricsComponent, metricsFeature, BACKLOG,
+                                              (Gauge<Integer>) backlog::size);
+            }
+        }
+
+        private void unregisterMetrics() {
+            if (metricsService != null && metricsComponent != null) {
+                metricsService.removeMetric(metricsComponent, metricsFeature, BACKLOG);
+                metricsService.removeMetric(metricsComponent, metricsFeature, INSTALL_LATENCY);
+            }
+        }
+
+        private void submit(Objective objective) {
+            submit(objective, LANE_BACKPRESSURE_MS);
+        }
+
+        // Queues the objective, holding back the caller for up to the given
+        // time while the backlog is full.
+        private void submit(Objective objective, long backpressureMs) {
+            boolean accepted;
+            try {
+                accepted = backlog.offer(new PendingObjective(objective),
+                                         backpressureMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+            if (!accepted) {
+                log.warn("Unable to queue flow objective {} for device {}; backlog is full",
+                         objective.id(), deviceId);
+                objective.context().ifPresent(c -> c.onError(objective, ObjectiveError.UNKNOWN));
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executorService.execute(this);
+            }
         }
 
         @Override
         public void run() {
+            Pipeliner pipeliner = getDevicePipeliner(deviceId);
+            if (pipeliner == null && ++attempts < INSTALL_RETRY_ATTEMPTS) {
+                // The lane stays scheduled until the retry has run
+                executorService.schedule(this, INSTALL_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+                return;
+            }
+            attempts = 0;
+
+            List<PendingObjective> batch = new ArrayList<>();
+            backlog.drainTo(batch, LANE_BATCH);
             try {
-                Pipeliner pipeliner = getDevicePipeliner(deviceId);
+                install(pipeliner, batch);
+            } catch (Exception e) {
+                log.warn("Exception while installing flow objective", e);
+            } finally {
+                scheduled.set(false);
+                if (!backlog.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void install(Pipeliner pipeliner, List<PendingObjective> batch) {
+            if (pipeliner == null) {
+                // We've tried a few times and failed, report an error back
+                // to the users.
+                batch.forEach(p -> p.objective.context().ifPresent(
+                        c -> c.onError(p.objective, ObjectiveError.NOPIPELINER)));
+                return;
+            }
 
-                if (pipeliner != null) {
+            for (PendingObjective pending : batch) {
+                Objective objective = pending.objective;
+                try {
                     if (objective instanceof NextObjective) {
                         pipeliner.next((NextObjective) objective);
                     } else if (objective instanceof ForwardingObjective) {
@@ -185,27 +314,32 @@ public class FlowObjectiveManager implements FlowObjectiveService {
                     } else {
                         pipeliner.filter((FilteringObjective) objective);
                     }
-                    //Attempts to check if pipeliner is null for retry attempts
-                } else if (numAttempts < INSTALL_RETRY_ATTEMPTS) {
-                    Thread.sleep(INSTALL_RETRY_INTERVAL);
-                    executorService.execute(new ObjectiveInstaller(deviceId, objective, numAttempts + 1));
-                } else {
-                    // Otherwise we've tried a few times and failed, report an
-                    // error back to the user.
-                    objective.context().ifPresent(
-                            c -> c.onError(objective, ObjectiveError.NOPIPELINER));
+                } catch (Exception e) {
+                    log.warn("Exception while installing flow objective", e);
+                }
+                if (installTimer != null) {
+                    installTimer.update(System.nanoTime() - pending.submitted, TimeUnit.NANOSECONDS);
                 }
-                //Excpetion thrown
-            } catch (Exception e) {
-                log.warn("Exception while installing flow objective", e);
             }
         }
     }
 
+    /**
+     * Flow objective waiting in a device lane.
+     */
+    private static final class PendingObjective {
+        private final Objective objective;
+        private final long submitted = System.nanoTime();
+
+        private PendingObjective(Objective objective) {
+            this.objective = objective;
+        }
+    }
+
     @Override
     public void filter(DeviceId deviceId, FilteringObjective filteringObjective) {
         checkPermission(FLOWRULE_WRITE);
-        executorService.execute(new ObjectiveInstaller(deviceId, filteringObjective));
+        lane(deviceId).submit(checkNotNull(filteringObjective));
     }
 
     @Override
@@ -214,14 +348,14 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         if (queueObjective(deviceId, forwardingObjective)) {
             return;
         }
-        executorService.execute(new ObjectiveInstaller(deviceId, forwardingObjective));
+        lane(deviceId).submit(checkNotNull(forwardingObjective));
     }
 
     @Override
     public void next(DeviceId deviceId, NextObjective nextObjective) {
         checkPermission(FLOWRULE_WRITE);
         nextToDevice.put(nextObjective.id(), deviceId);
-        executorService.execute(new ObjectiveInstaller(deviceId, nextObjective));
+        lane(deviceId).submit(checkNotNull(nextObjective));
     }
 
     @Override
@@ -347,6 +481,7 @@ public class FlowObjectiveManager implements FlowObjectiveService {
                 case DEVICE_UPDATED:
                     break;
                 case DEVICE_REMOVED:
+                    removeLane(event.subject().id());
                     break;
                 case DEVICE_SUSPENDED:
                     break;
@@ -418,8 +553,9 @@ public class FlowObjectiveManager implements FlowObjectiveService {
 
                 log.debug("Processing {} pending forwarding objectives for nextId {}",
                          pending.size(), event.subject());
-                pending.forEach(p -> getDevicePipeliner(p.deviceId())
-                                .forward(p.forwardingObjective()));
+                // keep the order with other objectives for the same device,
+                // without holding back the store's thread on a full lane
+                pending.forEach(p -> lane(p.deviceId()).submit(p.forwardingObjective(), 0));
             }
         }
     }
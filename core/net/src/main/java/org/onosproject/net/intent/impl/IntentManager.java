@@ -37,6 +37,7 @@ import org.onosproject.net.intent.IntentData;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.intent.IntentExtensionService;
 import org.onosproject.net.intent.IntentListener;
+import org.onosproject.net.intent.IntentPartitionService;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.IntentStore;
@@ -57,6 +58,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -123,7 +125,9 @@ public class IntentManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService configService;
 
-    private ExecutorService batchExecutor;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected IntentPartitionService partitionService;
+
     private ExecutorService workerExecutor;
 
     private final IntentInstaller intentInstaller = new IntentInstaller();
@@ -132,11 +136,12 @@ public class IntentManager
     private final IntentStoreDelegate delegate = new InternalStoreDelegate();
     private final IntentStoreDelegate testOnlyDelegate = new TestOnlyIntentStoreDelegate();
     private final TopologyChangeDelegate topoDelegate = new InternalTopoChangeDelegate();
-    private final IntentBatchDelegate batchDelegate = new InternalBatchDelegate();
+    // Intent keys are spread across independent batch pipelines, one per
+    // intent partition; a key always maps to the same pipeline so operations
+    // on any one intent remain ordered.
+    private BatchPartition[] batchPartitions;
     private IdGenerator idGenerator;
 
-    private final IntentAccumulator accumulator = new IntentAccumulator(batchDelegate);
-
     @Activate
     public void activate() {
         configService.registerProperties(getClass());
@@ -149,7 +154,11 @@ public class IntentManager
         }
         trackerService.setDelegate(topoDelegate);
         eventDispatcher.addSink(IntentEvent.class, listenerRegistry);
-        batchExecutor = newSingleThreadExecutor(groupedThreads("onos/intent", "batch", log));
+        batchPartitions = IntStream.range(0, partitionService.getPartitionCount())
+                .mapToObj(BatchPartition::new).toArray(BatchPartition[]::new);
+        for (BatchPartition partition : batchPartitions) {
+            partition.start();
+        }
         workerExecutor = newFixedThreadPool(numThreads, groupedThreads("onos/intent", "worker-%d", log));
         idGenerator = coreService.getIdGenerator("intent-ids");
         Intent.bindIdGenerator(idGenerator);
@@ -167,7 +176,9 @@ public class IntentManager
         configService.unregisterProperties(getClass(), false);
         trackerService.unsetDelegate(topoDelegate);
         eventDispatcher.removeSink(IntentEvent.class);
-        batchExecutor.shutdown();
+        for (BatchPartition partition : batchPartitions) {
+            partition.stop();
+        }
         workerExecutor.shutdown();
         Intent.unbindIdGenerator(idGenerator);
         log.info("Stopped");
@@ -323,7 +334,7 @@ public class IntentManager
 
         @Override
         public void process(IntentData data) {
-            accumulator.add(data);
+            batchPartition(data.key()).accumulator.add(data);
         }
 
         @Override
@@ -336,7 +347,7 @@ public class IntentManager
     private class TestOnlyIntentStoreDelegate implements IntentStoreDelegate {
         @Override
         public void process(IntentData data) {
-            accumulator.add(data);
+            batchPartition(data.key()).accumulator.add(data);
         }
 
         @Override
@@ -385,13 +396,50 @@ public class IntentManager
         }
     }
 
-    private class InternalBatchDelegate implements IntentBatchDelegate {
+    // Returns the batch partition responsible for the given intent key.
+    private BatchPartition batchPartition(Key key) {
+        return batchPartitions[batchPartitionIndex(key.hash(), batchPartitions.length)];
+    }
+
+    /**
+     * Returns the index of the batch partition for the given intent key hash.
+     *
+     * @param hash       intent key hash
+     * @param partitions number of batch partitions
+     * @return partition index
+     */
+    static int batchPartitionIndex(long hash, int partitions) {
+        return Math.floorMod((int) hash, partitions);
+    }
+
+    // Batch pipeline for the intents of one partition. Each partition
+    // accumulates, processes and writes back its batches independently of
+    // the others, with only one batch of its own in flight at a time.
+    private class BatchPartition implements IntentBatchDelegate {
+        private final int index;
+        private final IntentAccumulator accumulator = new IntentAccumulator(this);
+        private ExecutorService batchExecutor;
+
+        BatchPartition(int index) {
+            this.index = index;
+        }
+
+        void start() {
+            batchExecutor = newSingleThreadExecutor(
+                    groupedThreads("onos/intent", "batch-" + index, log));
+        }
+
+        void stop() {
+            batchExecutor.shutdown();
+        }
+
         @Override
         public void execute(Collection<IntentData> operations) {
-            log.debug("Execute {} operation(s).", operations.size());
+            log.debug("Execute {} operation(s) in partition {}.", operations.size(), index);
             log.trace("Execute operations: {}", operations);
 
-            // batchExecutor is single-threaded, so only one batch is in flight at a time
+            // batchExecutor is single-threaded, so only one batch of this
+            // partition is in flight at a time
             CompletableFuture.runAsync(() -> {
                 // process intent until the phase reaches one of the final phases
                 List<CompletableFuture<IntentData>> futures = operations.stream()
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import org.onlab.packet.DeserializationException;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.Ipv4View;
+import org.onlab.packet.TCP;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.PortCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
+import org.onosproject.net.packet.PacketContext;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Compiled form of the selector of packets a packet processor is interested
+ * in. Fields left at their wildcard value match any packet.
+ */
+final class PacketInterest {
+
+    /**
+     * Interest matching all packets.
+     */
+    static final PacketInterest ALL = new PacketInterest();
+
+    private static final int ANY = -1;
+
+    private PortNumber inPort;
+    private int ethType = ANY;
+    private int ipProto = ANY;
+    private int tcpSrc = ANY;
+    private int tcpDst = ANY;
+    private int udpSrc = ANY;
+    private int udpDst = ANY;
+
+    private PacketInterest() {
+    }
+
+    /**
+     * Compiles the given selector into a packet interest.
+     *
+     * @param selector traffic selector; null to match all packets
+     * @return packet interest
+     * @throws IllegalArgumentException if the selector contains criteria
+     *                                  that are not supported
+     */
+    static PacketInterest of(TrafficSelector selector) {
+        if (selector == null || selector.criteria().isEmpty()) {
+            return ALL;
+        }
+        PacketInterest interest = new PacketInterest();
+        for (Criterion criterion : selector.criteria()) {
+            switch (criterion.type()) {
+                case IN_PORT:
+                    interest.inPort = ((PortCriterion) criterion).port();
+                    break;
+                case ETH_TYPE:
+                    interest.ethType = ((EthTypeCriterion) criterion).ethType().toShort() & 0xffff;
+                    break;
+                case IP_PROTO:
+                    interest.ipProto = ((IPProtocolCriterion) criterion).protocol();
+                    break;
+                case TCP_SRC:
+                    interest.tcpSrc = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                    break;
+                case TCP_DST:
+                    interest.tcpDst = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                    break;
+                case UDP_SRC:
+                    interest.udpSrc = ((UdpPortCriterion) criterion).udpPort().toInt();
+                    break;
+                case UDP_DST:
+                    interest.udpDst = ((UdpPortCriterion) criterion).udpPort().toInt();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported packet interest criterion " +
+                                                               criterion.type());
+            }
+        }
+        return interest;
+    }
+
+    /**
+     * Returns the Ethernet type of interest.
+     *
+     * @return Ethernet type as an unsigned value, or -1 for any
+     */
+    int ethType() {
+        return ethType;
+    }
+
+    /**
+     * Indicates whether this interest matches all packets.
+     *
+     * @return true if all packets match
+     */
+    boolean matchesAll() {
+        return this == ALL;
+    }
+
+    /**
+     * Indicates whether the given packet matches this interest; the Ethernet
+     * type is expected to have been matched already.
+     *
+     * @param context  packet context
+     * @param ethernet view of the Ethernet frame of the packet
+     * @return true if the packet matches
+     */
+    boolean matches(PacketContext context, EthernetView ethernet) {
+        if (inPort != null && !inPort.equals(context.inPacket().receivedFrom().port())) {
+            return false;
+        }
+        if (ipProto == ANY && tcpSrc == ANY && tcpDst == ANY && udpSrc == ANY && udpDst == ANY) {
+            return true;
+        }
+        if (ethernet == null) {
+            return false;
+        }
+
+        int proto;
+        int srcPort = ANY;
+        int dstPort = ANY;
+        if (ethernet.etherType() == Ethernet.TYPE_IPV4) {
+            Ipv4View ip;
+            try {
+                ip = ethernet.ipv4();
+            } catch (DeserializationException e) {
+                return false;
+            }
+            proto = ip.protocol() & 0xff;
+            TpPort src = ip.sourcePort();
+            TpPort dst = ip.destinationPort();
+            if (src != null && dst != null) {
+                srcPort = src.toInt();
+                dstPort = dst.toInt();
+            }
+        } else if (ethernet.etherType() == Ethernet.TYPE_IPV6) {
+            // There is no view of IPv6 packets; fall back to the parsed form
+            Ethernet parsed = context.inPacket().parsed();
+            if (parsed == null || !(parsed.getPayload() instanceof IPv6)) {
+                return false;
+            }
+            IPv6 ip = (IPv6) parsed.getPayload();
+            proto = ip.getNextHeader() & 0xff;
+            if (ip.getPayload() instanceof TCP) {
+                TCP tcp = (TCP) ip.getPayload();
+                srcPort = tcp.getSourcePort();
+                dstPort = tcp.getDestinationPort();
+            } else if (ip.getPayload() instanceof UDP) {
+                UDP udp = (UDP) ip.getPayload();
+                srcPort = udp.getSourcePort();
+                dstPort = udp.getDestinationPort();
+            }
+        } else {
+            return false;
+        }
+        if (ipProto != ANY && ipProto != proto) {
+            return false;
+        }
+
+        if (tcpSrc != ANY || tcpDst != ANY) {
+            if (proto != (IPv4.PROTOCOL_TCP & 0xff) || dstPort == ANY) {
+                return false;
+            }
+            if ((tcpSrc != ANY && tcpSrc != srcPort) ||
+                    (tcpDst != ANY && tcpDst != dstPort)) {
+                return false;
+            }
+        }
+        if (udpSrc != ANY || udpDst != ANY) {
+            if (proto != (IPv4.PROTOCOL_UDP & 0xff) || dstPort == ANY) {
+                return false;
+            }
+            if ((udpSrc != ANY && udpSrc != srcPort) ||
+                    (udpDst != ANY && udpDst != dstPort)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .omitNullValues()
+                .add("inPort", inPort)
+                .add("ethType", ethType == ANY ? null : String.format("0x%04x", ethType))
+                .add("ipProto", ipProto == ANY ? null : ipProto)
+                .add("tcpSrc", tcpSrc == ANY ? null : tcpSrc)
+                .add("tcpDst", tcpDst == ANY ? null : tcpDst)
+                .add("udpSrc", udpSrc == ANY ? null : udpSrc)
+                .add("udpDst", udpDst == ANY ? null : udpDst)
+                .toString();
+    }
+}
@@ -15,15 +15,24 @@
  */
 package org.onosproject.net.packet.impl;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.packet.EthernetView;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.ApplicationId;
@@ -58,14 +67,20 @@ import org.onosproject.net.packet.PacketStore;
 import org.onosproject.net.packet.PacketStoreDelegate;
 import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Dictionary;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.*;
@@ -86,6 +101,21 @@ public class PacketManager
             "Table Type cannot be null. For requesting packets without " +
                     "table hints, use other methods in the packetService API";
 
+    private static final String METRICS_COMPONENT = "PacketManager";
+    private static final String METRICS_FEATURE = "Pipeline";
+    private static final String DROPPED_PACKETS = "droppedPackets";
+
+    private static final int DEFAULT_PACKET_WORKERS = 0;
+    @Property(name = "packetWorkers", intValue = DEFAULT_PACKET_WORKERS,
+            label = "Number of threads processing inbound packets; " +
+                    "0 to process them on the thread on which they are received")
+    private int packetWorkers = DEFAULT_PACKET_WORKERS;
+
+    private static final int DEFAULT_PACKET_QUEUE_SIZE = 1024;
+    @Property(name = "packetQueueSize", intValue = DEFAULT_PACKET_QUEUE_SIZE,
+            label = "Maximum number of inbound packets pending per packet worker")
+    private int packetQueueSize = DEFAULT_PACKET_QUEUE_SIZE;
+
     private final PacketStoreDelegate delegate = new InternalStoreDelegate();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -106,19 +136,40 @@ public class PacketManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private FlowObjectiveService objectiveService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ExecutorService eventHandlingExecutor;
 
+    // Optional stage processing inbound packets on dedicated workers
+    private volatile PacketPipeline pipeline;
+
+    // Packets dropped by the pipelines replaced so far
+    private volatile long retiredDroppedPackets;
+
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
 
+    // Processors indexed by the Ethernet type of the packets they accept;
+    // rebuilt whenever the set of processors changes
+    private volatile DispatchTable dispatchTable = new DispatchTable(ImmutableList.of());
+
     private final  PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
     private ApplicationId appId;
     private NodeId localNodeId;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        modified(context);
         eventHandlingExecutor = Executors.newSingleThreadExecutor(
                 groupedThreads("onos/net/packet", "event-handler", log));
         localNodeId = clusterService.getLocalNode().id();
@@ -127,17 +178,92 @@ public class PacketManager
         deviceService.addListener(deviceListener);
         store.existingRequests().forEach(this::pushToAllDevices);
         defaultProvider.init(deviceService);
+        registerMetrics();
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
         store.unsetDelegate(delegate);
         deviceService.removeListener(deviceListener);
         eventHandlingExecutor.shutdown();
+        updatePipeline(0, packetQueueSize);
+        unregisterMetrics();
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        int newPacketWorkers = packetWorkers;
+        int newPacketQueueSize = packetQueueSize;
+        try {
+            String s = get(properties, "packetWorkers");
+            newPacketWorkers = isNullOrEmpty(s) ? packetWorkers : Integer.parseInt(s.trim());
+
+            s = get(properties, "packetQueueSize");
+            newPacketQueueSize = isNullOrEmpty(s) ? packetQueueSize : Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid packet pipeline configuration", e);
+        }
+
+        if (newPacketWorkers < 0 || newPacketQueueSize <= 0) {
+            log.warn("Ignoring invalid packetWorkers {} or packetQueueSize {}",
+                     newPacketWorkers, newPacketQueueSize);
+            return;
+        }
+        if (newPacketWorkers != packetWorkers || newPacketQueueSize != packetQueueSize ||
+                (pipeline == null && packetWorkers > 0)) {
+            updatePipeline(newPacketWorkers, newPacketQueueSize);
+        }
+        log.info("Settings: packetWorkers={}, packetQueueSize={}", packetWorkers, packetQueueSize);
+    }
+
+    // Replaces the packet pipeline with one of the given dimensions, or
+    // removes it altogether if no workers are requested.
+    private synchronized void updatePipeline(int workers, int queueSize) {
+        PacketPipeline oldPipeline = pipeline;
+        packetWorkers = workers;
+        packetQueueSize = queueSize;
+        pipeline = workers > 0 ? new PacketPipeline(workers, queueSize, this::dispatch) : null;
+        if (oldPipeline != null) {
+            oldPipeline.shutdown();
+            retiredDroppedPackets += oldPipeline.droppedPackets();
+        }
+    }
+
+    private void registerMetrics() {
+        if (metricsService == null) {
+            return;
+        }
+        metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(METRICS_FEATURE);
+        metricsService.registerMetric(metricsComponent, metricsFeature, DROPPED_PACKETS,
+                                      (Gauge<Long>) this::droppedPackets);
+    }
+
+    private void unregisterMetrics() {
+        if (metricsService != null && metricsComponent != null) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, DROPPED_PACKETS);
+        }
+    }
+
+    /**
+     * Returns the number of inbound packets dropped by the packet pipelines
+     * because their worker was overloaded.
+     *
+     * @return number of dropped packets
+     */
+    long droppedPackets() {
+        PacketPipeline current = pipeline;
+        return retiredDroppedPackets + (current != null ? current.droppedPackets() : 0);
+    }
+
     @Override
     protected PacketProvider defaultProvider() {
         return defaultProvider;
@@ -147,16 +273,27 @@ public class PacketManager
     public void addProcessor(PacketProcessor processor, int priority) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, "Processor cannot be null");
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
+        addEntry(new ProcessorEntry(processor, priority, PacketInterest.ALL));
+    }
 
+    @Override
+    public void addProcessor(PacketProcessor processor, int priority,
+                             TrafficSelector interest) {
+        checkPermission(PACKET_EVENT);
+        checkNotNull(processor, "Processor cannot be null");
+        addEntry(new ProcessorEntry(processor, priority, PacketInterest.of(interest)));
+    }
+
+    private synchronized void addEntry(ProcessorEntry entry) {
         // Insert the new processor according to its priority.
         int i = 0;
         for (; i < processors.size(); i++) {
-            if (priority < processors.get(i).priority()) {
+            if (entry.priority() < processors.get(i).priority()) {
                 break;
             }
         }
         processors.add(i, entry);
+        dispatchTable = new DispatchTable(processors);
     }
 
     @Override
@@ -165,11 +302,14 @@ public class PacketManager
         checkNotNull(processor, "Processor cannot be null");
 
         // Remove the processor entry.
-        for (int i = 0; i < processors.size(); i++) {
-            if (processors.get(i).processor() == processor) {
-                processors.remove(i);
-                break;
+        synchronized (this) {
+            for (int i = 0; i < processors.size(); i++) {
+                if (processors.get(i).processor() == processor) {
+                    processors.remove(i);
+                    break;
+                }
             }
+            dispatchTable = new DispatchTable(processors);
         }
     }
 
@@ -366,20 +506,33 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
-                try {
-                    long start = System.nanoTime();
-                    entry.processor().process(context);
-                    entry.addNanos(System.nanoTime() - start);
-                } catch (Exception e) {
-                    log.warn("Packet processor {} threw an exception", entry.processor(), e);
-                }
+            PacketPipeline current = pipeline;
+            if (current != null) {
+                current.submit(context);
+            } else {
+                dispatch(context);
             }
         }
 
     }
 
+    // Offers the packet to the processors interested in it.
+    private void dispatch(PacketContext context) {
+        EthernetView ethernet = context.inPacket().view();
+        for (ProcessorEntry entry : dispatchTable.entries(ethernet)) {
+            if (!entry.interest.matchesAll() && !entry.interest.matches(context, ethernet)) {
+                continue;
+            }
+            try {
+                long start = System.nanoTime();
+                entry.processor().process(context);
+                entry.addNanos(System.nanoTime() - start);
+            } catch (Exception e) {
+                log.warn("Packet processor {} threw an exception", entry.processor(), e);
+            }
+        }
+    }
+
 
     /**
      * Internal callback from the packet store.
@@ -439,18 +592,57 @@ public class PacketManager
         }
     }
 
+    /**
+     * Packet processors, in priority order, grouped by the Ethernet type of
+     * the packets they are interested in.
+     */
+    private static final class DispatchTable {
+        private final ProcessorEntry[] anyEthType;
+        private final Map<Integer, ProcessorEntry[]> byEthType;
+
+        DispatchTable(List<ProcessorEntry> entries) {
+            this.anyEthType = entries.stream()
+                    .filter(e -> e.interest.ethType() < 0)
+                    .toArray(ProcessorEntry[]::new);
+
+            // Each Ethernet type of interest gets its own list, holding also
+            // the processors interested in any Ethernet type.
+            ImmutableMap.Builder<Integer, ProcessorEntry[]> builder = ImmutableMap.builder();
+            entries.stream()
+                    .mapToInt(e -> e.interest.ethType())
+                    .filter(t -> t >= 0)
+                    .distinct()
+                    .forEach(t -> builder.put(t, entries.stream()
+                            .filter(e -> e.interest.ethType() < 0 || e.interest.ethType() == t)
+                            .toArray(ProcessorEntry[]::new)));
+            this.byEthType = builder.build();
+        }
+
+        // Returns the processors which may be interested in the given frame.
+        ProcessorEntry[] entries(EthernetView ethernet) {
+            if (ethernet == null) {
+                return anyEthType;
+            }
+            ProcessorEntry[] entries = byEthType.get(ethernet.etherType() & 0xffff);
+            return entries != null ? entries : anyEthType;
+        }
+    }
+
     /**
      * Entity for tracking stats for a packet processor.
      */
-    private class ProcessorEntry implements PacketProcessorEntry {
+    private static class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
-        private long invocations = 0;
-        private long nanos = 0;
+        private final PacketInterest interest;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority,
+                              PacketInterest interest) {
             this.processor = processor;
             this.priority = priority;
+            this.interest = interest;
         }
 
         @Override
@@ -465,22 +657,24 @@ public class PacketManager
 
         @Override
         public long invocations() {
-            return invocations;
+            return invocations.sum();
         }
 
         @Override
         public long totalNanos() {
-            return nanos;
+            return nanos.sum();
         }
 
         @Override
         public long averageNanos() {
-            return invocations > 0 ? nanos / invocations : 0;
+            long count = invocations.sum();
+            return count > 0 ? nanos.sum() / count : 0;
         }
 
+        // Packets may be processed concurrently by several packet workers.
         void addNanos(long nanos) {
-            this.nanos += nanos;
-            this.invocations++;
+            this.nanos.add(nanos);
+            this.invocations.increment();
         }
     }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import org.onlab.packet.DeserializationException;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.Ipv4View;
+import org.onlab.packet.TCP;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
+import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Stage which hands inbound packets off to a set of worker threads, away
+ * from the thread on which they were received.
+ * <p>
+ * Packets are assigned to a worker by hashing their ingress device and flow
+ * identifying fields, so packets of the same flow are processed in order.
+ * Each worker has a bounded queue; packets arriving to a full queue are
+ * dropped and counted.
+ * </p>
+ */
+final class PacketPipeline {
+
+    private final Logger log = getLogger(getClass());
+
+    private final Worker[] workers;
+    private final Consumer<PacketContext> processor;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Creates and starts a new packet pipeline.
+     *
+     * @param numWorkers number of worker threads
+     * @param queueSize  maximum number of packets pending per worker
+     * @param processor  processor to be invoked for each packet
+     */
+    PacketPipeline(int numWorkers, int queueSize, Consumer<PacketContext> processor) {
+        checkArgument(numWorkers > 0, "Number of workers must be positive");
+        checkArgument(queueSize > 0, "Queue size must be positive");
+        this.processor = processor;
+        this.workers = new Worker[numWorkers];
+        for (int i = 0; i < numWorkers; i++) {
+            workers[i] = new Worker(i, queueSize);
+        }
+    }
+
+    /**
+     * Submits the packet for processing by the worker responsible for its
+     * flow.
+     *
+     * @param context packet context
+     * @return true if the packet was queued; false if it was dropped
+     */
+    boolean submit(PacketContext context) {
+        Worker worker = workers[Math.floorMod(flowHash(context.inPacket()), workers.length)];
+        if (!worker.queue.offer(context)) {
+            if (dropped.getAndIncrement() == 0) {
+                log.warn("Packet worker {} is overloaded; dropping packets", worker.index);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of packets dropped due to full worker queues.
+     *
+     * @return number of dropped packets
+     */
+    long droppedPackets() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of packets pending in each worker queue.
+     *
+     * @return array of queue depths
+     */
+    int[] queueDepths() {
+        return Arrays.stream(workers).mapToInt(w -> w.queue.size()).toArray();
+    }
+
+    /**
+     * Stops all workers; packets still pending are discarded.
+     */
+    void shutdown() {
+        for (Worker worker : workers) {
+            worker.executor.shutdownNow();
+        }
+    }
+
+    // Computes the hash of the ingress device and the flow identifying
+    // fields of the packet: the addresses, IP protocol and transport ports
+    // for IP packets, and the MAC addresses and Ethernet type otherwise.
+    static int flowHash(InboundPacket packet) {
+        int hash = packet.receivedFrom().deviceId().hashCode();
+        EthernetView eth = packet.view();
+        if (eth == null) {
+            return hash;
+        }
+
+        short etherType = eth.etherType();
+        if (etherType == Ethernet.TYPE_IPV4) {
+            Ipv4View ip;
+            try {
+                ip = eth.ipv4();
+            } catch (DeserializationException e) {
+                return hash;
+            }
+            hash = 31 * hash + ip.sourceAddress().toInt();
+            hash = 31 * hash + ip.destinationAddress().toInt();
+            hash = 31 * hash + ip.protocol();
+            return 31 * hash + portsHash(ip.sourcePort(), ip.destinationPort());
+        } else if (etherType == Ethernet.TYPE_IPV6) {
+            // There is no view of IPv6 packets; fall back to the parsed form
+            Ethernet parsed = packet.parsed();
+            if (parsed != null && parsed.getPayload() instanceof IPv6) {
+                IPv6 ip = (IPv6) parsed.getPayload();
+                hash = 31 * hash + Arrays.hashCode(ip.getSourceAddress());
+                hash = 31 * hash + Arrays.hashCode(ip.getDestinationAddress());
+                hash = 31 * hash + ip.getNextHeader();
+                return 31 * hash + portsHash(ip.getPayload());
+            }
+        }
+        hash = 31 * hash + Objects.hashCode(eth.sourceMac());
+        hash = 31 * hash + Objects.hashCode(eth.destinationMac());
+        return 31 * hash + etherType;
+    }
+
+    private static int portsHash(TpPort src, TpPort dst) {
+        return src != null && dst != null ? 31 * src.toInt() + dst.toInt() : 0;
+    }
+
+    private static int portsHash(Object transport) {
+        if (transport instanceof TCP) {
+            TCP tcp = (TCP) transport;
+            return 31 * tcp.getSourcePort() + tcp.getDestinationPort();
+        } else if (transport instanceof UDP) {
+            UDP udp = (UDP) transport;
+            return 31 * udp.getSourcePort() + udp.getDestinationPort();
+        }
+        return 0;
+    }
+
+    // Single packet processing thread with its own queue.
+    private final class Worker implements Runnable {
+        private final int index;
+        private final BlockingQueue<PacketContext> queue;
+        private final ExecutorService executor;
+
+        private Worker(int index, int queueSize) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.executor = newSingleThreadExecutor(
+                    groupedThreads("onos/net/packet", "worker-" + index, log));
+            executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    processor.accept(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.warn("Packet worker {} failed to process packet", index, e);
+                }
+            }
+        }
+    }
+}
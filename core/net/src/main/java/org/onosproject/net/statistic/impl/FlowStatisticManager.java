@@ -55,9 +55,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onosproject.security.AppGuard.checkPermission;
@@ -398,12 +398,30 @@ public class FlowStatisticManager implements FlowStatisticService {
                                                              TypedStoredFlowEntry.FlowLiveType liveType,
                                                              Instruction.Type instType,
                                                              int topn) {
+        if (topn <= 0) {
+            return new ArrayList<>();
+        }
+        // The loads of the entries are derived from the current and previous
+        // snapshots of the port, for the requested live and instruction types,
+        // so that they are computed for every entry of the port on each query
         List<TypedFlowEntryWithLoad> fel = loadAllPortInternal(cp, liveType, instType);
 
+        // Keep the topn highest loads in a heap whose head is the lowest of them,
+        // rather than sorting all the flow entries
+        PriorityQueue<TypedFlowEntryWithLoad> heap =
+                new PriorityQueue<>(topn, TYPEFLOWENTRY_WITHLOAD_COMPARATOR.reversed());
+        for (TypedFlowEntryWithLoad tfe : fel) {
+            if (heap.size() < topn) {
+                heap.add(tfe);
+            } else if (TYPEFLOWENTRY_WITHLOAD_COMPARATOR.compare(tfe, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(tfe);
+            }
+        }
+
         // Sort with descending order of load
-        List<TypedFlowEntryWithLoad> tfel =
-                fel.stream().sorted(TYPEFLOWENTRY_WITHLOAD_COMPARATOR).
-                        limit(topn).collect(Collectors.toList());
+        List<TypedFlowEntryWithLoad> tfel = new ArrayList<>(heap);
+        tfel.sort(TYPEFLOWENTRY_WITHLOAD_COMPARATOR);
 
         return tfel;
     }
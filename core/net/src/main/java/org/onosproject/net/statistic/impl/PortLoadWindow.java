@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.statistic.impl;
+
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.statistic.DefaultLoad;
+import org.onosproject.net.statistic.Load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load of a port maintained incrementally from the statistics of the flows
+ * sending traffic through it.
+ * <p>
+ * The bytes counted by the flows since their last statistics are kept in a
+ * ring of one second slots, which gives the bytes sent over the last seconds
+ * without keeping any snapshot of the flows.
+ * </p>
+ */
+final class PortLoadWindow {
+
+    static final int MAX_WINDOW_SECONDS = 180;
+
+    // last byte count of each flow of the port
+    private final Map<FlowRule, Long> flowBytes = new HashMap<>();
+    private long totalBytes;
+
+    // bytes counted in each second of the window, and that second
+    private final long[] slotBytes = new long[MAX_WINDOW_SECONDS];
+    private final long[] slotSeconds = new long[MAX_WINDOW_SECONDS];
+
+    private long firstUpdateMillis = -1;
+    private long lastUpdateMillis = -1;
+
+    /**
+     * Accounts for the latest statistics of a flow of the port.
+     *
+     * @param entry      flow entry
+     * @param nowMillis  current time in milliseconds
+     */
+    synchronized void update(FlowEntry entry, long nowMillis) {
+        long bytes = entry.bytes();
+        Long previous = flowBytes.put(entry, bytes);
+        // a flow seen for the first time, or whose counters were reset,
+        // counted all of its bytes since the previous statistics
+        long delta = previous == null || bytes < previous ? bytes : bytes - previous;
+        totalBytes += bytes - (previous == null ? 0 : previous);
+
+        long second = nowMillis / 1000;
+        int slot = (int) (second % MAX_WINDOW_SECONDS);
+        if (slotSeconds[slot] != second) {
+            slotSeconds[slot] = second;
+            slotBytes[slot] = 0;
+        }
+        slotBytes[slot] += delta;
+
+        if (firstUpdateMillis < 0) {
+            firstUpdateMillis = nowMillis;
+        }
+        lastUpdateMillis = nowMillis;
+    }
+
+    /**
+     * Removes a flow of the port.
+     *
+     * @param rule flow rule
+     * @return true if the port has no more flows
+     */
+    synchronized boolean remove(FlowRule rule) {
+        Long previous = flowBytes.remove(rule);
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+        return flowBytes.isEmpty();
+    }
+
+    /**
+     * Returns if the statistics of the port were updated within the given
+     * number of seconds.
+     *
+     * @param seconds   number of seconds
+     * @param nowMillis current time in milliseconds
+     * @return true if the load is up to date
+     */
+    synchronized boolean isFresh(long seconds, long nowMillis) {
+        return lastUpdateMillis >= 0 && nowMillis - lastUpdateMillis <= seconds * 1000;
+    }
+
+    /**
+     * Returns the load of the port over the given number of seconds.
+     *
+     * @param seconds   number of seconds, at most {@link #MAX_WINDOW_SECONDS}
+     * @param nowMillis current time in milliseconds
+     * @return load
+     */
+    synchronized Load load(long seconds, long nowMillis) {
+        if (flowBytes.isEmpty()) {
+            return new DefaultLoad();
+        }
+        long window = Math.min(seconds, MAX_WINDOW_SECONDS);
+        long second = nowMillis / 1000;
+        long windowBytes = 0;
+        for (int i = 0; i < MAX_WINDOW_SECONDS; i++) {
+            if (second - slotSeconds[i] < window && slotSeconds[i] <= second) {
+                windowBytes += slotBytes[i];
+            }
+        }
+        // until the window is filled, the rate is over the time elapsed
+        long elapsed = Math.max(1, Math.min(window, (nowMillis - firstUpdateMillis) / 1000));
+        return new DefaultLoad(totalBytes, totalBytes - windowBytes, elapsed);
+    }
+
+    /**
+     * Returns the flow of the port which counted the most bytes.
+     *
+     * @return flow rule, or null if the port has no flows
+     */
+    synchronized FlowRule highestHitter() {
+        return flowBytes.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+}
@@ -30,12 +30,14 @@ import org.onosproject.core.GroupId;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
-
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.flow.FlowRuleListener;
 import org.onosproject.net.flow.FlowRuleService;
+import org.onosproject.net.flow.instructions.Instruction;
+import org.onosproject.net.flow.instructions.Instructions;
 import org.onosproject.net.statistic.DefaultLoad;
 import org.onosproject.net.statistic.Load;
 import org.onosproject.net.statistic.StatisticService;
@@ -43,9 +45,11 @@ import org.onosproject.net.statistic.StatisticStore;
 import org.slf4j.Logger;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -55,6 +59,12 @@ import static org.onosproject.security.AppPermission.Type.*;
 
 /**
  * Provides an implementation of the Statistic Service.
+ * <p>
+ * The load of the ports of the devices this instance collects the flow
+ * statistics of is maintained as these statistics arrive, over a window of a
+ * few poll intervals. The load of the other ports is computed from the
+ * statistic store.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -69,8 +79,13 @@ public class StatisticManager implements StatisticService {
     protected StatisticStore statisticStore;
 
 
+    // Number of poll intervals over which the incremental load is computed
+    private static final int WINDOW_POLL_INTERVALS = 3;
+
     private final InternalFlowRuleListener listener = new InternalFlowRuleListener();
 
+    private final Map<ConnectPoint, PortLoadWindow> portLoads = new ConcurrentHashMap<>();
+
     @Activate
     public void activate() {
         flowRuleService.addListener(listener);
@@ -81,6 +96,7 @@ public class StatisticManager implements StatisticService {
     @Deactivate
     public void deactivate() {
         flowRuleService.removeListener(listener);
+        portLoads.clear();
         log.info("Stopped");
     }
 
@@ -161,8 +177,13 @@ public class StatisticManager implements StatisticService {
     public FlowRule highestHitter(ConnectPoint connectPoint) {
         checkPermission(STATISTIC_READ);
 
+        PortLoadWindow portLoad = freshPortLoad(connectPoint);
+        if (portLoad != null) {
+            return portLoad.highestHitter();
+        }
+
         Set<FlowEntry> hitters = statisticStore.getCurrentStatistic(connectPoint);
-        if (hitters.isEmpty()) {
+        if (hitters == null || hitters.isEmpty()) {
             return null;
         }
 
@@ -176,6 +197,11 @@ public class StatisticManager implements StatisticService {
     }
 
     private Load loadInternal(ConnectPoint connectPoint) {
+        PortLoadWindow portLoad = freshPortLoad(connectPoint);
+        if (portLoad != null) {
+            return portLoad.load(windowSeconds(), System.currentTimeMillis());
+        }
+
         Statistics stats = getStatistics(connectPoint);
         if (!stats.isValid()) {
             return new DefaultLoad();
@@ -184,6 +210,46 @@ public class StatisticManager implements StatisticService {
         return new DefaultLoad(aggregate(stats.current), aggregate(stats.previous));
     }
 
+    private long windowSeconds() {
+        return WINDOW_POLL_INTERVALS * DefaultLoad.getPollInterval();
+    }
+
+    // Returns the incremental load of the port if it is up to date, that is
+    // if this instance keeps receiving the statistics of its flows.
+    private PortLoadWindow freshPortLoad(ConnectPoint connectPoint) {
+        PortLoadWindow portLoad = portLoads.get(connectPoint);
+        if (portLoad == null || !portLoad.isFresh(windowSeconds(), System.currentTimeMillis())) {
+            return null;
+        }
+        return portLoad;
+    }
+
+    private void updatePortLoad(FlowEntry entry) {
+        ConnectPoint cp = outputOf(entry);
+        if (cp != null) {
+            portLoads.computeIfAbsent(cp, k -> new PortLoadWindow())
+                    .update(entry, System.currentTimeMillis());
+        }
+    }
+
+    private void removeFromPortLoad(FlowRule rule) {
+        ConnectPoint cp = outputOf(rule);
+        if (cp != null) {
+            portLoads.computeIfPresent(cp, (k, portLoad) -> portLoad.remove(rule) ? null : portLoad);
+        }
+    }
+
+    // Returns the port of the first output instruction of the rule, if any
+    private static ConnectPoint outputOf(FlowRule rule) {
+        for (Instruction i : rule.treatment().allInstructions()) {
+            if (i.type() == Instruction.Type.OUTPUT) {
+                PortNumber port = ((Instructions.OutputInstruction) i).port();
+                return new ConnectPoint(rule.deviceId(), port);
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns statistics of the specified port.
      *
@@ -259,6 +325,7 @@ public class StatisticManager implements StatisticService {
                 case RULE_UPDATED:
                     if (rule instanceof FlowEntry) {
                         statisticStore.addOrUpdateStatistic((FlowEntry) rule);
+                        updatePortLoad((FlowEntry) rule);
                     }
                     break;
                 case RULE_ADD_REQUESTED:
@@ -266,8 +333,10 @@ public class StatisticManager implements StatisticService {
                     break;
                 case RULE_REMOVE_REQUESTED:
                     statisticStore.removeFromStatistics(rule);
+                    removeFromPortLoad(rule);
                     break;
                 case RULE_REMOVED:
+                    removeFromPortLoad(rule);
                     break;
                 default:
                     log.warn("Unknown flow rule event {}", event);
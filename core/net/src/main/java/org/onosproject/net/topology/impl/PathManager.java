@@ -15,6 +15,9 @@
  */
 package org.onosproject.net.topology.impl;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -24,6 +27,9 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultEdgeLink;
 import org.onosproject.net.DefaultPath;
@@ -47,8 +53,10 @@ import org.onosproject.net.topology.TopologyService;
 import org.slf4j.Logger;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -60,6 +68,12 @@ import static org.onosproject.security.AppPermission.Type.*;
 /**
  * Provides implementation of a path selection service atop the current
  * topology and host services.
+ * <p>
+ * Infrastructure paths between edge devices computed with the default link
+ * weight are cached per topology, source and destination. The cache is
+ * flushed whenever the current topology changes. Paths for a custom link
+ * weight are always computed afresh, as the weight may carry state of its own.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -72,6 +86,14 @@ public class PathManager implements PathService {
 
     private static final EdgeLink NOT_HOST = new NotHost();
 
+    private static final int PATH_CACHE_SIZE = 10_000;
+
+    private static final String METRICS_COMPONENT = "Topology";
+    private static final String METRICS_FEATURE = "PathCache";
+    private static final String HIT_COUNT = "hitCount";
+    private static final String MISS_COUNT = "missCount";
+    private static final String HIT_RATE = "hitRate";
+
     private final Logger log = getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -80,16 +102,57 @@ public class PathManager implements PathService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected HostService hostService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private final Cache<PathKey, Set<Path>> pathCache =
+            CacheBuilder.newBuilder()
+                    .maximumSize(PATH_CACHE_SIZE)
+                    .recordStats()
+                    .build();
+
+    // Topology for which the paths in the cache were computed
+    private volatile Topology cachedTopology;
+
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     @Activate
     public void activate() {
+        registerMetrics();
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        unregisterMetrics();
+        pathCache.invalidateAll();
+        cachedTopology = null;
         log.info("Stopped");
     }
 
+    private void registerMetrics() {
+        if (metricsService == null) {
+            return;
+        }
+        metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(METRICS_FEATURE);
+        metricsService.registerMetric(metricsComponent, metricsFeature, HIT_COUNT,
+                                      (Gauge<Long>) () -> pathCache.stats().hitCount());
+        metricsService.registerMetric(metricsComponent, metricsFeature, MISS_COUNT,
+                                      (Gauge<Long>) () -> pathCache.stats().missCount());
+        metricsService.registerMetric(metricsComponent, metricsFeature, HIT_RATE,
+                                      (Gauge<Double>) () -> pathCache.stats().hitRate());
+    }
+
+    private void unregisterMetrics() {
+        if (metricsService != null && metricsComponent != null) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, HIT_COUNT);
+            metricsService.removeMetric(metricsComponent, metricsFeature, MISS_COUNT);
+            metricsService.removeMetric(metricsComponent, metricsFeature, HIT_RATE);
+        }
+    }
+
     @Override
     public Set<Path> getPaths(ElementId src, ElementId dst) {
         checkPermission(TOPOLOGY_READ);
@@ -125,13 +188,46 @@ public class PathManager implements PathService {
         // Otherwise get all paths between the source and destination edge
         // devices.
         Topology topology = topologyService.currentTopology();
-        Set<Path> paths = weight == null ?
-                topologyService.getPaths(topology, srcDevice, dstDevice) :
-                topologyService.getPaths(topology, srcDevice, dstDevice, weight);
+        Set<Path> paths = getInfrastructurePaths(topology, srcDevice, dstDevice, weight);
 
         return edgeToEdgePaths(srcEdge, dstEdge, paths);
     }
 
+    // Returns the paths between the given infrastructure devices, from the
+    // path cache if they were already computed for the given topology.
+    private Set<Path> getInfrastructurePaths(Topology topology, DeviceId src,
+                                             DeviceId dst, LinkWeight weight) {
+        if (weight != null) {
+            return topologyService.getPaths(topology, src, dst, weight);
+        }
+
+        if (topology != cachedTopology) {
+            synchronized (pathCache) {
+                if (topology != cachedTopology) {
+                    pathCache.invalidateAll();
+                    cachedTopology = topology;
+                }
+            }
+        }
+
+        try {
+            return pathCache.get(new PathKey(topology, src, dst),
+                                 () -> topologyService.getPaths(topology, src, dst));
+        } catch (ExecutionException e) {
+            log.warn("Unable to compute paths from {} to {}", src, dst, e.getCause());
+            return ImmutableSet.of();
+        }
+    }
+
+    /**
+     * Returns the number of infrastructure path sets currently cached.
+     *
+     * @return number of cached path sets
+     */
+    long pathCacheSize() {
+        return pathCache.size();
+    }
+
     @Override
     public Set<DisjointPath> getDisjointPaths(ElementId src, ElementId dst) {
         checkPermission(TOPOLOGY_READ);
@@ -297,6 +393,38 @@ public class PathManager implements PathService {
     }
 
 
+    // Key of the path cache; the topology is compared by identity.
+    private static final class PathKey {
+        private final Topology topology;
+        private final DeviceId src;
+        private final DeviceId dst;
+
+        private PathKey(Topology topology, DeviceId src, DeviceId dst) {
+            this.topology = topology;
+            this.src = src;
+            this.dst = dst;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(topology), src, dst);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof PathKey) {
+                PathKey other = (PathKey) obj;
+                return topology == other.topology &&
+                        Objects.equals(src, other.src) &&
+                        Objects.equals(dst, other.dst);
+            }
+            return false;
+        }
+    }
+
     // Special value for edge link to represent that this is really not an
     // edge link since the src or dst are really an infrastructure device.
     private static class NotHost extends DefaultEdgeLink implements EdgeLink {
@@ -27,6 +27,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test of the event dispatcher mechanism.
@@ -69,6 +70,52 @@ public class CoreEventDispatcherTest {
         validate(prickleSink);
     }
 
+    @Test
+    public void postEventWithSlowSink() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        gooSink.latch = new CountDownLatch(1);
+        gooSink.blocker = blocker;
+        prickleSink.latch = new CountDownLatch(1);
+
+        // Stall the goo lane and make sure prickles still get through
+        dispatcher.post(new Goo("slow"));
+        dispatcher.post(new Prickle("fast"));
+        assertTrue("prickle not delivered",
+                   prickleSink.latch.await(100, TimeUnit.MILLISECONDS));
+        validate(prickleSink, "fast");
+
+        blocker.countDown();
+        gooSink.latch.await(100, TimeUnit.MILLISECONDS);
+        validate(gooSink, "slow");
+    }
+
+    @Test
+    public void postEventToFullLane() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        gooSink.latch = new CountDownLatch(3);
+        gooSink.blocker = blocker;
+        dispatcher.setLaneCapacity(2);
+
+        // Stall the goo lane, then fill it up; the event past its capacity
+        // is dropped
+        dispatcher.post(new Goo("slow"));
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (dispatcher.getLaneDepths().get(Goo.class) > 0 &&
+                System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        dispatcher.post(new Goo("first"));
+        dispatcher.post(new Goo("second"));
+        dispatcher.post(new Goo("dropped"));
+        assertEquals("incorrect lane depth", Integer.valueOf(2),
+                     dispatcher.getLaneDepths().get(Goo.class));
+
+        blocker.countDown();
+        assertTrue("goo not delivered", gooSink.latch.await(1, TimeUnit.SECONDS));
+        validate(gooSink, "slow", "first", "second");
+        validate(prickleSink);
+    }
+
     @Test
     public void postEventWithNoSink() throws Exception {
         dispatcher.post(new Thing("boom"));
@@ -122,8 +169,17 @@ public class CoreEventDispatcherTest {
     }
 
     private static class GooSink extends Sink implements EventSink<Goo> {
+        CountDownLatch blocker;
+
         @Override
         public void process(Goo event) {
+            if (blocker != null) {
+                try {
+                    blocker.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
             process(event.subject());
             throw new IllegalStateException("BOOM!");
         }
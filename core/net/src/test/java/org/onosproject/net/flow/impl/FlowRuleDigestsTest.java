@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for FlowRuleDigests.
+ */
+public class FlowRuleDigestsTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:001");
+
+    private static FlowRule flowRule(int ethType, long port) {
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder().matchEthType((short) ethType).build())
+                .withTreatment(DefaultTrafficTreatment.builder().setOutput(PortNumber.portNumber(port)).build())
+                .withPriority(10)
+                .fromApp(new DefaultApplicationId(1, "FlowRuleDigestsTest"))
+                .makePermanent()
+                .build();
+    }
+
+    private static FlowRuleDigests digests(FlowRule... rules) {
+        FlowRuleDigests digests = new FlowRuleDigests();
+        for (FlowRule rule : rules) {
+            digests.add(rule);
+        }
+        return digests;
+    }
+
+    @Test
+    public void matchingRules() {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f3 = flowRule(3, 3);
+
+        assertTrue(digests(f1, f2, f3).mismatchedBuckets(digests(f3, flowRule(1, 1), f2)).isEmpty());
+    }
+
+    @Test
+    public void mismatchedRules() {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f3 = flowRule(3, 3);
+
+        // missing rule
+        assertEquals(ImmutableSet.of(FlowRuleDigests.bucketOf(f3)),
+                     digests(f1, f2, f3).mismatchedBuckets(digests(f1, f2)));
+
+        // extraneous rule
+        assertEquals(ImmutableSet.of(FlowRuleDigests.bucketOf(f3)),
+                     digests(f1, f2).mismatchedBuckets(digests(f1, f2, f3)));
+
+        // same rule with another treatment
+        FlowRule f2Modified = flowRule(2, 4);
+        assertEquals(ImmutableSet.of(FlowRuleDigests.bucketOf(f2)),
+                     digests(f1, f2).mismatchedBuckets(digests(f1, f2Modified)));
+    }
+
+    @Test
+    public void trackedRules() {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f2Modified = flowRule(2, 4);
+
+        FlowRuleDigests tracked = new FlowRuleDigests();
+        tracked.update(f1);
+        tracked.update(f2);
+        tracked.update(f2);
+        assertTrue(tracked.mismatchedBuckets(digests(f1, f2)).isEmpty());
+
+        tracked.update(f2Modified);
+        assertTrue(tracked.mismatchedBuckets(digests(f1, f2Modified)).isEmpty());
+
+        tracked.remove(f2Modified);
+        tracked.remove(f2Modified);
+        assertTrue(tracked.mismatchedBuckets(digests(f1)).isEmpty());
+    }
+
+    @Test
+    public void resetBuckets() {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+
+        FlowRuleDigests tracked = new FlowRuleDigests();
+        tracked.update(f1);
+        tracked.update(f2);
+        Set<Long> mismatched = tracked.mismatchedBuckets(digests(f1));
+        assertEquals(ImmutableSet.of(FlowRuleDigests.bucketOf(f2)), mismatched);
+
+        tracked.reset(mismatched, ImmutableSet.of());
+        assertTrue(tracked.mismatchedBuckets(digests(f1)).isEmpty());
+    }
+
+    @Test
+    public void partialRules() {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f3 = flowRule(3, 3);
+
+        // the buckets the partial digests do not hold are left out
+        Set<Long> mismatched = digests(f1, f2, f3).mismatchedBucketsOf(digests(f3));
+        if (FlowRuleDigests.bucketOf(f3) == FlowRuleDigests.bucketOf(f1)
+                || FlowRuleDigests.bucketOf(f3) == FlowRuleDigests.bucketOf(f2)) {
+            assertEquals(ImmutableSet.of(FlowRuleDigests.bucketOf(f3)), mismatched);
+        } else {
+            assertTrue(mismatched.isEmpty());
+        }
+
+        // but a rule differing from the stored one is still noticed
+        assertEquals(ImmutableSet.of(FlowRuleDigests.bucketOf(f2)),
+                     digests(f1, f2).mismatchedBucketsOf(digests(flowRule(2, 4))));
+    }
+}
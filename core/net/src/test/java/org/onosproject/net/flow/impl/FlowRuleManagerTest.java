@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.flow.impl;
 
+import com.codahale.metrics.Counter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
@@ -25,6 +26,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.junit.TestTools;
+import org.onlab.junit.TestUtils;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.ApplicationId;
@@ -52,6 +56,8 @@ import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleBatchOperation;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.flow.FlowRuleListener;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleProgrammable;
 import org.onosproject.net.flow.FlowRuleProvider;
 import org.onosproject.net.flow.FlowRuleProviderRegistry;
@@ -71,10 +77,12 @@ import org.onosproject.store.trivial.SimpleFlowRuleStore;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Hashtable;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -130,6 +138,7 @@ public class FlowRuleManagerTest {
         mgr.operationsService = MoreExecutors.newDirectExecutorService();
         mgr.deviceInstallers = MoreExecutors.newDirectExecutorService();
         mgr.cfgService = new ComponentConfigAdapter();
+        mgr.metricsService = new MetricsManager();
         service = mgr;
         registry = mgr;
 
@@ -392,6 +401,33 @@ public class FlowRuleManagerTest {
 
     }
 
+    /*
+     * Tests that a partial stats update is only checked for the buckets of
+     * the rules it holds, and leaves the other rules alone.
+     */
+    @Test
+    public void partialFlowMetrics() throws Exception {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f3 = flowRule(3, 3);
+        FlowEntry fe1 = new DefaultFlowEntry(f1);
+        mgr.applyFlowRules(f1, f2, f3);
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(fe1, new DefaultFlowEntry(f2),
+                                                                new DefaultFlowEntry(f3)));
+        listener.events.clear();
+
+        Counter mismatchedBuckets = TestUtils.getField(mgr, "mismatchedBuckets");
+        long mismatched = mismatchedBuckets.getCount();
+        providerService.pushFlowMetricsWithoutFlowMissing(DID, Lists.newArrayList(fe1));
+
+        validateEvents(RULE_UPDATED);
+        // the bucket of f1 only mismatches if it holds another rule as well
+        long bucket = FlowRuleDigests.bucketOf(f1);
+        boolean shared = bucket == FlowRuleDigests.bucketOf(f2) || bucket == FlowRuleDigests.bucketOf(f3);
+        assertEquals(mismatched + (shared ? 1 : 0), mismatchedBuckets.getCount());
+        assertEquals("rules should be kept", 3, flowCount());
+    }
+
     @Test
     public void getByAppId() {
         FlowRule f1 = flowRule(1, 1);
@@ -418,6 +454,35 @@ public class FlowRuleManagerTest {
                 f2, FlowEntryState.PENDING_REMOVE));
     }
 
+    @Test
+    public void mergedBatches() {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> properties = new Hashtable<>();
+                properties.put("flowRuleBatchWindow", "50");
+                return properties;
+            }
+        });
+        FlowRule f1 = flowRule(1, 1);
+        List<FlowRuleOperations> succeeded = Collections.synchronizedList(new ArrayList<>());
+        FlowRuleOperationsContext context = new FlowRuleOperationsContext() {
+            @Override
+            public void onSuccess(FlowRuleOperations ops) {
+                succeeded.add(ops);
+            }
+        };
+
+        // the removal supersedes the addition, so that neither reaches the device
+        mgr.apply(FlowRuleOperations.builder().add(f1).build(context));
+        mgr.apply(FlowRuleOperations.builder().remove(f1).build(context));
+
+        TestTools.assertAfter(2000, () -> assertEquals("both operations should complete",
+                                                       2, succeeded.size()));
+        assertEquals("no rule should be stored", 0, flowCount());
+        validateEvents();
+    }
+
     @Test
     public void fallbackBasics() {
         FlowRule f1 = flowRule(FOO_DID, 1, 1);
@@ -16,7 +16,9 @@
 package org.onosproject.net.flowobjective.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Before;
@@ -66,6 +68,7 @@ import org.onosproject.net.intent.TestTools;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.onlab.junit.TestUtils.TestUtilsException;
 
@@ -91,6 +94,7 @@ public class FlowObjectiveManagerTest {
     List<String> filteringObjectives;
     List<String> forwardingObjectives;
     List<String> nextObjectives;
+    List<Integer> forwardingPriorities;
 
     private class TestDeviceService extends DeviceServiceAdapter {
 
@@ -170,6 +174,7 @@ public class FlowObjectiveManagerTest {
         @Override
         public void forward(ForwardingObjective forwardObjective) {
             forwardingObjectives.add(deviceId.toString());
+            forwardingPriorities.add(forwardObjective.priority());
         }
 
         @Override
@@ -198,6 +203,7 @@ public class FlowObjectiveManagerTest {
         filteringObjectives = new ArrayList<>();
         forwardingObjectives = new ArrayList<>();
         nextObjectives = new ArrayList<>();
+        forwardingPriorities = Collections.synchronizedList(new ArrayList<>());
         manager.activate();
     }
 
@@ -236,6 +242,34 @@ public class FlowObjectiveManagerTest {
         assertThat(nextObjectives, hasSize(0));
     }
 
+    /**
+     * Tests that the objectives for a device are handed to its driver in
+     * the order they were submitted.
+     */
+    @Test
+    public void forwardingObjectivesInOrder() {
+        TrafficSelector selector = DefaultTrafficSelector.emptySelector();
+        TrafficTreatment treatment = DefaultTrafficTreatment.emptyTreatment();
+        List<Integer> priorities = new ArrayList<>();
+        for (int priority = 1; priority <= 200; priority++) {
+            ForwardingObjective forward =
+                    DefaultForwardingObjective.builder()
+                            .fromApp(NetTestTools.APP_ID)
+                            .withFlag(ForwardingObjective.Flag.SPECIFIC)
+                            .withSelector(selector)
+                            .withTreatment(treatment)
+                            .withPriority(priority)
+                            .makePermanent()
+                            .add();
+            manager.forward(id1, forward);
+            priorities.add(priority);
+        }
+
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingPriorities, hasSize(priorities.size())));
+        assertThat(forwardingPriorities, is(priorities));
+    }
+
     /**
      * Tests adding a filtering objective.
      */
@@ -378,6 +412,55 @@ public class FlowObjectiveManagerTest {
         assertThat(nextObjectives, hasSize(0));
     }
 
+    /**
+     * Tests that an objective submitted before the driver of its device is
+     * bound gets installed once the device comes up.
+     *
+     * @throws TestUtilsException if lookup of a field fails
+     */
+    @Test
+    public void objectiveBeforeDeviceUp() throws TestUtilsException {
+        ForwardingObjective forward =
+                DefaultForwardingObjective.builder()
+                        .fromApp(NetTestTools.APP_ID)
+                        .withFlag(ForwardingObjective.Flag.SPECIFIC)
+                        .withSelector(DefaultTrafficSelector.emptySelector())
+                        .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                        .makePermanent()
+                        .add();
+        manager.forward(id2, forward);
+
+        DeviceListener listener = TestUtils.getField(manager, "deviceListener");
+        listener.event(new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, d2));
+
+        TestTools.assertAfter((int) (2 * FlowObjectiveManager.INSTALL_RETRY_INTERVAL), () ->
+                assertThat(forwardingObjectives, hasItem("of:d2")));
+    }
+
+    /**
+     * Tests that the lane of a device is dropped when the device is removed.
+     *
+     * @throws TestUtilsException if lookup of a field fails
+     */
+    @Test
+    public void deviceRemovedEvent() throws TestUtilsException {
+        manager.filter(id1, DefaultFilteringObjective.builder()
+                .fromApp(NetTestTools.APP_ID)
+                .makePermanent()
+                .deny()
+                .addCondition(Criteria.matchEthType(12))
+                .add());
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(filteringObjectives, hasSize(1)));
+
+        Map<DeviceId, ?> lanes = TestUtils.getField(manager, "lanes");
+        assertThat(lanes.keySet(), hasItem(id1));
+
+        DeviceListener listener = TestUtils.getField(manager, "deviceListener");
+        listener.event(new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, d1));
+        assertThat(lanes.size(), is(0));
+    }
+
     /**
      * Tests recepit of a device mastership event.
      *
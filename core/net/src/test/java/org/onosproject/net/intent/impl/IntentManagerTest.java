@@ -42,6 +42,7 @@ import org.onosproject.net.intent.IntentEvent.Type;
 import org.onosproject.net.intent.IntentExtensionService;
 import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.intent.IntentListener;
+import org.onosproject.net.intent.IntentPartitionServiceAdapter;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.Key;
@@ -85,6 +86,7 @@ import static org.onosproject.net.intent.IntentTestsMocks.MockIntent;
 public class IntentManagerTest {
 
     private static final int SUBMIT_TIMEOUT_MS = 1000;
+    private static final int NUM_PARTITIONS = 4;
     private static final ApplicationId APPID = new TestApplicationId("manager-test");
 
     private IntentManager manager;
@@ -125,6 +127,13 @@ public class IntentManagerTest {
         }
     }
 
+    private static class TestIntentPartitionService extends IntentPartitionServiceAdapter {
+        @Override
+        public int getPartitionCount() {
+            return NUM_PARTITIONS;
+        }
+    }
+
     private static class TestIntentTracker implements ObjectiveTrackerService {
         private TopologyChangeDelegate delegate;
         @Override
@@ -230,6 +239,7 @@ public class IntentManagerTest {
         manager.flowRuleService = flowRuleService;
         manager.coreService = new TestCoreManager();
         manager.configService = mock(ComponentConfigService.class);
+        manager.partitionService = new TestIntentPartitionService();
         service = manager;
         extensionService = manager;
 
@@ -288,6 +298,44 @@ public class IntentManagerTest {
         verifyState();
     }
 
+    /**
+     * Tests that intents spread across several batch partitions all get
+     * installed.
+     */
+    @Test
+    public void submitIntentsAcrossBatchPartitions() {
+        flowRuleService.setFuture(true);
+
+        int count = 20;
+        listener.setLatch(count, Type.INSTALLED);
+        Set<Integer> partitions = Sets.newHashSet();
+        for (int i = 0; i < count; i++) {
+            Intent intent = new MockIntent(MockIntent.nextId());
+            partitions.add(IntentManager.batchPartitionIndex(intent.key().hash(), NUM_PARTITIONS));
+            service.submit(intent);
+        }
+        listener.await(Type.INSTALLED);
+        assertTrue("intents should span several partitions", partitions.size() > 1);
+        assertEquals(count, service.getIntentCount());
+        assertEquals(count, flowRuleService.getFlowRuleCount());
+        verifyState();
+    }
+
+    /**
+     * Tests that every key hash maps to a valid batch partition.
+     */
+    @Test
+    public void batchPartitionIndex() {
+        assertEquals(0, IntentManager.batchPartitionIndex(0, NUM_PARTITIONS));
+        assertEquals(3, IntentManager.batchPartitionIndex(-1, NUM_PARTITIONS));
+        assertEquals(0, IntentManager.batchPartitionIndex(Integer.MIN_VALUE, NUM_PARTITIONS));
+        assertEquals(0, IntentManager.batchPartitionIndex(0x80000000L, NUM_PARTITIONS));
+        for (long hash : new long[]{Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, 7, -7}) {
+            int index = IntentManager.batchPartitionIndex(hash, NUM_PARTITIONS);
+            assertTrue("partition index out of range", index >= 0 && index < NUM_PARTITIONS);
+        }
+    }
+
     @Test
     public void withdrawIntent() {
         flowRuleService.setFuture(true);
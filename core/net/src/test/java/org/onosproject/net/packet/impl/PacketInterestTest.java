@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import org.junit.Test;
+import org.onlab.packet.Data;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TCP;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.packet.DefaultInboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
+import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.PacketContext;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the packet processor interest matching.
+ */
+public class PacketInterestTest {
+
+    private static final ConnectPoint CP =
+            new ConnectPoint(DeviceId.deviceId("of:1"), PortNumber.portNumber(1));
+
+    @Test
+    public void matchAll() {
+        assertTrue("should match all", PacketInterest.of(null).matchesAll());
+        assertTrue("should match all",
+                   PacketInterest.of(DefaultTrafficSelector.emptySelector()).matchesAll());
+    }
+
+    @Test
+    public void matchTransport() {
+        PacketInterest interest = PacketInterest.of(
+                DefaultTrafficSelector.builder()
+                        .matchEthType(Ethernet.TYPE_IPV4)
+                        .matchIPProtocol(IPv4.PROTOCOL_TCP)
+                        .matchTcpDst(TpPort.tpPort(80))
+                        .build());
+        assertEquals("incorrect eth type", Ethernet.TYPE_IPV4, interest.ethType());
+
+        Ethernet http = frame(IPv4.PROTOCOL_TCP, new TCP().setDestinationPort(80));
+        assertTrue("should match", matches(interest, http));
+
+        Ethernet ssh = frame(IPv4.PROTOCOL_TCP, new TCP().setDestinationPort(22));
+        assertFalse("should not match", matches(interest, ssh));
+
+        Ethernet dns = frame(IPv4.PROTOCOL_UDP, new UDP().setDestinationPort(80));
+        assertFalse("should not match", matches(interest, dns));
+    }
+
+    @Test
+    public void matchInPort() {
+        PacketInterest interest = PacketInterest.of(
+                DefaultTrafficSelector.builder().matchInPort(PortNumber.portNumber(2)).build());
+        Ethernet frame = new Ethernet().setEtherType(Ethernet.TYPE_ARP);
+        frame.setPayload(new Data(new byte[28]));
+        assertFalse("should not match", matches(interest, frame));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedCriterion() {
+        PacketInterest.of(DefaultTrafficSelector.builder().matchVlanId(VlanId.NONE).build());
+    }
+
+    private static Ethernet frame(byte protocol, IPacket transport) {
+        IPv4 ip = new IPv4();
+        ip.setProtocol(protocol);
+        ip.setPayload(transport);
+        Ethernet ethernet = new Ethernet();
+        ethernet.setEtherType(Ethernet.TYPE_IPV4);
+        ethernet.setPayload(ip);
+        return ethernet;
+    }
+
+    private static boolean matches(PacketInterest interest, Ethernet ethernet) {
+        PacketContext context = context(ethernet);
+        return interest.matches(context, context.inPacket().view());
+    }
+
+    private static PacketContext context(Ethernet ethernet) {
+        ethernet.setSourceMACAddress(MacAddress.valueOf(1L))
+                .setDestinationMACAddress(MacAddress.valueOf(2L));
+        InboundPacket packet = new DefaultInboundPacket(CP, ethernet,
+                                                        ByteBuffer.wrap(ethernet.serialize()));
+        return new DefaultPacketContext(0, packet, null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+}
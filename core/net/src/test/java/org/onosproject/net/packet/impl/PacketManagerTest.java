@@ -16,27 +16,44 @@
 
 package org.onosproject.net.packet.impl;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.packet.Data;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.MacAddress;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.impl.DriverManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketProcessor;
+import org.onosproject.net.packet.PacketProvider;
+import org.onosproject.net.packet.PacketProviderService;
 import org.onosproject.net.packet.PacketProgrammable;
 import org.onosproject.net.packet.PacketProviderRegistry;
 import org.onosproject.net.provider.ProviderId;
@@ -44,6 +61,9 @@ import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
@@ -82,8 +102,10 @@ public class PacketManagerTest {
         mgr.deviceService = new TestDeviceService();
         mgr.deviceService = new TestDeviceService();
         mgr.coreService = new TestCoreService();
+        mgr.cfgService = new ComponentConfigAdapter();
+        mgr.metricsService = new MetricsManager();
         providerRegistry = mgr;
-        mgr.activate();
+        mgr.activate(null);
         driverService = new TestDriverManager();
         driverService.addDriver(new DefaultDriver("foo", ImmutableList.of(), "", "", "",
                                                   ImmutableMap.of(PacketProgrammable.class,
@@ -102,6 +124,85 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that the dropped packet count is exported as a metric.
+     */
+    @Test
+    public void droppedPacketsMetric() {
+        Map<String, Gauge> gauges = mgr.metricsService.getGauges(
+                (name, metric) -> name.endsWith(".droppedPackets"));
+        assertEquals("incorrect gauge count", 1, gauges.size());
+        assertEquals("incorrect drop count", 0L, gauges.values().iterator().next().getValue());
+    }
+
+    /**
+     * Tests that packets are dispatched only to the processors interested in
+     * them.
+     */
+    @Test
+    public void filteredDispatch() {
+        List<String> seen = new ArrayList<>();
+        PacketProcessor all = context -> seen.add("all");
+        PacketProcessor arp = context -> seen.add("arp");
+        PacketProcessor ipv4 = context -> seen.add("ipv4");
+        mgr.addProcessor(all, 2);
+        mgr.addProcessor(arp, 1, DefaultTrafficSelector.builder()
+                .matchEthType(Ethernet.TYPE_ARP).build());
+        mgr.addProcessor(ipv4, 3, DefaultTrafficSelector.builder()
+                .matchEthType(Ethernet.TYPE_IPV4).build());
+
+        PacketProviderService providerService =
+                providerRegistry.register(new TestPacketProvider());
+
+        Ethernet arpPacket = new Ethernet();
+        arpPacket.setEtherType(Ethernet.TYPE_ARP);
+        arpPacket.setPayload(new Data(new byte[28]));
+        providerService.processPacket(context(arpPacket));
+        assertEquals("incorrect processors", ImmutableList.of("arp", "all"), seen);
+
+        seen.clear();
+        Ethernet ipv4Packet = new Ethernet();
+        ipv4Packet.setEtherType(Ethernet.TYPE_IPV4);
+        ipv4Packet.setPayload(new IPv4().setPayload(new Data()));
+        providerService.processPacket(context(ipv4Packet));
+        assertEquals("incorrect processors", ImmutableList.of("all", "ipv4"), seen);
+
+        seen.clear();
+        providerService.processPacket(context(new Ethernet()
+                                                      .setEtherType(Ethernet.TYPE_LLDP)));
+        assertEquals("incorrect processors", ImmutableList.of("all"), seen);
+
+        mgr.removeProcessor(all);
+        seen.clear();
+        providerService.processPacket(context(new Ethernet()
+                                                      .setEtherType(Ethernet.TYPE_LLDP)));
+        assertEquals("incorrect processors", ImmutableList.of(), seen);
+        assertEquals("incorrect invocations", 1, mgr.getProcessors().get(0).invocations());
+    }
+
+    private static PacketContext context(Ethernet ethernet) {
+        ConnectPoint cp = new ConnectPoint(FOO_DID, PortNumber.portNumber(1));
+        ethernet.setSourceMACAddress(MacAddress.valueOf(1L))
+                .setDestinationMACAddress(MacAddress.valueOf(2L));
+        InboundPacket packet = new DefaultInboundPacket(cp, ethernet,
+                                                        ByteBuffer.wrap(ethernet.serialize()));
+        return new DefaultPacketContext(0, packet, null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+
+    private static class TestPacketProvider extends TestProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(FOO_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
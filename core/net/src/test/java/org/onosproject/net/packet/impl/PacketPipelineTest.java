@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import org.junit.After;
+import org.junit.Test;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TCP;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.packet.DefaultInboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
+import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.PacketContext;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the inbound packet pipeline stage.
+ */
+public class PacketPipelineTest {
+
+    private static final ConnectPoint CP =
+            new ConnectPoint(DeviceId.deviceId("of:1"), PortNumber.portNumber(1));
+
+    private PacketPipeline pipeline;
+
+    @After
+    public void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    public void flowHash() {
+        assertEquals("same flow should hash the same",
+                     PacketPipeline.flowHash(packet(1000, 80)),
+                     PacketPipeline.flowHash(packet(1000, 80)));
+        assertFalse("different flows should hash differently",
+                    PacketPipeline.flowHash(packet(1000, 80)) ==
+                            PacketPipeline.flowHash(packet(1001, 80)));
+    }
+
+    @Test
+    public void orderedPerFlow() throws InterruptedException {
+        List<PacketContext> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(100);
+        pipeline = new PacketPipeline(4, 128, c -> {
+            processed.add(c);
+            done.countDown();
+        });
+
+        PacketContext[] contexts = new PacketContext[100];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = context(packet(1000, 80));
+            assertTrue("packet should be queued", pipeline.submit(contexts[i]));
+        }
+        assertTrue("packets not processed", done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < contexts.length; i++) {
+            assertTrue("packets out of order", processed.get(i) == contexts[i]);
+        }
+    }
+
+    @Test
+    public void dropOnOverload() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline = new PacketPipeline(1, 1, c -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue("packet should be queued", pipeline.submit(context(packet(1, 2))));
+        assertTrue("worker not started", started.await(5, TimeUnit.SECONDS));
+        assertTrue("packet should be queued", pipeline.submit(context(packet(1, 2))));
+        assertFalse("packet should be dropped", pipeline.submit(context(packet(1, 2))));
+        assertEquals("incorrect drop count", 1, pipeline.droppedPackets());
+        release.countDown();
+    }
+
+    private static InboundPacket packet(int srcPort, int dstPort) {
+        TCP tcp = new TCP().setSourcePort(srcPort).setDestinationPort(dstPort);
+        IPv4 ip = new IPv4();
+        ip.setProtocol(IPv4.PROTOCOL_TCP);
+        ip.setSourceAddress(0x0a000001);
+        ip.setDestinationAddress(0x0a000002);
+        ip.setPayload(tcp);
+        Ethernet eth = new Ethernet();
+        eth.setEtherType(Ethernet.TYPE_IPV4);
+        eth.setSourceMACAddress(MacAddress.valueOf(1L));
+        eth.setDestinationMACAddress(MacAddress.valueOf(2L));
+        eth.setPayload(ip);
+        return new DefaultInboundPacket(CP, eth, ByteBuffer.wrap(eth.serialize()));
+    }
+
+    private static PacketContext context(InboundPacket packet) {
+        return new DefaultPacketContext(0, packet, null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.statistic.impl;
+
+import org.junit.Test;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.statistic.Load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for PortLoadWindow.
+ */
+public class PortLoadWindowTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:001");
+
+    private static FlowRule flowRule(int ethType) {
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder().matchEthType((short) ethType).build())
+                .withTreatment(DefaultTrafficTreatment.builder().setOutput(PortNumber.portNumber(1)).build())
+                .withPriority(10)
+                .fromApp(new DefaultApplicationId(1, "PortLoadWindowTest"))
+                .makePermanent()
+                .build();
+    }
+
+    private static FlowEntry entry(FlowRule rule, long bytes) {
+        return new DefaultFlowEntry(rule, FlowEntry.FlowEntryState.ADDED, 0, 0, bytes);
+    }
+
+    @Test
+    public void load() {
+        FlowRule f1 = flowRule(1);
+        FlowRule f2 = flowRule(2);
+        PortLoadWindow window = new PortLoadWindow();
+        assertFalse(window.isFresh(30, 0));
+
+        window.update(entry(f1, 100), 0);
+        window.update(entry(f2, 200), 0);
+        window.update(entry(f1, 1100), 10_000);
+        window.update(entry(f2, 2200), 10_000);
+        assertTrue(window.isFresh(30, 20_000));
+        assertFalse(window.isFresh(30, 50_000));
+
+        // all the bytes were sent over the 10 seconds elapsed
+        Load load = window.load(30, 10_000);
+        assertEquals(3300, load.latest());
+        assertEquals(330, load.rate());
+
+        // the first statistics are out of a 5 seconds window
+        load = window.load(5, 10_000);
+        assertEquals(600, load.rate());
+        assertEquals(f2, window.highestHitter());
+
+        assertFalse(window.remove(f2));
+        assertEquals(1100, window.load(30, 10_000).latest());
+        assertTrue(window.remove(f1));
+        assertFalse(window.load(30, 10_000).isValid());
+    }
+}
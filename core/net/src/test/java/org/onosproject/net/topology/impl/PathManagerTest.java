@@ -116,6 +116,35 @@ public class PathManagerTest {
         validatePaths(paths, 1, 2, src, dst);
     }
 
+    @Test
+    public void cachedPaths() {
+        DeviceId src = did("src");
+        DeviceId dst = did("dst");
+        fakeTopoMgr.paths.add(createPath("src", "middle", "dst"));
+        validatePaths(service.getPaths(src, dst), 1, 2, src, dst);
+        validatePaths(service.getPaths(src, dst), 1, 2, src, dst);
+        assertEquals("paths should be computed once", 1, fakeTopoMgr.pathQueries);
+        assertEquals("incorrect cache size", 1, mgr.pathCacheSize());
+
+        // A new topology must flush the previously computed paths.
+        fakeTopoMgr.topology = new FakeTopology();
+        validatePaths(service.getPaths(src, dst), 1, 2, src, dst);
+        assertEquals("paths should be recomputed", 2, fakeTopoMgr.pathQueries);
+        assertEquals("incorrect cache size", 1, mgr.pathCacheSize());
+    }
+
+    @Test
+    public void uncachedWeightedPaths() {
+        DeviceId src = did("src");
+        DeviceId dst = did("dst");
+        fakeTopoMgr.paths.add(createPath("src", "middle", "dst"));
+        LinkWeight weight = edge -> 1.0;
+        validatePaths(service.getPaths(src, dst, weight), 1, 2, src, dst);
+        validatePaths(service.getPaths(src, dst, weight), 1, 2, src, dst);
+        assertEquals("weighted paths should be computed each time", 2, fakeTopoMgr.weightedPathQueries);
+        assertEquals("weighted paths should not be cached", 0, mgr.pathCacheSize());
+    }
+
     @Test
     public void noEdge() {
         Set<Path> paths = service.getPaths(hid("12:34:56:78:90:ab/1"),
@@ -137,18 +166,66 @@ public class PathManagerTest {
     // Fake entity to give out paths.
     private class FakeTopoMgr extends TopologyServiceAdapter {
         Set<Path> paths = new HashSet<>();
+        Topology topology = new FakeTopology();
+        int pathQueries = 0;
+        int weightedPathQueries = 0;
+
+        @Override
+        public Topology currentTopology() {
+            return topology;
+        }
 
         @Override
         public Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst) {
+            pathQueries++;
             return paths;
         }
 
         @Override
         public Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst, LinkWeight weight) {
+            weightedPathQueries++;
             return paths;
         }
     }
 
+    // Fake topology distinguished only by its identity.
+    private static class FakeTopology implements Topology {
+        @Override
+        public long time() {
+            return 0;
+        }
+
+        @Override
+        public long creationTime() {
+            return 0;
+        }
+
+        @Override
+        public long computeCost() {
+            return 0;
+        }
+
+        @Override
+        public int clusterCount() {
+            return 0;
+        }
+
+        @Override
+        public int deviceCount() {
+            return 0;
+        }
+
+        @Override
+        public int linkCount() {
+            return 0;
+        }
+
+        @Override
+        public ProviderId providerId() {
+            return PID;
+        }
+    }
+
     // Fake entity to give out hosts.
     private class FakeHostMgr extends HostServiceAdapter  {
         private Map<HostId, Host> hosts = new HashMap<>();
@@ -25,12 +25,15 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Service;
 
 import org.onosproject.app.ApplicationAdminService;
+import org.onosproject.app.ApplicationEvent;
+import org.onosproject.app.ApplicationListener;
 import org.onosproject.app.ApplicationState;
 import org.onosproject.core.Application;
 import org.onosproject.core.ApplicationId;
 
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.ListenerRegistry;
+import org.onosproject.security.AppGuard;
 import org.onosproject.security.AppPermission;
 import org.onosproject.security.SecurityAdminService;
 import org.onosproject.security.store.SecurityModeEvent;
@@ -90,6 +93,8 @@ public class SecurityModeManager implements SecurityAdminService {
 
     private SecurityLogListener securityLogListener = new SecurityLogListener();
 
+    private final ApplicationListener appListener = new InternalApplicationListener();
+
     private PermissionAdmin permissionAdmin = getPermissionAdmin();
 
     @Activate
@@ -109,6 +114,7 @@ public class SecurityModeManager implements SecurityAdminService {
             return;
         }
         store.setDelegate(delegate);
+        appAdminService.addListener(appListener);
 
         log.info("Security-Mode Started");
     }
@@ -117,6 +123,7 @@ public class SecurityModeManager implements SecurityAdminService {
     public void deactivate() {
         eventDispatcher.removeSink(SecurityModeEvent.class);
         logReaderService.removeLogListener(securityLogListener);
+        appAdminService.removeListener(appListener);
         store.unsetDelegate(delegate);
         log.info("Stopped");
 
@@ -193,6 +200,17 @@ public class SecurityModeManager implements SecurityAdminService {
         }
     }
 
+    // Drops the permission checks made on behalf of uninstalled applications,
+    // whose contexts would otherwise stay cached until they expire.
+    private class InternalApplicationListener implements ApplicationListener {
+        @Override
+        public void event(ApplicationEvent event) {
+            if (event.type() == ApplicationEvent.Type.APP_UNINSTALLED) {
+                AppGuard.invalidatePermissionCache();
+            }
+        }
+    }
+
     private class InternalStoreDelegate implements SecurityModeStoreDelegate {
         @Override
         public void notify(SecurityModeEvent event) {
@@ -248,6 +266,8 @@ public class SecurityModeManager implements SecurityAdminService {
         for (String location : store.getBundleLocations(applicationId)) {
             permissionAdmin.setPermissions(location, permissionsToInfo(store.getGrantedPermissions(applicationId)));
         }
+        // checks already made against the former permissions no longer hold
+        AppGuard.invalidatePermissionCache();
     }
 
     private PermissionInfo[] permissionsToInfo(Set<org.onosproject.security.Permission> permissions) {
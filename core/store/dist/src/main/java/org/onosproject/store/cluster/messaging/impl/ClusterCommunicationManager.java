@@ -32,12 +32,15 @@ import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
 import org.onosproject.store.cluster.messaging.Endpoint;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.cluster.messaging.MessagingService;
+import org.onosproject.store.service.Serializer;
 import org.onosproject.utils.MeteringAgent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Objects;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -139,6 +142,25 @@ public class ClusterCommunicationManager
         }
     }
 
+    @Override
+    public <M> CompletableFuture<Void> unicast(M message,
+                                               MessageSubject subject,
+                                               Serializer serializer,
+                                               NodeId toNodeId) {
+        checkPermission(CLUSTER_WRITE);
+        try {
+            return doUnicast(subject, stream -> {
+                ClusterMessage.writeHeader(localNodeId, subject, stream);
+                timeFunction((M m) -> {
+                    serializer.encode(m, stream);
+                    return null;
+                }, subjectMeteringAgent, SERIALIZING).apply(message);
+            }, toNodeId);
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     @Override
     public <M> void multicast(M message,
                               MessageSubject subject,
@@ -181,6 +203,17 @@ public class ClusterCommunicationManager
         return messagingService.sendAsync(nodeEp, subject.value(), payload).whenComplete((r, e) -> context.stop(e));
     }
 
+    private CompletableFuture<Void> doUnicast(MessageSubject subject,
+                                              Consumer<OutputStream> payloadWriter,
+                                              NodeId toNodeId) {
+        ControllerNode node = clusterService.getNode(toNodeId);
+        checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
+        Endpoint nodeEp = new Endpoint(node.ip(), node.tcpPort());
+        MeteringAgent.Context context = subjectMeteringAgent.startTimer(subject.toString() + ONE_WAY_SUFFIX);
+        return messagingService.sendAsync(nodeEp, subject.value(), payloadWriter)
+                .whenComplete((r, e) -> context.stop(e));
+    }
+
     private CompletableFuture<byte[]> sendAndReceive(MessageSubject subject, byte[] payload, NodeId toNodeId) {
         ControllerNode node = clusterService.getNode(toNodeId);
         checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
@@ -254,6 +287,18 @@ public class ClusterCommunicationManager
                 executor);
     }
 
+    @Override
+    public <M> void addSubscriber(MessageSubject subject,
+            Serializer serializer,
+            Consumer<M> handler,
+            Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        Function<ByteBuffer, M> decoder = timeFunction(serializer::decode, subjectMeteringAgent, DESERIALIZING);
+        messagingService.registerBufferHandler(subject.value(),
+                (sender, buffer) -> handler.accept(decoder.apply(ClusterMessage.payloadOf(buffer))),
+                executor);
+    }
+
     /**
      * Performs the timed function, returning the value it would while timing the operation.
      *
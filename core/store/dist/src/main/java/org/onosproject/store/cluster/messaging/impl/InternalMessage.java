@@ -17,13 +17,22 @@ package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
 
+import io.netty.buffer.ByteBuf;
 import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.store.cluster.messaging.Endpoint;
 
+import java.nio.ByteBuffer;
+
 /**
  * Internal message representation with additional attributes
  * for supporting, synchronous request/reply behavior.
+ * <p>
+ * Besides a byte array, the payload of a message may be held in a pooled
+ * buffer: the buffer an outbound payload was serialized into, which the
+ * encoder hands over to the channel as is, or a retained slice of the channel
+ * buffer an inbound payload was received in. Such a message is meant to be
+ * consumed once.
  */
 public final class InternalMessage {
 
@@ -61,8 +70,9 @@ public final class InternalMessage {
     private final long id;
     private final Endpoint sender;
     private final String type;
-    private final byte[] payload;
     private final Status status;
+    private byte[] payload;
+    private ByteBuf payloadBuffer;
 
     public InternalMessage(int preamble,
                            HybridLogicalTime time,
@@ -89,6 +99,22 @@ public final class InternalMessage {
         this.status = status;
     }
 
+    public InternalMessage(int preamble,
+                           HybridLogicalTime time,
+                           long id,
+                           Endpoint sender,
+                           String type,
+                           ByteBuf payloadBuffer,
+                           Status status) {
+        this.preamble = preamble;
+        this.time = time;
+        this.id = id;
+        this.sender = sender;
+        this.type = type;
+        this.payloadBuffer = payloadBuffer;
+        this.status = status;
+    }
+
     public HybridLogicalTime time() {
         return time;
     }
@@ -109,10 +135,48 @@ public final class InternalMessage {
         return sender;
     }
 
-    public byte[] payload() {
+    public synchronized byte[] payload() {
+        if (payload == null && payloadBuffer != null) {
+            payload = new byte[payloadBuffer.readableBytes()];
+            payloadBuffer.getBytes(payloadBuffer.readerIndex(), payload);
+            release();
+        }
         return payload;
     }
 
+    /**
+     * Returns the payload without copying it out of the channel buffer it
+     * was received in. The returned buffer is only valid until
+     * {@link #release()} is called.
+     *
+     * @return payload buffer
+     */
+    public synchronized ByteBuffer payloadBuffer() {
+        return payloadBuffer != null ? payloadBuffer.nioBuffer() : ByteBuffer.wrap(payload());
+    }
+
+    /**
+     * Takes over the buffer holding the payload, if any. The caller is then
+     * responsible for releasing it.
+     *
+     * @return payload buffer, or null if the payload is a byte array
+     */
+    public synchronized ByteBuf takePayloadBuffer() {
+        ByteBuf buffer = payloadBuffer;
+        payloadBuffer = null;
+        return buffer;
+    }
+
+    /**
+     * Releases the buffer holding the payload, if any.
+     */
+    public synchronized void release() {
+        if (payloadBuffer != null) {
+            payloadBuffer.release();
+            payloadBuffer = null;
+        }
+    }
+
     public Status status() {
         return status;
     }
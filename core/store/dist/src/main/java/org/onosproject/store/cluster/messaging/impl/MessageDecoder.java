@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkState;
 
@@ -52,8 +53,21 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
     private Status status;
     private int contentLength;
 
+    private final Predicate<String> bufferedTypes;
+
     public MessageDecoder() {
+        this(type -> false);
+    }
+
+    /**
+     * Creates a decoder which hands out the payloads of the given message
+     * types as retained slices of the channel buffer instead of copies.
+     *
+     * @param bufferedTypes message types whose payloads are not copied
+     */
+    public MessageDecoder(Predicate<String> bufferedTypes) {
         super(DecoderState.READ_MESSAGE_PREAMBLE);
+        this.bufferedTypes = bufferedTypes;
     }
 
     @Override
@@ -102,22 +116,23 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
             contentLength = buffer.readInt();
             checkpoint(DecoderState.READ_CONTENT);
         case READ_CONTENT:
-            byte[] payload;
-            if (contentLength > 0) {
-                //TODO Perform a sanity check on the size before allocating
-                payload = new byte[contentLength];
-                buffer.readBytes(payload);
+            HybridLogicalTime time = new HybridLogicalTime(logicalTime, logicalCounter);
+            Endpoint sender = new Endpoint(senderIp, senderPort);
+            if (contentLength > 0 && bufferedTypes.test(messageType)) {
+                // the slice is released once the message has been handled
+                ByteBuf payload = buffer.readSlice(contentLength).retain();
+                out.add(new InternalMessage(preamble, time, messageId, sender, messageType, payload, status));
             } else {
-                payload = new byte[0];
+                byte[] payload;
+                if (contentLength > 0) {
+                    //TODO Perform a sanity check on the size before allocating
+                    payload = new byte[contentLength];
+                    buffer.readBytes(payload);
+                } else {
+                    payload = new byte[0];
+                }
+                out.add(new InternalMessage(preamble, time, messageId, sender, messageType, payload, status));
             }
-            InternalMessage message = new InternalMessage(preamble,
-                                                          new HybridLogicalTime(logicalTime, logicalCounter),
-                                                          messageId,
-                                                          new Endpoint(senderIp, senderPort),
-                                                          messageType,
-                                                          payload,
-                                                          status);
-            out.add(message);
             checkpoint(DecoderState.READ_MESSAGE_PREAMBLE);
             break;
          default:
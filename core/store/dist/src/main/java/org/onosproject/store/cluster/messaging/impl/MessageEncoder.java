@@ -16,10 +16,11 @@
 package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Utf8;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpAddress.Version;
 import org.onosproject.store.cluster.messaging.Endpoint;
@@ -27,12 +28,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
- * Encode InternalMessage out into a byte buffer.
+ * Encode InternalMessage out into a byte buffer. A payload already held in a
+ * buffer is passed on after the header as is, rather than copied.
  */
 @Sharable
-public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
+public class MessageEncoder extends MessageToMessageEncoder<InternalMessage> {
 
     private final int preamble;
 
@@ -43,12 +46,44 @@ public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    // preamble, logical time, logical counter, message id, ip version,
+    // sender port, type length, status and payload length
+    private static final int FIXED_HEADER_LENGTH = 4 + 8 + 8 + 8 + 1 + 4 + 4 + 4 + 4;
+
     @Override
     protected void encode(
             ChannelHandlerContext context,
             InternalMessage message,
-            ByteBuf out) throws Exception {
+            List<Object> out) throws Exception {
+        ByteBuf payloadBuffer = message.takePayloadBuffer();
+        try {
+            // Size the buffer to fit the encoded message exactly, so that
+            // large payloads are written once instead of being copied as it
+            // grows.
+            int length = FIXED_HEADER_LENGTH
+                    + IpAddress.byteLength(message.sender().host().version())
+                    + Utf8.encodedLength(message.type())
+                    + (payloadBuffer != null ? 0 : message.payload().length);
+            ByteBuf buffer = context.alloc().ioBuffer(length);
+            try {
+                encode(message, payloadBuffer, buffer);
+            } catch (RuntimeException e) {
+                buffer.release();
+                throw e;
+            }
+            out.add(buffer);
+            if (payloadBuffer != null) {
+                out.add(payloadBuffer);
+                payloadBuffer = null;
+            }
+        } finally {
+            if (payloadBuffer != null) {
+                payloadBuffer.release();
+            }
+        }
+    }
 
+    private void encode(InternalMessage message, ByteBuf payloadBuffer, ByteBuf out) {
         out.writeInt(this.preamble);
 
         // write time
@@ -82,6 +117,12 @@ public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
         // write message status value
         out.writeInt(message.status().ordinal());
 
+        if (payloadBuffer != null) {
+            // write payload length; the payload buffer follows
+            out.writeInt(payloadBuffer.readableBytes());
+            return;
+        }
+
         byte[] payload = message.payload();
 
         // write payload length
@@ -20,10 +20,13 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
@@ -68,9 +71,12 @@ import javax.net.ssl.TrustManagerFactory;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.KeyStore;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -95,6 +101,8 @@ public class NettyMessagingManager implements MessagingService {
 
     private static final int REPLY_TIME_OUT_SEC = 2;
     private static final short MIN_KS_LENGTH = 6;
+    // initial room for payloads serialized into pooled buffers
+    private static final int STREAMED_PAYLOAD_CAPACITY = 4096;
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -107,6 +115,8 @@ public class NettyMessagingManager implements MessagingService {
     private int preamble;
     private final AtomicBoolean started = new AtomicBoolean(false);
     private final Map<String, Consumer<InternalMessage>> handlers = new ConcurrentHashMap<>();
+    // message types whose payloads are handed to their handler without being copied
+    private final Set<String> bufferHandlerTypes = Sets.newConcurrentHashSet();
     private final AtomicLong messageIdGenerator = new AtomicLong(0);
     private final Cache<Long, Callback> callbacks = CacheBuilder.newBuilder()
             .expireAfterWrite(REPLY_TIME_OUT_SEC, TimeUnit.SECONDS)
@@ -230,6 +240,33 @@ public class NettyMessagingManager implements MessagingService {
         return sendAsync(ep, message);
     }
 
+    @Override
+    public CompletableFuture<Void> sendAsync(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        checkPermission(CLUSTER_WRITE);
+        // The payload is serialized right away on the calling thread, into a
+        // pooled buffer which the encoder then passes on to the channel as is.
+        ByteBuf payload = PooledByteBufAllocator.DEFAULT.ioBuffer(STREAMED_PAYLOAD_CAPACITY);
+        try {
+            payloadWriter.accept(new ByteBufOutputStream(payload));
+        } catch (RuntimeException e) {
+            payload.release();
+            return Tools.exceptionalFuture(e);
+        }
+        InternalMessage message = new InternalMessage(preamble,
+                                                      clockService.timeNow(),
+                                                      messageIdGenerator.incrementAndGet(),
+                                                      localEp,
+                                                      type,
+                                                      payload,
+                                                      Status.OK);
+        return sendAsync(ep, message).whenComplete((result, error) -> {
+            if (error != null) {
+                // the message did not reach the encoder or a local handler
+                message.release();
+            }
+        });
+    }
+
     protected CompletableFuture<Void> sendAsync(Endpoint ep, InternalMessage message) {
         checkPermission(CLUSTER_WRITE);
         if (ep.equals(localEp)) {
@@ -285,12 +322,14 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlerTypes.remove(type);
         handlers.put(type, message -> executor.execute(() -> handler.accept(message.sender(), message.payload())));
     }
 
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlerTypes.remove(type);
         handlers.put(type, message -> executor.execute(() -> {
             byte[] responsePayload = null;
             Status status = Status.OK;
@@ -306,6 +345,7 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlerTypes.remove(type);
         handlers.put(type, message -> {
             handler.apply(message.sender(), message.payload()).whenComplete((result, error) -> {
                 Status status = error == null ? Status.OK : Status.ERROR_HANDLER_EXCEPTION;
@@ -314,9 +354,30 @@ public class NettyMessagingManager implements MessagingService {
         });
     }
 
+    @Override
+    public void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        handlers.put(type, message -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        handler.accept(message.sender(), message.payloadBuffer());
+                    } finally {
+                        message.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                message.release();
+                throw e;
+            }
+        });
+        bufferHandlerTypes.add(type);
+    }
+
     @Override
     public void unregisterHandler(String type) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlerTypes.remove(type);
         handlers.remove(type);
     }
 
@@ -336,6 +397,7 @@ public class NettyMessagingManager implements MessagingService {
         }
         b.option(ChannelOption.SO_BACKLOG, 128);
         b.childOption(ChannelOption.SO_KEEPALIVE, true);
+        b.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
 
         // Bind and start to accept incoming connections.
         b.bind(localEp.port()).sync().addListener(future -> {
@@ -436,7 +498,7 @@ public class NettyMessagingManager implements MessagingService {
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(serverSslEngine))
                     .addLast("encoder", encoder)
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlerTypes::contains))
                     .addLast("handler", dispatcher);
         }
     }
@@ -470,7 +532,7 @@ public class NettyMessagingManager implements MessagingService {
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(clientSslEngine))
                     .addLast("encoder", encoder)
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlerTypes::contains))
                     .addLast("handler", dispatcher);
         }
     }
@@ -484,7 +546,7 @@ public class NettyMessagingManager implements MessagingService {
         protected void initChannel(SocketChannel channel) throws Exception {
             channel.pipeline()
                     .addLast("encoder", encoder)
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlerTypes::contains))
                     .addLast("handler", dispatcher);
         }
     }
@@ -543,6 +605,7 @@ public class NettyMessagingManager implements MessagingService {
             handler.accept(message);
         } else {
             log.debug("No handler for message type {}", message.type(), message.sender());
+            message.release();
             sendReply(message, Status.ERROR_NO_HANDLER, Optional.empty());
         }
     }
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Device flow table keyed directly by the primitive flow id value.
+ * <p>
+ * Entries are held in an open addressing hash table made of a {@code long[]}
+ * of flow ids and a parallel array of slots. A slot holds the stored entry
+ * itself or, in the rare case of several distinct entries sharing a flow id,
+ * an array of them. Compared to a map of boxed flow ids to per-flow maps,
+ * this avoids a map, its nodes and a boxed key for every flow.
+ * </p>
+ */
+class CompactDeviceFlowTable implements DeviceFlowTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private Object[] slots;
+    private int size;
+    private int occupied;
+
+    /**
+     * Creates an empty compact device flow table.
+     */
+    CompactDeviceFlowTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        slots = new Object[capacity];
+        size = 0;
+        occupied = 0;
+    }
+
+    // Spreads the flow id bits so that sequential ids do not cluster.
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Returns the index of the slot for the given flow id, or of the empty
+    // slot where it would be inserted.
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (slots[index] != null && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    @Override
+    public synchronized StoredFlowEntry get(FlowRule rule) {
+        Object slot = slots[indexOf(rule.id().value())];
+        if (slot instanceof StoredFlowEntry) {
+            return slot.equals(rule) ? (StoredFlowEntry) slot : null;
+        } else if (slot != null) {
+            for (StoredFlowEntry entry : (StoredFlowEntry[]) slot) {
+                if (entry.equals(rule)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void put(StoredFlowEntry entry) {
+        long key = entry.id().value();
+        int index = indexOf(key);
+        Object slot = slots[index];
+        if (slot == null) {
+            keys[index] = key;
+            slots[index] = entry;
+            size++;
+            if (++occupied > keys.length * LOAD_FACTOR) {
+                rehash(keys.length << 1);
+            }
+        } else if (slot instanceof StoredFlowEntry) {
+            if (slot.equals(entry)) {
+                slots[index] = entry;
+            } else {
+                slots[index] = new StoredFlowEntry[] {(StoredFlowEntry) slot, entry};
+                size++;
+            }
+        } else {
+            StoredFlowEntry[] entries = (StoredFlowEntry[]) slot;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].equals(entry)) {
+                    entries[i] = entry;
+                    return;
+                }
+            }
+            StoredFlowEntry[] grown = Arrays.copyOf(entries, entries.length + 1);
+            grown[entries.length] = entry;
+            slots[index] = grown;
+            size++;
+        }
+    }
+
+    @Override
+    public synchronized StoredFlowEntry remove(FlowEntry rule, Predicate<StoredFlowEntry> removable) {
+        int index = indexOf(rule.id().value());
+        Object slot = slots[index];
+        if (slot instanceof StoredFlowEntry) {
+            StoredFlowEntry stored = (StoredFlowEntry) slot;
+            if (stored.equals(rule) && removable.test(stored)) {
+                delete(index);
+                size--;
+                return stored;
+            }
+        } else if (slot != null) {
+            StoredFlowEntry[] entries = (StoredFlowEntry[]) slot;
+            for (int i = 0; i < entries.length; i++) {
+                StoredFlowEntry stored = entries[i];
+                if (stored.equals(rule)) {
+                    if (!removable.test(stored)) {
+                        return null;
+                    }
+                    if (entries.length == 2) {
+                        slots[index] = entries[1 - i];
+                    } else {
+                        StoredFlowEntry[] shrunk = new StoredFlowEntry[entries.length - 1];
+                        System.arraycopy(entries, 0, shrunk, 0, i);
+                        System.arraycopy(entries, i + 1, shrunk, i, entries.length - i - 1);
+                        slots[index] = shrunk;
+                    }
+                    size--;
+                    return stored;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Empties the slot at the given index, shifting back any following
+    // entries of the same probe sequence so that lookups keep finding them.
+    private void delete(int index) {
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (slots[next] != null) {
+            int home = hash(keys[next]) & mask;
+            // move the entry into the hole unless its home lies cyclically in (hole, next]
+            boolean stays = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!stays) {
+                keys[hole] = keys[next];
+                slots[hole] = slots[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        slots[hole] = null;
+        occupied--;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldSlots = slots;
+        int oldSize = size;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != null) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                slots[index] = oldSlots[i];
+                occupied++;
+            }
+        }
+        size = oldSize;
+    }
+
+    @Override
+    public synchronized Set<FlowEntry> getFlowEntries(Predicate<? super FlowEntry> filter) {
+        Set<FlowEntry> entries = Sets.newHashSet();
+        for (Object slot : slots) {
+            if (slot instanceof StoredFlowEntry) {
+                if (filter.test((StoredFlowEntry) slot)) {
+                    entries.add((StoredFlowEntry) slot);
+                }
+            } else if (slot != null) {
+                for (StoredFlowEntry entry : (StoredFlowEntry[]) slot) {
+                    if (filter.test(entry)) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> snapshot() {
+        ImmutableMap.Builder<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> builder = ImmutableMap.builder();
+        for (int i = 0; i < slots.length; i++) {
+            Object slot = slots[i];
+            if (slot == null) {
+                continue;
+            }
+            Map<StoredFlowEntry, StoredFlowEntry> entries = Maps.newConcurrentMap();
+            if (slot instanceof StoredFlowEntry) {
+                entries.put((StoredFlowEntry) slot, (StoredFlowEntry) slot);
+            } else {
+                for (StoredFlowEntry entry : (StoredFlowEntry[]) slot) {
+                    entries.put(entry, entry);
+                }
+            }
+            builder.put(FlowId.valueOf(keys[i]), entries);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public synchronized void load(Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> snapshot) {
+        int entries = snapshot.values().stream().mapToInt(Map::size).sum();
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * LOAD_FACTOR < entries) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+        snapshot.values().forEach(m -> m.values().forEach(this::put));
+    }
+}
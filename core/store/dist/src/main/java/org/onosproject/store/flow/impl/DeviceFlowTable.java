@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Flow entries of a single device held by the distributed flow rule store.
+ */
+interface DeviceFlowTable {
+
+    /**
+     * Returns the stored entry equal to the given rule.
+     *
+     * @param rule flow rule
+     * @return stored entry or null if there is none
+     */
+    StoredFlowEntry get(FlowRule rule);
+
+    /**
+     * Adds the given entry, replacing any stored entry equal to it.
+     *
+     * @param entry flow entry
+     */
+    void put(StoredFlowEntry entry);
+
+    /**
+     * Removes the stored entry equal to the given rule, provided the stored
+     * entry satisfies the given predicate.
+     *
+     * @param rule      flow entry
+     * @param removable predicate the stored entry must satisfy to be removed
+     * @return removed entry or null if nothing was removed
+     */
+    StoredFlowEntry remove(FlowEntry rule, Predicate<StoredFlowEntry> removable);
+
+    /**
+     * Returns a copy of all stored entries.
+     *
+     * @return set of flow entries
+     */
+    default Set<FlowEntry> getFlowEntries() {
+        return getFlowEntries(entry -> true);
+    }
+
+    /**
+     * Returns a copy of the stored entries which pass the given filter.
+     *
+     * @param filter flow entry filter
+     * @return set of flow entries
+     */
+    Set<FlowEntry> getFlowEntries(Predicate<? super FlowEntry> filter);
+
+    /**
+     * Returns the number of stored entries.
+     *
+     * @return number of flow entries
+     */
+    int size();
+
+    /**
+     * Returns a snapshot of the table in the form exchanged with backup nodes.
+     *
+     * @return map of flow id to stored entries with that id
+     */
+    Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> snapshot();
+
+    /**
+     * Replaces the contents of the table with the given snapshot.
+     *
+     * @param snapshot map of flow id to stored entries with that id
+     */
+    void load(Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> snapshot);
+}
@@ -16,7 +16,6 @@
 package org.onosproject.store.flow.impl;
 
  import com.google.common.collect.ImmutableList;
- import com.google.common.collect.ImmutableMap;
  import com.google.common.collect.Iterables;
  import com.google.common.collect.Maps;
  import com.google.common.collect.Sets;
@@ -91,7 +90,9 @@ package org.onosproject.store.flow.impl;
  import java.util.concurrent.ScheduledFuture;
  import java.util.concurrent.TimeUnit;
  import java.util.concurrent.atomic.AtomicInteger;
- import java.util.concurrent.atomic.AtomicReference;
+ import java.util.concurrent.locks.ReadWriteLock;
+ import java.util.concurrent.locks.ReentrantReadWriteLock;
+ import java.util.function.Predicate;
  import java.util.stream.Collectors;
 
  import static com.google.common.base.Strings.isNullOrEmpty;
@@ -115,6 +116,7 @@ public class DistributedFlowRuleStore
     private static final int MESSAGE_HANDLER_THREAD_POOL_SIZE = 8;
     private static final boolean DEFAULT_BACKUP_ENABLED = true;
     private static final boolean DEFAULT_PERSISTENCE_ENABLED = false;
+    private static final boolean DEFAULT_COMPACT_FLOW_TABLE_ENABLED = false;
     private static final int DEFAULT_BACKUP_PERIOD_MILLIS = 2000;
     private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
     // number of devices whose flow entries will be backed up in one communication round
@@ -135,6 +137,11 @@ public class DistributedFlowRuleStore
             label = "Indicates whether or not changes in the flow table should be persisted to disk.")
     private boolean persistenceEnabled = DEFAULT_PERSISTENCE_ENABLED;
 
+    @Property(name = "compactFlowTableEnabled", boolValue = DEFAULT_COMPACT_FLOW_TABLE_ENABLED,
+            label = "Indicates whether flow tables are kept in a compact layout keyed by flow id; "
+                    + "not applicable when persistence is enabled")
+    private boolean compactFlowTableEnabled = DEFAULT_COMPACT_FLOW_TABLE_ENABLED;
+
     private InternalFlowTable flowTable = new InternalFlowTable();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -255,6 +262,7 @@ public class DistributedFlowRuleStore
         int newPoolSize;
         boolean newBackupEnabled;
         int newBackupPeriod;
+        boolean newCompactFlowTableEnabled;
         try {
             String s = get(properties, "msgHandlerPoolSize");
             newPoolSize = isNullOrEmpty(s) ? msgHandlerPoolSize : Integer.parseInt(s.trim());
@@ -265,10 +273,20 @@ public class DistributedFlowRuleStore
             s = get(properties, "backupPeriod");
             newBackupPeriod = isNullOrEmpty(s) ? backupPeriod : Integer.parseInt(s.trim());
 
+            s = get(properties, "compactFlowTableEnabled");
+            newCompactFlowTableEnabled = isNullOrEmpty(s) ?
+                    compactFlowTableEnabled : Boolean.parseBoolean(s.trim());
+
         } catch (NumberFormatException | ClassCastException e) {
             newPoolSize = MESSAGE_HANDLER_THREAD_POOL_SIZE;
             newBackupEnabled = DEFAULT_BACKUP_ENABLED;
             newBackupPeriod = DEFAULT_BACKUP_PERIOD_MILLIS;
+            newCompactFlowTableEnabled = DEFAULT_COMPACT_FLOW_TABLE_ENABLED;
+        }
+
+        if (newCompactFlowTableEnabled != compactFlowTableEnabled) {
+            compactFlowTableEnabled = newCompactFlowTableEnabled;
+            flowTable.rebuildDeviceTables();
         }
 
         boolean restartBackupTask = false;
@@ -340,8 +358,9 @@ public class DistributedFlowRuleStore
     }
 
     private void logConfig(String prefix) {
-        log.info("{} with msgHandlerPoolSize = {}; backupEnabled = {}, backupPeriod = {}",
-                 prefix, msgHandlerPoolSize, backupEnabled, backupPeriod);
+        log.info("{} with msgHandlerPoolSize = {}; backupEnabled = {}, backupPeriod = {}, "
+                         + "compactFlowTableEnabled = {}",
+                 prefix, msgHandlerPoolSize, backupEnabled, backupPeriod, compactFlowTableEnabled);
     }
 
     // This is not a efficient operation on a distributed sharded
@@ -406,6 +425,18 @@ public class DistributedFlowRuleStore
                                Collections.emptyList());
     }
 
+    @Override
+    public Iterable<FlowEntry> getFlowEntries(DeviceId deviceId, Predicate<? super FlowEntry> filter) {
+        NodeId master = mastershipService.getMasterFor(deviceId);
+
+        if (Objects.equals(local, master)) {
+            return flowTable.getFlowEntriesMatching(deviceId, filter);
+        }
+
+        // The filter cannot be shipped to the master, so apply it here.
+        return Iterables.filter(getFlowEntries(deviceId), filter::test);
+    }
+
     @Override
     public void storeFlowRule(FlowRule rule) {
         storeBatch(new FlowRuleBatchOperation(
@@ -657,14 +688,16 @@ public class DistributedFlowRuleStore
 
     private class InternalFlowTable implements ReplicaInfoEventListener {
 
-        //TODO replace the Map<V,V> with ExtendedSet
-        private final Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
-                flowEntries = Maps.newConcurrentMap();
+        private final Map<DeviceId, DeviceFlowTable> flowEntries = Maps.newConcurrentMap();
 
         private final Map<DeviceId, Long> lastBackupTimes = Maps.newConcurrentMap();
         private final Map<DeviceId, Long> lastUpdateTimes = Maps.newConcurrentMap();
         private final Map<DeviceId, NodeId> lastBackupNodes = Maps.newConcurrentMap();
 
+        // held shared by writers and exclusively while the device tables are
+        // rebuilt, so that no update lands in a table being replaced
+        private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
         @Override
         public void event(ReplicaInfoEvent event) {
             eventHandler.execute(() -> handleEvent(event));
@@ -721,7 +754,7 @@ public class DistributedFlowRuleStore
             log.debug("Sending flowEntries for devices {} to {} as backup.", deviceIds, nodeId);
             Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
                     deviceFlowEntries = Maps.newConcurrentMap();
-            deviceIds.forEach(id -> deviceFlowEntries.put(id, ImmutableMap.copyOf(getFlowTable(id))));
+            deviceIds.forEach(id -> deviceFlowEntries.put(id, getFlowTable(id).snapshot()));
             clusterCommunicator.<Map<DeviceId,
                                  Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>,
                                  Set<DeviceId>>
@@ -751,11 +784,15 @@ public class DistributedFlowRuleStore
          * Returns the flow table for specified device.
          *
          * @param deviceId identifier of the device
-         * @return Map representing Flow Table of given device.
+         * @return Flow Table of given device.
          */
-        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getFlowTable(DeviceId deviceId) {
+        private DeviceFlowTable getFlowTable(DeviceId deviceId) {
+            return flowEntries.computeIfAbsent(deviceId, this::createFlowTable);
+        }
+
+        private DeviceFlowTable createFlowTable(DeviceId deviceId) {
             if (persistenceEnabled) {
-                return flowEntries.computeIfAbsent(deviceId, id -> persistenceService
+                return new MapDeviceFlowTable(persistenceService
                         .<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>persistentMapBuilder()
                         .withName("FlowTable:" + deviceId.toString())
                         .withSerializer(new Serializer() {
@@ -770,69 +807,82 @@ public class DistributedFlowRuleStore
                             }
                         })
                         .build());
+            } else if (compactFlowTableEnabled) {
+                return new CompactDeviceFlowTable();
             } else {
-                return flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap());
+                return new MapDeviceFlowTable(Maps.newConcurrentMap());
             }
         }
 
-        private Map<StoredFlowEntry, StoredFlowEntry> getFlowEntriesInternal(DeviceId deviceId, FlowId flowId) {
-            return getFlowTable(deviceId).computeIfAbsent(flowId, id -> Maps.newConcurrentMap());
-        }
-
-        private StoredFlowEntry getFlowEntryInternal(FlowRule rule) {
-            return getFlowEntriesInternal(rule.deviceId(), rule.id()).get(rule);
-        }
-
-        private Set<FlowEntry> getFlowEntriesInternal(DeviceId deviceId) {
-            return getFlowTable(deviceId).values().stream()
-                        .flatMap(m -> m.values().stream())
-                        .collect(Collectors.toSet());
+        /**
+         * Moves the flow entries of every device into a flow table of the
+         * currently configured kind.
+         */
+        private void rebuildDeviceTables() {
+            rebuildLock.writeLock().lock();
+            try {
+                flowEntries.replaceAll((deviceId, table) -> {
+                    DeviceFlowTable rebuilt = createFlowTable(deviceId);
+                    rebuilt.load(table.snapshot());
+                    return rebuilt;
+                });
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
         }
 
         public StoredFlowEntry getFlowEntry(FlowRule rule) {
-            return getFlowEntryInternal(rule);
+            return getFlowTable(rule.deviceId()).get(rule);
         }
 
         public Set<FlowEntry> getFlowEntries(DeviceId deviceId) {
-            return getFlowEntriesInternal(deviceId);
+            return getFlowTable(deviceId).getFlowEntries();
+        }
+
+        public Set<FlowEntry> getFlowEntriesMatching(DeviceId deviceId, Predicate<? super FlowEntry> filter) {
+            return getFlowTable(deviceId).getFlowEntries(filter);
         }
 
         public void add(FlowEntry rule) {
-            getFlowEntriesInternal(rule.deviceId(), rule.id())
-                    .compute((StoredFlowEntry) rule, (k, stored) -> {
-                        //TODO compare stored and rule timestamps
-                        //TODO the key is not updated
-                        return (StoredFlowEntry) rule;
-                    });
+            rebuildLock.readLock().lock();
+            try {
+                getFlowTable(rule.deviceId()).put((StoredFlowEntry) rule);
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
             lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
         }
 
         public FlowEntry remove(DeviceId deviceId, FlowEntry rule) {
-            final AtomicReference<FlowEntry> removedRule = new AtomicReference<>();
-            getFlowEntriesInternal(rule.deviceId(), rule.id())
-                .computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
-                    if (rule instanceof DefaultFlowEntry) {
-                        DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
-                        if (stored instanceof DefaultFlowEntry) {
-                            DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
-                            if (toRemove.created() < storedEntry.created()) {
-                                log.debug("Trying to remove more recent flow entry {} (stored: {})",
-                                          toRemove, stored);
-                                // the key is not updated, removedRule remains null
-                                return stored;
-                            }
-                        }
-                    }
-                    removedRule.set(stored);
-                    return null;
-                });
+            FlowEntry removedRule;
+            rebuildLock.readLock().lock();
+            try {
+                removedRule = removeFromTable(rule);
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
 
-            if (removedRule.get() != null) {
+            if (removedRule != null) {
                 lastUpdateTimes.put(deviceId, System.currentTimeMillis());
-                return removedRule.get();
-            } else {
-                return null;
             }
+            return removedRule;
+        }
+
+        private FlowEntry removeFromTable(FlowEntry rule) {
+            return getFlowTable(rule.deviceId()).remove(rule, stored -> {
+                if (rule instanceof DefaultFlowEntry) {
+                    DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
+                    if (stored instanceof DefaultFlowEntry) {
+                        DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
+                        if (toRemove.created() < storedEntry.created()) {
+                            log.debug("Trying to remove more recent flow entry {} (stored: {})",
+                                      toRemove, stored);
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            });
         }
 
         public void purgeFlowRule(DeviceId deviceId) {
@@ -889,10 +939,12 @@ public class DistributedFlowRuleStore
                 flowTables.forEach((deviceId, deviceFlowTable) -> {
                     // Only process those devices are that not managed by the local node.
                     if (!Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
-                        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> backupFlowTable =
-                                getFlowTable(deviceId);
-                        backupFlowTable.clear();
-                        backupFlowTable.putAll(deviceFlowTable);
+                        rebuildLock.readLock().lock();
+                        try {
+                            getFlowTable(deviceId).load(deviceFlowTable);
+                        } finally {
+                            rebuildLock.readLock().unlock();
+                        }
                         backedupDevices.add(deviceId);
                     }
                 });
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Device flow table backed by a map of flow id to a map of entries.
+ * The backing map may be a persistent one.
+ */
+class MapDeviceFlowTable implements DeviceFlowTable {
+
+    //TODO replace the Map<V,V> with ExtendedSet
+    private final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowEntries;
+
+    /**
+     * Creates a device flow table on top of the given map.
+     *
+     * @param flowEntries backing map
+     */
+    MapDeviceFlowTable(Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowEntries) {
+        this.flowEntries = checkNotNull(flowEntries);
+    }
+
+    private Map<StoredFlowEntry, StoredFlowEntry> getFlowEntries(FlowId flowId) {
+        return flowEntries.computeIfAbsent(flowId, id -> Maps.newConcurrentMap());
+    }
+
+    @Override
+    public StoredFlowEntry get(FlowRule rule) {
+        return getFlowEntries(rule.id()).get(rule);
+    }
+
+    @Override
+    public void put(StoredFlowEntry entry) {
+        getFlowEntries(entry.id()).compute(entry, (k, stored) -> {
+            //TODO compare stored and rule timestamps
+            //TODO the key is not updated
+            return entry;
+        });
+    }
+
+    @Override
+    public StoredFlowEntry remove(FlowEntry rule, Predicate<StoredFlowEntry> removable) {
+        final AtomicReference<StoredFlowEntry> removedRule = new AtomicReference<>();
+        getFlowEntries(rule.id()).computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
+            if (!removable.test(stored)) {
+                // the key is not updated, removedRule remains null
+                return stored;
+            }
+            removedRule.set(stored);
+            return null;
+        });
+        return removedRule.get();
+    }
+
+    @Override
+    public Set<FlowEntry> getFlowEntries(Predicate<? super FlowEntry> filter) {
+        return flowEntries.values().stream()
+                .flatMap(m -> m.values().stream())
+                .filter(filter)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public int size() {
+        return flowEntries.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> snapshot() {
+        return ImmutableMap.copyOf(flowEntries);
+    }
+
+    @Override
+    public void load(Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> snapshot) {
+        flowEntries.clear();
+        flowEntries.putAll(snapshot);
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.host.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
@@ -48,6 +49,7 @@ import org.onosproject.store.service.MapEvent;
 import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
+import org.onosproject.store.service.Versioned;
 import org.slf4j.Logger;
 
 import java.util.Collection;
@@ -56,8 +58,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -85,6 +86,22 @@ public class DistributedHostStore
     private final ConcurrentHashMap<HostId, DefaultHost> prevHosts =
             new ConcurrentHashMap<>();
 
+    // Hosts as last indexed, with their version in the map; removed hosts are
+    // kept as tombstones until their removal event is seen, so that late
+    // events of earlier versions do not index them again
+    private final Map<HostId, Versioned<Host>> indexedHosts = new ConcurrentHashMap<>();
+    private final Object indexLock = new Object();
+
+    // Secondary indexes over the hosts, maintained from the map events and
+    // from the local updates
+    private final HostIndex<IpAddress> ipIndex = new HostIndex<>(Host::ipAddresses);
+    private final HostIndex<MacAddress> macIndex = new HostIndex<>(host -> ImmutableList.of(host.mac()));
+    private final HostIndex<VlanId> vlanIndex = new HostIndex<>(host -> ImmutableList.of(host.vlan()));
+    private final HostIndex<ConnectPoint> locationIndex =
+            new HostIndex<>(host -> ImmutableList.of(host.location()));
+    private final HostIndex<DeviceId> deviceIndex =
+            new HostIndex<>(host -> ImmutableList.of(host.location().deviceId()));
+
     private MapEventListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
 
@@ -101,10 +118,13 @@ public class DistributedHostStore
 
         hosts = hostsConsistentMap.asJavaMap();
 
-        prevHosts.putAll(hosts);
-
         hostsConsistentMap.addListener(hostLocationTracker);
 
+        hostsConsistentMap.entrySet().forEach(entry -> {
+            prevHosts.putIfAbsent(entry.getKey(), entry.getValue().value());
+            reindex(entry.getKey(), entry.getValue(), false);
+        });
+
         log.info("Started");
     }
 
@@ -112,6 +132,14 @@ public class DistributedHostStore
     public void deactivate() {
         hostsConsistentMap.removeListener(hostLocationTracker);
         prevHosts.clear();
+        synchronized (indexLock) {
+            indexedHosts.clear();
+            ipIndex.clear();
+            macIndex.clear();
+            vlanIndex.clear();
+            locationIndex.clear();
+            deviceIndex.clear();
+        }
 
         log.info("Stopped");
     }
@@ -158,7 +186,7 @@ public class DistributedHostStore
                                         HostId hostId,
                                         HostDescription hostDescription,
                                         boolean replaceIPs) {
-        hostsConsistentMap.computeIf(hostId,
+        Versioned<DefaultHost> host = hostsConsistentMap.computeIf(hostId,
                        existingHost -> shouldUpdate(existingHost, providerId, hostId,
                                                     hostDescription, replaceIPs),
                        (id, existingHost) -> {
@@ -188,20 +216,26 @@ public class DistributedHostStore
                                                   addresses,
                                                   annotations);
                        });
+        if (host != null) {
+            reindex(hostId, host, false);
+        }
         return null;
     }
 
     // TODO No longer need to return HostEvent
     @Override
     public HostEvent removeHost(HostId hostId) {
-        hosts.remove(hostId);
+        Versioned<DefaultHost> host = hostsConsistentMap.remove(hostId);
+        if (host != null) {
+            reindex(hostId, host, true);
+        }
         return null;
     }
 
     // TODO No longer need to return HostEvent
     @Override
     public HostEvent removeIp(HostId hostId, IpAddress ipAddress) {
-        hosts.compute(hostId, (id, existingHost) -> {
+        Versioned<DefaultHost> host = hostsConsistentMap.compute(hostId, (id, existingHost) -> {
             if (existingHost != null) {
                 checkState(Objects.equals(hostId.mac(), existingHost.mac()),
                         "Existing and new MAC addresses differ.");
@@ -225,6 +259,9 @@ public class DistributedHostStore
             }
             return null;
         });
+        if (host != null) {
+            reindex(hostId, host, false);
+        }
         return null;
     }
 
@@ -245,39 +282,138 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getHosts(VlanId vlanId) {
-        return filter(hosts.values(), host -> Objects.equals(host.vlan(), vlanId));
+        return vlanIndex.get(vlanId);
     }
 
     @Override
     public Set<Host> getHosts(MacAddress mac) {
-        return filter(hosts.values(), host -> Objects.equals(host.mac(), mac));
+        return macIndex.get(mac);
     }
 
     @Override
     public Set<Host> getHosts(IpAddress ip) {
-        return filter(hosts.values(), host -> host.ipAddresses().contains(ip));
+        return ipIndex.get(ip);
     }
 
     @Override
     public Set<Host> getConnectedHosts(ConnectPoint connectPoint) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().location().equals(connectPoint))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return locationIndex.get(connectPoint);
     }
 
     @Override
     public Set<Host> getConnectedHosts(DeviceId deviceId) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().location().deviceId().equals(deviceId))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return deviceIndex.get(deviceId);
+    }
+
+    /**
+     * Brings the indexes up to date with the given version of a host, unless
+     * a later version of the host is indexed already. The removal of a host
+     * supersedes its last version.
+     *
+     * @param hostId  host identifier
+     * @param host    versioned host
+     * @param removed whether the host was removed
+     */
+    private void reindex(HostId hostId, Versioned<DefaultHost> host, boolean removed) {
+        synchronized (indexLock) {
+            Versioned<Host> indexed = indexedHosts.get(hostId);
+            if (indexed != null && rank(indexed.version(), indexed.value() == null)
+                    >= rank(host.version(), removed)) {
+                return;
+            }
+            if (indexed != null && indexed.value() != null) {
+                unindex(indexed.value());
+            }
+            if (!removed) {
+                index(host.value());
+            }
+            indexedHosts.put(hostId, new Versioned<>(removed ? null : host.value(), host.version()));
+        }
+    }
+
+    private static long rank(long version, boolean removed) {
+        return 2 * version + (removed ? 1 : 0);
+    }
+
+    // drops the tombstone of a host once its removal event is seen
+    private void forget(HostId hostId, long version) {
+        synchronized (indexLock) {
+            Versioned<Host> indexed = indexedHosts.get(hostId);
+            if (indexed != null && indexed.value() == null && indexed.version() <= version) {
+                indexedHosts.remove(hostId);
+            }
+        }
     }
 
-    private Set<Host> filter(Collection<DefaultHost> collection, Predicate<DefaultHost> predicate) {
-        return collection.stream().filter(predicate).collect(Collectors.toSet());
+    private void index(Host host) {
+        ipIndex.add(host);
+        macIndex.add(host);
+        vlanIndex.add(host);
+        locationIndex.add(host);
+        deviceIndex.add(host);
+    }
+
+    private void unindex(Host host) {
+        ipIndex.remove(host);
+        macIndex.remove(host);
+        vlanIndex.remove(host);
+        locationIndex.remove(host);
+        deviceIndex.remove(host);
+    }
+
+    /**
+     * Index of the known hosts by one of their attributes. Hosts are kept by
+     * their identifiers and resolved against the indexed hosts, skipping those
+     * which no longer have the attribute.
+     *
+     * @param <K> type of the index key
+     */
+    private final class HostIndex<K> {
+        private final Function<Host, Collection<K>> keys;
+        private final Map<K, Set<HostId>> index = new ConcurrentHashMap<>();
+
+        private HostIndex(Function<Host, Collection<K>> keys) {
+            this.keys = keys;
+        }
+
+        private void add(Host host) {
+            for (K key : keys.apply(host)) {
+                index.compute(key, (k, ids) -> {
+                    Set<HostId> updated = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                    updated.add(host.id());
+                    return updated;
+                });
+            }
+        }
+
+        private void remove(Host host) {
+            for (K key : keys.apply(host)) {
+                index.computeIfPresent(key, (k, ids) -> {
+                    ids.remove(host.id());
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        private Set<Host> get(K key) {
+            Set<HostId> ids = index.get(key);
+            if (ids == null) {
+                return ImmutableSet.of();
+            }
+            ImmutableSet.Builder<Host> builder = ImmutableSet.builder();
+            for (HostId id : ids) {
+                Versioned<Host> host = indexedHosts.get(id);
+                if (host != null && host.value() != null
+                        && keys.apply(host.value()).contains(key)) {
+                    builder.add(host.value());
+                }
+            }
+            return builder.build();
+        }
+
+        private void clear() {
+            index.clear();
+        }
     }
 
     private class HostLocationTracker implements MapEventListener<HostId, DefaultHost> {
@@ -285,6 +421,10 @@ public class DistributedHostStore
         public void event(MapEvent<HostId, DefaultHost> event) {
             DefaultHost host = checkNotNull(event.value().value());
             Host prevHost = prevHosts.put(host.id(), host);
+            reindex(host.id(), event.value(), event.type() == MapEvent.Type.REMOVE);
+            if (event.type() == MapEvent.Type.REMOVE) {
+                forget(host.id(), event.value().version());
+            }
             switch (event.type()) {
                 case INSERT:
                     notifyDelegate(new HostEvent(HOST_ADDED, host));
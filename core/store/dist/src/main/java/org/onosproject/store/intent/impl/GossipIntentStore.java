@@ -110,6 +110,7 @@ public class GossipIntentStore
                                                new MultiValuedTimestamp<>(intentData.version(),
                                                                           sequenceNumber.getAndIncrement()))
                 .withPeerUpdateFunction((key, intentData) -> getPeerNodes(key, intentData))
+                .withDigestAntiEntropy()
                 .build();
 
         pendingMap = storageService.<Key, IntentData>eventuallyConsistentMapBuilder()
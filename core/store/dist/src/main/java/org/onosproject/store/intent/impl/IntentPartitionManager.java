@@ -146,6 +146,11 @@ public class IntentPartitionManager implements IntentPartitionService {
         return leadershipService.getLeader(getPartitionPath(getPartitionForKey(intentKey)));
     }
 
+    @Override
+    public int getPartitionCount() {
+        return NUM_PARTITIONS;
+    }
+
     @Override
     public void addListener(IntentPartitionEventListener listener) {
         listenerRegistry.addListener(listener);
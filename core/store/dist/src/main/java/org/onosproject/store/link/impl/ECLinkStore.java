@@ -184,7 +184,9 @@ public class ECLinkStore
                     } catch (IllegalStateException e) {
                         return null;
                     }
-                }).build();
+                })
+                .withDigestAntiEntropy()
+                .build();
 
         clusterCommunicator.addSubscriber(LINK_INJECT_MESSAGE,
                                           SERIALIZER::decode,
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.resource.impl;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable set of integers held as a bitmap split in chunks of 2^16 values.
+ * <p>
+ * Only non-empty chunks are kept, each as the words of its bitmap up to the
+ * last non-zero one. Chunks holding all of their values share a single
+ * array, so that a large contiguous pool such as the MPLS label space costs
+ * no more than a few references. Set operations return new instances that
+ * share the chunks they leave unchanged with their operands.
+ * </p>
+ */
+final class EncodedBitmap {
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_WORDS = 1 << (CHUNK_SHIFT - 6);
+    private static final int LOW_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private static final long[] FULL_CHUNK = new long[CHUNK_WORDS];
+
+    static {
+        Arrays.fill(FULL_CHUNK, -1L);
+    }
+
+    static final EncodedBitmap EMPTY = new EncodedBitmap(new int[0], new long[0][]);
+
+    // high order bits of the values of each chunk, in ascending order
+    private final int[] keys;
+    private final long[][] chunks;
+
+    private EncodedBitmap(int[] keys, long[][] chunks) {
+        this.keys = keys;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Creates a bitmap holding the specified values.
+     *
+     * @param values values
+     * @return bitmap
+     */
+    static EncodedBitmap of(int... values) {
+        int[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted);
+
+        int[] keys = new int[sorted.length];
+        long[][] chunks = new long[sorted.length][];
+        int count = 0;
+        int i = 0;
+        while (i < sorted.length) {
+            int key = sorted[i] >> CHUNK_SHIFT;
+            long[] words = new long[CHUNK_WORDS];
+            for (; i < sorted.length && (sorted[i] >> CHUNK_SHIFT) == key; i++) {
+                int low = sorted[i] & LOW_MASK;
+                words[low >>> 6] |= 1L << low;
+            }
+            keys[count] = key;
+            chunks[count] = normalize(words);
+            count++;
+        }
+        return new EncodedBitmap(Arrays.copyOf(keys, count), Arrays.copyOf(chunks, count));
+    }
+
+    /**
+     * Creates a bitmap from its chunks, as given by {@link #keys()} and
+     * {@link #chunks()}. Empty chunks are dropped.
+     *
+     * @param keys high order bits of the values of each chunk, in ascending order
+     * @param chunks words of each chunk
+     * @return bitmap
+     */
+    static EncodedBitmap fromChunks(int[] keys, long[][] chunks) {
+        int[] newKeys = new int[keys.length];
+        long[][] newChunks = new long[keys.length][];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            long[] words = normalize(chunks[i]);
+            if (words != null) {
+                newKeys[count] = keys[i];
+                newChunks[count] = words;
+                count++;
+            }
+        }
+        return new EncodedBitmap(Arrays.copyOf(newKeys, count), Arrays.copyOf(newChunks, count));
+    }
+
+    // Returns the shared array for a full chunk, the words trimmed of their
+    // trailing zeros otherwise, or null for an empty chunk.
+    private static long[] normalize(long[] words) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        if (length == 0) {
+            return null;
+        }
+        if (length == CHUNK_WORDS && Arrays.stream(words).allMatch(word -> word == -1L)) {
+            return FULL_CHUNK;
+        }
+        return length == words.length ? words : Arrays.copyOf(words, length);
+    }
+
+    int[] keys() {
+        return keys;
+    }
+
+    long[][] chunks() {
+        return chunks;
+    }
+
+    /**
+     * Returns if the specified chunk words hold all the values of the chunk.
+     *
+     * @param words chunk words
+     * @return true if the chunk is full, otherwise false
+     */
+    static boolean isFull(long[] words) {
+        return words == FULL_CHUNK;
+    }
+
+    boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, value >> CHUNK_SHIFT);
+        if (index < 0) {
+            return false;
+        }
+        long[] words = chunks[index];
+        int low = value & LOW_MASK;
+        int word = low >>> 6;
+        return word < words.length && (words[word] & (1L << low)) != 0;
+    }
+
+    boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    long size() {
+        long size = 0;
+        for (long[] words : chunks) {
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the lowest value of this bitmap.
+     *
+     * @return lowest value
+     * @throws java.util.NoSuchElementException if this bitmap is empty
+     */
+    int first() {
+        return stream().findFirst().getAsInt();
+    }
+
+    /**
+     * Returns the values of this bitmap in ascending order. The values are
+     * produced lazily, so that looking for the first few is cheap.
+     *
+     * @return values
+     */
+    IntStream stream() {
+        return IntStream.range(0, keys.length)
+                .flatMap(i -> BitSet.valueOf(chunks[i]).stream().map(low -> (keys[i] << CHUNK_SHIFT) | low));
+    }
+
+    EncodedBitmap union(EncodedBitmap other) {
+        int[] newKeys = new int[keys.length + other.keys.length];
+        long[][] newChunks = new long[newKeys.length][];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                newKeys[count] = keys[i];
+                newChunks[count++] = chunks[i++];
+            } else if (i == keys.length || other.keys[j] < keys[i]) {
+                newKeys[count] = other.keys[j];
+                newChunks[count++] = other.chunks[j++];
+            } else {
+                newKeys[count] = keys[i];
+                newChunks[count++] = or(chunks[i++], other.chunks[j++]);
+            }
+        }
+        return new EncodedBitmap(Arrays.copyOf(newKeys, count), Arrays.copyOf(newChunks, count));
+    }
+
+    EncodedBitmap difference(EncodedBitmap other) {
+        int[] newKeys = new int[keys.length];
+        long[][] newChunks = new long[keys.length][];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int index = Arrays.binarySearch(other.keys, keys[i]);
+            long[] words = index < 0 ? chunks[i] : andNot(chunks[i], other.chunks[index]);
+            if (words != null) {
+                newKeys[count] = keys[i];
+                newChunks[count++] = words;
+            }
+        }
+        return new EncodedBitmap(Arrays.copyOf(newKeys, count), Arrays.copyOf(newChunks, count));
+    }
+
+    private static long[] or(long[] a, long[] b) {
+        if (a == FULL_CHUNK || b == FULL_CHUNK) {
+            return FULL_CHUNK;
+        }
+        long[] longer = a.length >= b.length ? a : b;
+        long[] shorter = longer == a ? b : a;
+        long[] words = Arrays.copyOf(longer, longer.length);
+        for (int w = 0; w < shorter.length; w++) {
+            words[w] |= shorter[w];
+        }
+        return normalize(words);
+    }
+
+    private static long[] andNot(long[] a, long[] b) {
+        if (b == FULL_CHUNK) {
+            return null;
+        }
+        long[] words = Arrays.copyOf(a, a.length);
+        for (int w = 0; w < Math.min(a.length, b.length); w++) {
+            words[w] &= ~b[w];
+        }
+        return normalize(words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(keys) + Arrays.deepHashCode(chunks);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final EncodedBitmap other = (EncodedBitmap) obj;
+        return Arrays.equals(this.keys, other.keys)
+                && Arrays.deepEquals(this.chunks, other.chunks);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("size", size())
+                .add("chunks", keys.length)
+                .toString();
+    }
+}
@@ -19,39 +19,104 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.google.common.collect.Range;
-import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
-import org.onlab.util.ClosedOpenRange;
 import org.onosproject.net.resource.DiscreteResourceCodec;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.BitSet;
 
 /**
  * Kryo Serializer for {@link EncodedDiscreteResources}.
+ * <p>
+ * Each chunk of the bitmap is written either as a marker when full, as the
+ * runs of its values or as its raw words, whichever is the smallest.
+ * </p>
  */
 final class EncodedResourcesSerializer extends Serializer<EncodedDiscreteResources> {
+    private static final byte FULL = 0;
+    private static final byte RUNS = 1;
+    private static final byte WORDS = 2;
+
+    // approximate serialized size of a run, as two variable length integers
+    private static final int RUN_BYTES = 4;
+
     @Override
     public void write(Kryo kryo, Output output, EncodedDiscreteResources object) {
-        List<ClosedOpenRange> ranges = object.rangeSet().asRanges().stream()
-                .map(ClosedOpenRange::of)
-                .collect(Collectors.toList());
-        kryo.writeObject(output, ranges);
+        EncodedBitmap bitmap = object.bitmap();
+        int[] keys = bitmap.keys();
+        long[][] chunks = bitmap.chunks();
+        output.writeVarInt(keys.length, true);
+        for (int i = 0; i < keys.length; i++) {
+            output.writeShort(keys[i]);
+            writeChunk(output, chunks[i]);
+        }
         kryo.writeClassAndObject(output, object.codec());
     }
 
+    private void writeChunk(Output output, long[] words) {
+        if (EncodedBitmap.isFull(words)) {
+            output.writeByte(FULL);
+            return;
+        }
+        BitSet bits = BitSet.valueOf(words);
+        int runs = 0;
+        for (int start = bits.nextSetBit(0); start >= 0; start = bits.nextSetBit(bits.nextClearBit(start))) {
+            runs++;
+        }
+        if (runs * RUN_BYTES < words.length * Long.BYTES) {
+            output.writeByte(RUNS);
+            output.writeVarInt(runs, true);
+            int previousEnd = 0;
+            for (int start = bits.nextSetBit(0); start >= 0; start = bits.nextSetBit(previousEnd)) {
+                int end = bits.nextClearBit(start);
+                output.writeVarInt(start - previousEnd, true);
+                output.writeVarInt(end - start, true);
+                previousEnd = end;
+            }
+        } else {
+            output.writeByte(WORDS);
+            output.writeVarInt(words.length, true);
+            for (long word : words) {
+                output.writeLong(word);
+            }
+        }
+    }
+
     @Override
     public EncodedDiscreteResources read(Kryo kryo, Input input, Class<EncodedDiscreteResources> cls) {
-        @SuppressWarnings("unchecked")
-        List<ClosedOpenRange> ranges = kryo.readObject(input, ArrayList.class);
+        int count = input.readVarInt(true);
+        int[] keys = new int[count];
+        long[][] chunks = new long[count][];
+        for (int i = 0; i < count; i++) {
+            keys[i] = input.readShort();
+            chunks[i] = readChunk(input);
+        }
         DiscreteResourceCodec codec = (DiscreteResourceCodec) kryo.readClassAndObject(input);
 
-        RangeSet<Integer> rangeSet = TreeRangeSet.create();
-        ranges.stream()
-                .map(x -> Range.closedOpen(x.lowerBound(), x.upperBound()))
-                .forEach(rangeSet::add);
-        return new EncodedDiscreteResources(rangeSet, codec);
+        return new EncodedDiscreteResources(EncodedBitmap.fromChunks(keys, chunks), codec);
+    }
+
+    private long[] readChunk(Input input) {
+        byte type = input.readByte();
+        if (type == FULL) {
+            BitSet bits = new BitSet();
+            bits.set(0, 1 << EncodedBitmap.CHUNK_SHIFT);
+            return bits.toLongArray();
+        } else if (type == RUNS) {
+            int runs = input.readVarInt(true);
+            BitSet bits = new BitSet();
+            int previousEnd = 0;
+            for (int i = 0; i < runs; i++) {
+                int start = previousEnd + input.readVarInt(true);
+                int end = start + input.readVarInt(true);
+                bits.set(start, end);
+                previousEnd = end;
+            }
+            return bits.toLongArray();
+        } else {
+            long[] words = new long[input.readVarInt(true)];
+            for (int w = 0; w < words.length; w++) {
+                words[w] = input.readLong();
+            }
+            return words;
+        }
     }
 }
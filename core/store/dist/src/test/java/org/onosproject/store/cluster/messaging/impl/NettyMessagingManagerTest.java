@@ -15,11 +15,17 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -140,6 +146,88 @@ public class NettyMessagingManagerTest {
         assertEquals(ep1, sender.get());
     }
 
+    /*
+     * Streams the payload straight into the outbound buffer and reads it on the other end without copying it.
+     */
+    @Test
+    public void testSendAsyncWithPayloadWriter() throws Exception {
+        BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+        netty2.registerBufferHandler("test-subject", (ep, buffer) -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            received.add(bytes);
+        }, MoreExecutors.directExecutor());
+
+        byte[] payload = new byte[10000];
+        Arrays.fill(payload, (byte) 7);
+        netty1.sendAsync(ep2, "test-subject", stream -> write(stream, payload)).join();
+        assertTrue(Arrays.equals(payload, received.poll(5, TimeUnit.SECONDS)));
+
+        // byte array payloads reach buffer handlers as well
+        netty1.sendAsync(ep2, "test-subject", "hello world".getBytes()).join();
+        assertTrue(Arrays.equals("hello world".getBytes(), received.poll(5, TimeUnit.SECONDS)));
+    }
+
+    /*
+     * Streamed payloads reach handlers registered for byte arrays, both remote and local ones.
+     */
+    @Test
+    public void testPayloadWriterToByteArrayHandler() throws Exception {
+        BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+        netty2.registerHandler("test-subject", (ep, data) -> {
+            received.add(data);
+        }, MoreExecutors.directExecutor());
+
+        netty1.sendAsync(ep2, "test-subject", stream -> write(stream, "hello world".getBytes())).join();
+        assertTrue(Arrays.equals("hello world".getBytes(), received.poll(5, TimeUnit.SECONDS)));
+
+        netty2.sendAsync(ep2, "test-subject", stream -> write(stream, "hello there".getBytes())).join();
+        assertTrue(Arrays.equals("hello there".getBytes(), received.poll(5, TimeUnit.SECONDS)));
+    }
+
+    /*
+     * Serializes streamed payloads on the calling thread, before sendAsync returns.
+     */
+    @Test
+    public void testPayloadWriterRunsOnCaller() throws Exception {
+        BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+        netty2.registerHandler("test-subject", (ep, data) -> {
+            received.add(data);
+        }, MoreExecutors.directExecutor());
+
+        AtomicReference<Thread> writerThread = new AtomicReference<>();
+        byte[] payload = "hello world".getBytes();
+        CompletableFuture<Void> sent = netty1.sendAsync(ep2, "test-subject", stream -> {
+            writerThread.set(Thread.currentThread());
+            write(stream, payload);
+        });
+        assertEquals(Thread.currentThread(), writerThread.get());
+
+        // changes made to the message once sent are not seen by the receiver
+        Arrays.fill(payload, (byte) 0);
+        sent.join();
+        assertTrue(Arrays.equals("hello world".getBytes(), received.poll(5, TimeUnit.SECONDS)));
+    }
+
+    /*
+     * Reports the serialization errors of streamed payloads through the returned future.
+     */
+    @Test
+    public void testPayloadWriterFailure() {
+        CompletableFuture<Void> sent = netty1.sendAsync(ep2, "test-subject", stream -> {
+            throw new IllegalStateException("not serializable");
+        });
+        assertTrue(sent.isCompletedExceptionally());
+    }
+
+    private static void write(OutputStream stream, byte[] bytes) {
+        try {
+            stream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /*
      * Supplies executors when registering a handler and calling sendAndReceive and verifies the request handling
      * and response completion occurs on the expected thread.
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.junit.Test;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the compact device flow table.
+ */
+public class CompactDeviceFlowTableTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:1");
+
+    private final CompactDeviceFlowTable table = new CompactDeviceFlowTable();
+
+    private static StoredFlowEntry entry(long cookie, int vlan) {
+        FlowRule rule = DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchVlanId(VlanId.vlanId((short) vlan)).build())
+                .withPriority(10)
+                .withCookie(cookie)
+                .makePermanent()
+                .build();
+        return new DefaultFlowEntry(rule);
+    }
+
+    @Test
+    public void putGetRemove() {
+        for (int i = 0; i < 1000; i++) {
+            table.put(entry(i, i % 4000 + 1));
+        }
+        assertEquals(1000, table.size());
+        assertEquals(1000, table.getFlowEntries().size());
+
+        for (int i = 0; i < 1000; i += 2) {
+            StoredFlowEntry e = entry(i, i % 4000 + 1);
+            assertEquals(e, table.remove(e, stored -> true));
+        }
+        assertEquals(500, table.size());
+        for (int i = 0; i < 1000; i++) {
+            StoredFlowEntry e = entry(i, i % 4000 + 1);
+            if (i % 2 == 0) {
+                assertNull(table.get(e));
+            } else {
+                assertEquals(e, table.get(e));
+            }
+        }
+    }
+
+    @Test
+    public void sharedFlowId() {
+        StoredFlowEntry e1 = entry(7, 1);
+        StoredFlowEntry e2 = entry(7, 2);
+        StoredFlowEntry e3 = entry(7, 3);
+        table.put(e1);
+        table.put(e2);
+        table.put(e3);
+        assertEquals(3, table.size());
+        assertSame(e2, table.get(entry(7, 2)));
+
+        // replacing an equal entry keeps the size unchanged
+        StoredFlowEntry e2b = entry(7, 2);
+        table.put(e2b);
+        assertEquals(3, table.size());
+        assertSame(e2b, table.get(e2));
+
+        assertNull(table.remove(e1, stored -> false));
+        assertSame(e1, table.remove(e1, stored -> true));
+        assertNull(table.get(e1));
+        assertSame(e3, table.get(e3));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void filteredEntries() {
+        for (int i = 0; i < 100; i++) {
+            table.put(entry(i, i + 1));
+        }
+        table.put(entry(4, 200));
+        assertEquals(51, table.getFlowEntries(e -> e.id().value() % 2 == 0).size());
+        assertEquals(2, table.getFlowEntries(e -> e.id().value() == 4).size());
+        assertEquals(0, table.getFlowEntries(e -> false).size());
+    }
+
+    @Test
+    public void snapshotAndLoad() {
+        for (int i = 0; i < 100; i++) {
+            table.put(entry(i, i + 1));
+        }
+        table.put(entry(5, 200));
+        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> snapshot = table.snapshot();
+        assertEquals(100, snapshot.size());
+        assertEquals(2, snapshot.get(FlowId.valueOf(5)).size());
+
+        CompactDeviceFlowTable copy = new CompactDeviceFlowTable();
+        copy.load(snapshot);
+        assertEquals(101, copy.size());
+        assertEquals(table.getFlowEntries(), copy.getFlowEntries());
+    }
+}
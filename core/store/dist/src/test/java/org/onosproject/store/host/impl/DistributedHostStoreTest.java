@@ -15,19 +15,27 @@
  */
 package org.onosproject.store.host.impl;
 
+import com.google.common.collect.ImmutableSet;
 import junit.framework.TestCase;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onosproject.net.DefaultHost;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
 import org.onosproject.net.provider.ProviderId;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.TestStorageService;
+import org.onosproject.store.service.Versioned;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -46,6 +54,11 @@ public class DistributedHostStoreTest extends TestCase {
 
     private static final ProviderId PID = new ProviderId("of", "foo");
 
+    private static final HostLocation LOC1 =
+            new HostLocation(DeviceId.deviceId("of:1"), PortNumber.portNumber(1), 0);
+    private static final HostLocation LOC2 =
+            new HostLocation(DeviceId.deviceId("of:2"), PortNumber.portNumber(2), 0);
+
     @Before
     public void setUp() {
         ecXHostStore = new DistributedHostStore();
@@ -80,4 +93,109 @@ public class DistributedHostStoreTest extends TestCase {
         assertTrue(host.ipAddresses().contains(IP2));
     }
 
-}
\ No newline at end of file
+    /**
+     * Tests that the lookups by attribute follow the host updates.
+     */
+    @Test
+    public void testIndexedLookups() {
+        Set<IpAddress> ips = new HashSet<>();
+        ips.add(IP1);
+        ips.add(IP2);
+
+        ecXHostStore.createOrUpdateHost(PID, HOSTID,
+                                        new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                   LOC1, ips),
+                                        false);
+        Host host = ecXHostStore.getHost(HOSTID);
+        assertTrue(ecXHostStore.getHosts(IP1).contains(host));
+        assertTrue(ecXHostStore.getHosts(HOSTID.mac()).contains(host));
+        assertTrue(ecXHostStore.getHosts(HOSTID.vlanId()).contains(host));
+        assertTrue(ecXHostStore.getConnectedHosts(LOC1).contains(host));
+        assertTrue(ecXHostStore.getConnectedHosts(LOC1.deviceId()).contains(host));
+
+        ecXHostStore.removeIp(HOSTID, IP1);
+        assertTrue(ecXHostStore.getHosts(IP1).isEmpty());
+        assertEquals(1, ecXHostStore.getHosts(IP2).size());
+
+        ecXHostStore.createOrUpdateHost(PID, HOSTID,
+                                        new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                   LOC2, ips),
+                                        false);
+        assertTrue(ecXHostStore.getConnectedHosts(LOC1).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(LOC1.deviceId()).isEmpty());
+        assertEquals(1, ecXHostStore.getConnectedHosts(LOC2).size());
+        assertEquals(LOC2, ecXHostStore.getHosts(IP1).iterator().next().location());
+
+        ecXHostStore.removeHost(HOSTID);
+        assertTrue(ecXHostStore.getHosts(IP2).isEmpty());
+        assertTrue(ecXHostStore.getHosts(HOSTID.mac()).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(LOC2).isEmpty());
+    }
+
+    /**
+     * Tests that a moved host is only found at its new location.
+     */
+    @Test
+    public void testHostMove() {
+        Set<IpAddress> ips = ImmutableSet.of(IP1);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID,
+                                        new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                   LOC1, ips),
+                                        false);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID,
+                                        new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                   LOC2, ips),
+                                        false);
+
+        assertTrue(ecXHostStore.getConnectedHosts(LOC1).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(LOC1.deviceId()).isEmpty());
+        Host host = ecXHostStore.getConnectedHosts(LOC2).iterator().next();
+        assertEquals(LOC2, host.location());
+        assertEquals(host, ecXHostStore.getConnectedHosts(LOC2.deviceId()).iterator().next());
+        assertEquals(host, ecXHostStore.getHosts(IP1).iterator().next());
+    }
+
+    /**
+     * Tests that a host is only found by its current addresses once they are
+     * replaced.
+     */
+    @Test
+    public void testIpChange() {
+        ecXHostStore.createOrUpdateHost(PID, HOSTID,
+                                        new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                   LOC1, ImmutableSet.of(IP1)),
+                                        true);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID,
+                                        new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                   LOC1, ImmutableSet.of(IP2)),
+                                        true);
+
+        assertTrue(ecXHostStore.getHosts(IP1).isEmpty());
+        Host host = ecXHostStore.getHosts(IP2).iterator().next();
+        assertEquals(ImmutableSet.of(IP2), host.ipAddresses());
+        assertEquals(host, ecXHostStore.getHosts(HOSTID.mac()).iterator().next());
+    }
+
+    /**
+     * Tests that a late event of an earlier version of a host does not bring
+     * its former attributes back into the indexes.
+     */
+    @Test
+    public void testLateEvent() throws Exception {
+        ecXHostStore.createOrUpdateHost(PID, HOSTID,
+                                        new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                   LOC2, ImmutableSet.of(IP2)),
+                                        true);
+        DefaultHost stale = new DefaultHost(PID, HOSTID, HOSTID.mac(), HOSTID.vlanId(),
+                                            LOC1, ImmutableSet.of(IP1));
+
+        MapEventListener<HostId, DefaultHost> tracker =
+                TestUtils.getField(ecXHostStore, "hostLocationTracker");
+        tracker.event(new MapEvent<>("onos-hosts", HOSTID, new Versioned<>(stale, 0), null));
+
+        assertTrue(ecXHostStore.getHosts(IP1).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(LOC1).isEmpty());
+        assertEquals(1, ecXHostStore.getHosts(IP2).size());
+        assertEquals(1, ecXHostStore.getConnectedHosts(LOC2).size());
+    }
+}
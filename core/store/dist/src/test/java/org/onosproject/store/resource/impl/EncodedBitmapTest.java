@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.resource.impl;
+
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+public class EncodedBitmapTest {
+
+    @Test
+    public void testContains() {
+        EncodedBitmap sut = EncodedBitmap.of(1, 4095, 70000, -2);
+
+        assertThat(sut.contains(1), is(true));
+        assertThat(sut.contains(4095), is(true));
+        assertThat(sut.contains(70000), is(true));
+        assertThat(sut.contains(-2), is(true));
+        assertThat(sut.contains(2), is(false));
+        assertThat(sut.contains(70001), is(false));
+        assertThat(sut.size(), is(4L));
+    }
+
+    @Test
+    public void testOrderedValues() {
+        EncodedBitmap sut = EncodedBitmap.of(70000, 3, -2, 1);
+
+        assertArrayEquals(new int[] {-2, 1, 3, 70000}, sut.stream().toArray());
+        assertThat(sut.first(), is(-2));
+    }
+
+    @Test
+    public void testUnionAndDifference() {
+        EncodedBitmap sut = EncodedBitmap.of(1, 2, 70000);
+        EncodedBitmap other = EncodedBitmap.of(2, 3, 140000);
+
+        assertThat(sut.union(other), is(EncodedBitmap.of(1, 2, 3, 70000, 140000)));
+        assertThat(sut.difference(other), is(EncodedBitmap.of(1, 70000)));
+        assertThat(sut.difference(sut).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testFullChunk() {
+        int[] all = IntStream.range(1 << 16, 2 << 16).toArray();
+        EncodedBitmap full = EncodedBitmap.of(all);
+
+        assertThat(full.size(), is((long) all.length));
+        assertThat(EncodedBitmap.isFull(full.chunks()[0]), is(true));
+
+        EncodedBitmap released = full.difference(EncodedBitmap.of(100000));
+        assertThat(released.contains(100000), is(false));
+        assertThat(EncodedBitmap.isFull(released.chunks()[0]), is(false));
+        assertThat(released.union(EncodedBitmap.of(100000)), is(full));
+    }
+}
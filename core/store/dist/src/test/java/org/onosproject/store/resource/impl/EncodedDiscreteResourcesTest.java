@@ -22,9 +22,12 @@ import org.onlab.packet.VlanId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.resource.DiscreteResource;
+import org.onlab.packet.MplsLabel;
 import org.onosproject.net.resource.Resources;
 
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.*;
@@ -75,4 +78,22 @@ public class EncodedDiscreteResourcesTest {
                 is(EncodedDiscreteResources.of(ImmutableSet.of(res1, res2, res3), new VlanIdCodec())));
     }
 
+    @Test
+    public void testSerialization() {
+        DiscreteResource res1 = Resources.discrete(DID, PN, VID1).resource();
+        DiscreteResource res3 = Resources.discrete(DID, PN, VID3).resource();
+        EncodedDiscreteResources vlans = EncodedDiscreteResources.of(ImmutableSet.of(res1, res3), new VlanIdCodec());
+
+        assertThat(ConsistentResourceStore.SERIALIZER.decode(ConsistentResourceStore.SERIALIZER.encode(vlans)),
+                is(vlans));
+
+        Set<DiscreteResource> labels = IntStream.range(0, 1 << 17)
+                .filter(x -> x < 1 << 16 || x % 1000 != 0)
+                .mapToObj(x -> Resources.discrete(DID, PN, MplsLabel.mplsLabel(x)).resource())
+                .collect(Collectors.toSet());
+        EncodedDiscreteResources mpls = EncodedDiscreteResources.of(labels, new MplsLabelCodec());
+
+        assertThat(ConsistentResourceStore.SERIALIZER.decode(ConsistentResourceStore.SERIALIZER.encode(mpls)),
+                is(mpls));
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import org.onosproject.cluster.NodeId;
+
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Anti-entropy advertisement carrying the hashes of a set of digest tree
+ * nodes for an eventually consistent map.
+ */
+final class AntiEntropyTreeAdvertisement {
+
+    private final NodeId sender;
+    private final Map<Integer, Long> nodeHashes;
+
+    /**
+     * Creates a new digest tree advertisement.
+     *
+     * @param sender     the sender's node ID
+     * @param nodeHashes mapping from digest tree node index to node hash
+     */
+    public AntiEntropyTreeAdvertisement(NodeId sender, Map<Integer, Long> nodeHashes) {
+        this.sender = checkNotNull(sender);
+        this.nodeHashes = ImmutableMap.copyOf(checkNotNull(nodeHashes));
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    public NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the advertised digest tree node hashes.
+     *
+     * @return mapping from node index to node hash
+     */
+    public Map<Integer, Long> nodeHashes() {
+        return nodeHashes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("nodes", nodeHashes.size())
+                .toString();
+    }
+
+    @SuppressWarnings("unused")
+    private AntiEntropyTreeAdvertisement() {
+        this.sender = null;
+        this.nodeHashes = null;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reply to a digest tree advertisement, listing the advertised nodes
+ * whose hashes differ from the receiver's.
+ */
+final class AntiEntropyTreeResponse {
+
+    private final AntiEntropyResponse status;
+    private final List<Integer> divergentNodes;
+
+    /**
+     * Creates a new digest tree advertisement reply.
+     *
+     * @param status         status of the exchange
+     * @param divergentNodes indexes of nodes whose hashes differ
+     */
+    public AntiEntropyTreeResponse(AntiEntropyResponse status, List<Integer> divergentNodes) {
+        this.status = checkNotNull(status);
+        this.divergentNodes = ImmutableList.copyOf(checkNotNull(divergentNodes));
+    }
+
+    /**
+     * Returns the status of the exchange.
+     *
+     * @return exchange status
+     */
+    public AntiEntropyResponse status() {
+        return status;
+    }
+
+    /**
+     * Returns the indexes of the nodes whose hashes differ.
+     *
+     * @return divergent node indexes
+     */
+    public List<Integer> divergentNodes() {
+        return divergentNodes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("status", status)
+                .add("divergentNodes", divergentNodes)
+                .toString();
+    }
+
+    @SuppressWarnings("unused")
+    private AntiEntropyTreeResponse() {
+        this.status = null;
+        this.divergentNodes = null;
+    }
+}
@@ -17,19 +17,31 @@ package org.onosproject.store.primitives.impl;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToIntBiFunction;
 
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.osgi.DefaultServiceDirectory;
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.Versioned;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import static org.onosproject.store.service.DistributedPrimitive.Status.INACTIVE;
 import static org.onosproject.store.service.DistributedPrimitive.Status.SUSPENDED;
@@ -37,23 +49,43 @@ import static org.onosproject.store.service.DistributedPrimitive.Status.SUSPENDE
 /**
  * {@code AsyncConsistentMap} that caches entries on read.
  * <p>
- * The cache entries are automatically invalidated when updates are detected either locally or
- * remotely.
+ * The cache entries are updated in place from the map events, keeping the
+ * most recent version of each entry, and are dropped when the backing map
+ * reports a removal. Updates made through this map are reflected in the
+ * cache as soon as they complete, so a read following a local write never
+ * returns a value older than the one written.
  * <p> This implementation only attempts to serve cached entries for {@link AsyncConsistentMap#get get}
- * calls. All other calls skip the cache and directly go the backing map.
+ * and {@link AsyncConsistentMap#getAll getAll} calls. All other calls skip the cache and directly
+ * go the backing map.
  *
  * @param <K> key type
  * @param <V> value type
  */
 public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMap<K, V> {
     private static final int DEFAULT_CACHE_SIZE = 10000;
+
+    private static final String PRIMITIVE_NAME = "consistentMap";
+    private static final String HITS = "nearCacheHits";
+    private static final String MISSES = "nearCacheMisses";
+    private static final String EVICTIONS = "nearCacheEvictions";
+
     private final Logger log = getLogger(getClass());
 
-    private final LoadingCache<K, CompletableFuture<Versioned<V>>> cache;
+    // Absent values are cached too, so that lookups of missing keys are
+    // served locally as well.
+    private final Cache<K, Optional<Versioned<V>>> cache;
+
+    // Bumped on every invalidation, so that a read which was in flight
+    // meanwhile does not put a possibly stale value back in the cache.
+    private final AtomicLong invalidations = new AtomicLong();
 
     private final MapEventListener<K, V> cacheUpdater;
     private final Consumer<Status> statusListener;
 
+    private MetricsService metricsService;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     /**
      * Default constructor.
      *
@@ -70,76 +102,208 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
      * @param cacheSize the maximum size of the cache
      */
     public CachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, int cacheSize) {
+        this(backingMap, cacheSize, (key, value) -> 1, false);
+    }
+
+    /**
+     * Constructor to configure a weight bound cache.
+     *
+     * @param backingMap a distributed, strongly consistent map for backing
+     * @param maxWeight the maximum total weight of the cached entries
+     * @param weigher function giving the weight of an entry
+     * @param metered whether to report the cache hits, misses and evictions
+     */
+    public CachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, long maxWeight,
+                                     ToIntBiFunction<? super K, ? super V> weigher,
+                                     boolean metered) {
         super(backingMap);
         cache = CacheBuilder.newBuilder()
-                            .maximumSize(cacheSize)
-                            .build(CacheLoader.from(CachingAsyncConsistentMap.super::get));
-        cacheUpdater = event -> {
-            Versioned<V> newValue = event.newValue();
-            if (newValue == null) {
-                cache.invalidate(event.key());
-            } else {
-                cache.put(event.key(), CompletableFuture.completedFuture(newValue));
-            }
-        };
+                            .maximumWeight(maxWeight)
+                            .<K, Optional<Versioned<V>>>weigher((key, value) -> value.isPresent() ?
+                                    weigher.applyAsInt(key, value.get().value()) : 1)
+                            .recordStats()
+                            .build();
+        cacheUpdater = event -> update(event.key(), event.newValue());
         statusListener = status -> {
             log.debug("{} status changed to {}", this.name(), status);
             // If the status of the underlying map is SUSPENDED or INACTIVE
             // we can no longer guarantee that the cache will be in sync.
             if (status == SUSPENDED || status == INACTIVE) {
-                cache.invalidateAll();
+                invalidateAll();
             }
         };
         super.addListener(cacheUpdater);
         super.addStatusChangeListener(statusListener);
+        if (metered) {
+            registerMetrics();
+        }
+    }
+
+    private void registerMetrics() {
+        metricsService = DefaultServiceDirectory.getService(MetricsService.class);
+        metricsComponent = metricsService.registerComponent(PRIMITIVE_NAME);
+        metricsFeature = metricsComponent.registerFeature(name());
+        metricsService.registerMetric(metricsComponent, metricsFeature, HITS,
+                                      (Gauge<Long>) () -> cache.stats().hitCount());
+        metricsService.registerMetric(metricsComponent, metricsFeature, MISSES,
+                                      (Gauge<Long>) () -> cache.stats().missCount());
+        metricsService.registerMetric(metricsComponent, metricsFeature, EVICTIONS,
+                                      (Gauge<Long>) () -> cache.stats().evictionCount());
+    }
+
+    private void unregisterMetrics() {
+        if (metricsService != null) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, HITS);
+            metricsService.removeMetric(metricsComponent, metricsFeature, MISSES);
+            metricsService.removeMetric(metricsComponent, metricsFeature, EVICTIONS);
+        }
+    }
+
+    // Caches the given version of the entry unless a newer one is already
+    // cached; a null value drops the entry.
+    private void update(K key, Versioned<V> value) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        cache.asMap().merge(key, Optional.of(value),
+                            (cached, updated) -> cached.isPresent() &&
+                                    cached.get().version() > value.version() ? cached : updated);
+    }
+
+    // Caches a value read from the backing map, unless a newer version got
+    // cached while the read was in flight. The entry is dropped again if the
+    // cache was invalidated meanwhile: invalidations bump the count before
+    // they clear the cache, so either the check below sees the new count or
+    // the invalidation removes the entry once it is in.
+    private void cacheLoaded(K key, Versioned<V> value, long invalidation) {
+        if (invalidations.get() != invalidation) {
+            return;
+        }
+        Optional<Versioned<V>> loaded = Optional.ofNullable(value);
+        Optional<Versioned<V>> cached = cache.asMap().merge(key, loaded,
+                (current, read) -> current.isPresent() && read.isPresent() &&
+                        read.get().version() > current.get().version() ? read : current);
+        if (cached == loaded && invalidations.get() != invalidation) {
+            cache.asMap().remove(key, loaded);
+        }
+    }
+
+    private void invalidate(K key) {
+        invalidations.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    private void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
     }
 
     @Override
     public CompletableFuture<Void> destroy() {
         super.removeStatusChangeListener(statusListener);
+        unregisterMetrics();
         return super.destroy().thenCompose(v -> removeListener(cacheUpdater));
     }
 
     @Override
     public CompletableFuture<Versioned<V>> get(K key) {
-        return cache.getUnchecked(key)
+        Optional<Versioned<V>> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.orElse(null));
+        }
+        long invalidation = invalidations.get();
+        return super.get(key)
                 .whenComplete((r, e) -> {
-                    if (e != null) {
-                        cache.invalidate(key);
+                    if (e == null) {
+                        cacheLoaded(key, r, invalidation);
                     }
                 });
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Collection<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newHashMap();
+        List<K> missing = Lists.newArrayList();
+        for (K key : keys) {
+            Optional<Versioned<V>> cached = cache.getIfPresent(key);
+            if (cached == null) {
+                missing.add(key);
+            } else if (cached.isPresent()) {
+                values.put(key, cached.get());
+            }
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(values);
+        }
+        long invalidation = invalidations.get();
+        return super.getAll(missing)
+                .thenApply(loaded -> {
+                    for (K key : missing) {
+                        Versioned<V> value = loaded.get(key);
+                        if (value != null) {
+                            values.put(key, value);
+                        }
+                        cacheLoaded(key, value, invalidation);
+                    }
+                    return values;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return super.putAll(entries)
+                .whenComplete((r, e) -> entries.keySet().forEach(this::invalidate));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Collection<K> keys) {
+        return super.removeAll(keys)
+                .whenComplete((r, e) -> keys.forEach(this::invalidate));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> computeIf(K key,
             Predicate<? super V> condition,
             BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
         return super.computeIf(key, condition, remappingFunction)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> {
+                    if (e == null) {
+                        update(key, r);
+                    } else {
+                        invalidate(key);
+                    }
+                });
     }
 
     @Override
     public CompletableFuture<Versioned<V>> put(K key, V value) {
         return super.put(key, value)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> invalidate(key));
     }
 
     @Override
     public CompletableFuture<Versioned<V>> putAndGet(K key, V value) {
         return super.putAndGet(key, value)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> {
+                    if (e == null) {
+                        update(key, r);
+                    } else {
+                        invalidate(key);
+                    }
+                });
     }
 
     @Override
     public CompletableFuture<Versioned<V>> remove(K key) {
         return super.remove(key)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> invalidate(key));
     }
 
     @Override
     public CompletableFuture<Void> clear() {
         return super.clear()
-                .whenComplete((r, e) -> cache.invalidateAll());
+                .whenComplete((r, e) -> invalidateAll());
     }
 
     @Override
@@ -147,7 +311,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.remove(key, value)
                 .whenComplete((r, e) -> {
                     if (r) {
-                        cache.invalidate(key);
+                        invalidate(key);
                     }
                 });
     }
@@ -157,7 +321,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.remove(key, version)
                 .whenComplete((r, e) -> {
                     if (r) {
-                        cache.invalidate(key);
+                        invalidate(key);
                     }
                 });
     }
@@ -165,7 +329,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
     @Override
     public CompletableFuture<Versioned<V>> replace(K key, V value) {
         return super.replace(key, value)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> invalidate(key));
     }
 
     @Override
@@ -173,7 +337,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.replace(key, oldValue, newValue)
                 .whenComplete((r, e) -> {
                     if (r) {
-                        cache.invalidate(key);
+                        invalidate(key);
                     }
                 });
     }
@@ -183,7 +347,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.replace(key, oldVersion, newValue)
                 .whenComplete((r, e) -> {
                     if (r) {
-                        cache.invalidate(key);
+                        invalidate(key);
                     }
                 });
     }
@@ -42,7 +42,12 @@ public class DefaultConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V
     @Override
     public AsyncConsistentMap<K, V> buildAsyncMap() {
         AsyncConsistentMap<K, V> map = primitiveCreator.newAsyncConsistentMap(name(), serializer());
-        map = relaxedReadConsistency() ? DistributedPrimitives.newCachingMap(map) : map;
+        if (nearCacheEnabled()) {
+            map = DistributedPrimitives.newCachingMap(map, nearCacheMaxWeight(), nearCacheWeigher(),
+                                                      meteringEnabled());
+        } else if (relaxedReadConsistency()) {
+            map = DistributedPrimitives.newCachingMap(map);
+        }
         map = readOnly() ? DistributedPrimitives.newUnmodifiableMap(map) : map;
         return meteringEnabled() ? DistributedPrimitives.newMeteredMap(map) : map;
     }
@@ -21,6 +21,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.onosproject.store.primitives.DistributedPrimitiveCreator;
 import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.CommitStatus;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.TransactionContext;
@@ -88,10 +89,15 @@ public class DefaultTransactionContext implements TransactionContext {
     public <K, V> TransactionalMap<K, V> getTransactionalMap(String mapName,
             Serializer serializer) {
         // FIXME: Do not create duplicates.
+        AsyncConsistentMap<K, V> map = creator.newAsyncConsistentMap(mapName, serializer);
+        // Knowing the partitioning lets the coordinator spot single partition transactions
+        Hasher<K> keyHasher = map instanceof PartitionedAsyncConsistentMap
+                ? ((PartitionedAsyncConsistentMap<K, V>) map)::partitionOf : null;
         DefaultTransactionalMap<K, V> txMap = new DefaultTransactionalMap<K, V>(mapName,
-                DistributedPrimitives.newMeteredMap(creator.<K, V>newAsyncConsistentMap(mapName, serializer)),
+                DistributedPrimitives.newMeteredMap(map),
                 this,
-                serializer);
+                serializer,
+                keyHasher);
         txParticipants.add(txMap);
         return txMap;
     }
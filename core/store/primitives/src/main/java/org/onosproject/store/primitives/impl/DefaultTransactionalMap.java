@@ -59,6 +59,7 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
     private final ConsistentMap<K, V> backingConsistentMap;
     private final String name;
     private final Serializer serializer;
+    private final Hasher<K> keyHasher;
     private final Map<K, Versioned<V>> readCache = Maps.newConcurrentMap();
     private final Map<K, V> writeCache = Maps.newConcurrentMap();
     private final Set<K> deleteSet = Sets.newConcurrentHashSet();
@@ -85,11 +86,21 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
             AsyncConsistentMap<K, V> backingMap,
             TransactionContext txContext,
             Serializer serializer) {
+        this(name, backingMap, txContext, serializer, null);
+    }
+
+    public DefaultTransactionalMap(
+            String name,
+            AsyncConsistentMap<K, V> backingMap,
+            TransactionContext txContext,
+            Serializer serializer,
+            Hasher<K> keyHasher) {
         this.name = name;
         this.backingMap = backingMap;
         this.backingConsistentMap = backingMap.asConsistentMap();
         this.txContext = txContext;
         this.serializer = serializer;
+        this.keyHasher = keyHasher;
     }
 
     @Override
@@ -196,6 +207,17 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
         return updates().size();
     }
 
+    @Override
+    public boolean isSinglePartition() {
+        if (keyHasher == null) {
+            return TransactionParticipant.super.isSinglePartition();
+        }
+        return updatesStream().map(update -> keyHasher.hash(update.key()))
+                              .distinct()
+                              .limit(2)
+                              .count() <= 1;
+    }
+
     @Override
     public boolean hasPendingUpdates() {
         return updatesStream().findAny().isPresent();
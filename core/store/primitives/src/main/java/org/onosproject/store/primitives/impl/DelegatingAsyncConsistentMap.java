@@ -19,6 +19,7 @@ package org.onosproject.store.primitives.impl;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -104,6 +105,21 @@ public class DelegatingAsyncConsistentMap<K, V> implements AsyncConsistentMap<K,
         return delegateMap.remove(key);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Collection<K> keys) {
+        return delegateMap.getAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return delegateMap.putAll(entries);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Collection<K> keys) {
+        return delegateMap.removeAll(keys);
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return delegateMap.clear();
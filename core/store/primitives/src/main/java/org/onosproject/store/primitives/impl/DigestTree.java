@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Hash tree summarizing the contents of an EventuallyConsistentMap.
+ * <p>
+ * The key space is split into {@code 2^depth} buckets by key hash. Each leaf
+ * holds the XOR of the hashes of all entries in its bucket and each inner node
+ * holds the XOR of its two children, so an entry change only touches the nodes
+ * on its path to the root. Nodes are addressed in heap order: the root is at
+ * index 1 and the children of node {@code i} are at {@code 2i} and {@code 2i+1}.
+ * </p>
+ */
+final class DigestTree {
+
+    /**
+     * Index of the root node.
+     */
+    static final int ROOT = 1;
+
+    private final int depth;
+    private final int leafCount;
+    private final long[] nodes;
+
+    /**
+     * Creates a new empty digest tree.
+     *
+     * @param depth number of levels below the root
+     */
+    DigestTree(int depth) {
+        checkArgument(depth > 0 && depth < 24, "Depth must be between 1 and 23");
+        this.depth = depth;
+        this.leafCount = 1 << depth;
+        this.nodes = new long[leafCount << 1];
+    }
+
+    /**
+     * Returns the bucket a key with the given hash falls into.
+     *
+     * @param keyHash key hash
+     * @return bucket number
+     */
+    int bucket(long keyHash) {
+        return (int) (keyHash & (leafCount - 1));
+    }
+
+    /**
+     * Returns the bucket number covered by the given leaf node.
+     *
+     * @param index leaf node index
+     * @return bucket number
+     */
+    int bucketOfLeaf(int index) {
+        checkArgument(isLeaf(index), "Node %s is not a leaf", index);
+        return index - leafCount;
+    }
+
+    /**
+     * Indicates whether the given node is a leaf.
+     *
+     * @param index node index
+     * @return true if the node is a leaf
+     */
+    boolean isLeaf(int index) {
+        return index >= leafCount;
+    }
+
+    /**
+     * Replaces the hash of an entry in the given bucket.
+     *
+     * @param bucket  bucket the entry falls into
+     * @param oldHash previous entry hash; 0 if the entry was absent
+     * @param newHash new entry hash; 0 if the entry is gone
+     */
+    synchronized void update(int bucket, long oldHash, long newHash) {
+        long delta = oldHash ^ newHash;
+        if (delta == 0) {
+            return;
+        }
+        for (int index = leafCount + bucket; index >= ROOT; index >>>= 1) {
+            nodes[index] ^= delta;
+        }
+    }
+
+    /**
+     * Returns the hash held by the given node.
+     *
+     * @param index node index
+     * @return node hash
+     */
+    synchronized long hash(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the hashes held by the given nodes.
+     *
+     * @param indexes node indexes
+     * @return map of node index to hash
+     */
+    synchronized Map<Integer, Long> hashes(Collection<Integer> indexes) {
+        ImmutableMap.Builder<Integer, Long> builder = ImmutableMap.builder();
+        indexes.forEach(index -> builder.put(index, nodes[index]));
+        return builder.build();
+    }
+
+    /**
+     * Returns the descendants of a node the given number of levels down,
+     * or the leaves below it if those are closer.
+     *
+     * @param index  node index
+     * @param levels number of levels to descend
+     * @return descendant node indexes
+     */
+    List<Integer> descendants(int index, int levels) {
+        int level = 31 - Integer.numberOfLeadingZeros(index);
+        int shift = Math.min(levels, depth - level);
+        ImmutableList.Builder<Integer> builder = ImmutableList.builder();
+        for (int i = index << shift; i < (index + 1) << shift; i++) {
+            builder.add(i);
+        }
+        return builder.build();
+    }
+}
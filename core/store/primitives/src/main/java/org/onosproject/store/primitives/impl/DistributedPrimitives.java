@@ -16,6 +16,7 @@
 package org.onosproject.store.primitives.impl;
 
 import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
 
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.AsyncDistributedSet;
@@ -62,6 +63,24 @@ public final class DistributedPrimitives {
         return new CachingAsyncConsistentMap<>(map);
     }
 
+    /**
+     * Creates an instance of {@code AsyncConsistentMap} that caches entries on get, up to a total weight.
+     *
+     * @param map backing map
+     * @param maxWeight maximum total weight of the cached entries
+     * @param weigher function giving the weight of an entry
+     * @param metered whether to report the cache hits, misses and evictions
+     * @return caching map
+     * @param <K> map key type
+     * @param <V> map value type
+     */
+    public static <K, V> AsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map,
+            long maxWeight,
+            ToIntBiFunction<? super K, ? super V> weigher,
+            boolean metered) {
+        return new CachingAsyncConsistentMap<>(map, maxWeight, weigher, metered);
+    }
+
     /**
      * Creates an instance of {@code AsyncConsistentMap} that disallows updates.
      *
@@ -20,6 +20,7 @@ import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.persistence.PersistenceService;
 import org.onosproject.store.Timestamp;
+import org.onosproject.store.primitives.impl.EventuallyConsistentMapImpl.AntiEntropySettings;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.service.EventuallyConsistentMap;
 import org.onosproject.store.service.EventuallyConsistentMapBuilder;
@@ -55,6 +56,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private boolean convergeFaster = false;
     private boolean persistent = false;
     private boolean persistentMap = false;
+    private boolean digestAntiEntropy = false;
     private final PersistenceService persistenceService;
 
     /**
@@ -151,6 +153,12 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         return this;
     }
 
+    @Override
+    public EventuallyConsistentMapBuilder<K, V> withDigestAntiEntropy() {
+        digestAntiEntropy = true;
+        return this;
+    }
+
     @Override
     public EventuallyConsistentMap<K, V> build() {
         checkNotNull(name, "name is a mandatory parameter");
@@ -170,9 +178,11 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
                                                  communicationExecutor,
                                                  backgroundExecutor,
                                                  tombstonesDisabled,
-                                                 antiEntropyPeriod,
-                                                 antiEntropyTimeUnit,
-                                                 convergeFaster,
+                                                 new AntiEntropySettings(
+                                                         antiEntropyPeriod,
+                                                         antiEntropyTimeUnit,
+                                                         convergeFaster,
+                                                         digestAntiEntropy),
                                                  persistent,
                                                  persistenceService);
     }
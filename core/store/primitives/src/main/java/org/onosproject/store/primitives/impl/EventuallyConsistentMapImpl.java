@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import org.apache.commons.lang3.tuple.Pair;
 import org.onlab.util.AbstractAccumulator;
 import org.onlab.util.KryoNamespace;
@@ -91,6 +92,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
     private final MessageSubject updateRequestSubject;
+    private final MessageSubject antiEntropyTreeSubject;
 
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
             = Sets.newCopyOnWriteArraySet();
@@ -125,6 +127,14 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private final boolean persistent;
 
+    // Number of digest tree levels below the root and the number of levels
+    // descended in each round of a digest tree exchange.
+    private static final int DIGEST_TREE_DEPTH = 12;
+    private static final int DIGEST_TREE_STEP = 4;
+
+    private final DigestTree digestTree;
+    private final Map<K, Long> keyHashes;
+
     private static final String PERSISTENT_LOCAL_MAP_NAME = "itemsMap";
 
 
@@ -150,9 +160,7 @@ public class EventuallyConsistentMapImpl<K, V>
      *                              tasks
      * @param tombstonesDisabled    true if this map should not maintain
      *                              tombstones
-     * @param antiEntropyPeriod     period that the anti-entropy task should run
-     * @param antiEntropyTimeUnit   time unit for anti-entropy period
-     * @param convergeFaster        make anti-entropy try to converge faster
+     * @param antiEntropy           anti-entropy settings
      * @param persistent            persist data to disk
      * @param persistenceService    persistence service
      */
@@ -166,9 +174,7 @@ public class EventuallyConsistentMapImpl<K, V>
                                 ExecutorService communicationExecutor,
                                 ScheduledExecutorService backgroundExecutor,
                                 boolean tombstonesDisabled,
-                                long antiEntropyPeriod,
-                                TimeUnit antiEntropyTimeUnit,
-                                boolean convergeFaster,
+                                AntiEntropySettings antiEntropy,
                                 boolean persistent,
                                 PersistenceService persistenceService) {
         this.mapName = mapName;
@@ -184,6 +190,14 @@ public class EventuallyConsistentMapImpl<K, V>
         } else {
             items = Maps.newConcurrentMap();
         }
+        if (antiEntropy.digestTree) {
+            digestTree = new DigestTree(DIGEST_TREE_DEPTH);
+            keyHashes = Maps.newConcurrentMap();
+            items.forEach((key, value) -> updateDigest(key, null, value));
+        } else {
+            digestTree = null;
+            keyHashes = null;
+        }
         senderPending = Maps.newConcurrentMap();
         destroyedMessage = mapName + ERROR_DESTROYED;
 
@@ -229,12 +243,12 @@ public class EventuallyConsistentMapImpl<K, V>
 
         // start anti-entropy thread
         this.backgroundExecutor.scheduleAtFixedRate(this::sendAdvertisement,
-                                                    initialDelaySec, antiEntropyPeriod,
-                                                    antiEntropyTimeUnit);
+                                                    initialDelaySec, antiEntropy.period,
+                                                    antiEntropy.timeUnit);
 
         updateMessageSubject = new MessageSubject("ecm-" + mapName + "-update");
         clusterCommunicator.addSubscriber(updateMessageSubject,
-                                          serializer::decode,
+                                          serializer,
                                           this::processUpdates,
                                           this.executor);
 
@@ -251,21 +265,56 @@ public class EventuallyConsistentMapImpl<K, V>
                                           this::handleUpdateRequests,
                                           this.backgroundExecutor);
 
+        antiEntropyTreeSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-tree");
+        if (digestTree != null) {
+            clusterCommunicator.addSubscriber(antiEntropyTreeSubject,
+                                              serializer::decode,
+                                              this::handleAntiEntropyTreeAdvertisement,
+                                              serializer::encode,
+                                              this.backgroundExecutor);
+        }
+
         if (!tombstonesDisabled) {
             previousTombstonePurgeTime = 0;
             this.backgroundExecutor.scheduleWithFixedDelay(this::purgeTombstones,
                                                            initialDelaySec,
-                                                           antiEntropyPeriod,
+                                                           antiEntropy.period,
                                                            TimeUnit.SECONDS);
         }
 
         this.tombstonesDisabled = tombstonesDisabled;
-        this.lightweightAntiEntropy = !convergeFaster;
+        this.lightweightAntiEntropy = !antiEntropy.convergeFaster;
 
         // Initiate first round of Gossip
         this.bootstrap();
     }
 
+    /**
+     * Settings of the anti-entropy exchanges of a map.
+     */
+    static final class AntiEntropySettings {
+        private final long period;
+        private final TimeUnit timeUnit;
+        private final boolean convergeFaster;
+        private final boolean digestTree;
+
+        /**
+         * Creates anti-entropy settings.
+         *
+         * @param period         period that the anti-entropy task should run
+         * @param timeUnit       time unit for anti-entropy period
+         * @param convergeFaster make anti-entropy try to converge faster
+         * @param digestTree     use digest tree exchanges for anti-entropy
+         */
+        AntiEntropySettings(long period, TimeUnit timeUnit,
+                            boolean convergeFaster, boolean digestTree) {
+            this.period = period;
+            this.timeUnit = timeUnit;
+            this.convergeFaster = convergeFaster;
+            this.digestTree = digestTree;
+        }
+    }
+
     private StoreSerializer createSerializer(KryoNamespace ns) {
         return StoreSerializer.using(KryoNamespace.newBuilder()
                          .register(ns)
@@ -277,6 +326,8 @@ public class EventuallyConsistentMapImpl<K, V>
                          .register(WallClockTimestamp.class)
                          .register(AntiEntropyAdvertisement.class)
                          .register(AntiEntropyResponse.class)
+                         .register(AntiEntropyTreeAdvertisement.class)
+                         .register(AntiEntropyTreeResponse.class)
                          .register(UpdateEntry.class)
                          .register(MapValue.class)
                          .register(MapValue.Digest.class)
@@ -397,6 +448,7 @@ public class EventuallyConsistentMapImpl<K, V>
             }
             if (updated.get()) {
                 previousValue.set(existing);
+                updateDigest(k, existing, tombstone.orElse(null));
                 return tombstone.orElse(null);
             } else {
                 return existing;
@@ -421,7 +473,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 updated.set(true);
                 // We return a copy to ensure updates to peers can be serialized.
                 // This prevents replica divergence due to serialization failures.
-                return serializer.copy(newValue);
+                MapValue<V> copy = serializer.copy(newValue);
+                updateDigest(k, mv, copy);
+                return copy;
             } else {
                 return mv;
             }
@@ -492,6 +546,7 @@ public class EventuallyConsistentMapImpl<K, V>
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                updateDigest(k, existing, newValue);
                 return newValue;
             }
             return existing;
@@ -526,6 +581,9 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        if (digestTree != null) {
+            clusterCommunicator.removeSubscriber(antiEntropyTreeSubject);
+        }
         return CompletableFuture.completedFuture(null);
     }
 
@@ -556,7 +614,11 @@ public class EventuallyConsistentMapImpl<K, V>
             if (underHighLoad() || destroyed) {
                 return;
             }
-            pickRandomActivePeer().ifPresent(this::sendAdvertisementToPeer);
+            if (digestTree != null) {
+                pickRandomActivePeer().ifPresent(this::sendTreeAdvertisementToPeer);
+            } else {
+                pickRandomActivePeer().ifPresent(this::sendAdvertisementToPeer);
+            }
         } catch (Exception e) {
             // Catch all exceptions to avoid scheduled task being suppressed.
             log.error("Exception thrown while sending advertisement", e);
@@ -591,6 +653,130 @@ public class EventuallyConsistentMapImpl<K, V>
                 });
     }
 
+    private void sendTreeAdvertisementToPeer(NodeId peer) {
+        long adCreationTime = System.currentTimeMillis();
+        exchangeTreeNodes(peer, ImmutableList.of(DigestTree.ROOT), adCreationTime);
+    }
+
+    /**
+     * Advertises the hashes of the given digest tree nodes to a peer and
+     * descends into the nodes reported as divergent. Once divergent leaves
+     * are reached, only the entries in the corresponding buckets are
+     * exchanged using a regular anti-entropy advertisement.
+     */
+    private void exchangeTreeNodes(NodeId peer, List<Integer> nodes, long adCreationTime) {
+        AntiEntropyTreeAdvertisement ad =
+                new AntiEntropyTreeAdvertisement(localNodeId, digestTree.hashes(nodes));
+        clusterCommunicator.<AntiEntropyTreeAdvertisement, AntiEntropyTreeResponse>sendAndReceive(ad,
+                antiEntropyTreeSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .whenCompleteAsync((response, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to send anti-entropy tree advertisement to {}", peer, error);
+                    } else if (response.status() != AntiEntropyResponse.PROCESSED || destroyed) {
+                        return;
+                    } else if (response.divergentNodes().isEmpty()) {
+                        // Everything advertised matches; peer is in sync with us
+                        antiEntropyTimes.put(peer, adCreationTime);
+                    } else if (digestTree.isLeaf(response.divergentNodes().get(0))) {
+                        sendBucketAdvertisementToPeer(peer, response.divergentNodes(), adCreationTime);
+                    } else {
+                        List<Integer> children = response.divergentNodes()
+                                .stream()
+                                .flatMap(node -> digestTree.descendants(node, DIGEST_TREE_STEP).stream())
+                                .collect(Collectors.toList());
+                        exchangeTreeNodes(peer, children, adCreationTime);
+                    }
+                }, backgroundExecutor);
+    }
+
+    private void sendBucketAdvertisementToPeer(NodeId peer, List<Integer> leaves, long adCreationTime) {
+        Set<Integer> buckets = leaves.stream()
+                .map(digestTree::bucketOfLeaf)
+                .collect(Collectors.toSet());
+        Map<K, MapValue.Digest> digest = Maps.newHashMap();
+        keyHashes.forEach((key, hash) -> {
+            if (buckets.contains(digestTree.bucket(hash))) {
+                MapValue<V> value = items.get(key);
+                if (value != null) {
+                    digest.put(key, value.digest());
+                }
+            }
+        });
+        AntiEntropyAdvertisement<K> ad = new AntiEntropyAdvertisement<>(localNodeId, digest, buckets);
+        clusterCommunicator.sendAndReceive(ad,
+                antiEntropyAdvertisementSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to send anti-entropy advertisement to {}", peer, error);
+                    } else if (result == AntiEntropyResponse.PROCESSED) {
+                        antiEntropyTimes.put(peer, adCreationTime);
+                    }
+                });
+    }
+
+    private AntiEntropyTreeResponse handleAntiEntropyTreeAdvertisement(AntiEntropyTreeAdvertisement ad) {
+        if (destroyed || underHighLoad()) {
+            return new AntiEntropyTreeResponse(AntiEntropyResponse.IGNORED, ImmutableList.of());
+        }
+        List<Integer> divergent = ad.nodeHashes()
+                .entrySet()
+                .stream()
+                .filter(e -> digestTree.hash(e.getKey()) != e.getValue())
+                .map(Map.Entry::getKey)
+                .sorted()
+                .collect(Collectors.toList());
+        if (log.isTraceEnabled()) {
+            log.trace("Received anti-entropy tree advertisement from {} for {} with {} nodes; {} divergent",
+                      ad.sender(), mapName, ad.nodeHashes().size(), divergent.size());
+        }
+        return new AntiEntropyTreeResponse(AntiEntropyResponse.PROCESSED, divergent);
+    }
+
+    /**
+     * Updates the digest tree to reflect a change of the value of a key.
+     * Must be invoked while holding the key, i.e. from within a compute.
+     */
+    private void updateDigest(K key, MapValue<V> oldValue, MapValue<V> newValue) {
+        if (digestTree == null) {
+            return;
+        }
+        long keyHash = newValue != null
+                ? keyHashes.computeIfAbsent(key, this::hashKey)
+                : Optional.ofNullable(keyHashes.remove(key)).orElseGet(() -> hashKey(key));
+        digestTree.update(digestTree.bucket(keyHash),
+                          hashEntry(keyHash, oldValue),
+                          hashEntry(keyHash, newValue));
+    }
+
+    private int bucketOf(K key) {
+        Long keyHash = keyHashes.get(key);
+        return digestTree.bucket(keyHash != null ? keyHash : hashKey(key));
+    }
+
+    // Key hashes must agree across instances, hence are derived from the serialized form.
+    private long hashKey(K key) {
+        return Hashing.murmur3_128().hashBytes(serializer.encode(key)).asLong();
+    }
+
+    private long hashEntry(long keyHash, MapValue<V> value) {
+        if (value == null) {
+            return 0;
+        }
+        return Hashing.murmur3_128()
+                .newHasher()
+                .putLong(keyHash)
+                .putBytes(serializer.encode(value.timestamp()))
+                .putBoolean(value.isTombstone())
+                .hash()
+                .asLong();
+    }
+
     private void sendUpdateRequestToPeer(NodeId peer, Set<K> keys) {
         UpdateRequest<K> request = new UpdateRequest<>(localNodeId, keys);
         clusterCommunicator.unicast(request,
@@ -641,6 +827,10 @@ public class EventuallyConsistentMapImpl<K, V>
         Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
 
         items.forEach((key, localValue) -> {
+            if (!ad.buckets().isEmpty() && !ad.buckets().contains(bucketOf(key))) {
+                // outside of the key range covered by the advertisement
+                return;
+            }
             locallyUnknown.remove(key);
             MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
@@ -703,7 +893,13 @@ public class EventuallyConsistentMapImpl<K, V>
                                           .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                                           .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> items.computeIfPresent(entry.getKey(), (key, value) -> {
+            if (value.equals(entry.getValue())) {
+                updateDigest(key, value, null);
+                return null;
+            }
+            return value;
+        }));
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
@@ -776,7 +972,7 @@ public class EventuallyConsistentMapImpl<K, V>
             communicationExecutor.execute(() -> {
                 clusterCommunicator.unicast(ImmutableList.copyOf(map.values()),
                                             updateMessageSubject,
-                                            serializer::encode,
+                                            serializer,
                                             peer)
                                    .whenComplete((result, error) -> {
                                        if (error != null) {
@@ -127,6 +127,36 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return getMap(key).remove(key);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Collection<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newConcurrentMap();
+        return CompletableFuture.allOf(groupByMap(keys).entrySet()
+                                                       .stream()
+                                                       .map(e -> e.getKey().getAll(e.getValue())
+                                                                           .thenAccept(values::putAll))
+                                                       .toArray(CompletableFuture[]::new))
+                                .thenApply(v -> values);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        Map<AsyncConsistentMap<K, V>, Map<K, V>> entriesGroupedByMap = Maps.newIdentityHashMap();
+        entries.forEach((key, value) ->
+                entriesGroupedByMap.computeIfAbsent(getMap(key), k -> Maps.newHashMap()).put(key, value));
+        return CompletableFuture.allOf(entriesGroupedByMap.entrySet()
+                                                          .stream()
+                                                          .map(e -> e.getKey().putAll(e.getValue()))
+                                                          .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Collection<K> keys) {
+        return CompletableFuture.allOf(groupByMap(keys).entrySet()
+                                                       .stream()
+                                                       .map(e -> e.getKey().removeAll(e.getValue()))
+                                                       .toArray(CompletableFuture[]::new));
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return CompletableFuture.allOf(getMaps().stream()
@@ -271,6 +301,15 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns the identifier of the partition to which the specified key maps.
+     * @param key key
+     * @return partition identifier
+     */
+    public PartitionId partitionOf(K key) {
+        return keyHasher.hash(key);
+    }
+
     /**
      * Returns the map (partition) to which the specified key maps.
      * @param key key
@@ -280,6 +319,17 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return partitions.get(keyHasher.hash(key));
     }
 
+    /**
+     * Groups the specified keys by the map (partition) to which they map.
+     * @param keys keys
+     * @return keys grouped by map
+     */
+    private Map<AsyncConsistentMap<K, V>, List<K>> groupByMap(Collection<K> keys) {
+        Map<AsyncConsistentMap<K, V>, List<K>> keysGroupedByMap = Maps.newIdentityHashMap();
+        keys.forEach(key -> keysGroupedByMap.computeIfAbsent(getMap(key), k -> Lists.newArrayList()).add(key));
+        return keysGroupedByMap;
+    }
+
     /**
      * Returns all the constituent maps.
      * @return collection of maps.
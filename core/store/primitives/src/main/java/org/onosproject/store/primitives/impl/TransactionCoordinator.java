@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.primitives.impl;
 
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -23,16 +24,37 @@ import org.onlab.util.Tools;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.CommitStatus;
+import org.onosproject.utils.MeteringAgent;
 
 /**
  * Coordinator for a two-phase commit protocol.
+ * <p>
+ * A transaction whose updates all map to a single partition of a single
+ * participant is committed with one prepare and commit step, skipping the
+ * transaction state bookkeeping needed only to recover from a partial
+ * two-phase commit.
+ * </p>
  */
 public class TransactionCoordinator {
 
+    private static final String PRIMITIVE_NAME = "transactionCoordinator";
+    private static final String SINGLE_PARTITION_COMMIT = "singlePartitionCommit";
+    private static final String TWO_PHASE_COMMIT = "twoPhaseCommit";
+    private static final String PREPARE = "prepare";
+    private static final String COMMIT = "commit";
+    private static final String ROLLBACK = "rollback";
+
     private final AsyncConsistentMap<TransactionId, Transaction.State> transactions;
+    private final MeteringAgent monitor;
 
     public TransactionCoordinator(AsyncConsistentMap<TransactionId, Transaction.State> transactions) {
+        this(transactions, true);
+    }
+
+    TransactionCoordinator(AsyncConsistentMap<TransactionId, Transaction.State> transactions,
+                           boolean meteringEnabled) {
         this.transactions = transactions;
+        this.monitor = new MeteringAgent(PRIMITIVE_NAME, "*", meteringEnabled);
     }
 
     /**
@@ -44,53 +66,59 @@ public class TransactionCoordinator {
      */
     CompletableFuture<CommitStatus> commit(TransactionId transactionId,
                                            Set<TransactionParticipant> transactionParticipants) {
-        int totalUpdates = transactionParticipants.stream()
-                                                  .map(TransactionParticipant::totalUpdates)
-                                                  .reduce(Math::addExact)
-                                                  .orElse(0);
+        List<TransactionParticipant> updatingParticipants =
+                transactionParticipants.stream()
+                                       .filter(TransactionParticipant::hasPendingUpdates)
+                                       .collect(Collectors.toList());
 
-        if (totalUpdates == 0) {
+        if (updatingParticipants.isEmpty()) {
             return CompletableFuture.completedFuture(CommitStatus.SUCCESS);
-        } else if (totalUpdates == 1) {
-            return transactionParticipants.stream()
-                                          .filter(p -> p.totalUpdates() == 1)
-                                          .findFirst()
-                                          .get()
-                                          .prepareAndCommit()
-                                          .thenApply(v -> v ? CommitStatus.SUCCESS : CommitStatus.FAILURE);
+        } else if (updatingParticipants.size() == 1 && updatingParticipants.get(0).isSinglePartition()) {
+            final MeteringAgent.Context timer = monitor.startTimer(SINGLE_PARTITION_COMMIT);
+            return updatingParticipants.get(0)
+                                       .prepareAndCommit()
+                                       .thenApply(v -> v ? CommitStatus.SUCCESS : CommitStatus.FAILURE)
+                                       .whenComplete((r, e) -> timer.stop(e));
         } else {
+            final MeteringAgent.Context timer = monitor.startTimer(TWO_PHASE_COMMIT);
             CompletableFuture<CommitStatus> status =  transactions.put(transactionId, Transaction.State.PREPARING)
-                    .thenCompose(v -> this.doPrepare(transactionParticipants))
+                    .thenCompose(v -> this.doPrepare(updatingParticipants))
                     .thenCompose(result -> result
                             ? transactions.put(transactionId, Transaction.State.COMMITTING)
-                                          .thenCompose(v -> doCommit(transactionParticipants))
+                                          .thenCompose(v -> doCommit(updatingParticipants))
                                           .thenApply(v -> CommitStatus.SUCCESS)
                             : transactions.put(transactionId, Transaction.State.ROLLINGBACK)
-                                          .thenCompose(v -> doRollback(transactionParticipants))
+                                          .thenCompose(v -> doRollback(updatingParticipants))
                                           .thenApply(v -> CommitStatus.FAILURE));
-            return status.thenCompose(v -> transactions.remove(transactionId).thenApply(u -> v));
+            return status.thenCompose(v -> transactions.remove(transactionId).thenApply(u -> v))
+                         .whenComplete((r, e) -> timer.stop(e));
         }
     }
 
-    private CompletableFuture<Boolean> doPrepare(Set<TransactionParticipant> transactionParticipants) {
+    // The prepares of all participants are issued at once; those that go to
+    // the same partition are pipelined over its session.
+    private CompletableFuture<Boolean> doPrepare(List<TransactionParticipant> transactionParticipants) {
+        final MeteringAgent.Context timer = monitor.startTimer(PREPARE);
         return Tools.allOf(transactionParticipants.stream()
-                                                  .filter(TransactionParticipant::hasPendingUpdates)
                                                   .map(TransactionParticipant::prepare)
                                                   .collect(Collectors.toList()))
-                    .thenApply(list -> list.stream().reduce(Boolean::logicalAnd).orElse(true));
+                    .thenApply(list -> list.stream().reduce(Boolean::logicalAnd).orElse(true))
+                    .whenComplete((r, e) -> timer.stop(e));
     }
 
-    private CompletableFuture<Void> doCommit(Set<TransactionParticipant> transactionParticipants) {
+    private CompletableFuture<Void> doCommit(List<TransactionParticipant> transactionParticipants) {
+        final MeteringAgent.Context timer = monitor.startTimer(COMMIT);
         return CompletableFuture.allOf(transactionParticipants.stream()
-                                                              .filter(TransactionParticipant::hasPendingUpdates)
                                                               .map(TransactionParticipant::commit)
-                                                              .toArray(CompletableFuture[]::new));
+                                                              .toArray(CompletableFuture[]::new))
+                                .whenComplete((r, e) -> timer.stop(e));
     }
 
-    private CompletableFuture<Void> doRollback(Set<TransactionParticipant> transactionParticipants) {
+    private CompletableFuture<Void> doRollback(List<TransactionParticipant> transactionParticipants) {
+        final MeteringAgent.Context timer = monitor.startTimer(ROLLBACK);
         return CompletableFuture.allOf(transactionParticipants.stream()
-                                                              .filter(TransactionParticipant::hasPendingUpdates)
                                                               .map(TransactionParticipant::rollback)
-                                                              .toArray(CompletableFuture[]::new));
+                                                              .toArray(CompletableFuture[]::new))
+                                .whenComplete((r, e) -> timer.stop(e));
     }
-}
\ No newline at end of file
+}
@@ -36,6 +36,15 @@ public interface TransactionParticipant {
      */
     int totalUpdates();
 
+    /**
+     * Returns if all the updates of this participant map to a single partition,
+     * in which case they can be committed with a single prepare and commit step.
+     * @return {@code true} if yes; {@code false} otherwise
+     */
+    default boolean isSinglePartition() {
+        return totalUpdates() <= 1;
+    }
+
     /**
      * Executes the prepare and commit steps in a single go.
      * @return {@code true} is successful i.e updates are committed; {@code false} otherwise
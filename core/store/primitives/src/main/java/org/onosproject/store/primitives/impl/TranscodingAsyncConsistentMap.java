@@ -152,6 +152,43 @@ public class TranscodingAsyncConsistentMap<K1, V1, K2, V2> implements AsyncConsi
         }
     }
 
+    @Override
+    public CompletableFuture<Map<K1, Versioned<V1>>> getAll(Collection<K1> keys) {
+        try {
+            Map<K2, K1> encodedKeys = Maps.newHashMapWithExpectedSize(keys.size());
+            keys.forEach(key -> encodedKeys.put(keyEncoder.apply(key), key));
+            return backingMap.getAll(encodedKeys.keySet())
+                             .thenApply(values -> {
+                                 Map<K1, Versioned<V1>> decoded = Maps.newHashMapWithExpectedSize(values.size());
+                                 values.forEach((k, v) -> decoded.put(encodedKeys.get(k),
+                                                                      versionedValueTransform.apply(v)));
+                                 return decoded;
+                             });
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K1, V1> entries) {
+        try {
+            Map<K2, V2> encoded = Maps.newHashMapWithExpectedSize(entries.size());
+            entries.forEach((k, v) -> encoded.put(keyEncoder.apply(k), valueEncoder.apply(v)));
+            return backingMap.putAll(encoded);
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Collection<K1> keys) {
+        try {
+            return backingMap.removeAll(keys.stream().map(keyEncoder).collect(Collectors.toList()));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return backingMap.clear();
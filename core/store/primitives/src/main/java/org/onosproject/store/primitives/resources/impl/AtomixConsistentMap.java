@@ -15,11 +15,13 @@
  */
 package org.onosproject.store.primitives.resources.impl;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import io.atomix.copycat.client.CopycatClient;
 import io.atomix.resource.AbstractResource;
 import io.atomix.resource.ResourceTypeInfo;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.List;
@@ -42,6 +44,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.EntrySet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.IsEmpty;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.KeySet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Listen;
@@ -51,6 +54,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionPrepareAndCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionRollback;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Unlisten;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.UpdateAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.UpdateAndGet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Values;
 import org.onosproject.store.service.AsyncConsistentMap;
@@ -61,6 +65,8 @@ import org.onosproject.store.service.MapTransaction;
 import org.onosproject.store.service.Versioned;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 /**
@@ -127,6 +133,21 @@ public class AtomixConsistentMap extends AbstractResource<AtomixConsistentMap>
         return client.submit(new Get(key));
     }
 
+    @Override
+    public CompletableFuture<Map<String, Versioned<byte[]>>> getAll(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        return client.submit(new GetAll(keyList))
+                .thenApply(values -> {
+                    Map<String, Versioned<byte[]>> result = Maps.newHashMap();
+                    for (int i = 0; i < keyList.size(); i++) {
+                        if (values.get(i) != null) {
+                            result.put(keyList.get(i), values.get(i));
+                        }
+                    }
+                    return result;
+                });
+    }
+
     @Override
     public CompletableFuture<Set<String>> keySet() {
         return client.submit(new KeySet());
@@ -213,6 +234,28 @@ public class AtomixConsistentMap extends AbstractResource<AtomixConsistentMap>
                 .thenApply(v -> v.updated());
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<String, byte[]> entries) {
+        List<String> keys = Lists.newArrayListWithCapacity(entries.size());
+        List<byte[]> values = Lists.newArrayListWithCapacity(entries.size());
+        entries.forEach((key, value) -> {
+            keys.add(key);
+            values.add(checkNotNull(value, "null values are not allowed"));
+        });
+        return client.submit(new UpdateAll(keys, values))
+                .whenComplete((r, e) -> throwIfLocked(r))
+                .thenApply(v -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Collection<String> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        keys.forEach(key -> values.add(null));
+        return client.submit(new UpdateAll(new ArrayList<>(keys), values))
+                .whenComplete((r, e) -> throwIfLocked(r))
+                .thenApply(v -> null);
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return client.submit(new Clear())
@@ -25,7 +25,9 @@ import io.atomix.catalyst.util.Assert;
 import io.atomix.copycat.Command;
 import io.atomix.copycat.Query;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -438,6 +440,121 @@ public final class AtomixConsistentMapCommands {
         }
     }
 
+    /**
+     * Multiple key get query.
+     */
+    @SuppressWarnings("serial")
+    public static class GetAll extends MapQuery<List<Versioned<byte[]>>> {
+        private List<String> keys;
+
+        public GetAll() {
+        }
+
+        public GetAll(List<String> keys) {
+            this.keys = Assert.notNull(keys, "keys");
+        }
+
+        /**
+         * Returns the keys.
+         * @return keys
+         */
+        public List<String> keys() {
+            return keys;
+        }
+
+        @Override
+        public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+            super.writeObject(buffer, serializer);
+            buffer.writeInt(keys.size());
+            keys.forEach(key -> serializer.writeObject(key, buffer));
+        }
+
+        @Override
+        public void readObject(BufferInput<?> buffer, Serializer serializer) {
+            super.readObject(buffer, serializer);
+            int size = buffer.readInt();
+            keys = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                keys.add(serializer.readObject(buffer));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("keys", keys)
+                    .toString();
+        }
+    }
+
+    /**
+     * Multiple key update command. A null value removes the key.
+     */
+    @SuppressWarnings("serial")
+    public static class UpdateAll extends MapCommand<MapEntryUpdateResult.Status> {
+        private List<String> keys;
+        private List<byte[]> values;
+
+        public UpdateAll() {
+        }
+
+        public UpdateAll(List<String> keys, List<byte[]> values) {
+            Assert.arg(keys.size() == values.size(), "keys and values must have the same size");
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * Returns the keys.
+         * @return keys
+         */
+        public List<String> keys() {
+            return keys;
+        }
+
+        /**
+         * Returns the values, in the same order as the keys.
+         * @return values
+         */
+        public List<byte[]> values() {
+            return values;
+        }
+
+        @Override
+        public CompactionMode compaction() {
+          return values.stream().allMatch(value -> value == null) ? CompactionMode.FULL : CompactionMode.QUORUM;
+        }
+
+        @Override
+        public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+            super.writeObject(buffer, serializer);
+            buffer.writeInt(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                serializer.writeObject(keys.get(i), buffer);
+                serializer.writeObject(values.get(i), buffer);
+            }
+        }
+
+        @Override
+        public void readObject(BufferInput<?> buffer, Serializer serializer) {
+            super.readObject(buffer, serializer);
+            int size = buffer.readInt();
+            keys = new ArrayList<>(size);
+            values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                keys.add(serializer.readObject(buffer));
+                values.add(serializer.readObject(buffer));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("keys", keys)
+                    .toString();
+        }
+    }
+
     /**
      * Is empty query.
      */
@@ -535,6 +652,8 @@ public final class AtomixConsistentMapCommands {
             registry.register(TransactionRollback.class, -774);
             registry.register(TransactionPrepareAndCommit.class, -775);
             registry.register(UpdateAndGet.class, -776);
+            registry.register(GetAll.class, -777);
+            registry.register(UpdateAll.class, -778);
         }
     }
 }
@@ -47,6 +47,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.EntrySet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.IsEmpty;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.KeySet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Listen;
@@ -56,6 +57,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionPrepareAndCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionRollback;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Unlisten;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.UpdateAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.UpdateAndGet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Values;
 import org.onosproject.store.service.MapEvent;
@@ -106,12 +108,14 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         executor.register(ContainsValue.class, this::containsValue);
         executor.register(EntrySet.class, this::entrySet);
         executor.register(Get.class, this::get);
+        executor.register(GetAll.class, this::getAll);
         executor.register(IsEmpty.class, this::isEmpty);
         executor.register(KeySet.class, this::keySet);
         executor.register(Size.class, this::size);
         executor.register(Values.class, this::values);
         // Commands
         executor.register(UpdateAndGet.class, this::updateAndGet);
+        executor.register(UpdateAll.class, this::updateAll);
         executor.register(AtomixConsistentMapCommands.Clear.class, this::clear);
         executor.register(TransactionPrepare.class, this::prepare);
         executor.register(TransactionCommit.class, this::commit);
@@ -176,6 +180,23 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         }
     }
 
+    /**
+     * Handles a get all commit.
+     *
+     * @param commit getAll commit
+     * @return values mapped to the keys, in the order of the keys
+     */
+    protected List<Versioned<byte[]>> getAll(Commit<? extends GetAll> commit) {
+        try {
+            return commit.operation().keys()
+                    .stream()
+                    .map(key -> toVersioned(mapEntries.get(key)))
+                    .collect(Collectors.toList());
+        } finally {
+            commit.close();
+        }
+    }
+
     /**
      * Handles a count commit.
      *
@@ -296,6 +317,55 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         }
     }
 
+    /**
+     * Handles an update all commit. The updates are applied all together
+     * or, if any of their keys is locked by a pending transaction, not at all.
+     *
+     * @param commit updateAll commit
+     * @return update status
+     */
+    protected MapEntryUpdateResult.Status updateAll(Commit<? extends UpdateAll> commit) {
+        try {
+            List<String> keys = commit.operation().keys();
+            List<byte[]> values = commit.operation().values();
+            if (keys.stream().anyMatch(preparedKeys::contains)) {
+                commit.close();
+                return MapEntryUpdateResult.Status.WRITE_LOCK;
+            }
+
+            // The commit is retained for as long as any of the values it holds is
+            // still in the map, and closed once the last of them is discarded
+            long retainedValues = values.stream().filter(value -> value != null).count();
+            CountDownCompleter<Commit<? extends UpdateAll>> completer =
+                    new CountDownCompleter<>(commit, retainedValues, Commit::close);
+            List<MapEvent<String, byte[]>> eventsToPublish = Lists.newArrayList();
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                byte[] value = values.get(i);
+                MapEntryValue previousValue = mapEntries.remove(key);
+                if (previousValue == null && value == null) {
+                    continue;
+                }
+                MapEntryValue newValue = null;
+                if (value != null) {
+                    newValue = new BatchCommit(value, versionCounter.incrementAndGet(), completer);
+                    mapEntries.put(key, newValue);
+                }
+                eventsToPublish.add(new MapEvent<>("", key, toVersioned(newValue), toVersioned(previousValue)));
+                if (previousValue != null) {
+                    previousValue.discard();
+                }
+            }
+            if (!eventsToPublish.isEmpty()) {
+                publish(eventsToPublish);
+            }
+            return MapEntryUpdateResult.Status.OK;
+        } catch (Exception e) {
+            log.error("State machine operation failed", e);
+            throw Throwables.propagate(e);
+        }
+    }
+
     /**
      * Handles a clear commit.
      *
@@ -617,6 +687,38 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         }
     }
 
+    /**
+     * A {@code MapEntryValue} that is derived from a multiple key update.
+     */
+    private class BatchCommit implements MapEntryValue {
+        private final byte[] value;
+        private final long version;
+        private final CountDownCompleter<Commit<? extends UpdateAll>> completer;
+
+        public BatchCommit(byte[] value,
+                long version,
+                CountDownCompleter<Commit<? extends UpdateAll>> completer) {
+            this.value = value;
+            this.version = version;
+            this.completer = completer;
+        }
+
+        @Override
+        public byte[] value() {
+            return value;
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public void discard() {
+            completer.countDown();
+        }
+    }
+
     /**
      * A {@code MapEntryValue} that is derived from updates submitted via a
      * transaction.
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.Versioned;
+
+/**
+ * Unit tests for CachingAsyncConsistentMap.
+ */
+public class CachingAsyncConsistentMapTest {
+
+    private static final String NAME = "test";
+
+    private final Capture<MapEventListener<String, String>> listener = new Capture<>();
+    private AsyncConsistentMap<String, String> backingMap;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        backingMap = createMock(AsyncConsistentMap.class);
+        expect(backingMap.name()).andReturn(NAME).anyTimes();
+        expect(backingMap.addListener(capture(listener), anyObject()))
+                .andReturn(CompletableFuture.completedFuture(null));
+        backingMap.addStatusChangeListener(anyObject());
+        expectLastCall();
+    }
+
+    private CachingAsyncConsistentMap<String, String> cachingMap() {
+        replay(backingMap);
+        return new CachingAsyncConsistentMap<>(backingMap);
+    }
+
+    private static CompletableFuture<Versioned<String>> value(String value, long version) {
+        return CompletableFuture.completedFuture(new Versioned<>(value, version));
+    }
+
+    private void fire(String key, Versioned<String> newValue, Versioned<String> oldValue) {
+        listener.getValue().event(new MapEvent<>(NAME, key, newValue, oldValue));
+    }
+
+    @Test
+    public void testCachedReads() {
+        expect(backingMap.get("a")).andReturn(value("1", 1));
+        expect(backingMap.get("b")).andReturn(CompletableFuture.completedFuture(null));
+        CachingAsyncConsistentMap<String, String> map = cachingMap();
+
+        assertEquals("1", map.get("a").join().value());
+        assertEquals("1", map.get("a").join().value());
+        assertNull(map.get("b").join());
+        assertNull(map.get("b").join());
+        verify(backingMap);
+    }
+
+    @Test
+    public void testEventUpdates() {
+        expect(backingMap.get("a")).andReturn(value("1", 1)).andReturn(value("4", 4));
+        CachingAsyncConsistentMap<String, String> map = cachingMap();
+
+        assertEquals("1", map.get("a").join().value());
+        fire("a", new Versioned<>("3", 3), new Versioned<>("1", 1));
+        assertEquals("3", map.get("a").join().value());
+
+        // an older version does not replace a newer one
+        fire("a", new Versioned<>("2", 2), new Versioned<>("1", 1));
+        assertEquals("3", map.get("a").join().value());
+
+        fire("a", null, new Versioned<>("3", 3));
+        assertEquals("4", map.get("a").join().value());
+        verify(backingMap);
+    }
+
+    @Test
+    public void testReadYourWrites() {
+        expect(backingMap.get("a")).andReturn(value("1", 1)).andReturn(value("2", 2));
+        expect(backingMap.put("a", "2")).andReturn(value("1", 1));
+        expect(backingMap.putAndGet("a", "3")).andReturn(value("3", 3));
+        CachingAsyncConsistentMap<String, String> map = cachingMap();
+
+        assertEquals("1", map.get("a").join().value());
+        map.put("a", "2").join();
+        assertEquals("2", map.get("a").join().value());
+        map.putAndGet("a", "3").join();
+        assertEquals("3", map.get("a").join().value());
+        verify(backingMap);
+    }
+
+    @Test
+    public void testReadRacingEvent() {
+        CompletableFuture<Versioned<String>> read = new CompletableFuture<>();
+        expect(backingMap.get("a")).andReturn(read);
+        CachingAsyncConsistentMap<String, String> map = cachingMap();
+
+        CompletableFuture<Versioned<String>> result = map.get("a");
+        fire("a", new Versioned<>("2", 2), new Versioned<>("1", 1));
+        read.complete(new Versioned<>("1", 1));
+        assertEquals("1", result.join().value());
+
+        // the version read does not replace the newer one cached meanwhile
+        assertEquals("2", map.get("a").join().value());
+        verify(backingMap);
+    }
+
+    @Test
+    public void testReadRacingInvalidation() {
+        CompletableFuture<Versioned<String>> read = new CompletableFuture<>();
+        expect(backingMap.get("a")).andReturn(read).andReturn(value("2", 2));
+        expect(backingMap.remove("a")).andReturn(value("1", 1));
+        CachingAsyncConsistentMap<String, String> map = cachingMap();
+
+        CompletableFuture<Versioned<String>> result = map.get("a");
+        map.remove("a").join();
+        read.complete(new Versioned<>("1", 1));
+        assertEquals("1", result.join().value());
+
+        // the value read before the invalidation is not cached
+        assertEquals("2", map.get("a").join().value());
+        verify(backingMap);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for DigestTree.
+ */
+public class DigestTreeTest {
+
+    @Test
+    public void testUpdateIsOrderIndependent() {
+        DigestTree tree1 = new DigestTree(4);
+        DigestTree tree2 = new DigestTree(4);
+
+        tree1.update(3, 0, 0xAL);
+        tree1.update(7, 0, 0xBL);
+        tree2.update(7, 0, 0xBL);
+        tree2.update(3, 0, 0xAL);
+        assertEquals(tree1.hash(DigestTree.ROOT), tree2.hash(DigestTree.ROOT));
+
+        tree1.update(3, 0xAL, 0xCL);
+        assertNotEquals(tree1.hash(DigestTree.ROOT), tree2.hash(DigestTree.ROOT));
+
+        tree1.update(3, 0xCL, 0);
+        tree2.update(3, 0xAL, 0);
+        assertEquals(tree1.hash(DigestTree.ROOT), tree2.hash(DigestTree.ROOT));
+    }
+
+    @Test
+    public void testDivergenceIsLocalized() {
+        DigestTree tree1 = new DigestTree(4);
+        DigestTree tree2 = new DigestTree(4);
+        for (int bucket = 0; bucket < 16; bucket++) {
+            tree1.update(bucket, 0, bucket + 1);
+            tree2.update(bucket, 0, bucket + 1);
+        }
+        tree2.update(5, 6, 42);
+
+        // Only the nodes on the path from the root to bucket 5 differ
+        int node = DigestTree.ROOT;
+        while (!tree1.isLeaf(node)) {
+            int divergent = -1;
+            for (int child : tree1.descendants(node, 1)) {
+                if (tree1.hash(child) != tree2.hash(child)) {
+                    assertEquals(-1, divergent);
+                    divergent = child;
+                }
+            }
+            node = divergent;
+        }
+        assertEquals(5, tree1.bucketOfLeaf(node));
+    }
+
+    @Test
+    public void testDescendants() {
+        DigestTree tree = new DigestTree(4);
+        assertEquals(ImmutableList.of(2, 3), tree.descendants(DigestTree.ROOT, 1));
+        assertEquals(ImmutableList.of(8, 9, 10, 11), tree.descendants(2, 2));
+        // Descent stops at the leaves
+        assertEquals(ImmutableList.of(16, 17), tree.descendants(8, 3));
+        assertTrue(tree.isLeaf(16));
+        assertFalse(tree.isLeaf(15));
+        assertEquals(0, tree.bucket(16));
+        assertEquals(15, tree.bucket(-1L));
+    }
+}
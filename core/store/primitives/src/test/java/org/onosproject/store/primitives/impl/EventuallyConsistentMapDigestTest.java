@@ -0,0 +1,272 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.cluster.ClusterService;
+import org.onosproject.cluster.ControllerNode;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.persistence.TestPersistenceService;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.WallClockTimestamp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Tests of the convergence of eventually consistent maps using digest tree
+ * anti-entropy.
+ */
+public class EventuallyConsistentMapDigestTest {
+
+    private static final String MAP_NAME = "test";
+    private static final MessageSubject TREE_SUBJECT =
+            new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy-tree");
+
+    // long enough for the maps to leave their high load state
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final ControllerNode node1 =
+            new DefaultControllerNode(new NodeId("node1"), IpAddress.valueOf(1));
+    private final ControllerNode node2 =
+            new DefaultControllerNode(new NodeId("node2"), IpAddress.valueOf(2));
+
+    private final Map<NodeId, TestClusterCommunicationService> network = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    private Peer peer1;
+    private Peer peer2;
+
+    @Before
+    public void setUp() {
+        peer1 = new Peer(node1);
+        peer2 = new Peer(node2);
+    }
+
+    @After
+    public void tearDown() {
+        peer1.destroy();
+        peer2.destroy();
+    }
+
+    @Test
+    public void converge() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            peer1.map.put("one-" + i, "value");
+            peer2.map.put("two-" + i, "value");
+        }
+        peer1.map.put("both", "old");
+        peer2.map.put("both", "new");
+        peer2.map.put("removed", "value");
+        peer1.map.remove("removed");
+
+        awaitConvergence(peer1);
+
+        assertEquals(101, peer1.map.size());
+        assertEquals(peer1.map.entrySet(), peer2.map.entrySet());
+        assertEquals("new", peer1.map.get("both"));
+        assertNull(peer2.map.get("removed"));
+        assertTrue("Digest tree was not exchanged", network.get(node1.id()).sent(TREE_SUBJECT) > 0);
+    }
+
+    @Test
+    public void stayInSync() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            peer1.map.put("key-" + i, "value");
+        }
+        awaitConvergence(peer1);
+        int exchanged = network.get(node2.id()).sent(TREE_SUBJECT);
+
+        peer2.map.put("key-0", "updated");
+        awaitConvergence(peer2);
+        assertEquals("updated", peer1.map.get("key-0"));
+        assertTrue(network.get(node2.id()).sent(TREE_SUBJECT) > exchanged);
+    }
+
+    // runs the anti-entropy task of the given peer until both maps hold the
+    // same entries
+    private void awaitConvergence(Peer peer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!peer1.map.entrySet().equals(peer2.map.entrySet())) {
+            assertTrue("Maps did not converge", System.currentTimeMillis() < deadline);
+            peer.background.antiEntropy.run();
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * Cluster node holding an instance of the map.
+     */
+    private final class Peer {
+        private final ManualScheduledExecutor background = new ManualScheduledExecutor();
+        private final EventuallyConsistentMap<String, String> map;
+
+        private Peer(ControllerNode self) {
+            ClusterService clusterService = createMock(ClusterService.class);
+            expect(clusterService.getLocalNode()).andReturn(self).anyTimes();
+            expect(clusterService.getNodes()).andReturn(ImmutableSet.of(node1, node2)).anyTimes();
+            expect(clusterService.getState(anyObject(NodeId.class)))
+                    .andReturn(ControllerNode.State.ACTIVE).anyTimes();
+            replay(clusterService);
+
+            TestClusterCommunicationService communicator = new TestClusterCommunicationService();
+            network.put(self.id(), communicator);
+
+            map = new EventuallyConsistentMapBuilderImpl<String, String>(
+                            clusterService, communicator, new TestPersistenceService())
+                    .withName(MAP_NAME)
+                    .withSerializer(KryoNamespace.newBuilder()
+                                            .register(KryoNamespaces.API)
+                                            .register(WallClockTimestamp.class))
+                    .withTimestampProvider((k, v) -> new WallClockTimestamp(clock.incrementAndGet()))
+                    // updates only reach the peer through anti-entropy
+                    .withPeerUpdateFunction((k, v) -> ImmutableList.of())
+                    .withEventExecutor(MoreExecutors.newDirectExecutorService())
+                    .withCommunicationExecutor(MoreExecutors.newDirectExecutorService())
+                    .withBackgroundExecutor(background)
+                    .withDigestAntiEntropy()
+                    .build();
+        }
+
+        private void destroy() {
+            map.destroy();
+            background.shutdownNow();
+        }
+    }
+
+    /**
+     * Scheduled executor which leaves it to the test to run the anti-entropy
+     * task.
+     */
+    private static final class ManualScheduledExecutor extends ScheduledThreadPoolExecutor {
+        private Runnable antiEntropy;
+
+        private ManualScheduledExecutor() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay,
+                                                      long period, TimeUnit unit) {
+            antiEntropy = command;
+            return schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+                                                         long delay, TimeUnit unit) {
+            return schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+    }
+
+    /**
+     * Cluster communication service delivering the messages to the handlers
+     * registered by the other nodes, through their serialized form.
+     */
+    private final class TestClusterCommunicationService extends ClusterCommunicationServiceAdapter {
+        private final Map<MessageSubject, Function<byte[], byte[]>> handlers = new ConcurrentHashMap<>();
+        private final Map<MessageSubject, AtomicInteger> sent = new ConcurrentHashMap<>();
+
+        int sent(MessageSubject subject) {
+            AtomicInteger count = sent.get(subject);
+            return count != null ? count.get() : 0;
+        }
+
+        private byte[] deliver(MessageSubject subject, byte[] payload, NodeId toNodeId) {
+            sent.computeIfAbsent(subject, s -> new AtomicInteger()).incrementAndGet();
+            Function<byte[], byte[]> handler = network.get(toNodeId).handlers.get(subject);
+            return handler != null ? handler.apply(payload) : null;
+        }
+
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                                                   Function<M, byte[]> encoder, NodeId toNodeId) {
+            deliver(subject, encoder.apply(message), toNodeId);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public <M> void multicast(M message, MessageSubject subject,
+                                  Function<M, byte[]> encoder, Set<NodeId> nodes) {
+            nodes.forEach(node -> unicast(message, subject, encoder, node));
+        }
+
+        @Override
+        public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                                                          Function<M, byte[]> encoder,
+                                                          Function<byte[], R> decoder,
+                                                          NodeId toNodeId) {
+            byte[] reply = deliver(subject, encoder.apply(message), toNodeId);
+            if (reply == null) {
+                CompletableFuture<R> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException("No handler for " + subject));
+                return failed;
+            }
+            return CompletableFuture.completedFuture(decoder.apply(reply));
+        }
+
+        @Override
+        public <M, R> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                         Function<M, R> handler, Function<R, byte[]> encoder,
+                                         Executor executor) {
+            handlers.put(subject, payload -> encoder.apply(handler.apply(decoder.apply(payload))));
+        }
+
+        @Override
+        public <M> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                      Consumer<M> handler, Executor executor) {
+            handlers.put(subject, payload -> {
+                handler.accept(decoder.apply(payload));
+                return new byte[0];
+            });
+        }
+
+        @Override
+        public void removeSubscriber(MessageSubject subject) {
+            handlers.remove(subject);
+        }
+    }
+}
@@ -66,6 +66,7 @@ import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.EventuallyConsistentMap;
 import org.onosproject.store.service.EventuallyConsistentMapEvent;
 import org.onosproject.store.service.EventuallyConsistentMapListener;
+import org.onosproject.store.service.Serializer;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -118,7 +119,7 @@ public class EventuallyConsistentMapImplTest {
         // allows us to get a reference to the map's internal cluster message
         // handlers so we can induce events coming in from a peer.
         clusterCommunicator.<Object>addSubscriber(anyObject(MessageSubject.class),
-                anyObject(Function.class), anyObject(Consumer.class), anyObject(Executor.class));
+                anyObject(Serializer.class), anyObject(Consumer.class), anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
         clusterCommunicator.<Object, Object>addSubscriber(anyObject(MessageSubject.class),
                                                           anyObject(Function.class),
@@ -741,7 +742,7 @@ public class EventuallyConsistentMapImplTest {
         expect(clusterCommunicator.<T>unicast(
                     anyObject(),
                     anyObject(MessageSubject.class),
-                    anyObject(Function.class),
+                    anyObject(Serializer.class),
                     anyObject(NodeId.class)))
                 .andReturn(CompletableFuture.completedFuture(null))
                 .anyTimes();
@@ -777,11 +778,20 @@ public class EventuallyConsistentMapImplTest {
 
         @Override
         public <M> void addSubscriber(MessageSubject subject,
-                Function<byte[], M> decoder, Consumer<M> handler,
+                Serializer serializer, Consumer<M> handler,
                 Executor executor) {
             if (subject.equals(UPDATE_MESSAGE_SUBJECT)) {
                 updateHandler = (Consumer<Collection<UpdateEntry<String, String>>>) handler;
-            } else if (subject.equals(UPDATE_REQUEST_SUBJECT)) {
+            } else {
+                throw new RuntimeException("Unexpected message subject " + subject.toString());
+            }
+        }
+
+        @Override
+        public <M> void addSubscriber(MessageSubject subject,
+                Function<byte[], M> decoder, Consumer<M> handler,
+                Executor executor) {
+            if (subject.equals(UPDATE_REQUEST_SUBJECT)) {
                 requestHandler = (Consumer<Collection<UpdateRequest<String>>>) handler;
             } else {
                 throw new RuntimeException("Unexpected message subject " + subject.toString());
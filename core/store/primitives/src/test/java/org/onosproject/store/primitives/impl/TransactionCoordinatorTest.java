@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.CommitStatus;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for TransactionCoordinator.
+ */
+public class TransactionCoordinatorTest {
+
+    private static final TransactionId TX_ID = TransactionId.from("tx1");
+
+    private AsyncConsistentMap<TransactionId, Transaction.State> transactions;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        transactions = createMock(AsyncConsistentMap.class);
+    }
+
+    private TransactionCoordinator coordinator() {
+        replay(transactions);
+        return new TransactionCoordinator(transactions, false);
+    }
+
+    private void expectTransactionState(Transaction.State... states) {
+        for (Transaction.State state : states) {
+            expect(transactions.put(TX_ID, state)).andReturn(CompletableFuture.completedFuture(null));
+        }
+        expect(transactions.remove(TX_ID)).andReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    public void testSinglePartitionCommit() {
+        TestParticipant participant = new TestParticipant(3, true, true);
+        TestParticipant idle = new TestParticipant(0, true, true);
+
+        assertEquals(CommitStatus.SUCCESS,
+                     coordinator().commit(TX_ID, ImmutableSet.of(participant, idle)).join());
+        assertTrue(participant.preparedAndCommitted);
+        assertFalse(participant.prepared);
+        assertFalse(idle.preparedAndCommitted);
+        verify(transactions);
+    }
+
+    @Test
+    public void testMultiPartitionCommit() {
+        expectTransactionState(Transaction.State.PREPARING, Transaction.State.COMMITTING);
+        TestParticipant participant = new TestParticipant(3, false, true);
+
+        assertEquals(CommitStatus.SUCCESS,
+                     coordinator().commit(TX_ID, ImmutableSet.of(participant)).join());
+        assertTrue(participant.prepared);
+        assertTrue(participant.committed);
+        assertFalse(participant.preparedAndCommitted);
+        verify(transactions);
+    }
+
+    @Test
+    public void testMultiParticipantRollback() {
+        expectTransactionState(Transaction.State.PREPARING, Transaction.State.ROLLINGBACK);
+        TestParticipant participant1 = new TestParticipant(1, true, true);
+        TestParticipant participant2 = new TestParticipant(1, true, false);
+
+        assertEquals(CommitStatus.FAILURE,
+                     coordinator().commit(TX_ID, ImmutableSet.of(participant1, participant2)).join());
+        assertTrue(participant1.rolledBack);
+        assertTrue(participant2.rolledBack);
+        assertFalse(participant1.committed);
+        verify(transactions);
+    }
+
+    private static class TestParticipant implements TransactionParticipant {
+        private final int updates;
+        private final boolean singlePartition;
+        private final boolean succeeds;
+        private boolean preparedAndCommitted;
+        private boolean prepared;
+        private boolean committed;
+        private boolean rolledBack;
+
+        TestParticipant(int updates, boolean singlePartition, boolean succeeds) {
+            this.updates = updates;
+            this.singlePartition = singlePartition;
+            this.succeeds = succeeds;
+        }
+
+        @Override
+        public int totalUpdates() {
+            return updates;
+        }
+
+        @Override
+        public boolean isSinglePartition() {
+            return singlePartition;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> prepareAndCommit() {
+            preparedAndCommitted = true;
+            return CompletableFuture.completedFuture(succeeds);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> prepare() {
+            prepared = true;
+            return CompletableFuture.completedFuture(succeeds);
+        }
+
+        @Override
+        public CompletableFuture<Void> commit() {
+            committed = true;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> rollback() {
+            rolledBack = true;
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.onosproject.store.primitives.resources.impl;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import io.atomix.resource.ResourceType;
 import org.junit.AfterClass;
@@ -90,6 +91,14 @@ public class AtomixConsistentMapTest extends AtomixTestBase {
         mapListenerTests(3);
     }
 
+    /**
+     * Tests multiple key map operations.
+     */
+    @Test
+    public void testBatchMapOperations() throws Throwable {
+        batchMapOperationTests(3);
+    }
+
     /**
      * Tests map transaction commit.
      */
@@ -273,6 +282,32 @@ public class AtomixConsistentMapTest extends AtomixTestBase {
     }
 
 
+    protected void batchMapOperationTests(int clusterSize) throws Throwable {
+        final byte[] value1 = Tools.getBytesUtf8("value1");
+        final byte[] value2 = Tools.getBytesUtf8("value2");
+
+        AtomixConsistentMap map = createAtomixClient().getResource("testBatchMapOperationMap",
+                                                                   AtomixConsistentMap.class).join();
+
+        map.putAll(ImmutableMap.of("foo", value1, "bar", value2)).join();
+        map.size().thenAccept(result -> assertEquals(2, (int) result)).join();
+
+        map.getAll(Arrays.asList("foo", "bar", "baz")).thenAccept(result -> {
+            assertEquals(2, result.size());
+            assertArrayEquals(value1, result.get("foo").value());
+            assertArrayEquals(value2, result.get("bar").value());
+        }).join();
+
+        map.putAll(ImmutableMap.of("foo", value2)).join();
+        map.get("foo").thenAccept(result -> assertArrayEquals(value2, result.value())).join();
+
+        map.removeAll(Arrays.asList("foo", "baz")).join();
+        map.getAll(Arrays.asList("foo", "bar")).thenAccept(result -> {
+            assertEquals(1, result.size());
+            assertArrayEquals(value2, result.get("bar").value());
+        }).join();
+    }
+
     protected void mapListenerTests(int clusterSize) throws Throwable {
         final byte[] value1 = Tools.getBytesUtf8("value1");
         final byte[] value2 = Tools.getBytesUtf8("value2");
@@ -357,6 +357,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                         executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
                     }
                     break;
+                case AGGREGATE:
+                    executorMsgs.execute(new OFMessageHandler(dpid, reply));
+                    break;
                 case PORT:
                     executorMsgs.execute(new OFMessageHandler(dpid, reply));
                     break;
@@ -31,29 +31,41 @@ import org.onosproject.net.flow.instructions.Instruction;
 import org.onosproject.net.flow.instructions.Instructions;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
+import org.projectfloodlight.openflow.protocol.OFAggregateStatsReply;
+import org.projectfloodlight.openflow.protocol.OFAggregateStatsRequest;
 import org.projectfloodlight.openflow.protocol.OFFlowStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFVersion;
 import org.projectfloodlight.openflow.protocol.match.Match;
 import org.projectfloodlight.openflow.types.OFPort;
 import org.projectfloodlight.openflow.types.TableId;
+import org.projectfloodlight.openflow.types.U64;
 import org.slf4j.Logger;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.TypedStoredFlowEntry.FlowLiveType;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Efficiently and adaptively collects flow statistics for the specified switch.
+ * <p>
+ * The flows polled at each period are grouped in regions, namely the flows
+ * of a table installed by the same application, as given by the high order
+ * bits of their cookie. Regions holding few flows of the polled class are
+ * polled flow by flow, larger ones with a single request. Regions of long
+ * flows are first polled for their aggregate statistics, and their flows
+ * only when these have changed.
+ * </p>
  */
 public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
     private final Logger log = getLogger(getClass());
@@ -74,11 +86,17 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
                     + ", new flowId={}, old flowId={}, new bytes={}, old bytes={}"
                     + ", new life={}, old life={}, new lastSeen={}, old lastSeen={}";
 
+    // Application identifier bits of the flow cookies
+    private static final long APP_COOKIE_MASK = 0xffff000000000000L;
+    // Regions with more flows of the polled class are polled with a single request
+    private static final int MAX_FLOW_REQUESTS_PER_REGION = 8;
+
     private final DriverService driverService;
     private final OpenFlowSwitch sw;
+    // OpenFlow 1.0 stats requests cannot select flows by cookie
+    private final boolean cookieMasked;
 
-    private ScheduledExecutorService adaptiveFlowStatsScheduler =
-            Executors.newScheduledThreadPool(4, groupedThreads("onos/flow", "device-stats-collector-%d", log));
+    private final ScheduledExecutorService adaptiveFlowStatsScheduler;
     private ScheduledFuture<?> calAndShortFlowsThread;
     private ScheduledFuture<?> midFlowsThread;
     private ScheduledFuture<?> longFlowsThread;
@@ -120,16 +138,25 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
     public static final long NO_FLOW_MISSING_XID = (-1);
     private long flowMissingXid = NO_FLOW_MISSING_XID;
 
+    // Regions whose aggregate statistics were requested, by request xid
+    private final Map<Long, StatsRegion> pendingAggregates = Maps.newConcurrentMap();
+    // Last aggregate packets, bytes and flow count of each region of long flows
+    private final Map<StatsRegion, long[]> regionStats = Maps.newConcurrentMap();
+
     /**
      * Creates a new adaptive collector for the given switch and default cal_and_poll frequency.
      *
      * @param driverService driver service reference
+     * @param scheduler     scheduler shared by the collectors of all switches
      * @param sw            switch to pull
      * @param pollInterval  cal and immediate poll frequency in seconds
      */
-    NewAdaptiveFlowStatsCollector(DriverService driverService, OpenFlowSwitch sw, int pollInterval) {
+    NewAdaptiveFlowStatsCollector(DriverService driverService, ScheduledExecutorService scheduler,
+                                  OpenFlowSwitch sw, int pollInterval) {
         this.driverService = driverService;
-        this.sw = sw;
+        this.adaptiveFlowStatsScheduler = checkNotNull(scheduler, "Null scheduler");
+        this.sw = checkNotNull(sw, "Null switch");
+        this.cookieMasked = sw.factory().getVersion() != OFVersion.OF_10;
         initMemberVars(pollInterval);
     }
 
@@ -173,28 +200,37 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
             longFlowsThread.cancel(false);
         }
 
+        scheduleTasks(0);
+
+        log.debug("calAndPollInterval={} is adjusted", calAndPollInterval);
+    }
+
+    // Schedules the polling tasks, offset by a per switch delay so that the
+    // switches are not all polled at once.
+    private void scheduleTasks(long initialDelayMillis) {
+        long delay = initialDelayMillis +
+                SwitchDataCollector.staggerMillis(sw, TimeUnit.SECONDS.toMillis(calAndPollInterval));
+
         calAndShortFlowsTask = new CalAndShortFlowsTask();
         calAndShortFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                 calAndShortFlowsTask,
-                0,
-                calAndPollInterval,
-                TimeUnit.SECONDS);
+                delay,
+                TimeUnit.SECONDS.toMillis(calAndPollInterval),
+                TimeUnit.MILLISECONDS);
 
         midFlowsTask = new MidFlowsTask();
         midFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                 midFlowsTask,
-                0,
-                midPollInterval,
-                TimeUnit.SECONDS);
+                delay,
+                TimeUnit.SECONDS.toMillis(midPollInterval),
+                TimeUnit.MILLISECONDS);
 
         longFlowsTask = new LongFlowsTask();
         longFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                 longFlowsTask,
-                0,
-                longPollInterval,
-                TimeUnit.SECONDS);
-
-        log.debug("calAndPollInterval={} is adjusted", calAndPollInterval);
+                delay,
+                TimeUnit.SECONDS.toMillis(longPollInterval),
+                TimeUnit.MILLISECONDS);
     }
 
     private class CalAndShortFlowsTask implements Runnable {
@@ -271,9 +307,27 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
                 .setOutPort(ofPort)
                 .build();
 
+        ofFlowStatsRequestSend(request);
+    }
+
+    // send openflow flow stats request message with getting the flow entries of a region to a given switch sw
+    private void ofFlowStatsRequestRegionSend(StatsRegion region) {
+        OFFlowStatsRequest.Builder builder = sw.factory().buildFlowStatsRequest()
+                .setMatch(sw.factory().matchWildcardAll())
+                .setTableId(TableId.of(region.tableId))
+                .setOutPort(OFPort.NO_MASK);
+        if (cookieMasked) {
+            builder.setCookie(U64.of(region.cookie))
+                    .setCookieMask(U64.of(APP_COOKIE_MASK));
+        }
+
+        ofFlowStatsRequestSend(builder.build());
+    }
+
+    private void ofFlowStatsRequestSend(OFStatsRequest<?> request) {
         synchronized (this) {
             if (getFlowMissingXid() != NO_FLOW_MISSING_XID) {
-                log.debug("ofFlowStatsRequestFlowSend: previous FlowStatsRequestAll does not be processed yet,"
+                log.debug("ofFlowStatsRequestSend: previous FlowStatsRequestAll does not be processed yet,"
                                 + " set no flow missing xid anyway, for {}",
                         sw.getStringId());
                 setFlowMissingXid(NO_FLOW_MISSING_XID);
@@ -283,12 +337,44 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
         }
     }
 
+    // send openflow aggregate stats request message for the flow entries of a region to a given switch sw
+    private void ofAggregateStatsRequestRegionSend(StatsRegion region) {
+        OFAggregateStatsRequest.Builder builder = sw.factory().buildAggregateStatsRequest()
+                .setMatch(sw.factory().matchWildcardAll())
+                .setTableId(TableId.of(region.tableId))
+                .setOutPort(OFPort.NO_MASK);
+        if (cookieMasked) {
+            builder.setCookie(U64.of(region.cookie))
+                    .setCookieMask(U64.of(APP_COOKIE_MASK));
+        }
+        OFAggregateStatsRequest request = builder.build();
+
+        pendingAggregates.put(request.getXid(), region);
+        sw.sendMsg(request);
+    }
+
+    private StatsRegion regionOf(FlowRule rule) {
+        return new StatsRegion(rule.tableId(), cookieMasked ? rule.id().value() & APP_COOKIE_MASK : 0);
+    }
+
+    // polls the given flows, region by region
+    private void ofFlowStatsRequestFlowsSend(Set<StoredFlowEntry> flows) {
+        Map<StatsRegion, List<StoredFlowEntry>> regions = flows.stream()
+                .collect(Collectors.groupingBy(this::regionOf));
+
+        regions.forEach((region, regionFlows) -> {
+            if (regionFlows.size() > MAX_FLOW_REQUESTS_PER_REGION) {
+                ofFlowStatsRequestRegionSend(region);
+            } else {
+                regionFlows.forEach(this::ofFlowStatsRequestFlowSend);
+            }
+        });
+    }
+
     private void calAndShortFlowsTaskInternal() {
         deviceFlowTable.checkAndMoveLiveFlowAll();
 
-        deviceFlowTable.getShortFlows().forEach(fe -> {
-            ofFlowStatsRequestFlowSend(fe);
-        });
+        ofFlowStatsRequestFlowsSend(deviceFlowTable.getShortFlows());
     }
 
     private class MidFlowsTask implements Runnable {
@@ -309,9 +395,7 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
     }
 
     private void midFlowsTaskInternal() {
-        deviceFlowTable.getMidFlows().forEach(fe -> {
-            ofFlowStatsRequestFlowSend(fe);
-        });
+        ofFlowStatsRequestFlowsSend(deviceFlowTable.getMidFlows());
     }
 
     private class LongFlowsTask implements Runnable {
@@ -332,9 +416,34 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
     }
 
     private void longFlowsTaskInternal() {
-        deviceFlowTable.getLongFlows().forEach(fe -> {
-            ofFlowStatsRequestFlowSend(fe);
-        });
+        // replies to the previous round which are yet to come are dropped
+        pendingAggregates.clear();
+
+        Set<StatsRegion> regions = deviceFlowTable.getLongFlows().stream()
+                .map(this::regionOf)
+                .collect(Collectors.toSet());
+        // forget the regions which no longer hold long flows
+        regionStats.keySet().retainAll(regions);
+        regions.forEach(this::ofAggregateStatsRequestRegionSend);
+    }
+
+    /**
+     * Handles the aggregate statistics of a region of long flows, collecting
+     * the stats of the flows of the region only if these have changed.
+     *
+     * @param reply aggregate stats reply
+     */
+    public void aggregateStatsReceived(OFAggregateStatsReply reply) {
+        StatsRegion region = pendingAggregates.remove(reply.getXid());
+        if (region == null) {
+            return;
+        }
+
+        long[] stats = {reply.getPacketCount().getValue(), reply.getByteCount().getValue(),
+                reply.getFlowCount()};
+        if (!Arrays.equals(stats, regionStats.put(region, stats))) {
+            ofFlowStatsRequestRegionSend(region);
+        }
     }
 
     /**
@@ -349,26 +458,7 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
         isFirstTimeStart = true;
 
         // Initially start polling quickly. Then drop down to configured value
-        calAndShortFlowsTask = new CalAndShortFlowsTask();
-        calAndShortFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
-                calAndShortFlowsTask,
-                1,
-                calAndPollInterval,
-                TimeUnit.SECONDS);
-
-        midFlowsTask = new MidFlowsTask();
-        midFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
-                midFlowsTask,
-                1,
-                midPollInterval,
-                TimeUnit.SECONDS);
-
-        longFlowsTask = new LongFlowsTask();
-        longFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
-                longFlowsTask,
-                1,
-                longPollInterval,
-                TimeUnit.SECONDS);
+        scheduleTasks(TimeUnit.SECONDS.toMillis(1));
 
         log.info("Started");
     }
@@ -388,7 +478,8 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
             longFlowsThread.cancel(true);
         }
 
-        adaptiveFlowStatsScheduler.shutdownNow();
+        pendingAggregates.clear();
+        regionStats.clear();
 
         isFirstTimeStart = false;
 
@@ -523,9 +614,10 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
         private final Map<FlowId, Set<TypedStoredFlowEntry>>
                 flowEntries = Maps.newConcurrentMap();
 
-        private final Set<StoredFlowEntry> shortFlows = new HashSet<>();
-        private final Set<StoredFlowEntry> midFlows = new HashSet<>();
-        private final Set<StoredFlowEntry> longFlows = new HashSet<>();
+        // concurrent sets, so that the polling tasks read them without locking the table
+        private final Set<StoredFlowEntry> shortFlows = Sets.newConcurrentHashSet();
+        private final Set<StoredFlowEntry> midFlows = Sets.newConcurrentHashSet();
+        private final Set<StoredFlowEntry> longFlows = Sets.newConcurrentHashSet();
 
         // Assumed latency adjustment(default=500 millisecond) between FlowStatsRequest and Reply
         private final long latencyFlowStatsRequestAndReplyMillis = 500;
@@ -853,4 +945,32 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
             }
         }
     }
+
+    // Flows of a table whose cookies share the given application identifier bits
+    private static final class StatsRegion {
+        private final int tableId;
+        private final long cookie;
+
+        private StatsRegion(int tableId, long cookie) {
+            this.tableId = tableId;
+            this.cookie = cookie;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(tableId, cookie);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof StatsRegion)) {
+                return false;
+            }
+            StatsRegion that = (StatsRegion) obj;
+            return tableId == that.tableId && cookie == that.cookie;
+        }
+    }
 }
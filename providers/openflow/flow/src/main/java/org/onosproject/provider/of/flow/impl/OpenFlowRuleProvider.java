@@ -15,6 +15,7 @@
  */
 package org.onosproject.provider.of.flow.impl;
 
+import com.codahale.metrics.Meter;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalCause;
@@ -31,6 +32,9 @@ import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
@@ -58,6 +62,7 @@ import org.onosproject.openflow.controller.RoleState;
 import org.onosproject.openflow.controller.ThirdPartyMessage;
 import org.onosproject.provider.of.flow.util.FlowEntryBuilder;
 import org.osgi.service.component.ComponentContext;
+import org.projectfloodlight.openflow.protocol.OFAggregateStatsReply;
 import org.projectfloodlight.openflow.protocol.OFBadRequestCode;
 import org.projectfloodlight.openflow.protocol.OFBarrierRequest;
 import org.projectfloodlight.openflow.protocol.OFErrorMsg;
@@ -83,12 +88,15 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Timer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -113,6 +121,13 @@ public class OpenFlowRuleProvider extends AbstractProvider
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DriverService driverService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private static final String METRICS_COMPONENT = "OpenFlowFlowStats";
+    private static final String POLLED_MESSAGES = "polledMessages";
+    private static final String POLLED_ENTRIES = "polledEntries";
+
     private static final int DEFAULT_POLL_FREQUENCY = 5;
     @Property(name = "flowPollFrequency", intValue = DEFAULT_POLL_FREQUENCY,
             label = "Frequency (in seconds) for polling flow statistics")
@@ -135,6 +150,11 @@ public class OpenFlowRuleProvider extends AbstractProvider
     // NewAdaptiveFlowStatsCollector Set
     private final Map<Dpid, NewAdaptiveFlowStatsCollector> afsCollectors = Maps.newConcurrentMap();
     private final Map<Dpid, TableStatisticsCollector> tableStatsCollectors = Maps.newConcurrentMap();
+    // Scheduler shared by the NewAdaptiveFlowStatsCollectors of all switches
+    private ScheduledExecutorService adaptiveFlowStatsScheduler;
+
+    // Flow stats messages and entries received from each switch
+    private final Map<Dpid, PollingCost> pollingCosts = Maps.newConcurrentMap();
 
     /**
      * Creates an OpenFlow host provider.
@@ -146,6 +166,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
     @Activate
     protected void activate(ComponentContext context) {
         cfgService.registerProperties(getClass());
+        adaptiveFlowStatsScheduler = Executors.newScheduledThreadPool(
+                4, groupedThreads("onos/flow", "device-stats-collector-%d", log));
         providerService = providerRegistry.register(this);
         controller.addListener(listener);
         controller.addEventListener(listener);
@@ -164,6 +186,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
     protected void deactivate(ComponentContext context) {
         cfgService.unregisterProperties(getClass(), false);
         stopCollectors();
+        adaptiveFlowStatsScheduler.shutdownNow();
+        pollingCosts.keySet().forEach(this::unregisterPollingCost);
         providerRegistry.unregister(this);
         providerService = null;
 
@@ -224,7 +248,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
         if (adaptiveFlowSampling) {
             // NewAdaptiveFlowStatsCollector Constructor
             NewAdaptiveFlowStatsCollector fsc =
-                    new NewAdaptiveFlowStatsCollector(driverService, sw, flowPollFrequency);
+                    new NewAdaptiveFlowStatsCollector(driverService, adaptiveFlowStatsScheduler,
+                                                      sw, flowPollFrequency);
             fsc.start();
             stopCollectorIfNeeded(afsCollectors.put(new Dpid(sw.getId()), fsc));
         } else {
@@ -235,6 +260,34 @@ public class OpenFlowRuleProvider extends AbstractProvider
         TableStatisticsCollector tsc = new TableStatisticsCollector(timer, sw, flowPollFrequency);
         tsc.start();
         stopCollectorIfNeeded(tableStatsCollectors.put(new Dpid(sw.getId()), tsc));
+        registerPollingCost(new Dpid(sw.getId()));
+    }
+
+    private void registerPollingCost(Dpid dpid) {
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(dpid.toString());
+            pollingCosts.put(dpid, new PollingCost(
+                    metricsService.createMeter(component, feature, POLLED_MESSAGES),
+                    metricsService.createMeter(component, feature, POLLED_ENTRIES)));
+        }
+    }
+
+    private void unregisterPollingCost(Dpid dpid) {
+        if (metricsService != null && pollingCosts.remove(dpid) != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(dpid.toString());
+            metricsService.removeMetric(component, feature, POLLED_MESSAGES);
+            metricsService.removeMetric(component, feature, POLLED_ENTRIES);
+        }
+    }
+
+    private void markPollingCost(Dpid dpid, int entries) {
+        PollingCost cost = pollingCosts.get(dpid);
+        if (cost != null) {
+            cost.messages.mark();
+            cost.entries.mark(entries);
+        }
     }
 
     private void stopCollectorIfNeeded(SwitchDataCollector collector) {
@@ -425,6 +478,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 stopCollectorIfNeeded(simpleCollectors.remove(dpid));
             }
             stopCollectorIfNeeded(tableStatsCollectors.remove(dpid));
+            unregisterPollingCost(dpid);
         }
 
         @Override
@@ -461,6 +515,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 case STATS_REPLY:
                     if (((OFStatsReply) msg).getStatsType() == OFStatsType.FLOW) {
                         pushFlowMetrics(dpid, (OFFlowStatsReply) msg);
+                    } else if (((OFStatsReply) msg).getStatsType() == OFStatsType.AGGREGATE) {
+                        pushAggregateStatistics(dpid, (OFAggregateStatsReply) msg);
                     } else if (((OFStatsReply) msg).getStatsType() == OFStatsType.TABLE) {
                         pushTableStatistics(dpid, (OFTableStatsReply) msg);
                     }
@@ -523,6 +579,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
         private void pushFlowMetrics(Dpid dpid, OFFlowStatsReply replies) {
 
             DeviceId did = DeviceId.deviceId(Dpid.uri(dpid));
+            markPollingCost(dpid, replies.getEntries().size());
 
             List<FlowEntry> flowEntries = replies.getEntries().stream()
                     .map(entry -> new FlowEntryBuilder(did, entry, driverService).build())
@@ -562,6 +619,17 @@ public class OpenFlowRuleProvider extends AbstractProvider
             }
         }
 
+        private void pushAggregateStatistics(Dpid dpid, OFAggregateStatsReply reply) {
+            markPollingCost(dpid, 0);
+
+            if (adaptiveFlowSampling) {
+                NewAdaptiveFlowStatsCollector afsc = afsCollectors.get(dpid);
+                if (afsc != null) {
+                    afsc.aggregateStatsReceived(reply);
+                }
+            }
+        }
+
         private void pushTableStatistics(Dpid dpid, OFTableStatsReply replies) {
 
             DeviceId did = DeviceId.deviceId(Dpid.uri(dpid));
@@ -588,6 +656,17 @@ public class OpenFlowRuleProvider extends AbstractProvider
         }
     }
 
+    // Meters of the flow stats messages and entries received from a switch
+    private static final class PollingCost {
+        private final Meter messages;
+        private final Meter entries;
+
+        private PollingCost(Meter messages, Meter entries) {
+            this.messages = messages;
+            this.entries = entries;
+        }
+    }
+
     /**
      * The internal cache entry holding the original request as well as
      * accumulating the any failures along the way.
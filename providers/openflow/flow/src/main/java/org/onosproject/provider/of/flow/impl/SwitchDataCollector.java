@@ -16,6 +16,8 @@
 
 package org.onosproject.provider.of.flow.impl;
 
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+
 /**
  * Auxiliary abstraction.
  */
@@ -30,4 +32,17 @@ interface SwitchDataCollector {
      * Stops the collector.
      */
     void stop();
+
+    /**
+     * Returns the delay by which polling the given switch is offset within a
+     * poll period, spreading the polls of all switches over the period.
+     *
+     * @param sw           switch to poll
+     * @param periodMillis poll period in milliseconds
+     * @return delay in milliseconds
+     */
+    static long staggerMillis(OpenFlowSwitch sw, long periodMillis) {
+        // scatter sequential datapath identifiers over the period
+        return periodMillis <= 0 ? 0 : Math.floorMod(sw.getId() * 0x9e3779b97f4a7c15L, periodMillis);
+    }
 }
\ No newline at end of file
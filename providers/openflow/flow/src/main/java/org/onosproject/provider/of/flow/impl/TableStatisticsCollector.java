@@ -63,7 +63,8 @@ class TableStatisticsCollector implements SwitchDataCollector {
         this.pollInterval = pollInterval;
         task.cancel();
         task = new InternalTimerTask();
-        timer.scheduleAtFixedRate(task, pollInterval * SECONDS, pollInterval * 1000);
+        timer.scheduleAtFixedRate(task, pollInterval * SECONDS + staggerMillis(),
+                                  pollInterval * SECONDS);
     }
 
     private class InternalTimerTask extends TimerTask {
@@ -78,11 +79,16 @@ class TableStatisticsCollector implements SwitchDataCollector {
         }
     }
 
+    // offsets the polls of this switch from the ones of the other switches
+    private long staggerMillis() {
+        return SwitchDataCollector.staggerMillis(sw, pollInterval * SECONDS);
+    }
+
     public synchronized void start() {
         // Initially start polling quickly. Then drop down to configured value
         log.debug("Starting Table Stats collection thread for {}", sw.getStringId());
         task = new InternalTimerTask();
-        SharedExecutors.getTimer().scheduleAtFixedRate(task, 1 * SECONDS,
+        SharedExecutors.getTimer().scheduleAtFixedRate(task, 1 * SECONDS + staggerMillis(),
                                                        pollInterval * SECONDS);
     }
 
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.driver.DriverServiceAdapter;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.onosproject.openflow.controller.RoleState;
+import org.projectfloodlight.openflow.protocol.OFAggregateStatsReply;
+import org.projectfloodlight.openflow.protocol.OFAggregateStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFPortDesc;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.U64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the region based polling of the adaptive flow stats collector.
+ */
+public class NewAdaptiveFlowStatsCollectorTest {
+
+    private static final int POLL_INTERVAL = 5;
+    // long flows are those living for three poll intervals
+    private static final long LONG_LIFE = 3 * POLL_INTERVAL;
+
+    private static final long APP_A = 0x0001000000000000L;
+    private static final long APP_B = 0x0002000000000000L;
+
+    private final TestOpenFlowSwitch sw = new TestOpenFlowSwitch();
+    private final ManualScheduledExecutor scheduler = new ManualScheduledExecutor();
+    private NewAdaptiveFlowStatsCollector collector;
+
+    @Before
+    public void setUp() {
+        collector = new NewAdaptiveFlowStatsCollector(new DriverServiceAdapter(), scheduler,
+                                                      sw, POLL_INTERVAL);
+        collector.start();
+    }
+
+    @After
+    public void tearDown() {
+        collector.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void pollRegionsOfLongFlows() {
+        for (int i = 1; i <= 10; i++) {
+            collector.addOrUpdateFlows(flow(APP_A | i));
+        }
+        collector.addOrUpdateFlows(flow(APP_B | 1));
+
+        pollLongFlows();
+        List<OFAggregateStatsRequest> aggregates = sent(OFAggregateStatsRequest.class);
+        assertEquals("one aggregate request per region", 2, aggregates.size());
+
+        OFAggregateStatsRequest regionA = aggregates.stream()
+                .filter(r -> r.getCookie().equals(U64.of(APP_A)))
+                .findAny().get();
+        collector.aggregateStatsReceived(reply(regionA, 10));
+        List<OFFlowStatsRequest> flowRequests = sent(OFFlowStatsRequest.class);
+        assertEquals("region with new stats should be polled", 1, flowRequests.size());
+        assertEquals(U64.of(APP_A), flowRequests.get(0).getCookie());
+
+        // the region is polled again only once its aggregate stats change
+        pollLongFlows();
+        collector.aggregateStatsReceived(reply(request(APP_A), 10));
+        assertTrue("unchanged region should not be polled", sent(OFFlowStatsRequest.class).isEmpty());
+
+        pollLongFlows();
+        collector.aggregateStatsReceived(reply(request(APP_A), 20));
+        assertEquals("changed region should be polled", 1, sent(OFFlowStatsRequest.class).size());
+    }
+
+    @Test
+    public void forgetEmptiedRegions() {
+        FlowEntry flow = flow(APP_B | 1);
+        collector.addOrUpdateFlows(flow);
+        pollLongFlows();
+        collector.aggregateStatsReceived(reply(request(APP_B), 10));
+        assertEquals(1, sent(OFFlowStatsRequest.class).size());
+
+        // the emptied region is dropped at the next poll
+        collector.removeFlows(flow);
+        pollLongFlows();
+        assertTrue("emptied region should not be polled", sent(OFAggregateStatsRequest.class).isEmpty());
+
+        // so that stats reported for it afterwards are new again
+        collector.addOrUpdateFlows(flow(APP_B | 1));
+        pollLongFlows();
+        collector.aggregateStatsReceived(reply(request(APP_B), 10));
+        assertEquals("refilled region should be polled", 1, sent(OFFlowStatsRequest.class).size());
+    }
+
+    private FlowEntry flow(long cookie) {
+        return new DefaultFlowEntry(
+                DefaultFlowRule.builder()
+                        .forDevice(DeviceId.deviceId("of:0000000000000001"))
+                        .withSelector(DefaultTrafficSelector.builder()
+                                              .matchInPort(PortNumber.portNumber(cookie & 0xff))
+                                              .matchMetadata(cookie >>> 48)
+                                              .build())
+                        .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                        .withPriority(10)
+                        .withCookie(cookie)
+                        .makePermanent()
+                        .build(),
+                FlowEntry.FlowEntryState.ADDED, LONG_LIFE, 0, 0);
+    }
+
+    // runs the long flows task, discarding the messages sent so far; the
+    // task skips the runs which coincide with the poll of the entire flows
+    private void pollLongFlows() {
+        sw.sent.clear();
+        for (int i = 0; i < 2 && sw.sent.isEmpty(); i++) {
+            scheduler.longFlowsTask().run();
+        }
+    }
+
+    private OFAggregateStatsRequest request(long cookie) {
+        return sent(OFAggregateStatsRequest.class).stream()
+                .filter(r -> r.getCookie().equals(U64.of(cookie)))
+                .findAny().get();
+    }
+
+    private OFAggregateStatsReply reply(OFAggregateStatsRequest request, long packets) {
+        return sw.factory().buildAggregateStatsReply()
+                .setXid(request.getXid())
+                .setPacketCount(U64.of(packets))
+                .setByteCount(U64.of(packets * 100))
+                .setFlowCount(1)
+                .build();
+    }
+
+    private <T extends OFMessage> List<T> sent(Class<T> type) {
+        return sw.sent.stream()
+                .filter(type::isInstance)
+                .map(type::cast)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Scheduled executor which leaves it to the test to run the polling
+     * tasks.
+     */
+    private static final class ManualScheduledExecutor extends ScheduledThreadPoolExecutor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        private ManualScheduledExecutor() {
+            super(1);
+        }
+
+        // the collector schedules its short, mid and long flows tasks in turn
+        private Runnable longFlowsTask() {
+            return tasks.get(2);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+                                                         long delay, TimeUnit unit) {
+            tasks.add(command);
+            return schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+    }
+
+    private static final class TestOpenFlowSwitch implements OpenFlowSwitch {
+
+        private final List<OFMessage> sent = new ArrayList<>();
+
+        @Override
+        public void sendMsg(OFMessage msg) {
+            sent.add(msg);
+        }
+
+        @Override
+        public void sendMsg(List<OFMessage> msgs) {
+            sent.addAll(msgs);
+        }
+
+        @Override
+        public void handleMessage(OFMessage fromSwitch) {
+        }
+
+        @Override
+        public void setRole(RoleState role) {
+        }
+
+        @Override
+        public RoleState getRole() {
+            return RoleState.MASTER;
+        }
+
+        @Override
+        public List<OFPortDesc> getPorts() {
+            return null;
+        }
+
+        @Override
+        public OFFactory factory() {
+            return OFFactories.getFactory(OFVersion.OF_13);
+        }
+
+        @Override
+        public String getStringId() {
+            return "of:0000000000000001";
+        }
+
+        @Override
+        public long getId() {
+            return 1;
+        }
+
+        @Override
+        public String manufacturerDescription() {
+            return null;
+        }
+
+        @Override
+        public String datapathDescription() {
+            return null;
+        }
+
+        @Override
+        public String hardwareDescription() {
+            return null;
+        }
+
+        @Override
+        public String softwareDescription() {
+            return null;
+        }
+
+        @Override
+        public String serialNumber() {
+            return null;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void disconnectSwitch() {
+        }
+
+        @Override
+        public void returnRoleReply(RoleState requested, RoleState response) {
+        }
+
+        @Override
+        public Device.Type deviceType() {
+            return Device.Type.SWITCH;
+        }
+
+        @Override
+        public String channelId() {
+            return null;
+        }
+    }
+}
@@ -220,33 +220,58 @@ public abstract class AbstractGraphPathSearch<V extends Vertex, E extends Edge<V
             for (V v : destinations) {
                 // Ignore the source, if it is among the destinations.
                 if (!v.equals(src)) {
-                    buildAllPaths(this, src, v, maxPaths);
+                    buildAllPaths(parents, costs, paths, src, v, maxPaths);
                 }
             }
         }
 
     }
 
+    /**
+     * Builds the set of paths to the specified destination from the costs and
+     * parent edges of a previously completed search from a single source to
+     * all destinations. This allows one search to answer queries for many
+     * destinations.
+     *
+     * @param result   search result for all destinations
+     * @param dst      destination vertex
+     * @param maxPaths limit on the number of paths built;
+     *                 {@link GraphPathSearch#ALL_PATHS} if no limit
+     * @return set of paths from the result source to the destination
+     */
+    public Set<Path<V, E>> buildPaths(Result<V, E> result, V dst, int maxPaths) {
+        Set<Path<V, E>> paths = new HashSet<>();
+        if (!dst.equals(result.src()) && result.costs().containsKey(dst)) {
+            buildAllPaths(result.parents(), result.costs(), paths,
+                          result.src(), dst, maxPaths);
+        }
+        return paths;
+    }
+
     /**
      * Builds a set of all paths between the source and destination using the
      * graph search result by applying breadth-first search through the parent
      * edges and vertex costs.
      *
-     * @param result   graph search result
+     * @param parents  parent edges of the vertexes
+     * @param costs    costs to reach the vertexes
+     * @param paths    set to which the built paths are added
      * @param src      source vertex
      * @param dst      destination vertex
      * @param maxPaths limit on the number of paths built;
      *                 {@link GraphPathSearch#ALL_PATHS} if no limit
      */
-    private void buildAllPaths(DefaultResult result, V src, V dst, int maxPaths) {
+    private void buildAllPaths(Map<V, Set<E>> parents, Map<V, Double> costs,
+                               Set<Path<V, E>> paths, V src, V dst, int maxPaths) {
+        double cost = costs.getOrDefault(dst, Double.MAX_VALUE);
         DefaultMutablePath<V, E> basePath = new DefaultMutablePath<>();
-        basePath.setCost(result.cost(dst));
+        basePath.setCost(cost);
 
         Set<DefaultMutablePath<V, E>> pendingPaths = new HashSet<>();
         pendingPaths.add(basePath);
 
         while (!pendingPaths.isEmpty() &&
-                (maxPaths == ALL_PATHS || result.paths.size() < maxPaths)) {
+                (maxPaths == ALL_PATHS || paths.size() < maxPaths)) {
             Set<DefaultMutablePath<V, E>> frontier = new HashSet<>();
 
             for (DefaultMutablePath<V, E> path : pendingPaths) {
@@ -257,15 +282,15 @@ public abstract class AbstractGraphPathSearch<V extends Vertex, E extends Edge<V
                 // If the first vertex is our expected source, we have reached
                 // the beginning, so add the this path to the result paths.
                 if (firstVertex.equals(src)) {
-                    path.setCost(result.cost(dst));
-                    result.paths.add(new DefaultPath<>(path.edges(), path.cost()));
+                    path.setCost(cost);
+                    paths.add(new DefaultPath<>(path.edges(), path.cost()));
 
                 } else {
                     // If we have not reached the beginning, i.e. the source,
                     // fetch the set of edges leading to the first vertex of
                     // this pending path; if there are none, abandon processing
                     // this path for good.
-                    Set<E> firstVertexParents = result.parents.get(firstVertex);
+                    Set<E> firstVertexParents = parents.get(firstVertex);
                     if (firstVertexParents == null || firstVertexParents.isEmpty()) {
                         break;
                     }
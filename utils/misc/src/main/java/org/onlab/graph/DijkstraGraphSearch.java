@@ -31,6 +31,37 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
                                EdgeWeight<V, E> weight, int maxPaths) {
         checkArguments(graph, src, dst);
 
+        // Now construct a set of paths from the results.
+        DefaultResult result = explore(graph, src, dst, weight, maxPaths);
+        result.buildPaths();
+        return result;
+    }
+
+    /**
+     * Searches the specified graph for the shortest paths from the source to
+     * all reachable vertexes, without building the paths themselves. The
+     * returned result carries only the costs and parent edges; paths to any
+     * particular destination can be then produced from it using
+     * {@link #buildPaths(Result, Vertex, int)}.
+     *
+     * @param graph    graph to be searched
+     * @param src      source vertex
+     * @param weight   optional edge-weight; if null cost of each edge will be
+     *                 assumed to be 1.0
+     * @param maxPaths limit on number of parent edges retained per vertex;
+     *                 {@link GraphPathSearch#ALL_PATHS} if no limit
+     * @return search results with no paths
+     */
+    public Result<V, E> searchTree(Graph<V, E> graph, V src,
+                                   EdgeWeight<V, E> weight, int maxPaths) {
+        checkArguments(graph, src, null);
+        return explore(graph, src, null, weight, maxPaths);
+    }
+
+    // Computes the costs and parent edges of the vertexes reached from the
+    // source, stopping at the destination if one is given.
+    private DefaultResult explore(Graph<V, E> graph, V src, V dst,
+                                  EdgeWeight<V, E> weight, int maxPaths) {
         // Use the default result to remember cumulative costs and parent
         // edges to each each respective vertex.
         DefaultResult result = new DefaultResult(src, dst, maxPaths);
@@ -39,7 +70,6 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         result.updateVertex(src, null, 0.0, false);
 
         if (graph.getEdges().isEmpty()) {
-            result.buildPaths();
             return result;
         }
 
@@ -67,9 +97,6 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
             // Re-prioritize the min queue.
             minQueue.heapify();
         }
-
-        // Now construct a set of paths from the results.
-        result.buildPaths();
         return result;
     }
 
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.onlab.packet.PacketUtils.checkHeaderLength;
+
+/**
+ * Read-only view of an Ethernet frame held in a byte buffer.
+ * <p>
+ * Unlike {@link Ethernet#deserializer()}, creating a view neither copies
+ * the frame nor parses its payload; the header fields are decoded from the
+ * buffer when they are accessed. The view reads the buffer at absolute
+ * positions, leaving its position and limit untouched, and remains valid
+ * only as long as the content of the buffer is left unchanged.
+ * </p>
+ */
+public final class EthernetView {
+
+    private static final int DST_MAC_OFFSET = 0;
+    private static final int SRC_MAC_OFFSET = 6;
+    private static final int ETHER_TYPE_OFFSET = 12;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+    private final boolean tagged;
+
+    private EthernetView(ByteBuffer buffer, int offset, int length, boolean tagged) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.tagged = tagged;
+    }
+
+    /**
+     * Creates a view of the Ethernet frame held between the position and the
+     * limit of the given buffer.
+     *
+     * @param buffer buffer holding the frame
+     * @return Ethernet view
+     * @throws DeserializationException if the buffer is too short to hold
+     * an Ethernet header
+     */
+    public static EthernetView of(ByteBuffer buffer) throws DeserializationException {
+        checkNotNull(buffer);
+        int offset = buffer.position();
+        int length = buffer.remaining();
+        checkHeaderLength(length, Ethernet.ETHERNET_HEADER_LENGTH);
+
+        boolean tagged = buffer.getShort(offset + ETHER_TYPE_OFFSET) == Ethernet.TYPE_VLAN;
+        if (tagged) {
+            checkHeaderLength(length, Ethernet.ETHERNET_HEADER_LENGTH + Ethernet.VLAN_HEADER_LENGTH);
+        }
+        return new EthernetView(buffer, offset, length, tagged);
+    }
+
+    /**
+     * Returns the destination MAC address.
+     *
+     * @return destination MAC address
+     */
+    public MacAddress destinationMac() {
+        return MacAddress.valueOf(macAt(DST_MAC_OFFSET));
+    }
+
+    /**
+     * Returns the source MAC address.
+     *
+     * @return source MAC address
+     */
+    public MacAddress sourceMac() {
+        return MacAddress.valueOf(macAt(SRC_MAC_OFFSET));
+    }
+
+    private long macAt(int macOffset) {
+        int position = offset + macOffset;
+        return (buffer.getShort(position) & 0xffffL) << 32
+                | buffer.getInt(position + 2) & 0xffffffffL;
+    }
+
+    /**
+     * Returns the ether type of the payload, following the VLAN tag if any.
+     *
+     * @return ether type
+     */
+    public short etherType() {
+        return buffer.getShort(offset + ETHER_TYPE_OFFSET + (tagged ? Ethernet.VLAN_HEADER_LENGTH : 0));
+    }
+
+    /**
+     * Returns the VLAN identifier.
+     *
+     * @return VLAN identifier; {@link Ethernet#VLAN_UNTAGGED} if the frame
+     * is not tagged
+     */
+    public short vlanId() {
+        return tagged ? (short) (tci() & 0x0fff) : Ethernet.VLAN_UNTAGGED;
+    }
+
+    /**
+     * Returns the priority code point of the VLAN tag.
+     *
+     * @return priority code; 0 if the frame is not tagged
+     */
+    public byte priorityCode() {
+        return tagged ? (byte) (tci() >> 13 & 0x07) : 0;
+    }
+
+    private short tci() {
+        return buffer.getShort(offset + Ethernet.ETHERNET_HEADER_LENGTH);
+    }
+
+    /**
+     * Returns if the frame is destined to the broadcast address.
+     *
+     * @return true if broadcast, otherwise false
+     */
+    public boolean isBroadcast() {
+        return macAt(DST_MAC_OFFSET) == 0xffffffffffffL;
+    }
+
+    /**
+     * Returns if the frame is destined to a multicast address.
+     *
+     * @return true if multicast, otherwise false
+     */
+    public boolean isMulticast() {
+        return !isBroadcast() && (buffer.get(offset + DST_MAC_OFFSET) & 0x01) != 0;
+    }
+
+    private int headerLength() {
+        return Ethernet.ETHERNET_HEADER_LENGTH + (tagged ? Ethernet.VLAN_HEADER_LENGTH : 0);
+    }
+
+    /**
+     * Returns the payload of the frame, sharing the content of the
+     * underlying buffer.
+     *
+     * @return payload buffer positioned at the start of the payload
+     */
+    public ByteBuffer payload() {
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + length);
+        payload.position(offset + headerLength());
+        return payload.slice();
+    }
+
+    /**
+     * Returns a view of the IPv4 packet carried by the frame.
+     *
+     * @return IPv4 view; null if the frame does not carry IPv4
+     * @throws DeserializationException if the payload is too short to hold
+     * an IPv4 header
+     */
+    public Ipv4View ipv4() throws DeserializationException {
+        if (etherType() != Ethernet.TYPE_IPV4) {
+            return null;
+        }
+        return Ipv4View.of(buffer, offset + headerLength(), length - headerLength());
+    }
+
+    /**
+     * Parses the whole frame into an {@link Ethernet} packet, for the
+     * consumers needing more than the header fields.
+     *
+     * @return parsed Ethernet frame
+     * @throws DeserializationException if the frame cannot be parsed
+     */
+    public Ethernet parse() throws DeserializationException {
+        byte[] data = new byte[length];
+        ByteBuffer copy = buffer.duplicate();
+        copy.position(offset);
+        copy.get(data);
+        return Ethernet.deserializer().deserialize(data, 0, length);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("destinationMac", destinationMac())
+                .add("sourceMac", sourceMac())
+                .add("etherType", String.format("0x%04x", etherType()))
+                .add("vlanId", vlanId())
+                .toString();
+    }
+}
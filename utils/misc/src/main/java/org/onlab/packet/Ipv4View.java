@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static org.onlab.packet.PacketUtils.checkHeaderLength;
+
+/**
+ * Read-only view of an IPv4 packet held in a byte buffer.
+ * <p>
+ * The header fields are decoded from the buffer when they are accessed,
+ * without copying the packet. The ports of TCP and UDP segments are
+ * available as well, without parsing the transport header further.
+ * </p>
+ *
+ * @see EthernetView
+ */
+public final class Ipv4View {
+
+    private static final int MIN_HEADER_LENGTH = 20;
+    // source and destination ports lead both the TCP and UDP headers
+    private static final int PORTS_LENGTH = 4;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    private Ipv4View(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Creates a view of the IPv4 packet held in the given buffer.
+     *
+     * @param buffer buffer holding the packet
+     * @param offset absolute position of the packet in the buffer
+     * @param length length of the packet
+     * @return IPv4 view
+     * @throws DeserializationException if the packet is too short to hold
+     * its header
+     */
+    static Ipv4View of(ByteBuffer buffer, int offset, int length) throws DeserializationException {
+        checkHeaderLength(length, MIN_HEADER_LENGTH);
+        Ipv4View view = new Ipv4View(buffer, offset, length);
+        checkHeaderLength(length, view.headerLength());
+        return view;
+    }
+
+    /**
+     * Returns the IP version.
+     *
+     * @return version
+     */
+    public byte version() {
+        return (byte) (buffer.get(offset) >> 4 & 0xf);
+    }
+
+    /**
+     * Returns the length of the header in bytes, options included.
+     *
+     * @return header length in bytes
+     */
+    public int headerLength() {
+        return (buffer.get(offset) & 0xf) * 4;
+    }
+
+    /**
+     * Returns the differentiated services field.
+     *
+     * @return differentiated services
+     */
+    public byte diffServ() {
+        return buffer.get(offset + 1);
+    }
+
+    /**
+     * Returns the total length of the packet, as given by its header.
+     *
+     * @return total length in bytes
+     */
+    public int totalLength() {
+        return buffer.getShort(offset + 2) & 0xffff;
+    }
+
+    /**
+     * Returns the fragment offset.
+     *
+     * @return fragment offset, in units of 8 bytes
+     */
+    public short fragmentOffset() {
+        return (short) (buffer.getShort(offset + 6) & 0x1fff);
+    }
+
+    /**
+     * Returns the time to live.
+     *
+     * @return time to live
+     */
+    public byte ttl() {
+        return buffer.get(offset + 8);
+    }
+
+    /**
+     * Returns the protocol of the payload.
+     *
+     * @return protocol
+     */
+    public byte protocol() {
+        return buffer.get(offset + 9);
+    }
+
+    /**
+     * Returns the source address.
+     *
+     * @return source address
+     */
+    public Ip4Address sourceAddress() {
+        return Ip4Address.valueOf(buffer.getInt(offset + 12));
+    }
+
+    /**
+     * Returns the destination address.
+     *
+     * @return destination address
+     */
+    public Ip4Address destinationAddress() {
+        return Ip4Address.valueOf(buffer.getInt(offset + 16));
+    }
+
+    /**
+     * Returns the source port of the TCP or UDP segment carried by the packet.
+     *
+     * @return source port; null if the packet does not carry the start of a
+     * TCP or UDP segment
+     */
+    public TpPort sourcePort() {
+        return hasPorts() ? TpPort.tpPort(buffer.getShort(offset + headerLength()) & 0xffff) : null;
+    }
+
+    /**
+     * Returns the destination port of the TCP or UDP segment carried by the
+     * packet.
+     *
+     * @return destination port; null if the packet does not carry the start
+     * of a TCP or UDP segment
+     */
+    public TpPort destinationPort() {
+        return hasPorts() ? TpPort.tpPort(buffer.getShort(offset + headerLength() + 2) & 0xffff) : null;
+    }
+
+    private boolean hasPorts() {
+        byte protocol = protocol();
+        return (protocol == IPv4.PROTOCOL_TCP || protocol == IPv4.PROTOCOL_UDP)
+                && fragmentOffset() == 0
+                && length >= headerLength() + PORTS_LENGTH;
+    }
+
+    /**
+     * Returns the payload of the packet, sharing the content of the
+     * underlying buffer.
+     *
+     * @return payload buffer positioned at the start of the payload
+     */
+    public ByteBuffer payload() {
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + length);
+        payload.position(offset + headerLength());
+        return payload.slice();
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("sourceAddress", sourceAddress())
+                .add("destinationAddress", destinationAddress())
+                .add("protocol", protocol())
+                .add("ttl", ttl())
+                .toString();
+    }
+}
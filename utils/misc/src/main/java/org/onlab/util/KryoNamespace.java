@@ -21,6 +21,7 @@ import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.ByteBufferInput;
 import com.esotericsoftware.kryo.io.ByteBufferOutput;
 import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.pool.KryoCallback;
 import com.esotericsoftware.kryo.pool.KryoFactory;
 import com.esotericsoftware.kryo.pool.KryoPool;
@@ -54,6 +55,15 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     public static final int DEFAULT_BUFFER_SIZE = 4096;
     public static final int MAX_BUFFER_SIZE = 100 * 1000 * 1000;
 
+    /**
+     * Largest serialization buffer retained for reuse by a thread.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+    // Serialization buffer kept by each thread between calls to serialize;
+    // taken out while in use so that nested calls get a buffer of their own.
+    private static final ThreadLocal<Output> OUTPUTS = new ThreadLocal<>();
+
     /**
      * ID to use if this KryoNamespace does not define registration id.
      */
@@ -272,7 +282,7 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @return serialized bytes
      */
     public byte[] serialize(final Object obj, final int bufferSize) {
-        ByteBufferOutput out = new ByteBufferOutput(bufferSize, MAX_BUFFER_SIZE);
+        Output out = borrowOutput(bufferSize);
         try {
             Kryo kryo = borrow();
             try {
@@ -283,7 +293,28 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
                 release(kryo);
             }
         } finally {
-            out.release();
+            releaseOutput(out);
+        }
+    }
+
+    // Reuses the calling thread's serialization buffer, if it has one
+    // available, instead of allocating a new one for every call.
+    private static Output borrowOutput(int bufferSize) {
+        Output out = OUTPUTS.get();
+        if (out == null) {
+            return new Output(bufferSize, MAX_BUFFER_SIZE);
+        }
+        OUTPUTS.remove();
+        out.clear();
+        return out;
+    }
+
+    private static void releaseOutput(Output out) {
+        // Do not hold on to buffers grown by unusually large objects
+        if (out.getBuffer().length <= MAX_POOLED_BUFFER_SIZE) {
+            out.setOutputStream(null);
+            out.clear();
+            OUTPUTS.set(out);
         }
     }
 
@@ -322,13 +353,19 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @param bufferSize size of the buffer in front of the stream
      */
     public void serialize(final Object obj, final OutputStream stream, final int bufferSize) {
-        ByteBufferOutput out = new ByteBufferOutput(stream, bufferSize);
-        Kryo kryo = borrow();
+        // the pooled buffer only stages the bytes on their way to the stream
+        Output out = borrowOutput(bufferSize);
+        out.setOutputStream(stream);
         try {
-            kryo.writeClassAndObject(out, obj);
-            out.flush();
+            Kryo kryo = borrow();
+            try {
+                kryo.writeClassAndObject(out, obj);
+                out.flush();
+            } finally {
+                release(kryo);
+            }
         } finally {
-            release(kryo);
+            releaseOutput(out);
         }
     }
 
@@ -97,6 +97,34 @@ public class DijkstraGraphSearchTest extends BreadthFirstSearchTest {
         executeSinglePathSearch(graphSearch(), graph, A, G, weight, 1, 4.0);
     }
 
+    @Test
+    public void sourceTree() {
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D, E, F, G),
+                                          of(new TestEdge(A, B, 1),
+                                             new TestEdge(A, C, 1),
+                                             new TestEdge(B, D, 1),
+                                             new TestEdge(C, D, 1),
+                                             new TestEdge(D, E, 1),
+                                             new TestEdge(D, F, 1),
+                                             new TestEdge(E, G, 1),
+                                             new TestEdge(F, G, 1),
+                                             new TestEdge(A, G, 4)));
+        DijkstraGraphSearch<TestVertex, TestEdge> search = new DijkstraGraphSearch<>();
+        GraphPathSearch.Result<TestVertex, TestEdge> tree =
+                search.searchTree(graph, A, weight, GraphPathSearch.ALL_PATHS);
+        assertEquals("no paths expected", 0, tree.paths().size());
+
+        // Each destination must yield the same paths as a dedicated search.
+        for (TestVertex dst : of(B, C, D, E, F, G)) {
+            Set<Path<TestVertex, TestEdge>> expected =
+                    search.search(graph, A, dst, weight, GraphPathSearch.ALL_PATHS).paths();
+            assertEquals("incorrect paths", expected,
+                         search.buildPaths(tree, dst, GraphPathSearch.ALL_PATHS));
+        }
+        assertEquals("no paths expected", 0,
+                     search.buildPaths(tree, A, GraphPathSearch.ALL_PATHS).size());
+    }
+
     @Test
     public void dualEdgeMultiplePath() {
         graph = new AdjacencyListsGraph<>(of(A, B, C, D, E, F, G, H),
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for classes {@link EthernetView} and {@link Ipv4View}.
+ */
+public class EthernetViewTest {
+
+    private static final MacAddress SRC_MAC = MacAddress.valueOf("00:00:00:00:00:01");
+    private static final MacAddress DST_MAC = MacAddress.valueOf("00:00:00:00:00:02");
+
+    private static Ethernet udpFrame(short vlanId) {
+        UDP udp = new UDP();
+        udp.setSourcePort(5000);
+        udp.setDestinationPort(53);
+        udp.setPayload(new Data(new byte[] {1, 2, 3, 4}));
+
+        IPv4 ipv4 = new IPv4();
+        ipv4.setSourceAddress("10.0.0.1");
+        ipv4.setDestinationAddress("10.0.0.2");
+        ipv4.setTtl((byte) 64);
+        ipv4.setProtocol(IPv4.PROTOCOL_UDP);
+        ipv4.setPayload(udp);
+
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress(SRC_MAC);
+        eth.setDestinationMACAddress(DST_MAC);
+        eth.setEtherType(Ethernet.TYPE_IPV4);
+        eth.setVlanID(vlanId);
+        eth.setPriorityCode((byte) 3);
+        eth.setPayload(ipv4);
+        return eth;
+    }
+
+    @Test
+    public void untaggedFrame() throws Exception {
+        Ethernet eth = udpFrame(Ethernet.VLAN_UNTAGGED);
+        ByteBuffer buffer = ByteBuffer.wrap(eth.serialize());
+        EthernetView view = EthernetView.of(buffer);
+
+        assertEquals(DST_MAC, view.destinationMac());
+        assertEquals(SRC_MAC, view.sourceMac());
+        assertEquals(Ethernet.TYPE_IPV4, view.etherType());
+        assertEquals(Ethernet.VLAN_UNTAGGED, view.vlanId());
+        assertFalse(view.isBroadcast());
+        assertFalse(view.isMulticast());
+
+        Ipv4View ipv4 = view.ipv4();
+        assertEquals(4, ipv4.version());
+        assertEquals(20, ipv4.headerLength());
+        assertEquals(Ip4Address.valueOf("10.0.0.1"), ipv4.sourceAddress());
+        assertEquals(Ip4Address.valueOf("10.0.0.2"), ipv4.destinationAddress());
+        assertEquals(64, ipv4.ttl());
+        assertEquals(IPv4.PROTOCOL_UDP, ipv4.protocol());
+        assertEquals(TpPort.tpPort(5000), ipv4.sourcePort());
+        assertEquals(TpPort.tpPort(53), ipv4.destinationPort());
+        assertEquals(12, ipv4.payload().remaining());
+
+        // the view leaves the buffer untouched
+        assertEquals(0, buffer.position());
+        Ethernet parsed = view.parse();
+        assertEquals(SRC_MAC, parsed.getSourceMAC());
+        assertTrue(parsed.getPayload() instanceof IPv4);
+    }
+
+    @Test
+    public void taggedFrame() throws Exception {
+        Ethernet eth = udpFrame((short) 10);
+        EthernetView view = EthernetView.of(ByteBuffer.wrap(eth.serialize()));
+
+        assertEquals(Ethernet.TYPE_IPV4, view.etherType());
+        assertEquals(10, view.vlanId());
+        assertEquals(3, view.priorityCode());
+        assertEquals(Ip4Address.valueOf("10.0.0.2"), view.ipv4().destinationAddress());
+        assertEquals(eth.getPayload().serialize().length, view.payload().remaining());
+    }
+
+    @Test
+    public void nonIpFrame() throws Exception {
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress(SRC_MAC);
+        eth.setDestinationMACAddress(MacAddress.BROADCAST);
+        eth.setEtherType(Ethernet.TYPE_LLDP);
+        eth.setPayload(new Data(new byte[] {1, 2}));
+        EthernetView view = EthernetView.of(ByteBuffer.wrap(eth.serialize()));
+
+        assertTrue(view.isBroadcast());
+        assertEquals(Ethernet.TYPE_LLDP, view.etherType());
+        assertNull(view.ipv4());
+    }
+
+    @Test(expected = DeserializationException.class)
+    public void truncatedFrame() throws Exception {
+        EthernetView.of(ByteBuffer.wrap(new byte[10]));
+    }
+}
@@ -15,10 +15,12 @@
  */
 package org.onosproject.rest.resources;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.ListMultimap;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.app.ApplicationService;
@@ -27,6 +29,7 @@ import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.rest.AbstractWebResource;
@@ -42,14 +45,18 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.StreamSupport;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.onlab.util.Tools.nullIsNotFound;
 
 /**
@@ -74,25 +81,31 @@ public class FlowsWebResource extends AbstractWebResource {
     private final ArrayNode flowsNode = root.putArray(FLOWS);
 
     /**
-     * Gets all flow entries. Returns array of all flow rules in the system.
+     * Gets all flow entries. Returns array of all flow rules in the system,
+     * optionally narrowed down to those of an application, a table or in
+     * a given state, and paged through with an offset and a limit.
      *
+     * @param appId   application name (optional)
+     * @param tableId table identifier (optional)
+     * @param state   flow entry state (optional)
+     * @param offset  number of matching flows to skip (optional)
+     * @param limit   maximum number of flows to return (optional)
      * @return 200 OK with a collection of flows
      * @onos.rsModel FlowEntries
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getFlows() {
+    public Response getFlows(@QueryParam("appId") String appId,
+                             @QueryParam("tableId") Integer tableId,
+                             @QueryParam("state") String state,
+                             @QueryParam("offset") Integer offset,
+                             @QueryParam("limit") Integer limit) {
+        final Predicate<FlowEntry> filter = flowFilter(appId, tableId, state);
         final Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (final Device device : devices) {
-            final Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (final FlowEntry entry : flowEntries) {
-                    flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                }
-            }
-        }
+        final Iterable<FlowEntry> flowEntries = Iterables.concat(
+                Iterables.transform(devices, device -> flowEntries(device.id(), filter)));
 
-        return ok(root).build();
+        return ok(streamFlows(flowEntries, offset, limit)).build();
     }
 
     /**
@@ -136,9 +149,16 @@ public class FlowsWebResource extends AbstractWebResource {
 
     /**
      * Gets flow entries of a device. Returns array of all flow rules for the
-     * specified device.
+     * specified device, optionally narrowed down to those of an application,
+     * a table or in a given state, and paged through with an offset and a
+     * limit.
      *
      * @param deviceId device identifier
+     * @param appId    application name (optional)
+     * @param tableId  table identifier (optional)
+     * @param state    flow entry state (optional)
+     * @param offset   number of matching flows to skip (optional)
+     * @param limit    maximum number of flows to return (optional)
      * @return 200 OK with a collection of flows of given device
      * @onos.rsModel FlowEntries
      */
@@ -146,17 +166,21 @@ public class FlowsWebResource extends AbstractWebResource {
     @Produces(MediaType.APPLICATION_JSON)
     // TODO: we need to add "/device" suffix to the path to differentiate with appId
     @Path("{deviceId}")
-    public Response getFlowByDeviceId(@PathParam("deviceId") String deviceId) {
+    public Response getFlowByDeviceId(@PathParam("deviceId") String deviceId,
+                                      @QueryParam("appId") String appId,
+                                      @QueryParam("tableId") Integer tableId,
+                                      @QueryParam("state") String state,
+                                      @QueryParam("offset") Integer offset,
+                                      @QueryParam("limit") Integer limit) {
+        final Predicate<FlowEntry> filter = flowFilter(appId, tableId, state);
         final Iterable<FlowEntry> flowEntries =
-                service.getFlowEntries(DeviceId.deviceId(deviceId));
+                flowEntries(DeviceId.deviceId(deviceId), filter);
 
-        if (flowEntries == null || !flowEntries.iterator().hasNext()) {
+        // Without a filter, no flows at all means no such device
+        if (filter == null && !flowEntries.iterator().hasNext()) {
             throw new ItemNotFoundException(DEVICE_NOT_FOUND);
         }
-        for (final FlowEntry entry : flowEntries) {
-            flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-        }
-        return ok(root).build();
+        return ok(streamFlows(flowEntries, offset, limit)).build();
     }
 
     /**
@@ -343,4 +367,60 @@ public class FlowsWebResource extends AbstractWebResource {
         service.removeFlowRules(rulesToRemove.toArray(new FlowEntry[0]));
         return Response.noContent().build();
     }
+
+    // Builds the flow entry filter from the query parameters; null if none.
+    private Predicate<FlowEntry> flowFilter(String appId, Integer tableId, String state) {
+        Predicate<FlowEntry> filter = null;
+        if (appId != null) {
+            final ApplicationService appService = get(ApplicationService.class);
+            final short id = nullIsNotFound(appService.getId(appId), APP_ID_NOT_FOUND).id();
+            filter = entry -> entry.appId() == id;
+        }
+        if (tableId != null) {
+            filter = and(filter, entry -> entry.tableId() == tableId);
+        }
+        if (state != null) {
+            final FlowEntryState flowState = FlowEntryState.valueOf(state.toUpperCase());
+            filter = and(filter, entry -> entry.state() == flowState);
+        }
+        return filter;
+    }
+
+    private static Predicate<FlowEntry> and(Predicate<FlowEntry> first,
+                                            Predicate<FlowEntry> second) {
+        return first == null ? second : first.and(second);
+    }
+
+    // Fetches the device flow entries, filtered by the flow service if needed.
+    private Iterable<FlowEntry> flowEntries(DeviceId deviceId, Predicate<FlowEntry> filter) {
+        final Iterable<FlowEntry> flowEntries = filter == null ?
+                service.getFlowEntries(deviceId) :
+                service.getFlowEntries(deviceId, filter);
+        return flowEntries == null ? Collections.emptyList() : flowEntries;
+    }
+
+    // Writes the requested page of flow entries straight to the response
+    // stream, one entry at a time, instead of building the whole JSON tree.
+    private StreamingOutput streamFlows(Iterable<FlowEntry> flowEntries,
+                                        Integer offset, Integer limit) {
+        checkArgument(offset == null || offset >= 0, "Offset must not be negative");
+        checkArgument(limit == null || limit >= 0, "Limit must not be negative");
+
+        Iterable<FlowEntry> page = offset == null ? flowEntries :
+                Iterables.skip(flowEntries, offset);
+        final Iterable<FlowEntry> entries = limit == null ? page :
+                Iterables.limit(page, limit);
+
+        return output -> {
+            final JsonGenerator generator = mapper().getFactory().createGenerator(output);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart(FLOWS);
+            for (final FlowEntry entry : entries) {
+                mapper().writeTree(generator, codec(FlowEntry.class).encode(entry, this));
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.flush();
+        };
+    }
 }
@@ -800,6 +800,31 @@ public class FlowsResourceTest extends ResourceTest {
         assertThat(jsonFlows, hasFlow(flow6));
     }
 
+    /**
+     * Tests paging through the flows of a device with offset and limit.
+     */
+    @Test
+    public void testFlowsSingleDevicePaged() {
+        setupMockFlows();
+        expect(mockFlowService.getFlowEntries(anyObject()))
+                .andReturn(ImmutableSet.of(flow5, flow6)).anyTimes();
+        replay(mockFlowService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+
+        String response = wt.path("flows/" + deviceId3)
+                .queryParam("limit", 1).request().get(String.class);
+        JsonArray jsonFlows = Json.parse(response).asObject().get("flows").asArray();
+        assertThat(jsonFlows.size(), is(1));
+        assertThat(jsonFlows, hasFlow(flow5));
+
+        response = wt.path("flows/" + deviceId3)
+                .queryParam("offset", 1).queryParam("limit", 5).request().get(String.class);
+        jsonFlows = Json.parse(response).asObject().get("flows").asArray();
+        assertThat(jsonFlows.size(), is(1));
+        assertThat(jsonFlows, hasFlow(flow6));
+    }
+
     /**
      * Tests the result of a rest api GET for a device.
      */